@@ -4,13 +4,16 @@ import bio.terra.pearl.api.admin.api.SiteImageApi;
 import bio.terra.pearl.api.admin.service.AuthUtilService;
 import bio.terra.pearl.api.admin.service.siteContent.SiteImageExtService;
 import bio.terra.pearl.core.model.admin.AdminUser;
-import bio.terra.pearl.core.model.site.SiteImage;
+import bio.terra.pearl.core.service.site.SiteImageService;
+import bio.terra.pearl.core.service.site.SiteImageService.SiteImageContent;
 import java.io.IOException;
-import java.net.URLConnection;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import javax.servlet.http.HttpServletRequest;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -39,9 +42,9 @@ public class SiteImageController implements SiteImageApi {
   @Override
   public ResponseEntity<Resource> get(
       String portalShortcode, String envName, String cleanFileName, Integer version) {
-    Optional<SiteImage> siteImageOpt =
-        siteImageExtService.findOne(portalShortcode, cleanFileName, version);
-    return convertToResourceResponse(siteImageOpt);
+    Optional<SiteImageContent> contentOpt =
+        siteImageExtService.findContent(portalShortcode, cleanFileName, version);
+    return convertToResourceResponse(contentOpt);
   }
 
   @Override
@@ -63,22 +66,29 @@ public class SiteImageController implements SiteImageApi {
     }
   }
 
-  private ResponseEntity<Resource> convertToResourceResponse(Optional<SiteImage> imageOpt) {
-    if (imageOpt.isPresent()) {
-      MediaType contentType;
-      SiteImage image = imageOpt.get();
-      if (image.getCleanFileName().endsWith(".ico")) {
-        contentType = MediaType.valueOf("image/x-icon");
-      } else {
-        contentType =
-            MediaType.parseMediaType(
-                URLConnection.guessContentTypeFromName(image.getCleanFileName()));
-      }
-      return ResponseEntity.ok()
-          .contentType(contentType)
-          .body(new ByteArrayResource(image.getData()));
-    } else {
+  /**
+   * a version of an image is never changed once uploaded, so the response can be cached
+   * indefinitely. If-None-Match requests get a 304 via the ETag.
+   */
+  private ResponseEntity<Resource> convertToResourceResponse(Optional<SiteImageContent> imageOpt) {
+    if (imageOpt.isEmpty()) {
       return ResponseEntity.notFound().build();
     }
+    SiteImageContent image = imageOpt.get();
+    ResponseEntity.BodyBuilder builder =
+        ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(image.contentType()))
+            .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable());
+    if (image.gzippedData() == null) {
+      return builder.eTag(image.etag()).body(new ByteArrayResource(image.data()));
+    }
+    builder.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    if (SiteImageService.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+      return builder
+          .eTag(image.gzippedEtag())
+          .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+          .body(new ByteArrayResource(image.gzippedData()));
+    }
+    return builder.eTag(image.etag()).body(new ByteArrayResource(image.data()));
   }
 }
@@ -5,6 +5,7 @@ import bio.terra.pearl.api.admin.service.AuthUtilService;
 import bio.terra.pearl.api.admin.service.enrollee.EnrolleeExtService;
 import bio.terra.pearl.core.model.EnvironmentName;
 import bio.terra.pearl.core.model.admin.AdminUser;
+import bio.terra.pearl.core.model.participant.EnrolleeSearchPage;
 import bio.terra.pearl.core.service.participant.search.facets.FacetValueFactory;
 import bio.terra.pearl.core.service.participant.search.facets.sql.SqlSearchableFacet;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -56,6 +57,61 @@ public class EnrolleeSearchController implements EnrolleeSearchApi {
     return ResponseEntity.ok(results);
   }
 
+  /**
+   * returns a single sorted page of results. Pass the nextCursor of the returned page to get the
+   * next one
+   */
+  @Override
+  public ResponseEntity<Object> searchPage(
+      String portalShortcode,
+      String studyShortcode,
+      String envName,
+      String facetString,
+      String sortField,
+      String sortDir,
+      String cursor,
+      Integer pageSize) {
+    EnvironmentName environmentName = EnvironmentName.valueOfCaseInsensitive(envName);
+    AdminUser adminUser = authUtilService.requireAdminUser(request);
+
+    List<SqlSearchableFacet> facetValues;
+    try {
+      facetValues = facetsFromJsonString(facetString);
+    } catch (Exception e) {
+      return ResponseEntity.unprocessableEntity().body(e.getMessage());
+    }
+    EnrolleeSearchPage page =
+        enrolleeExtService.searchPage(
+            adminUser,
+            portalShortcode,
+            studyShortcode,
+            environmentName,
+            facetValues,
+            sortField,
+            "asc".equalsIgnoreCase(sortDir),
+            cursor,
+            pageSize);
+    return ResponseEntity.ok(page);
+  }
+
+  @Override
+  public ResponseEntity<Object> count(
+      String portalShortcode, String studyShortcode, String envName, String facetString) {
+    EnvironmentName environmentName = EnvironmentName.valueOfCaseInsensitive(envName);
+    AdminUser adminUser = authUtilService.requireAdminUser(request);
+
+    List<SqlSearchableFacet> facetValues;
+    try {
+      facetValues = facetsFromJsonString(facetString);
+    } catch (Exception e) {
+      return ResponseEntity.unprocessableEntity().body(e.getMessage());
+    }
+    int count =
+        enrolleeExtService.count(
+            adminUser, portalShortcode, studyShortcode, environmentName, facetValues);
+    return ResponseEntity.ok(count);
+  }
+
   public List<SqlSearchableFacet> facetsFromJsonString(String facetString)
       throws JsonProcessingException {
     if (StringUtils.isEmpty(facetString)) {
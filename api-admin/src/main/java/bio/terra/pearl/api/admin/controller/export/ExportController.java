@@ -5,14 +5,19 @@ import bio.terra.pearl.api.admin.service.AuthUtilService;
 import bio.terra.pearl.api.admin.service.EnrolleeExportExtService;
 import bio.terra.pearl.core.model.EnvironmentName;
 import bio.terra.pearl.core.model.admin.AdminUser;
+import bio.terra.pearl.core.model.export.ExportJob;
 import bio.terra.pearl.core.service.export.ExportFileFormat;
 import bio.terra.pearl.core.service.export.instance.ExportOptions;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.ByteArrayOutputStream;
+import java.util.UUID;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 
@@ -47,7 +52,9 @@ public class ExportController implements ExportApi {
       Boolean stableIdsForOptions,
       Boolean includeOnlyMostRecent,
       String fileFormat,
-      Integer limit) {
+      Integer limit,
+      Integer parallelism,
+      Integer chunkSize) {
     EnvironmentName environmentName = EnvironmentName.valueOfCaseInsensitive(envName);
     AdminUser user = authUtilService.requireAdminUser(request);
 
@@ -57,7 +64,10 @@ public class ExportController implements ExportApi {
             stableIdsForOptions != null ? stableIdsForOptions : false,
             includeOnlyMostRecent != null ? includeOnlyMostRecent : false,
             fileFormat != null ? ExportFileFormat.valueOf(fileFormat) : ExportFileFormat.TSV,
-            limit);
+            limit,
+            parallelism,
+            chunkSize,
+            null);
 
     ByteArrayOutputStream baos = new ByteArrayOutputStream();
     enrolleeExportExtService.export(
@@ -90,4 +100,72 @@ public class ExportController implements ExportApi {
         exportOptions, portalShortcode, studyShortcode, environmentName, baos, user);
     return ResponseEntity.ok().body(new ByteArrayResource(baos.toByteArray()));
   }
+
+  /** submits a background export job. Poll getExportJob for its status, then download the output */
+  @Override
+  public ResponseEntity<Object> submitExportJob(
+      String portalShortcode, String studyShortcode, String envName, Object body) {
+    EnvironmentName environmentName = EnvironmentName.valueOfCaseInsensitive(envName);
+    AdminUser user = authUtilService.requireAdminUser(request);
+    ExportOptions requestedOptions = objectMapper.convertValue(body, ExportOptions.class);
+    ExportOptions exportOptions =
+        new ExportOptions(
+            requestedOptions.splitOptionsIntoColumns(),
+            requestedOptions.stableIdsForOptions(),
+            requestedOptions.onlyIncludeMostRecent(),
+            requestedOptions.fileFormat() != null
+                ? requestedOptions.fileFormat()
+                : ExportFileFormat.TSV,
+            requestedOptions.limit(),
+            requestedOptions.parallelism(),
+            requestedOptions.chunkSize(),
+            requestedOptions.updatedSince());
+    ExportJob job =
+        enrolleeExportExtService.submitJob(
+            exportOptions, portalShortcode, studyShortcode, environmentName, user);
+    return ResponseEntity.ok(job);
+  }
+
+  @Override
+  public ResponseEntity<Object> getExportJob(
+      String portalShortcode, String studyShortcode, String envName, UUID jobId) {
+    EnvironmentName environmentName = EnvironmentName.valueOfCaseInsensitive(envName);
+    AdminUser user = authUtilService.requireAdminUser(request);
+    ExportJob job =
+        enrolleeExportExtService.getJob(
+            jobId, portalShortcode, studyShortcode, environmentName, user);
+    return ResponseEntity.ok(job);
+  }
+
+  /**
+   * streams the job's output file. Since the body is a Resource of known length, Spring handles
+   * Range headers, so interrupted downloads can be resumed rather than restarted
+   */
+  @Override
+  public ResponseEntity<Resource> downloadExportJob(
+      String portalShortcode, String studyShortcode, String envName, UUID jobId) {
+    EnvironmentName environmentName = EnvironmentName.valueOfCaseInsensitive(envName);
+    AdminUser user = authUtilService.requireAdminUser(request);
+    ExportJob job =
+        enrolleeExportExtService.getJob(
+            jobId, portalShortcode, studyShortcode, environmentName, user);
+    Resource file =
+        enrolleeExportExtService.getJobFile(
+            jobId, portalShortcode, studyShortcode, environmentName, user);
+    String filename = "export-%s.%s".formatted(jobId, fileExtension(job.getFileFormat()));
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+        .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+        .header(
+            HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment().filename(filename).build().toString())
+        .body(file);
+  }
+
+  private String fileExtension(ExportFileFormat fileFormat) {
+    if (fileFormat == ExportFileFormat.EXCEL) {
+      return "xlsx";
+    }
+    return fileFormat.name().toLowerCase();
+  }
 }
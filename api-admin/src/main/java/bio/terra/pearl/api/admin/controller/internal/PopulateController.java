@@ -5,6 +5,7 @@ import bio.terra.pearl.api.admin.service.AuthUtilService;
 import bio.terra.pearl.api.admin.service.PopulateExtService;
 import bio.terra.pearl.core.model.EnvironmentName;
 import bio.terra.pearl.core.model.admin.AdminUser;
+import bio.terra.pearl.populate.service.SyntheticEnrolleeGenerator;
 import javax.servlet.http.HttpServletRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -100,4 +101,36 @@ public class PopulateController implements PopulateApi {
         portalShortcode, environmentName, studyShortcode, numEnrollees, user);
     return ResponseEntity.noContent().build();
   }
+
+  @Override
+  public ResponseEntity<Object> generateSyntheticEnrollees(
+      String portalShortcode,
+      String envName,
+      String studyShortcode,
+      Integer numEnrollees,
+      Long seed,
+      Integer surveyResponsesPerEnrollee,
+      Integer answersPerResponse,
+      Integer kitRequestsPerEnrollee) {
+    EnvironmentName environmentName = EnvironmentName.valueOf(envName);
+    AdminUser user = authUtilService.requireAdminUser(request);
+    var specBuilder =
+        SyntheticEnrolleeGenerator.GenerationSpec.builder().numEnrollees(numEnrollees);
+    if (seed != null) {
+      specBuilder.seed(seed);
+    }
+    if (surveyResponsesPerEnrollee != null) {
+      specBuilder.surveyResponsesPerEnrollee(surveyResponsesPerEnrollee);
+    }
+    if (answersPerResponse != null) {
+      specBuilder.answersPerResponse(answersPerResponse);
+    }
+    if (kitRequestsPerEnrollee != null) {
+      specBuilder.kitRequestsPerEnrollee(kitRequestsPerEnrollee);
+    }
+    var stats =
+        populateExtService.generateSyntheticEnrollees(
+            portalShortcode, environmentName, studyShortcode, specBuilder, user);
+    return ResponseEntity.ok(stats);
+  }
 }
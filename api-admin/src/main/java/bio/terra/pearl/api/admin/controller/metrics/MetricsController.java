@@ -6,6 +6,7 @@ import bio.terra.pearl.api.admin.service.MetricsExtService;
 import bio.terra.pearl.core.dao.metrics.MetricName;
 import bio.terra.pearl.core.model.EnvironmentName;
 import bio.terra.pearl.core.model.admin.AdminUser;
+import bio.terra.pearl.core.model.metrics.MetricBucket;
 import javax.servlet.http.HttpServletRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -27,13 +28,19 @@ public class MetricsController implements MetricsApi {
 
   @Override
   public ResponseEntity<Object> metricByName(
-      String portalShortcode, String studyShortcode, String envName, String metricName) {
+      String portalShortcode,
+      String studyShortcode,
+      String envName,
+      String metricName,
+      String bucket) {
     EnvironmentName environmentName = EnvironmentName.valueOfCaseInsensitive(envName);
     MetricName metric = MetricName.valueOf(metricName.toUpperCase());
+    MetricBucket metricBucket =
+        bucket == null ? MetricBucket.DAY : MetricBucket.valueOf(bucket.toUpperCase());
     AdminUser adminUser = authUtilService.requireAdminUser(request);
     var result =
         metricsExtService.loadMetrics(
-            adminUser, portalShortcode, studyShortcode, environmentName, metric);
+            adminUser, portalShortcode, studyShortcode, environmentName, metric, metricBucket);
     return ResponseEntity.ok(result);
   }
 }
@@ -3,12 +3,13 @@ package bio.terra.pearl.api.admin.service;
 import bio.terra.common.exception.UnauthorizedException;
 import bio.terra.common.iam.BearerTokenFactory;
 import bio.terra.pearl.core.model.admin.AdminUser;
+import bio.terra.pearl.core.model.admin.AdminUserWithPermissions;
 import bio.terra.pearl.core.model.participant.Enrollee;
 import bio.terra.pearl.core.model.portal.Portal;
 import bio.terra.pearl.core.model.study.PortalStudy;
 import bio.terra.pearl.core.model.study.StudyEnvironment;
 import bio.terra.pearl.core.model.survey.Survey;
-import bio.terra.pearl.core.service.admin.AdminUserService;
+import bio.terra.pearl.core.service.admin.AdminUserTokenCache;
 import bio.terra.pearl.core.service.exception.NotFoundException;
 import bio.terra.pearl.core.service.exception.PermissionDeniedException;
 import bio.terra.pearl.core.service.participant.EnrolleeService;
@@ -25,7 +26,7 @@ import org.springframework.stereotype.Service;
 /** Utility service for common auth-related methods */
 @Service
 public class AuthUtilService {
-  private AdminUserService adminUserService;
+  private AdminUserTokenCache adminUserTokenCache;
   private BearerTokenFactory bearerTokenFactory;
   private PortalService portalService;
   private PortalStudyService portalStudyService;
@@ -33,13 +34,13 @@ public class AuthUtilService {
   private SurveyService surveyService;
 
   public AuthUtilService(
-      AdminUserService adminUserService,
+      AdminUserTokenCache adminUserTokenCache,
       BearerTokenFactory bearerTokenFactory,
       PortalService portalService,
       PortalStudyService portalStudyService,
       EnrolleeService enrolleeService,
       SurveyService surveyService) {
-    this.adminUserService = adminUserService;
+    this.adminUserTokenCache = adminUserTokenCache;
     this.bearerTokenFactory = bearerTokenFactory;
     this.portalService = portalService;
     this.portalStudyService = portalStudyService;
@@ -50,13 +51,12 @@ public class AuthUtilService {
   /** gets the user from the request, throwing an exception if not present */
   public AdminUser requireAdminUser(HttpServletRequest request) {
     String token = bearerTokenFactory.from(request).getToken();
-    var decodedJWT = JWT.decode(token);
-    var email = decodedJWT.getClaim("email").asString();
-    Optional<AdminUser> userOpt = adminUserService.findByUsername(email);
+    Optional<AdminUserWithPermissions> userOpt = adminUserTokenCache.findByToken(token);
     if (userOpt.isEmpty()) {
+      var email = JWT.decode(token).getClaim("email").asString();
       throw new UnauthorizedException("User not found: " + email);
     }
-    return userOpt.get();
+    return userOpt.get().user();
   }
 
   /**
@@ -2,7 +2,7 @@ package bio.terra.pearl.api.admin.service;
 
 import bio.terra.pearl.core.dao.admin.AdminUserDao;
 import bio.terra.pearl.core.model.admin.AdminUserWithPermissions;
-import com.auth0.jwt.JWT;
+import bio.terra.pearl.core.service.admin.AdminUserTokenCache;
 import java.time.Instant;
 import java.util.Optional;
 import org.springframework.stereotype.Service;
@@ -11,9 +11,11 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 public class CurrentUserService {
   private AdminUserDao adminUserDao;
+  private AdminUserTokenCache adminUserTokenCache;
 
-  public CurrentUserService(AdminUserDao adminUserDao) {
+  public CurrentUserService(AdminUserDao adminUserDao, AdminUserTokenCache adminUserTokenCache) {
     this.adminUserDao = adminUserDao;
+    this.adminUserTokenCache = adminUserTokenCache;
   }
 
   public Optional<AdminUserWithPermissions> tokenLogin(String token) {
@@ -32,9 +34,7 @@ public class CurrentUserService {
   }
 
   protected Optional<AdminUserWithPermissions> loadByToken(String token) {
-    var decodedJWT = JWT.decode(token);
-    var email = decodedJWT.getClaim("email").asString();
-    return adminUserDao.findByUsernameWithPermissions(email);
+    return adminUserTokenCache.findByToken(token);
   }
 
   public void logout(String token) {
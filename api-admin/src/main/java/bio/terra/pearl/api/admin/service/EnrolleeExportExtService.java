@@ -2,13 +2,18 @@ package bio.terra.pearl.api.admin.service;
 
 import bio.terra.pearl.core.model.EnvironmentName;
 import bio.terra.pearl.core.model.admin.AdminUser;
+import bio.terra.pearl.core.model.export.ExportJob;
 import bio.terra.pearl.core.model.portal.Portal;
 import bio.terra.pearl.core.model.study.StudyEnvironment;
+import bio.terra.pearl.core.service.exception.NotFoundException;
 import bio.terra.pearl.core.service.export.DictionaryExportService;
 import bio.terra.pearl.core.service.export.EnrolleeExportService;
+import bio.terra.pearl.core.service.export.ExportJobService;
 import bio.terra.pearl.core.service.export.instance.ExportOptions;
 import bio.terra.pearl.core.service.study.StudyEnvironmentService;
 import java.io.OutputStream;
+import java.util.UUID;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -17,16 +22,22 @@ public class EnrolleeExportExtService {
   private StudyEnvironmentService studyEnvironmentService;
   private EnrolleeExportService enrolleeExportService;
   private DictionaryExportService dictionaryExportService;
+  private ExportJobService exportJobService;
+  private ScheduledExportJobService scheduledExportJobService;
 
   public EnrolleeExportExtService(
       AuthUtilService authUtilService,
       StudyEnvironmentService studyEnvironmentService,
       EnrolleeExportService enrolleeExportService,
-      DictionaryExportService dictionaryExportService) {
+      DictionaryExportService dictionaryExportService,
+      ExportJobService exportJobService,
+      ScheduledExportJobService scheduledExportJobService) {
     this.authUtilService = authUtilService;
     this.studyEnvironmentService = studyEnvironmentService;
     this.enrolleeExportService = enrolleeExportService;
     this.dictionaryExportService = dictionaryExportService;
+    this.exportJobService = exportJobService;
+    this.scheduledExportJobService = scheduledExportJobService;
   }
 
   public void export(
@@ -64,4 +75,61 @@ public class EnrolleeExportExtService {
       throw new RuntimeException(e);
     }
   }
+
+  /**
+   * submits an export job for the environment, and queues it to run on this node. If an identical
+   * export is already in progress, or has completed and is still current, that job is returned
+   * instead.
+   */
+  public ExportJob submitJob(
+      ExportOptions options,
+      String portalShortcode,
+      String studyShortcode,
+      EnvironmentName environmentName,
+      AdminUser user) {
+    StudyEnvironment studyEnv =
+        authToStudyEnv(portalShortcode, studyShortcode, environmentName, user);
+    ExportJob job = exportJobService.submit(options, studyEnv.getId(), user.getId());
+    scheduledExportJobService.queue(job.getId());
+    return job;
+  }
+
+  public ExportJob getJob(
+      UUID jobId,
+      String portalShortcode,
+      String studyShortcode,
+      EnvironmentName environmentName,
+      AdminUser user) {
+    StudyEnvironment studyEnv =
+        authToStudyEnv(portalShortcode, studyShortcode, environmentName, user);
+    ExportJob job =
+        exportJobService
+            .find(jobId)
+            .orElseThrow(() -> new NotFoundException("Export job not found"));
+    if (!job.getStudyEnvironmentId().equals(studyEnv.getId())) {
+      throw new NotFoundException("Export job not found");
+    }
+    return job;
+  }
+
+  /** returns the job's output file, if the job is complete and the file hasn't expired */
+  public Resource getJobFile(
+      UUID jobId,
+      String portalShortcode,
+      String studyShortcode,
+      EnvironmentName environmentName,
+      AdminUser user) {
+    ExportJob job = getJob(jobId, portalShortcode, studyShortcode, environmentName, user);
+    return exportJobService.getFileResource(job);
+  }
+
+  private StudyEnvironment authToStudyEnv(
+      String portalShortcode,
+      String studyShortcode,
+      EnvironmentName environmentName,
+      AdminUser user) {
+    authUtilService.authUserToPortal(user, portalShortcode);
+    authUtilService.authUserToStudy(user, portalShortcode, studyShortcode);
+    return studyEnvironmentService.findByStudy(studyShortcode, environmentName).get();
+  }
 }
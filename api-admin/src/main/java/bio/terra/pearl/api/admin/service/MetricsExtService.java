@@ -4,7 +4,8 @@ import bio.terra.pearl.core.dao.metrics.MetricName;
 import bio.terra.pearl.core.dao.metrics.MetricsDao;
 import bio.terra.pearl.core.model.EnvironmentName;
 import bio.terra.pearl.core.model.admin.AdminUser;
-import bio.terra.pearl.core.model.metrics.BasicMetricDatum;
+import bio.terra.pearl.core.model.metrics.BucketedMetricDatum;
+import bio.terra.pearl.core.model.metrics.MetricBucket;
 import bio.terra.pearl.core.model.metrics.TimeRange;
 import bio.terra.pearl.core.model.study.StudyEnvironment;
 import bio.terra.pearl.core.service.study.StudyEnvironmentService;
@@ -26,24 +27,21 @@ public class MetricsExtService {
     this.metricsDao = metricsDao;
   }
 
-  public List<BasicMetricDatum> loadMetrics(
+  /**
+   * returns counts of the metric per bucket, so the response size depends on the time span, not the
+   * study size
+   */
+  public List<BucketedMetricDatum> loadMetrics(
       AdminUser user,
       String portalShortcode,
       String studyShortcode,
       EnvironmentName environmentName,
-      MetricName metricName) {
+      MetricName metricName,
+      MetricBucket bucket) {
     authUtilService.authUserToStudy(user, portalShortcode, studyShortcode);
     StudyEnvironment studyEnv =
         studyEnvironmentService.findByStudy(studyShortcode, environmentName).get();
-    if (MetricName.STUDY_ENROLLMENT.equals(metricName)) {
-      return metricsDao.studyEnrollments(studyEnv.getId(), new TimeRange(null, null));
-    } else if (MetricName.STUDY_ENROLLEE_CONSENTED.equals(metricName)) {
-      return metricsDao.studyConsentedEnrollees(studyEnv.getId(), new TimeRange(null, null));
-    } else if (MetricName.STUDY_SURVEY_COMPLETION.equals(metricName)) {
-      return metricsDao.studySurveyCompletions(studyEnv.getId(), new TimeRange(null, null));
-    } else if (MetricName.STUDY_REQUIRED_SURVEY_COMPLETION.equals(metricName)) {
-      return metricsDao.studyRequiredSurveyCompletions(studyEnv.getId(), new TimeRange(null, null));
-    }
-    throw new IllegalArgumentException("Unrecognized metric name '" + metricName + "'");
+    return metricsDao.bucketedCounts(
+        metricName, studyEnv.getId(), bucket, new TimeRange(null, null));
   }
 }
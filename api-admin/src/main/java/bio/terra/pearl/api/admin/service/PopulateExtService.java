@@ -25,6 +25,7 @@ public class PopulateExtService {
   private SiteContentPopulator siteContentPopulator;
   private PortalParticipantUserPopulator portalParticipantUserPopulator;
   private AdminConfigPopulator adminConfigPopulator;
+  private SyntheticEnrolleeGenerator syntheticEnrolleeGenerator;
 
   public PopulateExtService(
       BaseSeedPopulator baseSeedPopulator,
@@ -33,7 +34,8 @@ public class PopulateExtService {
       PortalPopulator portalPopulator,
       SiteContentPopulator siteContentPopulator,
       PortalParticipantUserPopulator portalParticipantUserPopulator,
-      AdminConfigPopulator adminConfigPopulator) {
+      AdminConfigPopulator adminConfigPopulator,
+      SyntheticEnrolleeGenerator syntheticEnrolleeGenerator) {
     this.baseSeedPopulator = baseSeedPopulator;
     this.enrolleePopulator = enrolleePopulator;
     this.surveyPopulator = surveyPopulator;
@@ -41,6 +43,7 @@ public class PopulateExtService {
     this.siteContentPopulator = siteContentPopulator;
     this.portalParticipantUserPopulator = portalParticipantUserPopulator;
     this.adminConfigPopulator = adminConfigPopulator;
+    this.syntheticEnrolleeGenerator = syntheticEnrolleeGenerator;
   }
 
   public BaseSeedPopulator.SetupStats populateBaseSeed(AdminUser user) {
@@ -132,6 +135,21 @@ public class PopulateExtService {
         portalShortcode, envName, studyShortcode, usernamesToLink);
   }
 
+  /** generates synthetic enrollees for load testing -- kit requests are attributed to the user */
+  public SyntheticEnrolleeGenerator.GenerationStats generateSyntheticEnrollees(
+      String portalShortcode,
+      EnvironmentName envName,
+      String studyShortcode,
+      SyntheticEnrolleeGenerator.GenerationSpec.GenerationSpecBuilder specBuilder,
+      AdminUser user) {
+    authorizeUser(user);
+    return syntheticEnrolleeGenerator.generate(
+        portalShortcode,
+        envName,
+        studyShortcode,
+        specBuilder.creatingAdminUserId(user.getId()).build());
+  }
+
   protected void authorizeUser(AdminUser user) {
     if (user.isSuperuser()) {
       return;
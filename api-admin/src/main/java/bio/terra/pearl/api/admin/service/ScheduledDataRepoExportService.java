@@ -52,6 +52,21 @@ public class ScheduledDataRepoExportService {
     }
   }
 
+  /** ingests the enrollees that changed during the day into each dataset, at 2am */
+  @Scheduled(cron = "0 0 2 * * *")
+  @SchedulerLock(
+      name = "DataRepoExportService.ingestDeltas",
+      lockAtMostFor = "120m",
+      lockAtLeastFor = "1m")
+  public void ingestDeltas() {
+    boolean deltaIngestEnabled =
+        env.getProperty("env.tdr.deltaIngestEnabled", Boolean.class, false);
+    if (isTdrConfigured() && deltaIngestEnabled) {
+      logger.info("Running delta ingests for TDR datasets...");
+      dataRepoExportService.ingestDeltasForAllDatasets();
+    }
+  }
+
   public boolean isTdrConfigured() {
     final ImmutableSet<String> REQUIRED_TDR_ENV_VARS =
         ImmutableSet.of(
@@ -0,0 +1,79 @@
+package bio.terra.pearl.api.admin.service;
+
+import bio.terra.pearl.core.model.export.ExportJob;
+import bio.terra.pearl.core.service.export.ExportJobService;
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs export jobs on a small dedicated pool, so long exports don't tie up request threads or the
+ * scheduler. Jobs are queued as soon as they're submitted, and pending jobs are also polled for, so
+ * jobs submitted to a node that went down are picked up by another. ExportJobService claims each
+ * job atomically, so a job is only run once even if several nodes queue it.
+ */
+@Service
+public class ScheduledExportJobService {
+  private static final Logger logger = LoggerFactory.getLogger(ScheduledExportJobService.class);
+  /** how long completed export files are kept for download */
+  public static final Duration EXPORT_FILE_RETENTION = Duration.ofDays(1);
+  private final ExportJobService exportJobService;
+  private final ExecutorService jobExecutor;
+  private final Set<UUID> queuedJobIds = ConcurrentHashMap.newKeySet();
+
+  public ScheduledExportJobService(ExportJobService exportJobService, Environment env) {
+    this.exportJobService = exportJobService;
+    this.jobExecutor =
+        Executors.newFixedThreadPool(env.getProperty("env.export.jobThreads", Integer.class, 2));
+  }
+
+  /** queues the job to be run on this node, unless it is already queued */
+  public void queue(UUID jobId) {
+    if (!queuedJobIds.add(jobId)) {
+      return;
+    }
+    jobExecutor.execute(
+        () -> {
+          try {
+            exportJobService.run(jobId);
+          } catch (Exception e) {
+            logger.error("Error running export job {}", jobId, e);
+          } finally {
+            queuedJobIds.remove(jobId);
+          }
+        });
+  }
+
+  @Scheduled(timeUnit = TimeUnit.SECONDS, fixedDelay = 30, initialDelay = 30)
+  public void pollPendingJobs() {
+    for (ExportJob job : exportJobService.findPending()) {
+      queue(job.getId());
+    }
+  }
+
+  @Scheduled(timeUnit = TimeUnit.MINUTES, fixedDelay = 30, initialDelay = 5)
+  @SchedulerLock(
+      name = "ExportJobService.cleanUpJobs",
+      lockAtMostFor = "10m",
+      lockAtLeastFor = "1m")
+  public void cleanUpJobs() {
+    exportJobService.failAbandonedJobs();
+    exportJobService.expireCompletedJobs(EXPORT_FILE_RETENTION);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    jobExecutor.shutdownNow();
+  }
+}
@@ -0,0 +1,34 @@
+package bio.terra.pearl.api.admin.service;
+
+import bio.terra.pearl.core.service.metrics.MetricsRollupService;
+import java.util.concurrent.TimeUnit;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Service
+public class ScheduledMetricsRollupService {
+  private static final Logger logger = LoggerFactory.getLogger(ScheduledMetricsRollupService.class);
+  private final MetricsRollupService metricsRollupService;
+
+  public ScheduledMetricsRollupService(MetricsRollupService metricsRollupService) {
+    this.metricsRollupService = metricsRollupService;
+  }
+
+  /**
+   * Refresh the metric rollups every 15 minutes. Each refresh only recounts the hours with changed
+   * enrollees or tasks, so it is quick unless the rollups are new, when it counts all history.
+   */
+  @Scheduled(timeUnit = TimeUnit.MINUTES, fixedDelay = 15, initialDelay = 1)
+  @SchedulerLock(
+      name = "MetricsRollupService.refreshRollups",
+      lockAtLeastFor = "1m",
+      lockAtMostFor = "60m")
+  public void refreshRollups() {
+    logger.info("Refreshing metric rollups...");
+    metricsRollupService.refreshRollups();
+    logger.info("Finished refreshing metric rollups.");
+  }
+}
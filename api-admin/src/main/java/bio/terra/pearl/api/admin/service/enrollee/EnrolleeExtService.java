@@ -4,6 +4,7 @@ import bio.terra.pearl.api.admin.service.AuthUtilService;
 import bio.terra.pearl.core.model.EnvironmentName;
 import bio.terra.pearl.core.model.admin.AdminUser;
 import bio.terra.pearl.core.model.participant.Enrollee;
+import bio.terra.pearl.core.model.participant.EnrolleeSearchPage;
 import bio.terra.pearl.core.model.participant.EnrolleeSearchResult;
 import bio.terra.pearl.core.model.participant.WithdrawnEnrollee;
 import bio.terra.pearl.core.model.workflow.DataChangeRecord;
@@ -56,6 +57,31 @@ public class EnrolleeExtService {
     return enrolleeSearchService.search(studyShortcode, environmentName, facets);
   }
 
+  public EnrolleeSearchPage searchPage(
+      AdminUser user,
+      String portalShortcode,
+      String studyShortcode,
+      EnvironmentName environmentName,
+      List<SqlSearchableFacet> facets,
+      String sortField,
+      boolean ascending,
+      String cursor,
+      Integer pageSize) {
+    authUtilService.authUserToStudy(user, portalShortcode, studyShortcode);
+    return enrolleeSearchService.searchPage(
+        studyShortcode, environmentName, facets, sortField, ascending, cursor, pageSize);
+  }
+
+  public int count(
+      AdminUser user,
+      String portalShortcode,
+      String studyShortcode,
+      EnvironmentName environmentName,
+      List<SqlSearchableFacet> facets) {
+    authUtilService.authUserToStudy(user, portalShortcode, studyShortcode);
+    return enrolleeSearchService.count(studyShortcode, environmentName, facets);
+  }
+
   public List<Enrollee> findForKitManagement(
       AdminUser user,
       String portalShortcode,
@@ -76,10 +76,7 @@ public class NotificationExtService {
         enrolleeRuleService.fetchData(
             enrollees.stream().map(enrollee -> enrollee.getId()).toList());
     NotificationContextInfo context = notificationDispatcher.loadContextInfo(config);
-    for (var enrolleeRuleDatum : enrolleeRuleData) {
-      notificationDispatcher.dispatchNotification(
-          config, enrolleeRuleDatum, context, customMessages);
-    }
+    notificationDispatcher.dispatchNotifications(config, enrolleeRuleData, context, customMessages);
     return config;
   }
 }
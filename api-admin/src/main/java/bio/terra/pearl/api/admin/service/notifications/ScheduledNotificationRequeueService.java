@@ -0,0 +1,32 @@
+package bio.terra.pearl.api.admin.service.notifications;
+
+import bio.terra.pearl.core.service.notification.email.EnrolleeEmailService;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Requeues email notifications left READY by a node that shut down before its delivery queue was
+ * drained. The stale cutoff is well over the time a full queue takes to send, so live nodes' queued
+ * notifications aren't resent.
+ */
+@Service
+public class ScheduledNotificationRequeueService {
+  public static final Duration STALE_AFTER = Duration.ofHours(1);
+  private final EnrolleeEmailService enrolleeEmailService;
+
+  public ScheduledNotificationRequeueService(EnrolleeEmailService enrolleeEmailService) {
+    this.enrolleeEmailService = enrolleeEmailService;
+  }
+
+  @Scheduled(timeUnit = TimeUnit.MINUTES, fixedDelay = 10, initialDelay = 1)
+  @SchedulerLock(
+      name = "EnrolleeEmailService.requeueStaleNotifications",
+      lockAtMostFor = "10m",
+      lockAtLeastFor = "1m")
+  public void requeueStaleNotifications() {
+    enrolleeEmailService.requeueStaleNotifications(STALE_AFTER);
+  }
+}
@@ -5,6 +5,7 @@ import bio.terra.pearl.core.model.admin.AdminUser;
 import bio.terra.pearl.core.model.site.SiteImage;
 import bio.terra.pearl.core.model.site.SiteImageMetadata;
 import bio.terra.pearl.core.service.site.SiteImageService;
+import bio.terra.pearl.core.service.site.SiteImageService.SiteImageContent;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.stereotype.Service;
@@ -19,7 +20,8 @@ public class SiteImageExtService {
     this.authUtilService = authUtilService;
   }
 
-  public Optional<SiteImage> findOne(String portalShortcode, String cleanFileName, int version) {
+  public Optional<SiteImageContent> findContent(
+      String portalShortcode, String cleanFileName, int version) {
     /**
      * NOTE: No auth check here, since this is used for admin preview mode which does not send auth
      * headers with image requests. It is not expected that images will ever need to be secret. That
@@ -27,7 +29,7 @@ public class SiteImageExtService {
      * wouldn't hurt to make this authenticated so that people don't have access to images that
      * might not be published on a public-facing portal yet.
      */
-    return siteImageService.findOne(portalShortcode, cleanFileName, version);
+    return siteImageService.findContent(portalShortcode, cleanFileName, version);
   }
 
   public List<SiteImageMetadata> list(String portalShortcode, AdminUser operator) {
@@ -3,12 +3,13 @@ package bio.terra.pearl.api.admin.service;
 import bio.terra.pearl.core.model.EnvironmentName;
 import bio.terra.pearl.core.model.admin.AdminUser;
 import bio.terra.pearl.core.service.exception.PermissionDeniedException;
+import bio.terra.pearl.populate.service.SyntheticEnrolleeGenerator;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 public class PopulateExtServiceTests {
   private PopulateExtService emptyService =
-      new PopulateExtService(null, null, null, null, null, null, null);
+      new PopulateExtService(null, null, null, null, null, null, null, null);
 
   @Test
   public void baseSeedRequiresAuth() {
@@ -57,4 +58,18 @@ public class PopulateExtServiceTests {
         PermissionDeniedException.class,
         () -> emptyService.bulkPopulateEnrollees("ffo", EnvironmentName.live, "dfa", 100, user));
   }
+
+  @Test
+  public void syntheticEnrolleesRequiresAuth() {
+    AdminUser user = new AdminUser();
+    Assertions.assertThrows(
+        PermissionDeniedException.class,
+        () ->
+            emptyService.generateSyntheticEnrollees(
+                "ffo",
+                EnvironmentName.live,
+                "dfa",
+                SyntheticEnrolleeGenerator.GenerationSpec.builder().numEnrollees(100),
+                user));
+  }
 }
@@ -1,26 +1,38 @@
 package bio.terra.pearl.api.participant.controller;
 
 import bio.terra.pearl.api.participant.api.PortalApi;
+import bio.terra.pearl.api.participant.service.PortalExtService;
 import bio.terra.pearl.core.model.EnvironmentName;
-import bio.terra.pearl.core.model.portal.Portal;
-import bio.terra.pearl.core.service.portal.PortalService;
-import java.util.Optional;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 
 @Controller
 public class PortalController implements PortalApi {
-  private PortalService portalService;
+  private PortalExtService portalExtService;
 
-  public PortalController(PortalService portalService) {
-    this.portalService = portalService;
+  public PortalController(PortalExtService portalExtService) {
+    this.portalExtService = portalExtService;
   }
 
+  /**
+   * returns the portal with its participant-facing content. The response has an ETag and must be
+   * revalidated, so browsers send If-None-Match on each load -- Spring answers those with a 304
+   * when the ETag still matches.
+   */
   @Override
   public ResponseEntity<Object> get(String portalShortcode, String envName) {
     EnvironmentName environmentName = EnvironmentName.valueOfCaseInsensitive(envName);
-    Optional<Portal> portalOpt =
-        portalService.loadWithParticipantSiteContent(portalShortcode, environmentName, "en");
-    return ResponseEntity.of(portalOpt.map(portal -> portal));
+    return portalExtService
+        .loadParticipantContent(portalShortcode, environmentName, "en")
+        .<ResponseEntity<Object>>map(
+            content ->
+                ResponseEntity.ok()
+                    .eTag(content.etag())
+                    .cacheControl(CacheControl.noCache())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(content.json()))
+        .orElse(ResponseEntity.notFound().build());
   }
 }
@@ -1,12 +1,15 @@
 package bio.terra.pearl.api.participant.controller;
 
 import bio.terra.pearl.api.participant.api.SiteImageApi;
-import bio.terra.pearl.core.model.site.SiteImage;
 import bio.terra.pearl.core.service.site.SiteImageService;
-import java.net.URLConnection;
+import bio.terra.pearl.core.service.site.SiteImageService.SiteImageContent;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.http.HttpServletRequest;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -14,31 +17,45 @@ import org.springframework.stereotype.Controller;
 @Controller
 public class SiteImageController implements SiteImageApi {
   private SiteImageService siteImageService;
+  private HttpServletRequest request;
 
-  public SiteImageController(SiteImageService siteImageService) {
+  public SiteImageController(SiteImageService siteImageService, HttpServletRequest request) {
     this.siteImageService = siteImageService;
+    this.request = request;
   }
 
   @Override
   public ResponseEntity<Resource> get(
       String portalShortcode, String envName, String cleanFileName, Integer version) {
-    Optional<SiteImage> siteImageOpt;
-
-    siteImageOpt = siteImageService.findOne(portalShortcode, cleanFileName, version);
-    return convertToResourceResponse(siteImageOpt);
+    Optional<SiteImageContent> contentOpt =
+        siteImageService.findContent(portalShortcode, cleanFileName, version);
+    return convertToResourceResponse(contentOpt);
   }
 
-  private ResponseEntity<Resource> convertToResourceResponse(Optional<SiteImage> imageOpt) {
-    if (imageOpt.isPresent()) {
-      SiteImage image = imageOpt.get();
-      MediaType contentType =
-          MediaType.parseMediaType(
-              URLConnection.guessContentTypeFromName(image.getCleanFileName()));
-      return ResponseEntity.ok()
-          .contentType(contentType)
-          .body(new ByteArrayResource(image.getData()));
-    } else {
+  /**
+   * the url includes the image version, and a version is never changed once uploaded, so the
+   * response can be cached by browsers and CDNs indefinitely. If-None-Match requests get a 304 via
+   * the ETag.
+   */
+  private ResponseEntity<Resource> convertToResourceResponse(Optional<SiteImageContent> imageOpt) {
+    if (imageOpt.isEmpty()) {
       return ResponseEntity.notFound().build();
     }
+    SiteImageContent image = imageOpt.get();
+    ResponseEntity.BodyBuilder builder =
+        ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(image.contentType()))
+            .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable());
+    if (image.gzippedData() == null) {
+      return builder.eTag(image.etag()).body(new ByteArrayResource(image.data()));
+    }
+    builder.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    if (SiteImageService.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+      return builder
+          .eTag(image.gzippedEtag())
+          .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+          .body(new ByteArrayResource(image.gzippedData()));
+    }
+    return builder.eTag(image.etag()).body(new ByteArrayResource(image.data()));
   }
 }
@@ -4,18 +4,32 @@ import bio.terra.common.exception.UnauthorizedException;
 import bio.terra.pearl.core.dao.participant.ParticipantUserDao;
 import bio.terra.pearl.core.model.EnvironmentName;
 import bio.terra.pearl.core.model.participant.Enrollee;
+import bio.terra.pearl.core.model.participant.MailingAddress;
 import bio.terra.pearl.core.model.participant.ParticipantUser;
 import bio.terra.pearl.core.model.participant.PortalParticipantUser;
+import bio.terra.pearl.core.model.participant.Profile;
+import bio.terra.pearl.core.model.workflow.ParticipantTask;
+import bio.terra.pearl.core.service.cache.TokenKey;
+import bio.terra.pearl.core.service.cache.VersionedEntityCache;
 import bio.terra.pearl.core.service.participant.EnrolleeService;
 import bio.terra.pearl.core.service.participant.PortalParticipantUserService;
 import bio.terra.pearl.core.service.participant.ProfileService;
 import bio.terra.pearl.core.service.workflow.ParticipantTaskService;
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,6 +42,37 @@ public class CurrentUserService {
   private ParticipantTaskService participantTaskService;
   private ProfileService profileService;
 
+  /**
+   * the portal user and hydrated enrollees, since these are reloaded on every page load. Entries
+   * are keyed on a version read from the database on each request (see
+   * PortalParticipantUserService.findEnrolleeDataVersion), so changes made from any node, or from
+   * the admin tool, are picked up on the next request.
+   */
+  private final VersionedEntityCache<PortalUserKey, PortalUserWithEnrollees> enrolleeCache =
+      new VersionedEntityCache<>(
+          "participantLogin",
+          MAX_CACHED_ENROLLEE_WEIGHT,
+          VersionedEntityCache.DEFAULT_TIME_TO_LIVE,
+          PortalUserWithEnrollees::weight,
+          PortalUserWithEnrollees::copy);
+
+  private static final long MAX_CACHED_ENROLLEE_WEIGHT = 100_000;
+
+  /**
+   * the user for each recently seen token, so authenticating requests doesn't need a query. Users
+   * are only changed from this app at login, which doesn't use this cache, so entries live until
+   * the token expires, capped so that changes from the admin tool (e.g. withdrawal) are picked up.
+   */
+  private final VersionedEntityCache<TokenKey, ParticipantUser> tokenCache =
+      new VersionedEntityCache<>(
+          "participantUserToken",
+          MAX_CACHED_TOKENS,
+          Duration.ofMinutes(5),
+          user -> 1,
+          CurrentUserService::copyUser);
+
+  private static final long MAX_CACHED_TOKENS = 20_000;
+
   public CurrentUserService(
       ParticipantUserDao participantUserDao,
       PortalParticipantUserService portalParticipantUserService,
@@ -72,36 +117,139 @@ public class CurrentUserService {
     return loadFromUser(userOpt.get(), portalShortcode);
   }
 
+  /** loads the user's enrollees for the portal, with their tasks and profiles attached */
   public UserWithEnrollees loadFromUser(ParticipantUser user, String portalShortcode) {
-    Optional<PortalParticipantUser> portalParticipantUser =
-        portalParticipantUserService.findOne(user.getId(), portalShortcode);
-    if (portalParticipantUser.isEmpty()) {
+    // the version is read before loading, so the loaded enrollees are at least as new as the key
+    Optional<PortalUserWithEnrollees> portalUserWithEnrollees =
+        portalParticipantUserService
+            .findEnrolleeDataVersion(user.getId(), portalShortcode)
+            .flatMap(
+                version ->
+                    enrolleeCache.get(
+                        new PortalUserKey(user.getId(), portalShortcode, version),
+                        key ->
+                            loadPortalUserWithEnrollees(
+                                key.participantUserId(), key.portalShortcode())));
+    if (portalUserWithEnrollees.isEmpty()) {
       log.info("User {} not found for portal {}", user.getId(), portalShortcode);
       throw new UnauthorizedException("User not found for portal " + portalShortcode);
     }
+    user.getPortalParticipantUsers().add(portalUserWithEnrollees.get().portalUser());
+    return new UserWithEnrollees(user, portalUserWithEnrollees.get().enrollees());
+  }
+
+  /**
+   * loads the portal user and enrollees using the same number of queries regardless of how many
+   * enrollees the user has
+   */
+  private Optional<PortalUserWithEnrollees> loadPortalUserWithEnrollees(
+      UUID participantUserId, String portalShortcode) {
+    Optional<PortalParticipantUser> portalParticipantUser =
+        portalParticipantUserService.findOne(participantUserId, portalShortcode);
+    if (portalParticipantUser.isEmpty()) {
+      return Optional.empty();
+    }
     PortalParticipantUser portalUser = portalParticipantUser.get();
-    user.getPortalParticipantUsers().add(portalUser);
     List<Enrollee> enrollees = enrolleeService.findByPortalParticipantUser(portalUser);
+    List<UUID> enrolleeIds = enrollees.stream().map(Enrollee::getId).toList();
+    Map<UUID, Set<ParticipantTask>> tasksByEnrolleeId =
+        participantTaskService.findByEnrolleeIds(enrolleeIds);
+    List<UUID> profileIds =
+        enrollees.stream().map(Enrollee::getProfileId).filter(Objects::nonNull).distinct().toList();
+    Map<UUID, Profile> profilesById =
+        profileService.findAllWithMailingAddress(profileIds).stream()
+            .collect(Collectors.toMap(Profile::getId, Function.identity()));
     for (Enrollee enrollee : enrollees) {
       enrollee
           .getParticipantTasks()
-          .addAll(participantTaskService.findByEnrolleeId(enrollee.getId()));
-      enrollee.setProfile(
-          profileService.loadWithMailingAddress(enrollee.getProfileId()).orElse(null));
+          .addAll(tasksByEnrolleeId.getOrDefault(enrollee.getId(), Set.of()));
+      enrollee.setProfile(profilesById.get(enrollee.getProfileId()));
     }
-    return new UserWithEnrollees(user, enrollees);
+    return Optional.of(new PortalUserWithEnrollees(portalUser, enrollees));
   }
 
   public record UserWithEnrollees(ParticipantUser user, List<Enrollee> enrollees) {}
 
+  private record PortalUserKey(UUID participantUserId, String portalShortcode, String version) {}
+
+  private record PortalUserWithEnrollees(
+      PortalParticipantUser portalUser, List<Enrollee> enrollees) {
+    /** roughly the number of entities held */
+    long weight() {
+      return 1
+          + enrollees.size()
+          + enrollees.stream().mapToLong(enrollee -> enrollee.getParticipantTasks().size()).sum();
+    }
+
+    /** copies the portal user and enrollees, so that callers cannot modify the cached copy */
+    PortalUserWithEnrollees copy() {
+      PortalParticipantUser portalUserCopy = new PortalParticipantUser();
+      BeanUtils.copyProperties(portalUser, portalUserCopy);
+      return new PortalUserWithEnrollees(
+          portalUserCopy, enrollees.stream().map(PortalUserWithEnrollees::copyEnrollee).toList());
+    }
+
+    private static Enrollee copyEnrollee(Enrollee enrollee) {
+      Enrollee copy = new Enrollee();
+      // the enrollee's other collections aren't loaded, so are left empty in the copy
+      BeanUtils.copyProperties(
+          enrollee,
+          copy,
+          "profile",
+          "participantTasks",
+          "surveyResponses",
+          "consentResponses",
+          "participantNotes",
+          "kitRequests");
+      if (enrollee.getProfile() != null) {
+        Profile profileCopy = new Profile();
+        BeanUtils.copyProperties(enrollee.getProfile(), profileCopy, "mailingAddress");
+        if (enrollee.getProfile().getMailingAddress() != null) {
+          MailingAddress mailingAddressCopy = new MailingAddress();
+          BeanUtils.copyProperties(enrollee.getProfile().getMailingAddress(), mailingAddressCopy);
+          profileCopy.setMailingAddress(mailingAddressCopy);
+        }
+        copy.setProfile(profileCopy);
+      }
+      for (ParticipantTask task : enrollee.getParticipantTasks()) {
+        ParticipantTask taskCopy = new ParticipantTask();
+        BeanUtils.copyProperties(task, taskCopy);
+        copy.getParticipantTasks().add(taskCopy);
+      }
+      return copy;
+    }
+  }
+
   @Transactional
   public void logout(ParticipantUser user) {
     // we don't store token information locally yet (we might have to later if we take async
     // actions on their behalf). So for now, this is a no-op, B2C handles the logout mechanics
   }
 
+  /** finds the user identified by the token's email claim, from the cache if possible */
+  public Optional<ParticipantUser> findByToken(String token, EnvironmentName environmentName) {
+    DecodedJWT decodedJWT = JWT.decode(token);
+    return tokenCache.get(
+        TokenKey.of(token, environmentName.name()),
+        key ->
+            participantUserDao.findOne(decodedJWT.getClaim("email").asString(), environmentName),
+        decodedJWT.getExpiresAtAsInstant());
+  }
+
   public Optional<ParticipantUser> findByUsername(
       String username, EnvironmentName environmentName) {
     return participantUserDao.findOne(username, environmentName);
   }
+
+  /** copies the user, since callers may modify it (e.g. by attaching portal users) */
+  private static ParticipantUser copyUser(ParticipantUser user) {
+    ParticipantUser copy = new ParticipantUser();
+    // setEnvironment also sets the environment name, so it can't be given a null environment
+    BeanUtils.copyProperties(user, copy, "environment", "portalParticipantUsers");
+    if (user.getEnvironment() != null) {
+      copy.setEnvironment(user.getEnvironment());
+    }
+    copy.setPortalParticipantUsers(new HashSet<>(user.getPortalParticipantUsers()));
+    return copy;
+  }
 }
@@ -0,0 +1,90 @@
+package bio.terra.pearl.api.participant.service;
+
+import bio.terra.pearl.core.model.EnvironmentName;
+import bio.terra.pearl.core.model.portal.Portal;
+import bio.terra.pearl.core.service.portal.PortalService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Serves the participant-facing portal content, which is loaded on every participant page view. The
+ * serialized content is cached per (portal, environment, language), and each request only runs two
+ * small queries: one to find the portal, and one to check that nothing shown on the site has
+ * changed since the content was cached (see PortalService.findParticipantContentVersion). Since
+ * that check goes to the database, publishing from the admin app is picked up by every participant
+ * node without any coordination.
+ */
+@Service
+public class PortalExtService {
+  private static final int MAX_CACHED_PORTALS = 200;
+  private final PortalService portalService;
+  private final ObjectMapper objectMapper;
+  private final Map<PortalContentKey, PortalContent> contentCache =
+      Collections.synchronizedMap(
+          new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<PortalContentKey, PortalContent> eldest) {
+              return size() > MAX_CACHED_PORTALS;
+            }
+          });
+
+  public PortalExtService(PortalService portalService, ObjectMapper objectMapper) {
+    this.portalService = portalService;
+    this.objectMapper = objectMapper;
+  }
+
+  /**
+   * returns the serialized portal, with everything needed to render the participant-facing site, or
+   * empty if there is no such portal environment
+   */
+  public Optional<PortalContent> loadParticipantContent(
+      String shortcodeOrHostname, EnvironmentName environmentName, String language) {
+    Optional<Portal> portalOpt = portalService.findOneByShortcodeOrHostname(shortcodeOrHostname);
+    if (portalOpt.isEmpty()) {
+      return Optional.empty();
+    }
+    UUID portalId = portalOpt.get().getId();
+    Optional<String> versionOpt =
+        portalService.findParticipantContentVersion(portalId, environmentName);
+    if (versionOpt.isEmpty()) {
+      return Optional.empty();
+    }
+    PortalContentKey key = new PortalContentKey(portalId, environmentName, language);
+    PortalContent cached = contentCache.get(key);
+    if (cached != null && cached.version().equals(versionOpt.get())) {
+      return Optional.of(cached);
+    }
+    // the version was read before loading, so the loaded content is at least as new as the version
+    Optional<PortalContent> loaded =
+        portalService
+            .loadWithParticipantSiteContent(
+                portalOpt.get().getShortcode(), environmentName, language)
+            .map(portal -> serialize(portal, versionOpt.get()));
+    loaded.ifPresent(content -> contentCache.put(key, content));
+    return loaded;
+  }
+
+  private PortalContent serialize(Portal portal, String version) {
+    try {
+      byte[] json = objectMapper.writeValueAsBytes(portal);
+      // hash the content itself, so the ETag also changes if the serialized form changes on deploy
+      String etag = "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+      return new PortalContent(json, etag, version);
+    } catch (JsonProcessingException e) {
+      throw new RuntimeException("Error serializing portal " + portal.getShortcode(), e);
+    }
+  }
+
+  /** the serialized portal json, with a strong ETag for it */
+  public record PortalContent(byte[] json, String etag, String version) {}
+
+  private record PortalContentKey(
+      UUID portalId, EnvironmentName environmentName, String language) {}
+}
@@ -6,7 +6,6 @@ import bio.terra.pearl.core.model.EnvironmentName;
 import bio.terra.pearl.core.model.participant.ParticipantUser;
 import bio.terra.pearl.core.model.study.StudyEnvironment;
 import bio.terra.pearl.core.service.study.StudyEnvironmentService;
-import com.auth0.jwt.JWT;
 import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -50,9 +49,7 @@ public class RequestUtilService {
 
   protected Optional<ParticipantUser> getUserFromToken(HttpServletRequest request, String token) {
     var envName = environmentNameFromRequest(request);
-    var decodedJWT = JWT.decode(token);
-    var email = decodedJWT.getClaim("email").asString();
-    return currentUserService.findByUsername(email, envName);
+    return currentUserService.findByToken(token, envName);
   }
 
   public EnvironmentName environmentNameFromRequest(HttpServletRequest request) {
@@ -4,12 +4,22 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.notNullValue;
 
 import bio.terra.pearl.api.participant.BaseSpringBootTest;
+import bio.terra.pearl.core.factory.StudyEnvironmentFactory;
+import bio.terra.pearl.core.factory.participant.EnrolleeFactory;
+import bio.terra.pearl.core.factory.participant.ParticipantTaskFactory;
 import bio.terra.pearl.core.factory.participant.ParticipantUserFactory;
 import bio.terra.pearl.core.factory.portal.PortalEnvironmentFactory;
 import bio.terra.pearl.core.model.EnvironmentName;
+import bio.terra.pearl.core.model.participant.Enrollee;
+import bio.terra.pearl.core.model.participant.ParticipantUser;
 import bio.terra.pearl.core.model.portal.PortalEnvironment;
+import bio.terra.pearl.core.model.study.StudyEnvironment;
+import bio.terra.pearl.core.model.workflow.TaskStatus;
+import bio.terra.pearl.core.model.workflow.TaskType;
+import bio.terra.pearl.core.service.participant.ParticipantUserService;
 import bio.terra.pearl.core.service.portal.PortalService;
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.algorithms.Algorithm;
@@ -26,6 +36,10 @@ public class CurrentUserServiceTests extends BaseSpringBootTest {
   @Autowired ParticipantUserFactory participantUserFactory;
   @Autowired PortalEnvironmentFactory portalEnvironmentFactory;
   @Autowired PortalService portalService;
+  @Autowired EnrolleeFactory enrolleeFactory;
+  @Autowired StudyEnvironmentFactory studyEnvironmentFactory;
+  @Autowired ParticipantTaskFactory participantTaskFactory;
+  @Autowired ParticipantUserService participantUserService;
 
   @Test
   @Transactional
@@ -95,6 +109,46 @@ public class CurrentUserServiceTests extends BaseSpringBootTest {
     }
   }
 
+  @Test
+  @Transactional
+  public void testLoadFromUserHydratesEnrollees(TestInfo testInfo) {
+    String testName = getTestName(testInfo);
+    PortalEnvironment portalEnv = portalEnvironmentFactory.buildPersisted(testName);
+    StudyEnvironment studyEnv1 = studyEnvironmentFactory.buildPersisted(portalEnv, testName);
+    StudyEnvironment studyEnv2 = studyEnvironmentFactory.buildPersisted(portalEnv, testName + "2");
+    EnrolleeFactory.EnrolleeBundle bundle =
+        enrolleeFactory.buildWithPortalUser(testName, portalEnv, studyEnv1);
+    Enrollee enrollee2 =
+        enrolleeFactory.buildPersisted(
+            testName,
+            studyEnv2.getId(),
+            bundle.enrollee().getParticipantUserId(),
+            bundle.portalParticipantUser().getProfileId());
+    participantTaskFactory.buildPersisted(bundle, TaskStatus.NEW, TaskType.CONSENT);
+    participantTaskFactory.buildPersisted(bundle, TaskStatus.NEW, TaskType.SURVEY);
+    String portalShortcode = portalService.find(portalEnv.getPortalId()).get().getShortcode();
+    ParticipantUser user =
+        participantUserService.find(bundle.enrollee().getParticipantUserId()).get();
+
+    var loadedUser = currentUserService.loadFromUser(user, portalShortcode);
+    assertThat(loadedUser.enrollees(), hasSize(2));
+    Enrollee loaded1 =
+        loadedUser.enrollees().stream()
+            .filter(enrollee -> enrollee.getId().equals(bundle.enrollee().getId()))
+            .findFirst()
+            .get();
+    Enrollee loaded2 =
+        loadedUser.enrollees().stream()
+            .filter(enrollee -> enrollee.getId().equals(enrollee2.getId()))
+            .findFirst()
+            .get();
+    assertThat(loaded1.getParticipantTasks(), hasSize(2));
+    assertThat(loaded2.getParticipantTasks(), hasSize(0));
+    assertThat(loaded1.getProfile(), notNullValue());
+    assertThat(loaded2.getProfile().getId(), equalTo(loaded1.getProfile().getId()));
+    assertThat(user.getPortalParticipantUsers(), hasSize(1));
+  }
+
   private String generateFakeJwtToken(String username) {
     var token = UUID.randomUUID();
     return JWT.create()
@@ -0,0 +1,50 @@
+package bio.terra.pearl.api.participant.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import bio.terra.pearl.api.participant.BaseSpringBootTest;
+import bio.terra.pearl.core.factory.portal.PortalEnvironmentFactory;
+import bio.terra.pearl.core.model.EnvironmentName;
+import bio.terra.pearl.core.model.portal.PortalEnvironment;
+import bio.terra.pearl.core.model.portal.PortalEnvironmentConfig;
+import bio.terra.pearl.core.service.portal.PortalEnvironmentConfigService;
+import bio.terra.pearl.core.service.portal.PortalService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+public class PortalExtServiceTests extends BaseSpringBootTest {
+  @Autowired PortalExtService portalExtService;
+  @Autowired PortalEnvironmentFactory portalEnvironmentFactory;
+  @Autowired PortalEnvironmentConfigService portalEnvironmentConfigService;
+  @Autowired PortalService portalService;
+
+  @Test
+  @Transactional
+  public void testContentCachedUntilChanged() {
+    PortalEnvironment portalEnv =
+        portalEnvironmentFactory.buildPersisted(
+            "testContentCachedUntilChanged", EnvironmentName.irb);
+    String shortcode = portalService.find(portalEnv.getPortalId()).get().getShortcode();
+
+    PortalExtService.PortalContent content =
+        portalExtService.loadParticipantContent(shortcode, EnvironmentName.irb, "en").get();
+    PortalExtService.PortalContent secondContent =
+        portalExtService.loadParticipantContent(shortcode, EnvironmentName.irb, "en").get();
+    assertThat(secondContent, sameInstance(content));
+
+    PortalEnvironmentConfig config = portalEnv.getPortalEnvironmentConfig();
+    config.setAcceptingRegistration(!config.isAcceptingRegistration());
+    portalEnvironmentConfigService.update(config);
+    PortalExtService.PortalContent updatedContent =
+        portalExtService.loadParticipantContent(shortcode, EnvironmentName.irb, "en").get();
+    assertThat(updatedContent.etag(), not(equalTo(content.etag())));
+
+    assertThat(
+        portalExtService.loadParticipantContent(shortcode, EnvironmentName.live, "en").isPresent(),
+        equalTo(false));
+  }
+}
@@ -4,6 +4,12 @@ import bio.terra.pearl.core.model.BaseEntity;
 import java.beans.BeanInfo;
 import java.beans.IntrospectionException;
 import java.beans.Introspector;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.*;
@@ -17,6 +23,8 @@ import org.jdbi.v3.core.mapper.RowMapper;
 import org.jdbi.v3.core.mapper.reflect.BeanMapper;
 import org.jdbi.v3.core.result.RowView;
 import org.jdbi.v3.core.statement.PreparedBatch;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
 import org.springframework.beans.PropertyAccessor;
 import org.springframework.beans.PropertyAccessorFactory;
 
@@ -33,6 +41,10 @@ public abstract class BaseJdbiDao<T extends BaseEntity> {
     @Getter
     protected String tableName;
     protected Class<T> clazz;
+    private static final int COPY_BUFFER_SIZE = 65536;
+    // built on first use, since most DAOs never copy
+    private volatile CopyRowEncoder<T> copyEncoder;
+    private volatile CopyRowEncoder<T> copyWithIdEncoder;
 
     protected abstract Class<T> getClazz();
 
@@ -50,7 +62,7 @@ public abstract class BaseJdbiDao<T extends BaseEntity> {
     protected boolean isSimpleFieldType(Class fieldType) {
         return Enum.class.isAssignableFrom(fieldType) ||
                 Arrays.asList(String.class, Instant.class, LocalDate.class, Boolean.class, boolean.class,
-                                Integer.class, Double.class, int.class, UUID.class, byte[].class)
+                                Integer.class, Double.class, int.class, Long.class, long.class, UUID.class, byte[].class)
                         .contains(fieldType);
     }
 
@@ -166,6 +178,84 @@ public abstract class BaseJdbiDao<T extends BaseEntity> {
         }
     }
 
+    /**
+     * creates the objects with a Postgres COPY, which is much faster than bulkCreate for large numbers of objects,
+     * as rows are streamed to the database rather than sent as individual statements.  Like bulkCreate, ids are
+     * generated by the database, and the created objects are not returned.  The objects are consumed as they are
+     * written, so a stream needn't be held in memory.  Returns the number of rows created.
+     */
+    public long bulkCopy(Stream<T> modelObjs) {
+        if (copyEncoder == null) {
+            copyEncoder = new CopyRowEncoder<>(clazz, insertFields);
+        }
+        return copy(modelObjs, insertColumns, copyEncoder, false);
+    }
+
+    public long bulkCopy(List<T> modelObjs) {
+        if (modelObjs.isEmpty()) {
+            return 0;
+        }
+        return bulkCopy(modelObjs.stream());
+    }
+
+    /** as bulkCopy, but for objects whose ids have been assigned in advance */
+    public long bulkCopyWithIdSpecified(Stream<T> modelObjs) {
+        if (copyWithIdEncoder == null) {
+            List<String> fields = new ArrayList<>(insertFields);
+            fields.add(0, "id");
+            copyWithIdEncoder = new CopyRowEncoder<>(clazz, fields);
+        }
+        List<String> columns = new ArrayList<>(insertColumns);
+        columns.add(0, "id");
+        return copy(modelObjs, columns, copyWithIdEncoder, true);
+    }
+
+    public long bulkCopyWithIdSpecified(List<T> modelObjs) {
+        if (modelObjs.isEmpty()) {
+            return 0;
+        }
+        return bulkCopyWithIdSpecified(modelObjs.stream());
+    }
+
+    private long copy(Stream<T> modelObjs, List<String> columns, CopyRowEncoder<T> encoder, boolean idSpecified) {
+        String copySql = "copy " + tableName + " (" + StringUtils.join(columns, ", ") + ") from stdin";
+        return jdbi.withHandle(handle -> {
+            PGCopyOutputStream copyStream = null;
+            try {
+                copyStream = new PGCopyOutputStream(handle.getConnection().unwrap(PGConnection.class), copySql,
+                        COPY_BUFFER_SIZE);
+                Writer writer = new BufferedWriter(new OutputStreamWriter(copyStream, StandardCharsets.UTF_8),
+                        COPY_BUFFER_SIZE);
+                Iterator<T> iterator = modelObjs.iterator();
+                while (iterator.hasNext()) {
+                    T obj = iterator.next();
+                    if ((obj.getId() != null) != idSpecified) {
+                        throw new IllegalArgumentException(idSpecified
+                                ? "object passed to bulk copy with id specified has no id"
+                                : "object passed to bulk copy already has id: " + obj.getId());
+                    }
+                    encoder.encode(obj, writer);
+                }
+                writer.flush();
+                return copyStream.endCopy();
+            } catch (IOException | SQLException e) {
+                throw new RuntimeException("bulk copy into " + tableName + " failed", e);
+            } finally {
+                if (copyStream != null && copyStream.isActive()) {
+                    cancelCopy(copyStream);
+                }
+            }
+        });
+    }
+
+    private static void cancelCopy(PGCopyOutputStream copyStream) {
+        try {
+            copyStream.cancelCopy();
+        } catch (SQLException e) {
+            // the error that interrupted the copy is already being thrown, and is the more useful one
+        }
+    }
+
     protected String getCreateQuerySql() {
         return "insert into " + tableName + " (" + StringUtils.join(insertColumns, ", ") +") " +
                 "values (" + StringUtils.join(insertFieldSymbols, ", ") + ");";
@@ -356,12 +446,7 @@ public abstract class BaseJdbiDao<T extends BaseEntity> {
     }
 
     public void deleteAll(List<UUID> ids) {
-        if (ids.isEmpty()) { return; } // bindList does not allow empty lists
-        jdbi.withHandle(handle ->
-                handle.createUpdate("delete from " + tableName + " where id IN (<ids>);")
-                        .bindList("ids", ids)
-                        .execute()
-        );
+        deleteByPropertyCollection("id", ids);
     }
 
     protected void deleteByProperty(String columnName, Object columnValue) {
@@ -372,6 +457,21 @@ public abstract class BaseJdbiDao<T extends BaseEntity> {
         );
     }
 
+    /**
+     * deletes all rows with a column value in the collection, with a single statement.  The values are bound as one
+     * array parameter, so there is no limit on how many there are, unlike with an IN list.
+     */
+    protected void deleteByPropertyCollection(String columnName, Collection<UUID> columnValues) {
+        if (columnValues.isEmpty()) {
+            return;
+        }
+        jdbi.withHandle(handle ->
+                handle.createUpdate("delete from " + tableName + " where " + columnName + " = any(:columnValues);")
+                        .bindArray("columnValues", UUID.class, columnValues)
+                        .execute()
+        );
+    }
+
     protected void deleteByParentUuid(String parentColumnName, UUID parentUUID, BaseJdbiDao parentDao) {
         jdbi.withHandle(handle ->
                 handle.createUpdate("delete from " + tableName + " using  " + parentDao.tableName
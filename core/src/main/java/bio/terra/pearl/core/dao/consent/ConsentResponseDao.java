@@ -3,6 +3,7 @@ package bio.terra.pearl.core.dao.consent;
 
 import bio.terra.pearl.core.dao.BaseJdbiDao;
 import bio.terra.pearl.core.model.consent.ConsentResponse;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import org.jdbi.v3.core.Jdbi;
@@ -27,4 +28,8 @@ public class ConsentResponseDao extends BaseJdbiDao<ConsentResponse> {
         return findAllByTwoProperties("enrollee_id", enrolleeId,
                 "consent_form_id", consentFormId);
     }
+
+    public void deleteByEnrolleeIds(Collection<UUID> enrolleeIds) {
+        deleteByPropertyCollection("enrollee_id", enrolleeIds);
+    }
 }
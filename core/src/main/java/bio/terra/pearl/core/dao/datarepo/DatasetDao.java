@@ -27,6 +27,10 @@ public class DatasetDao extends BaseMutableJdbiDao<Dataset> {
         return findAllByProperty("study_environment_id", studyEnvId);
     }
 
+    public List<Dataset> findByStatus(DatasetStatus status) {
+        return findAllByProperty("status", status);
+    }
+
     public Optional<Dataset> findByDatasetName(String datasetName) {
         return findByProperty("dataset_name", datasetName);
     }
@@ -0,0 +1,68 @@
+package bio.terra.pearl.core.dao.export;
+
+import java.util.Optional;
+import java.util.UUID;
+import org.jdbi.v3.core.Jdbi;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads and writes the chunks of export output files.  Chunks aren't model objects -- they are only ever accessed by
+ * the ExportFileStore, a chunk at a time -- so this works with the raw bytes rather than extending BaseJdbiDao
+ */
+@Component
+public class ExportFileChunkDao {
+    private final Jdbi jdbi;
+
+    public ExportFileChunkDao(Jdbi jdbi) {
+        this.jdbi = jdbi;
+    }
+
+    public void create(UUID exportJobId, int chunkIndex, byte[] data) {
+        jdbi.useHandle(handle ->
+                handle.createUpdate("insert into export_file_chunk (export_job_id, chunk_index, data)"
+                                + " values (:exportJobId, :chunkIndex, :data)")
+                        .bind("exportJobId", exportJobId)
+                        .bind("chunkIndex", chunkIndex)
+                        .bind("data", data)
+                        .execute()
+        );
+    }
+
+    public Optional<byte[]> find(UUID exportJobId, int chunkIndex) {
+        return jdbi.withHandle(handle ->
+                handle.createQuery("select data from export_file_chunk"
+                                + " where export_job_id = :exportJobId and chunk_index = :chunkIndex")
+                        .bind("exportJobId", exportJobId)
+                        .bind("chunkIndex", chunkIndex)
+                        .mapTo(byte[].class)
+                        .findOne()
+        );
+    }
+
+    public boolean exists(UUID exportJobId) {
+        return jdbi.withHandle(handle ->
+                handle.createQuery("select exists (select 1 from export_file_chunk where export_job_id = :exportJobId)")
+                        .bind("exportJobId", exportJobId)
+                        .mapTo(Boolean.class)
+                        .one()
+        );
+    }
+
+    public void deleteByExportJobId(UUID exportJobId) {
+        jdbi.useHandle(handle ->
+                handle.createUpdate("delete from export_file_chunk where export_job_id = :exportJobId")
+                        .bind("exportJobId", exportJobId)
+                        .execute()
+        );
+    }
+
+    public void deleteByStudyEnvironmentId(UUID studyEnvId) {
+        jdbi.useHandle(handle ->
+                handle.createUpdate("delete from export_file_chunk using export_job"
+                                + " where export_file_chunk.export_job_id = export_job.id"
+                                + " and export_job.study_environment_id = :studyEnvId")
+                        .bind("studyEnvId", studyEnvId)
+                        .execute()
+        );
+    }
+}
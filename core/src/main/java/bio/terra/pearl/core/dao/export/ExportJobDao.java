@@ -0,0 +1,148 @@
+package bio.terra.pearl.core.dao.export;
+
+import bio.terra.pearl.core.dao.BaseMutableJdbiDao;
+import bio.terra.pearl.core.model.export.ExportJob;
+import bio.terra.pearl.core.model.export.ExportJobStatus;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.jdbi.v3.core.Jdbi;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ExportJobDao extends BaseMutableJdbiDao<ExportJob> {
+    public ExportJobDao(Jdbi jdbi) {
+        super(jdbi);
+    }
+
+    @Override
+    protected Class<ExportJob> getClazz() {
+        return ExportJob.class;
+    }
+
+    public List<ExportJob> findByStatus(ExportJobStatus status) {
+        return findAllByProperty("status", status);
+    }
+
+    public List<ExportJob> findByStudyEnvironmentId(UUID studyEnvId) {
+        return findAllByProperty("study_environment_id", studyEnvId);
+    }
+
+    /** finds the most recent job for the environment with the given options hash that is in one of the given statuses */
+    public Optional<ExportJob> findLatestByOptionsHash(UUID studyEnvId, String optionsHash, List<ExportJobStatus> statuses) {
+        return jdbi.withHandle(handle ->
+                handle.createQuery("select * from " + tableName
+                                + " where study_environment_id = :studyEnvId and options_hash = :optionsHash"
+                                + " and status in (<statuses>) order by created_at desc limit 1")
+                        .bind("studyEnvId", studyEnvId)
+                        .bind("optionsHash", optionsHash)
+                        .bindList("statuses", statuses)
+                        .mapTo(clazz)
+                        .findOne()
+        );
+    }
+
+    /**
+     * creates the job, unless an identical one (same environment and options hash) is already pending or running, in
+     * which case nothing is created and empty is returned.  A unique index on in-progress jobs backs this, so
+     * concurrent identical submits can't both create a job -- the second waits for the first to commit, then skips.
+     */
+    public Optional<ExportJob> createIfNoneInProgress(ExportJob job) {
+        if (job.getId() != null) {
+            throw new IllegalArgumentException("object passed to create already has id - " + job.getId());
+        }
+        return jdbi.withHandle(handle ->
+                handle.createQuery("insert into " + tableName + " (" + String.join(", ", insertColumns) + ")"
+                                + " values (" + String.join(", ", insertFieldSymbols) + ")"
+                                + " on conflict (study_environment_id, options_hash)"
+                                + " where status in ('PENDING', 'RUNNING') do nothing returning *")
+                        .bindBean(job)
+                        .mapTo(clazz)
+                        .findOne()
+        );
+    }
+
+    /**
+     * atomically moves the job from PENDING to RUNNING.  Returns false if the job was not pending (e.g. because
+     * another node has already claimed it)
+     */
+    public boolean claim(UUID id, Instant startedAt) {
+        int updated = jdbi.withHandle(handle ->
+                handle.createUpdate("update " + tableName + " set status = :running, started_at = :startedAt,"
+                                + " last_updated_at = :startedAt where id = :id and status = :pending")
+                        .bind("id", id)
+                        .bind("running", ExportJobStatus.RUNNING)
+                        .bind("pending", ExportJobStatus.PENDING)
+                        .bind("startedAt", startedAt)
+                        .execute()
+        );
+        return updated == 1;
+    }
+
+    /**
+     * saves the outcome of a job that this node claimed, only if the job is still RUNNING.  Returns false if it is
+     * not (e.g. because it ran past the abandoned job cutoff and was marked failed), in which case nothing is saved.
+     */
+    public boolean finish(ExportJob job) {
+        job.setLastUpdatedAt(Instant.now());
+        int updated = jdbi.withHandle(handle ->
+                handle.createUpdate("update " + tableName + " set status = :status, data_version = :dataVersion,"
+                                + " file_size = :fileSize, completed_at = :completedAt, error_message = :errorMessage,"
+                                + " last_updated_at = :lastUpdatedAt where id = :id and status = :running")
+                        .bindBean(job)
+                        .bind("running", ExportJobStatus.RUNNING)
+                        .execute()
+        );
+        return updated == 1;
+    }
+
+    /** finds jobs in the given status that were last updated before the given time */
+    public List<ExportJob> findByStatusUpdatedBefore(ExportJobStatus status, Instant cutoff) {
+        return jdbi.withHandle(handle ->
+                handle.createQuery("select * from " + tableName
+                                + " where status = :status and last_updated_at < :cutoff")
+                        .bind("status", status)
+                        .bind("cutoff", cutoff)
+                        .mapTo(clazz)
+                        .list()
+        );
+    }
+
+    /**
+     * returns a fingerprint of the exportable participant data of the environment.  The fingerprint changes whenever
+     * an enrollee or task is added or removed, or an enrollee, profile, address, answer, response, or task is updated,
+     * or a survey is attached to the environment, so a matching fingerprint means a previous export's output can be
+     * reused.
+     */
+    public String findDataVersion(UUID studyEnvId) {
+        return jdbi.withHandle(handle ->
+                handle.createQuery("""
+                                select concat_ws(':',
+                                  (select count(*) from enrollee where study_environment_id = :studyEnvId),
+                                  coalesce((select max(last_updated_at) from enrollee
+                                    where study_environment_id = :studyEnvId)::text, '-'),
+                                  coalesce((select max(p.last_updated_at) from profile p
+                                    join enrollee e on e.profile_id = p.id where e.study_environment_id = :studyEnvId)::text, '-'),
+                                  coalesce((select max(m.last_updated_at) from mailing_address m join profile p on p.mailing_address_id = m.id
+                                    join enrollee e on e.profile_id = p.id where e.study_environment_id = :studyEnvId)::text, '-'),
+                                  coalesce((select max(a.last_updated_at) from answer a
+                                    join enrollee e on a.enrollee_id = e.id where e.study_environment_id = :studyEnvId)::text, '-'),
+                                  coalesce((select max(r.last_updated_at) from survey_response r
+                                    join enrollee e on r.enrollee_id = e.id where e.study_environment_id = :studyEnvId)::text, '-'),
+                                  (select count(*) from participant_task where study_environment_id = :studyEnvId),
+                                  coalesce((select max(last_updated_at) from participant_task
+                                    where study_environment_id = :studyEnvId)::text, '-'),
+                                  coalesce((select max(last_updated_at) from study_environment_survey
+                                    where study_environment_id = :studyEnvId)::text, '-'))
+                                """)
+                        .bind("studyEnvId", studyEnvId)
+                        .mapTo(String.class)
+                        .one()
+        );
+    }
+
+    public void deleteByStudyEnvironmentId(UUID studyEnvId) {
+        deleteByProperty("study_environment_id", studyEnvId);
+    }
+}
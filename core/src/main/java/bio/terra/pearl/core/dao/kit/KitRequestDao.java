@@ -6,6 +6,7 @@ import bio.terra.pearl.core.model.kit.KitRequestStatus;
 import org.jdbi.v3.core.Jdbi;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -21,6 +22,10 @@ public class KitRequestDao extends BaseMutableJdbiDao<KitRequest> {
             + " join study_environment on enrollee.study_environment_id = study_environment.id "
             + " where study_environment.id = :studyEnvironmentId ";
 
+    /** keeps the bind parameter count of each update statement well under the postgres limit */
+    private static final int UPDATE_BATCH_SIZE = 1000;
+    private static final List<String> DSM_STATUS_FIELDS = List.of("id", "status", "dsmStatus", "dsmStatusFetchedAt");
+
     @Override
     protected Class<KitRequest> getClazz() { return KitRequest.class; }
 
@@ -33,6 +38,10 @@ public class KitRequestDao extends BaseMutableJdbiDao<KitRequest> {
                 .collect(Collectors.groupingBy(KitRequest::getEnrolleeId, Collectors.toList()));
     }
 
+    public void deleteByEnrolleeIds(Collection<UUID> enrolleeIds) {
+        deleteByPropertyCollection("enrollee_id", enrolleeIds);
+    }
+
     /**
      * Find all kits that are not complete (or errored) for a study.
      * This represents the set of in-flight kits that we want to keep an eye on in Pepper.
@@ -59,4 +68,29 @@ public class KitRequestDao extends BaseMutableJdbiDao<KitRequest> {
                         .list()
         );
     }
+
+    /**
+     * Updates the status, dsmStatus, and dsmStatusFetchedAt of the given kits, with one
+     * update ... from (values ...) statement per thousand kits, rather than a statement per kit.
+     */
+    public void bulkUpdateDsmStatus(List<KitRequest> kits) {
+        if (kits.isEmpty()) {
+            // short circuit this case because bindBeanList errors if list is empty
+            return;
+        }
+        Instant now = Instant.now();
+        kits.forEach(kit -> kit.setLastUpdatedAt(now));
+        jdbi.useHandle(handle -> {
+            for (int i = 0; i < kits.size(); i += UPDATE_BATCH_SIZE) {
+                handle.createUpdate("update " + tableName + " set status = v.status, dsm_status = v.dsm_status,"
+                                + " dsm_status_fetched_at = v.dsm_status_fetched_at, last_updated_at = :lastUpdatedAt"
+                                + " from (values <kits>) as v(id, status, dsm_status, dsm_status_fetched_at)"
+                                + " where " + tableName + ".id = v.id")
+                        .bindBeanList("kits", kits.subList(i, Math.min(i + UPDATE_BATCH_SIZE, kits.size())),
+                                DSM_STATUS_FIELDS)
+                        .bind("lastUpdatedAt", now)
+                        .execute();
+            }
+        });
+    }
 }
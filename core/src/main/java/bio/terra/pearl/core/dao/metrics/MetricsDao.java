@@ -1,25 +1,233 @@
 package bio.terra.pearl.core.dao.metrics;
 
 import bio.terra.pearl.core.model.metrics.BasicMetricDatum;
+import bio.terra.pearl.core.model.metrics.BucketedMetricDatum;
+import bio.terra.pearl.core.model.metrics.MetricBucket;
 import bio.terra.pearl.core.model.metrics.TimeRange;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import org.jdbi.v3.core.Handle;
 import org.jdbi.v3.core.Jdbi;
 import org.jdbi.v3.core.mapper.reflect.BeanMapper;
+import org.jdbi.v3.core.statement.Update;
 import org.springframework.stereotype.Component;
 
 /**
  * Returns lists of BasicMetricDatum for metrics queries
  * The returned data from each query should be sorted ascending by the 'time' property of each datum.
- * Because metrics are read-only -- there is only a DAO -- no need for a service yet
+ *
+ * For dashboards, bucketedCounts returns counts per time bucket instead, read from the hourly counts in the
+ * metric_rollup table plus a live count of events since the rollup was last refreshed.  refreshRollup keeps the
+ * rollup up to date, recounting the hours of any enrollees or tasks updated since the previous refresh.  Deleted rows
+ * can't be detected that way, so EnrolleeService calls recountWithoutEnrollees before deleting enrollees.
+ * Aside from maintaining the rollups (see MetricsRollupService), metrics are read-only, so there is only a DAO
  * */
 @Component
 public class MetricsDao {
+  /**
+   * how far before the previous refresh to look for changes, to allow for clock differences between servers and for
+   * transactions that were in flight during the previous refresh.  Recounting an hour is idempotent, so overlap is safe
+   */
+  private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(5);
+
+  /**
+   * where a metric's events come from: the table, the time of each event, which rows are events, and the column
+   * identifying the enrollee each row belongs to
+   */
+  private record MetricSource(String table, String timeColumn, String subcategoryColumn, String condition,
+                              String enrolleeIdColumn) {}
+
+  private static final Map<MetricName, MetricSource> METRIC_SOURCES = Map.of(
+      MetricName.STUDY_ENROLLMENT,
+          new MetricSource("enrollee", "created_at", "''", "true", "id"),
+      MetricName.STUDY_ENROLLEE_CONSENTED,
+          new MetricSource("enrollee", "created_at", "''", "consented = true", "id"),
+      MetricName.STUDY_SURVEY_COMPLETION,
+          new MetricSource("participant_task", "completed_at", "coalesce(target_stable_id, '')",
+              "task_type = 'SURVEY' and status = 'COMPLETE'", "enrollee_id"),
+      MetricName.STUDY_REQUIRED_SURVEY_COMPLETION,
+          new MetricSource("participant_task", "completed_at", "coalesce(target_stable_id, '')",
+              "task_type = 'SURVEY' and status = 'COMPLETE' and blocks_hub = true", "enrollee_id")
+  );
+
   private Jdbi jdbi;
 
   public MetricsDao(Jdbi jdbi) {
     this.jdbi = jdbi;
     jdbi.registerRowMapper(BasicMetricDatum.class, BeanMapper.of(BasicMetricDatum.class));
+    jdbi.registerRowMapper(BucketedMetricDatum.class, BeanMapper.of(BucketedMetricDatum.class));
+  }
+
+  /**
+   * Counts of the metric per time bucket, sorted ascending by time.  The range is applied to the hour of each event.
+   * Hours before the last rollup refresh are read from the rollup, later hours are counted live, so the result is
+   * current apart from changes to older events that the next refresh hasn't picked up yet.
+   */
+  public List<BucketedMetricDatum> bucketedCounts(MetricName metricName, UUID studyEnvironmentId, MetricBucket bucket,
+                                                  TimeRange range) {
+    MetricSource source = METRIC_SOURCES.get(metricName);
+    return jdbi.withHandle(handle ->
+        handle.createQuery("""
+            with watermark as (
+              select coalesce(
+                (select date_trunc('hour', refreshed_at) from metric_rollup_watermark where metric_name = :metricName),
+                cast('-infinity' as timestamp)) as rollup_through
+            )
+            select cast(:metricName as text) as name, subcategory,
+                   date_trunc('%1$s', bucket_start) as time, cast(sum(count) as bigint) as count
+             from (
+               select subcategory, bucket_start, count from metric_rollup, watermark
+                where metric_name = :metricName
+                and study_environment_id = :studyEnvironmentId
+                and bucket_start < watermark.rollup_through
+               union all
+               select %2$s as subcategory, date_trunc('hour', %3$s) as bucket_start, count(*) as count
+                from %4$s, watermark
+                where study_environment_id = :studyEnvironmentId
+                and %5$s
+                and %3$s >= watermark.rollup_through
+                group by 1, 2
+             ) hourly_counts
+             where %6$s
+             group by 2, 3
+             order by 3 asc;
+            """.formatted(bucket.dateTruncField(), source.subcategoryColumn(), source.timeColumn(), source.table(),
+                source.condition(), getTimeRangeQueryString("bucket_start", range)))
+            .bind("metricName", metricName.name())
+            .bind("studyEnvironmentId", studyEnvironmentId)
+            .bindBean(range)
+            .mapTo(BucketedMetricDatum.class)
+            .list()
+    );
+  }
+
+  /**
+   * Brings the rollup of the metric up to date, recounting every hour that has an enrollee or task updated since
+   * the previous refresh.  The first refresh of a metric counts all of its history.  Should be called in a
+   * transaction, which also holds the metric's rollup lock, so concurrent recounts don't interleave.
+   */
+  public void refreshRollup(MetricName metricName, Instant refreshedAt) {
+    jdbi.useHandle(handle -> {
+      lockRollup(handle, metricName);
+      Optional<Instant> previousRefresh = handle.createQuery(
+              "select refreshed_at from metric_rollup_watermark where metric_name = :metricName")
+          .bind("metricName", metricName.name())
+          .mapTo(Instant.class)
+          .findOne();
+      Instant since = previousRefresh.map(previous -> previous.minus(REFRESH_OVERLAP)).orElse(Instant.EPOCH);
+      recountHours(handle, metricName, "last_updated_at >= :since", "true",
+          update -> update.bind("since", since));
+      handle.createUpdate("""
+              insert into metric_rollup_watermark (metric_name, refreshed_at) values (:metricName, :refreshedAt)
+              on conflict (metric_name) do update set refreshed_at = excluded.refreshed_at
+              """)
+          .bind("metricName", metricName.name())
+          .bind("refreshedAt", refreshedAt)
+          .execute();
+    });
+  }
+
+  /**
+   * recounts all of the study environment's rollups, e.g. after backdated rows have been added to it.  Should be
+   * called in a transaction, which holds the rollup locks of every metric
+   */
+  public void rebuildRollups(UUID studyEnvironmentId) {
+    jdbi.useHandle(handle -> {
+      for (MetricName metricName : MetricName.values()) {
+        lockRollup(handle, metricName);
+      }
+      deleteRollupsByStudyEnvironmentId(handle, studyEnvironmentId);
+      for (MetricName metricName : MetricName.values()) {
+        recountHours(handle, metricName, "study_environment_id = :studyEnvironmentId", "true",
+            update -> update.bind("studyEnvironmentId", studyEnvironmentId));
+      }
+    });
+  }
+
+  /**
+   * recounts every hour that has events of the given enrollees, leaving their events out of the counts.  Called
+   * before the enrollees are deleted (by withdrawal, or deleting them outright), in the same transaction, since
+   * once their rows are gone there's no way to find which hours counted them.  The transaction holds each metric's
+   * rollup lock until it commits, so a refresh running meanwhile can't recount the enrollees back in.
+   */
+  public void recountWithoutEnrollees(List<UUID> enrolleeIds) {
+    if (enrolleeIds.isEmpty()) {
+      return;
+    }
+    jdbi.useHandle(handle -> {
+      for (MetricName metricName : MetricName.values()) {
+        lockRollup(handle, metricName);
+        String enrolleeIdColumn = METRIC_SOURCES.get(metricName).enrolleeIdColumn();
+        recountHours(handle, metricName,
+            "%s = any(:enrolleeIds)".formatted(enrolleeIdColumn),
+            "not (%s = any(:enrolleeIds))".formatted(enrolleeIdColumn),
+            update -> update.bindArray("enrolleeIds", UUID.class, enrolleeIds));
+      }
+    });
+  }
+
+  public void deleteRollupsByStudyEnvironmentId(UUID studyEnvironmentId) {
+    jdbi.useHandle(handle -> deleteRollupsByStudyEnvironmentId(handle, studyEnvironmentId));
+  }
+
+  private void deleteRollupsByStudyEnvironmentId(Handle handle, UUID studyEnvironmentId) {
+    handle.createUpdate("delete from metric_rollup where study_environment_id = :studyEnvironmentId")
+        .bind("studyEnvironmentId", studyEnvironmentId)
+        .execute();
+  }
+
+  /**
+   * takes the metric's rollup lock until the end of the transaction.  Recounting an hour deletes and re-inserts its
+   * rows, so two recounts of the same hour at once would collide on the rollup's primary key -- every path that
+   * recounts takes this first.  Metrics are always locked in MetricName order, so lockers can't deadlock.  This is an
+   * advisory lock rather than a lock on the metric's watermark row, since that row doesn't exist until the first
+   * refresh completes, and the first refresh is the longest.
+   */
+  private void lockRollup(Handle handle, MetricName metricName) {
+    handle.createQuery("select 1 from (select pg_advisory_xact_lock(hashtext(:lockName))) locked")
+        .bind("lockName", "metric_rollup:" + metricName.name())
+        .mapTo(Integer.class)
+        .one();
+  }
+
+  /**
+   * replaces the rollup counts of the metric for each (study environment, hour) that has a row of the source table
+   * matching the changedRowCondition.  The condition is matched against all rows, not just the metric's events, so
+   * that e.g. a task that is no longer complete is removed from the count of its hour.  Only events also matching
+   * the countedRowCondition are counted.  The binder binds the parameters of both conditions.
+   */
+  private void recountHours(Handle handle, MetricName metricName, String changedRowCondition,
+                            String countedRowCondition, Consumer<Update> binder) {
+    MetricSource source = METRIC_SOURCES.get(metricName);
+    String changedHours = """
+        select distinct study_environment_id, date_trunc('hour', %1$s) as bucket_start from %2$s
+         where %1$s is not null and %3$s
+        """.formatted(source.timeColumn(), source.table(), changedRowCondition);
+    var delete = handle.createUpdate("""
+            delete from metric_rollup using (%s) changed_hours
+             where metric_rollup.metric_name = :metricName
+             and metric_rollup.study_environment_id = changed_hours.study_environment_id
+             and metric_rollup.bucket_start = changed_hours.bucket_start
+            """.formatted(changedHours))
+        .bind("metricName", metricName.name());
+    var insert = handle.createUpdate("""
+            insert into metric_rollup (study_environment_id, metric_name, bucket_start, subcategory, count)
+            select study_environment_id, :metricName, date_trunc('hour', %1$s), %2$s, count(*) from %3$s
+             where %4$s and %5$s
+             and (study_environment_id, date_trunc('hour', %1$s)) in (%6$s)
+             group by 1, 3, 4
+            """.formatted(source.timeColumn(), source.subcategoryColumn(), source.table(), source.condition(),
+                countedRowCondition, changedHours))
+        .bind("metricName", metricName.name());
+    binder.accept(delete);
+    binder.accept(insert);
+    delete.execute();
+    insert.execute();
   }
 
   public List<BasicMetricDatum> studyEnrollments(UUID studyEnvironmentId, TimeRange range) {
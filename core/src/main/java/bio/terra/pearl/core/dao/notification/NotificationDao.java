@@ -2,11 +2,18 @@ package bio.terra.pearl.core.dao.notification;
 
 import bio.terra.pearl.core.dao.BaseMutableJdbiDao;
 import bio.terra.pearl.core.model.notification.Notification;
+import bio.terra.pearl.core.model.notification.NotificationDeliveryStatus;
+import bio.terra.pearl.core.model.notification.NotificationDeliveryType;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.statement.PreparedBatch;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -25,14 +32,103 @@ public class NotificationDao extends BaseMutableJdbiDao<Notification> {
     /** handles serializing the message map, if it exists */
     @Override
     public Notification create(Notification notification) {
-        if (notification.getCustomMessagesMap() != null && !notification.getCustomMessagesMap().isEmpty()) {
-            try {
-                notification.setCustomMessages(objectMapper.writeValueAsString(notification.getCustomMessagesMap()));
-            } catch (JsonProcessingException e) {
-                throw new RuntimeException("Could not serialize custom messages", e);
+        serializeCustomMessages(notification);
+        return super.create(notification);
+    }
+
+    /**
+     * creates the notifications in a single batch.  Ids are assigned here, rather than by the database, so that the
+     * passed-in notifications (which, unlike the ones read back from the database, have their custom messages map)
+     * can be delivered and then updated.
+     */
+    public void bulkCreateWithIds(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        jdbi.useHandle(handle -> {
+            PreparedBatch batch = handle.prepareBatch(getCreateQueryWithIdSpecifiedSql());
+            for (Notification notification : notifications) {
+                if (notification.getId() != null) {
+                    throw new IllegalArgumentException("notification passed to bulk create already has id: "
+                            + notification.getId());
+                }
+                notification.setId(UUID.randomUUID());
+                serializeCustomMessages(notification);
+                batch.bindBean(notification).add();
             }
+            batch.execute();
+        });
+    }
+
+    /** updates the delivery status, sent to address, and retries of the notifications in a single batch */
+    public void bulkUpdateDeliveryStatus(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
         }
-        return super.create(notification);
+        Instant now = Instant.now();
+        jdbi.useHandle(handle -> {
+            PreparedBatch batch = handle.prepareBatch("update " + tableName
+                    + " set delivery_status = :deliveryStatus, sent_to = :sentTo, retries = :retries,"
+                    + " last_updated_at = :lastUpdatedAt where id = :id");
+            for (Notification notification : notifications) {
+                notification.setLastUpdatedAt(now);
+                batch.bindBean(notification).add();
+            }
+            batch.execute();
+        });
+    }
+
+    /**
+     * records the SENT notifications as the latest ones sent from their configs to their enrollees, so that task
+     * reminders are spaced from them.  The time recorded is the notification's creation time, and notifications that
+     * were skipped or failed are ignored -- this is the same rule the table was seeded with, so an undelivered
+     * reminder doesn't hold off the next one.  Since notifications are only marked SENT after delivery, the time
+     * is recorded when the delivery status is saved.
+     */
+    public void recordSentNotificationTimes(List<Notification> notifications) {
+        List<Notification> sentNotifications = notifications.stream()
+                .filter(notification -> notification.getDeliveryStatus() == NotificationDeliveryStatus.SENT
+                        && notification.getEnrolleeId() != null && notification.getNotificationConfigId() != null)
+                .toList();
+        if (sentNotifications.isEmpty()) {
+            return;
+        }
+        jdbi.useHandle(handle -> {
+            PreparedBatch batch = handle.prepareBatch("""
+                    insert into enrollee_notification_time (enrollee_id, notification_config_id, last_notification_time)
+                    values (:enrolleeId, :notificationConfigId, :createdAt)
+                    on conflict (enrollee_id, notification_config_id)
+                    do update set last_notification_time = greatest(enrollee_notification_time.last_notification_time,
+                                                                    excluded.last_notification_time)
+                    """);
+            for (Notification notification : sentNotifications) {
+                batch.bindBean(notification).add();
+            }
+            batch.execute();
+        });
+    }
+
+    /**
+     * claims up to limit notifications of the given type that have been READY since before the cutoff, by updating
+     * their last_updated_at to now, and returns them.  Locked rows are skipped, so concurrent callers claim
+     * different notifications, and a claimed notification isn't claimed again until it is stale again.
+     */
+    public List<Notification> claimStaleReady(NotificationDeliveryType deliveryType, Instant cutoff, int limit) {
+        List<Notification> notifications = jdbi.withHandle(handle ->
+                handle.createQuery("update " + tableName + " set last_updated_at = :now where id in ("
+                                + " select id from " + tableName + " where delivery_status = :ready"
+                                + " and delivery_type = :deliveryType and last_updated_at < :cutoff"
+                                + " order by last_updated_at limit :limit for update skip locked) returning *")
+                        .bind("now", Instant.now())
+                        .bind("ready", NotificationDeliveryStatus.READY)
+                        .bind("deliveryType", deliveryType)
+                        .bind("cutoff", cutoff)
+                        .bind("limit", limit)
+                        .mapTo(clazz)
+                        .list()
+        );
+        notifications.forEach(this::deserializeCustomMessages);
+        return notifications;
     }
 
     public List<Notification> findByEnrolleeId(UUID enrolleeId) {
@@ -40,6 +136,44 @@ public class NotificationDao extends BaseMutableJdbiDao<Notification> {
     }
 
     public void deleteByEnrolleeId(UUID enrolleeId) {
+        jdbi.useHandle(handle ->
+                handle.createUpdate("delete from enrollee_notification_time where enrollee_id = :enrolleeId")
+                        .bind("enrolleeId", enrolleeId)
+                        .execute()
+        );
         deleteByProperty("enrollee_id", enrolleeId);
     }
+
+    public void deleteByEnrolleeIds(Collection<UUID> enrolleeIds) {
+        if (enrolleeIds.isEmpty()) {
+            return;
+        }
+        jdbi.useHandle(handle ->
+                handle.createUpdate("delete from enrollee_notification_time where enrollee_id = any(:enrolleeIds)")
+                        .bindArray("enrolleeIds", UUID.class, enrolleeIds)
+                        .execute()
+        );
+        deleteByPropertyCollection("enrollee_id", enrolleeIds);
+    }
+
+    private void deserializeCustomMessages(Notification notification) {
+        if (notification.getCustomMessages() != null) {
+            try {
+                notification.setCustomMessagesMap(objectMapper.readValue(notification.getCustomMessages(),
+                        new TypeReference<Map<String, String>>() {}));
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Could not deserialize custom messages", e);
+            }
+        }
+    }
+
+    private void serializeCustomMessages(Notification notification) {
+        if (notification.getCustomMessagesMap() != null && !notification.getCustomMessagesMap().isEmpty()) {
+            try {
+                notification.setCustomMessages(objectMapper.writeValueAsString(notification.getCustomMessagesMap()));
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Could not serialize custom messages", e);
+            }
+        }
+    }
 }
@@ -10,17 +10,33 @@ import bio.terra.pearl.core.dao.workflow.ParticipantTaskDao;
 import bio.terra.pearl.core.model.kit.KitRequest;
 import bio.terra.pearl.core.model.participant.Enrollee;
 
+import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.statement.Query;
 import org.springframework.data.util.Pair;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 @Component
 public class EnrolleeDao extends BaseMutableJdbiDao<Enrollee> {
+    /** matches enrollees with any exported data updated after :updatedSince -- the subqueries use the enrollee_id indexes */
+    private static final String UPDATED_SINCE_CLAUSE = """
+            (enrollee.last_updated_at > :updatedSince
+              or exists (select 1 from profile where profile.id = enrollee.profile_id
+                  and profile.last_updated_at > :updatedSince)
+              or exists (select 1 from profile join mailing_address on mailing_address.id = profile.mailing_address_id
+                  where profile.id = enrollee.profile_id and mailing_address.last_updated_at > :updatedSince)
+              or exists (select 1 from answer where answer.enrollee_id = enrollee.id
+                  and answer.last_updated_at > :updatedSince)
+              or exists (select 1 from participant_task where participant_task.enrollee_id = enrollee.id
+                  and participant_task.last_updated_at > :updatedSince)
+              or exists (select 1 from survey_response where survey_response.enrollee_id = enrollee.id
+                  and survey_response.last_updated_at > :updatedSince))
+            """;
     private final ConsentResponseDao consentResponseDao;
     private final KitRequestDao kitRequestDao;
     private final KitTypeDao kitTypeDao;
@@ -68,6 +84,40 @@ public class EnrolleeDao extends BaseMutableJdbiDao<Enrollee> {
                 sortProperty, sortDir);
     }
 
+    /**
+     * returns up to pageSize enrollees of the study environment, most recently created first.  Pages are keyed on the
+     * (created_at, id) of the last enrollee of the previous page rather than on an offset, so later pages are as cheap
+     * to fetch as the first.  Pass a null previousPageLast to get the first page.
+     */
+    public List<Enrollee> findPageByStudyEnvironmentId(UUID studyEnvironmentId, Enrollee previousPageLast, int pageSize) {
+        return findPageByStudyEnvironmentId(studyEnvironmentId, null, previousPageLast, pageSize);
+    }
+
+    /**
+     * as above, but if updatedSince is non-null, only returns enrollees whose own record, profile, mailing address,
+     * answers, tasks, or survey responses have been updated after that time.
+     */
+    public List<Enrollee> findPageByStudyEnvironmentId(UUID studyEnvironmentId, Instant updatedSince,
+                                                       Enrollee previousPageLast, int pageSize) {
+        String keysetClause = previousPageLast == null ? "" : " and (created_at, id) < (:lastCreatedAt, :lastId)";
+        String updatedSinceClause = updatedSince == null ? "" : " and " + UPDATED_SINCE_CLAUSE;
+        return jdbi.withHandle(handle -> {
+            Query query = handle.createQuery("select * from " + tableName
+                            + " where study_environment_id = :studyEnvironmentId" + keysetClause + updatedSinceClause
+                            + " order by created_at desc, id desc limit :pageSize")
+                    .bind("studyEnvironmentId", studyEnvironmentId)
+                    .bind("pageSize", pageSize);
+            if (previousPageLast != null) {
+                query.bind("lastCreatedAt", previousPageLast.getCreatedAt())
+                        .bind("lastId", previousPageLast.getId());
+            }
+            if (updatedSince != null) {
+                query.bind("updatedSince", updatedSince);
+            }
+            return query.mapTo(clazz).list();
+        });
+    }
+
     @Transactional
     public Stream<Enrollee> streamByStudyEnvironmentId(UUID studyEnvironmentId) {
         return streamAllByProperty("study_environment_id", studyEnvironmentId);
@@ -5,10 +5,13 @@ import bio.terra.pearl.core.dao.study.StudyEnvironmentDao;
 import bio.terra.pearl.core.model.EnvironmentName;
 import bio.terra.pearl.core.model.kit.KitRequestStatus;
 import bio.terra.pearl.core.model.participant.Enrollee;
+import bio.terra.pearl.core.model.participant.EnrolleeSearchPage;
 import bio.terra.pearl.core.model.participant.EnrolleeSearchResult;
 import bio.terra.pearl.core.model.participant.ParticipantUser;
 import bio.terra.pearl.core.model.participant.Profile;
 import bio.terra.pearl.core.model.study.StudyEnvironment;
+import bio.terra.pearl.core.service.participant.search.EnrolleeSearchCursor;
+import bio.terra.pearl.core.service.participant.search.EnrolleeSearchSort;
 import bio.terra.pearl.core.service.participant.search.facets.sql.SqlSearchableFacet;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -21,11 +24,18 @@ import org.springframework.stereotype.Component;
 
 @Component
 public class EnrolleeSearchDao {
+  /**
+   * joins each enrollee to only their most recent kit request.  The idx_kit_request_enrollee_created_at index makes this
+   * a single index probe per enrollee, rather than joining and then sorting every kit request of the environment
+   */
+  protected static final String LATEST_KIT_JOIN = " left join lateral (select kit_request.status from kit_request"
+      + " where kit_request.enrollee_id = enrollee.id order by kit_request.created_at desc limit 1) latest_kit on true";
   private final Jdbi jdbi;
   private StudyEnvironmentDao studyEnvironmentDao;
   private EnrolleeDao enrolleeDao;
   private ProfileDao profileDao;
   private String baseSelectString;
+  private String pageSelectString;
   private RowMapper<Enrollee> enrolleeRowMapper;
   private RowMapper<Profile> profileRowMapper;
   private RowMapper<ParticipantUser> participantUserRowMapper;
@@ -37,10 +47,11 @@ public class EnrolleeSearchDao {
     this.jdbi = jdbi;
     this.enrolleeDao = enrolleeDao;
     this.profileDao = profileDao;
-    baseSelectString = "select distinct on (enrollee.id) " +
-        generateSelectString(enrolleeDao) + ", " + generateSelectString(profileDao) +
-            ", participant_user.last_login, participant_user.username " +
-        ", kit_request.status as kit_request__status";
+    String columnSelectString = generateSelectString(enrolleeDao) + ", " + generateSelectString(profileDao) +
+        ", participant_user.last_login, participant_user.username ";
+    baseSelectString = "select distinct on (enrollee.id) " + columnSelectString +
+        ", latest_kit.status as kit_request__status";
+    pageSelectString = "select " + columnSelectString + ", latest_kit.status as kit_request__status";
     enrolleeRowMapper = BeanMapper.of(Enrollee.class, enrolleeDao.getTableName() + "__");
     profileRowMapper = BeanMapper.of(Profile.class, profileDao.getTableName() + "__");
     participantUserRowMapper = BeanMapper.of(ParticipantUser.class, participantUserDao.getTableName() + "__");
@@ -61,29 +72,105 @@ public class EnrolleeSearchDao {
       for (int i = 0; i < facets.size(); i++) {
         facets.get(i).bindSqlParameters(i, query);
       }
-      return query
-          .registerRowMapper(Enrollee.class, enrolleeRowMapper)
-          .registerRowMapper(Profile.class, profileRowMapper)
-          .reduceRows(new LinkedHashMap<UUID, EnrolleeSearchResult>(),
-              // see https://jdbi.org/#_resultbearing_reducerows
-              // we don't technically need to use reduce rows yet since we just return one row per enrollee
-              // but I suspect that will change as we start adding more complex joins.
-              (map, rowView) -> {
-                EnrolleeSearchResult esr = map.computeIfAbsent(rowView.getColumn("enrollee__id", UUID.class),
-                    id -> new EnrolleeSearchResult());
-                esr.setEnrollee(rowView.getRow(Enrollee.class));
-                esr.setProfile(rowView.getRow(Profile.class));
-                esr.setParticipantUser(rowView.getRow(ParticipantUser.class));
-                esr.setMostRecentKitStatus(rowView.getColumn("kit_request__status", KitRequestStatus.class));
-                return map;
-              })
-          .values()
-          .stream().toList();
+      return mapResults(query);
     });
     return result;
   }
 
+  /**
+   * returns a page of up to pageSize matching enrollees, ordered by the given sort and then by id.  If a cursor is
+   * given, the page starts after the enrollee it points to.  Since the sort is always tiebroken by id, this is a
+   * keyset query -- later pages are as cheap to fetch as the first, and no more than a page of rows is read when the
+   * sort column is indexed.  Facets can join to multiple rows per enrollee, so the keyset and limit are applied to
+   * the distinct enrollee ids first, and the page's rows are then joined to those ids.  That way every page has
+   * pageSize enrollees (other than the last), and none of an enrollee's rows are split across pages.
+   */
+  public EnrolleeSearchPage searchPage(UUID studyEnvId, List<SqlSearchableFacet> facets, EnrolleeSearchSort sort,
+                                       boolean ascending, EnrolleeSearchCursor cursor, int pageSize) {
+    return jdbi.withHandle(handle -> {
+      String direction = ascending ? "asc" : "desc";
+      String keysetClause = cursor == null ? "" :
+          " AND (%s, enrollee.id) %s (:cursorValue, :cursorId)".formatted(sort.getSqlExpression(), ascending ? ">" : "<");
+      String pageIdsQuery = "select distinct enrollee.id as page_enrollee_id, %s as page_sort_value"
+          .formatted(sort.getSqlExpression())
+          + generateFromQuery(facets) + generateWhereQuery(facets) + keysetClause
+          + " order by page_sort_value %s, page_enrollee_id %s limit :pageSize".formatted(direction, direction);
+      String queryString = "with enrollee_page as (" + pageIdsQuery + ") "
+          + generateSelectQuery(pageSelectString, facets) + generateFromQuery(facets)
+          + " join enrollee_page on enrollee_page.page_enrollee_id = enrollee.id" + LATEST_KIT_JOIN
+          + generateWhereQuery(facets)
+          + " order by enrollee_page.page_sort_value %s, enrollee.id %s".formatted(direction, direction);
+      Query query = handle.createQuery(queryString)
+          .bind("studyEnvironmentId", studyEnvId)
+          .bind("pageSize", pageSize);
+      for (int i = 0; i < facets.size(); i++) {
+        facets.get(i).bindSqlParameters(i, query);
+      }
+      if (cursor != null) {
+        query.bind("cursorValue", sort.parseCursorValue(cursor.sortValue()))
+            .bind("cursorId", cursor.enrolleeId());
+      }
+      List<EnrolleeSearchResult> results = mapResults(query);
+      String nextCursor = null;
+      if (!results.isEmpty() && results.size() == pageSize) {
+        EnrolleeSearchResult last = results.get(results.size() - 1);
+        nextCursor = new EnrolleeSearchCursor(sort.getCursorValue(last), last.getEnrollee().getId()).encode();
+      }
+      return new EnrolleeSearchPage(results, nextCursor);
+    });
+  }
+
+  /** counts the matching enrollees, without loading them */
+  public int count(UUID studyEnvId, List<SqlSearchableFacet> facets) {
+    return jdbi.withHandle(handle -> {
+      Query query = handle.createQuery("select count(distinct enrollee.id)" + generateFromQuery(facets)
+          + generateWhereQuery(facets));
+      query.bind("studyEnvironmentId", studyEnvId);
+      for (int i = 0; i < facets.size(); i++) {
+        facets.get(i).bindSqlParameters(i, query);
+      }
+      return query.mapTo(Integer.class).one();
+    });
+  }
+
+  protected List<EnrolleeSearchResult> mapResults(Query query) {
+    return query
+        .registerRowMapper(Enrollee.class, enrolleeRowMapper)
+        .registerRowMapper(Profile.class, profileRowMapper)
+        .reduceRows(new LinkedHashMap<UUID, EnrolleeSearchResult>(),
+            // see https://jdbi.org/#_resultbearing_reducerows
+            // facet joins can return more than one row per enrollee, so we collapse them here
+            (map, rowView) -> {
+              EnrolleeSearchResult esr = map.computeIfAbsent(rowView.getColumn("enrollee__id", UUID.class),
+                  id -> new EnrolleeSearchResult());
+              esr.setEnrollee(rowView.getRow(Enrollee.class));
+              esr.setProfile(rowView.getRow(Profile.class));
+              esr.setParticipantUser(rowView.getRow(ParticipantUser.class));
+              esr.setMostRecentKitStatus(rowView.getColumn("kit_request__status", KitRequestStatus.class));
+              return map;
+            })
+        .values()
+        .stream().toList();
+  }
+
   protected String generateSearchQueryString(List<SqlSearchableFacet> facets) {
+    // facet joins can still return multiple rows per enrollee, so we need the distinct on
+    String sortQuery = " order by enrollee.id, enrollee.created_at desc;";
+
+    String sqlQuery = generateSelectQuery(baseSelectString, facets) + generateFromQuery(facets) + LATEST_KIT_JOIN
+        + generateWhereQuery(facets) + sortQuery;
+    return sqlQuery;
+  }
+
+  protected String generateSelectQuery(String baseSelect, List<SqlSearchableFacet> facets) {
+    List<String> selects = facets.stream().map(facet -> facet.getSelectQuery())
+        .filter(query -> query != null)
+        .collect(Collectors.toList());
+    selects.add(0, baseSelect);
+    return selects.stream().collect(Collectors.joining(","));
+  }
+
+  protected String generateFromQuery(List<SqlSearchableFacet> facets) {
     var facetsGroupByTable = new HashMap<String, List<SqlSearchableFacet>>();
     facets.stream()
         // filter out enrollee and profile -- those will already be included
@@ -95,33 +182,23 @@ public class EnrolleeSearchDao {
           facetsGroupByTable.get(facet.getTableName()).add(facet);
         });
 
-    List<String> selects = facets.stream().map(facet -> facet.getSelectQuery())
-        .filter(query -> query != null)
-        .collect(Collectors.toList());
-    selects.add(0, baseSelectString);
-    String selectQuery = selects.stream().collect(Collectors.joining(","));
-
     String baseFromQuery = """
              from enrollee 
              left join participant_user on participant_user.id = enrollee.participant_user_id
              left join profile on profile.id = enrollee.profile_id 
-             left join kit_request on enrollee.id = kit_request.enrollee_id
     """;
     List<String> froms = facetsGroupByTable.values().stream().map(facetList -> facetList.get(0).getJoinQuery())
         .collect(Collectors.toList());
     froms.add(0, baseFromQuery);
-    String fromQuery = froms.stream().collect(Collectors.joining(""));
+    return froms.stream().collect(Collectors.joining(""));
+  }
 
+  protected String generateWhereQuery(List<SqlSearchableFacet> facets) {
     String baseWhereQuery = " where enrollee.study_environment_id = :studyEnvironmentId";
     List<String> wheres = IntStream.range(0, facets.size()).mapToObj(i ->
         facets.get(i).getWhereClause(i)).collect(Collectors.toList());
     wheres.add(0, baseWhereQuery);
-    String whereQuery = wheres.stream().collect(Collectors.joining(" AND"));
-
-    String sortQuery = " order by enrollee.id, enrollee.created_at desc, kit_request.created_at desc;";
-
-    String sqlQuery = selectQuery + fromQuery + whereQuery + sortQuery;
-    return sqlQuery;
+    return wheres.stream().collect(Collectors.joining(" AND"));
   }
 
   protected static String generateSelectString(BaseJdbiDao dao) {
@@ -2,6 +2,7 @@ package bio.terra.pearl.core.dao.participant;
 
 import bio.terra.pearl.core.dao.BaseMutableJdbiDao;
 import bio.terra.pearl.core.model.participant.ParticipantNote;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import org.jdbi.v3.core.Jdbi;
@@ -19,6 +20,10 @@ public class ParticipantNoteDao extends BaseMutableJdbiDao<ParticipantNote> {
   public void deleteByEnrollee(UUID enrolleeId) {
     deleteByProperty("enrollee_id", enrolleeId);
   }
+
+  public void deleteByEnrolleeIds(Collection<UUID> enrolleeIds) {
+    deleteByPropertyCollection("enrollee_id", enrolleeIds);
+  }
   @Override
   protected Class<ParticipantNote> getClazz() {
     return ParticipantNote.class;
@@ -57,6 +57,37 @@ public class PortalParticipantUserDao extends BaseJdbiDao<PortalParticipantUser>
         );
     }
 
+    /**
+     * returns a hash that changes whenever the portal user, or any of their enrollees in the portal, along with the
+     * enrollees' tasks, profiles and mailing addresses, are created, updated or deleted.  This is a single indexed
+     * query, so it can be run on every request to check whether a cached copy of the user's enrollees is current.
+     * Returns empty if the user is not in the portal.
+     */
+    public Optional<String> findEnrolleeDataVersion(UUID participantUserId, String portalShortcode) {
+        return jdbi.withHandle(handle ->
+                handle.createQuery("""
+                                select md5(concat_ws('|', ppu.id, ppu.last_updated_at,
+                                    (select string_agg(concat_ws(',', e.id, e.last_updated_at, p.last_updated_at,
+                                            ma.last_updated_at,
+                                            (select concat_ws(',', count(*), max(t.last_updated_at))
+                                               from participant_task t where t.enrollee_id = e.id)), ';' order by e.id)
+                                       from enrollee e
+                                       left join profile p on p.id = e.profile_id
+                                       left join mailing_address ma on ma.id = p.mailing_address_id
+                                      where e.profile_id = ppu.profile_id)))
+                                  from portal_participant_user ppu
+                                  join portal_environment pe on pe.id = ppu.portal_environment_id
+                                  join portal on portal.id = pe.portal_id
+                                 where portal.shortcode = :portalShortcode
+                                   and ppu.participant_user_id = :participantUserId
+                                """)
+                        .bind("portalShortcode", portalShortcode)
+                        .bind("participantUserId", participantUserId)
+                        .mapTo(String.class)
+                        .findOne()
+        );
+    }
+
     public List<PortalParticipantUser> findByParticipantUserId(UUID userId) {
         return findAllByProperty("participant_user_id", userId);
     }
@@ -3,8 +3,13 @@ package bio.terra.pearl.core.dao.participant;
 import bio.terra.pearl.core.dao.BaseMutableJdbiDao;
 import bio.terra.pearl.core.model.participant.MailingAddress;
 import bio.terra.pearl.core.model.participant.Profile;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.jdbi.v3.core.Jdbi;
 import org.springframework.stereotype.Component;
 
@@ -31,6 +36,24 @@ public class ProfileDao extends BaseMutableJdbiDao<Profile> {
         return profileOpt;
     }
 
+    /**
+     * loads the given profiles with their mailing addresses attached.  This uses one query for the profiles and one
+     * for the addresses, regardless of how many profiles are requested
+     */
+    public List<Profile> findAllWithMailingAddress(List<UUID> profileIds) {
+        List<Profile> profiles = findAll(profileIds);
+        List<UUID> mailingAddressIds = profiles.stream().map(Profile::getMailingAddressId)
+                .filter(Objects::nonNull).toList();
+        Map<UUID, MailingAddress> mailingAddressesById = mailingAddressDao.findAll(mailingAddressIds).stream()
+                .collect(Collectors.toMap(MailingAddress::getId, Function.identity()));
+        for (Profile profile : profiles) {
+            if (profile.getMailingAddressId() != null) {
+                profile.setMailingAddress(mailingAddressesById.get(profile.getMailingAddressId()));
+            }
+        }
+        return profiles;
+    }
+
     /** updates the profile and also updates the attached mailing address, if any */
     public Profile updateWithMailingAddress(Profile profile) {
         MailingAddress mailingAddress = profile.getMailingAddress();
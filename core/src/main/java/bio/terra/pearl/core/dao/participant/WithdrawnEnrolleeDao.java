@@ -7,7 +7,11 @@ import bio.terra.pearl.core.dao.survey.SurveyResponseDao;
 import bio.terra.pearl.core.dao.workflow.ParticipantTaskDao;
 import bio.terra.pearl.core.model.participant.Enrollee;
 import bio.terra.pearl.core.model.participant.WithdrawnEnrollee;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import org.jdbi.v3.core.Jdbi;
 import org.springframework.stereotype.Component;
 
@@ -45,6 +49,19 @@ public class WithdrawnEnrolleeDao extends BaseJdbiDao<WithdrawnEnrollee> {
     return countByProperty("shortcode", shortcode) == 1;
   }
 
+  /** returns the subset of the given shortcodes that have withdrawal records, without loading the records */
+  public Set<String> findWithdrawnShortcodes(Collection<String> shortcodes) {
+    if (shortcodes.isEmpty()) {
+      return new HashSet<>();
+    }
+    return jdbi.withHandle(handle ->
+        handle.createQuery("select shortcode from " + tableName + " where shortcode = any(:shortcodes)")
+            .bindArray("shortcodes", String.class, shortcodes)
+            .mapTo(String.class)
+            .collect(Collectors.toSet())
+    );
+  }
+
   public int countByStudyEnvironmentId(UUID studyEnvId) {
     return countByProperty("study_environment_id", studyEnvId);
   }
@@ -4,6 +4,7 @@ import bio.terra.pearl.core.dao.BaseMutableJdbiDao;
 import bio.terra.pearl.core.dao.admin.PortalAdminUserDao;
 import bio.terra.pearl.core.dao.study.PortalStudyDao;
 import bio.terra.pearl.core.dao.study.StudyDao;
+import bio.terra.pearl.core.model.EnvironmentName;
 import bio.terra.pearl.core.model.admin.PortalAdminUser;
 import bio.terra.pearl.core.model.portal.Portal;
 import bio.terra.pearl.core.model.portal.PortalEnvironment;
@@ -71,6 +72,41 @@ public class PortalDao extends BaseMutableJdbiDao<Portal> {
         return portal;
     }
 
+    /**
+     * returns a hash that changes whenever anything shown on the participant-facing site for the given portal
+     * environment changes -- the portal, environment, environment config, site content, preregistration survey,
+     * and the studies with their environments, configs, and pre-enroll surveys.  Surveys and site content are
+     * versioned, so it is enough to compare their ids and update times.  This is a single indexed query, so it
+     * can be run on every request to check whether cached content is still current.
+     * Returns empty if the portal has no such environment.
+     */
+    public Optional<String> findParticipantContentVersion(UUID portalId, EnvironmentName environmentName) {
+        return jdbi.withHandle(handle ->
+                handle.createQuery("""
+                                select md5(concat_ws('|', p.last_updated_at, pe.id, pe.last_updated_at,
+                                    pec.last_updated_at, pe.site_content_id, prs.id, prs.last_updated_at,
+                                    (select string_agg(concat_ws(',', s.id, s.last_updated_at, se.id, se.last_updated_at,
+                                            sec.last_updated_at, pes.id, pes.last_updated_at), ';' order by s.id)
+                                       from portal_study ps
+                                       join study s on s.id = ps.study_id
+                                       left join study_environment se on se.study_id = s.id
+                                            and se.environment_name = pe.environment_name
+                                       left join study_environment_config sec on sec.id = se.study_environment_config_id
+                                       left join survey pes on pes.id = se.pre_enroll_survey_id
+                                      where ps.portal_id = p.id)))
+                                  from portal p
+                                  join portal_environment pe on pe.portal_id = p.id
+                                  left join portal_environment_config pec on pec.id = pe.portal_environment_config_id
+                                  left join survey prs on prs.id = pe.pre_reg_survey_id
+                                 where p.id = :portalId and pe.environment_name = :environmentName
+                                """)
+                        .bind("portalId", portalId)
+                        .bind("environmentName", environmentName)
+                        .mapTo(String.class)
+                        .findOne()
+        );
+    }
+
     /**
      * hydrates the passed-in portal object, with all children, excepting users, participants, and images
      * This isn't terribly optimized yet
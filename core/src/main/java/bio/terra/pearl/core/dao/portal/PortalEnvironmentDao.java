@@ -50,13 +50,22 @@ public class PortalEnvironmentDao extends BaseMutableJdbiDao<PortalEnvironment>
     public Optional<PortalEnvironment> loadWithSiteContent(String shortcode,
                                                                       EnvironmentName environmentName,
                                                                       String language) {
+        Optional<PortalEnvironment> portalEnvOpt = loadWithConfigAndPreRegSurvey(shortcode, environmentName);
+        portalEnvOpt.ifPresent(portalEnv -> {
+            portalEnv.setSiteContent(siteContentDao.findOneFull(portalEnv.getSiteContentId(), language)
+                    .orElse(null));
+        });
+        return portalEnvOpt;
+    }
+
+    /** loads the environment config and preregistration survey, but not the site content */
+    public Optional<PortalEnvironment> loadWithConfigAndPreRegSurvey(String shortcode,
+                                                                     EnvironmentName environmentName) {
         Optional<PortalEnvironment> portalEnvOpt = findOne(shortcode, environmentName);
         portalEnvOpt.ifPresent(portalEnv -> {
             portalEnv.setPortalEnvironmentConfig(
                     portalEnvironmentConfigDao.find(portalEnv.getPortalEnvironmentConfigId()).orElse(null)
             );
-            portalEnv.setSiteContent(siteContentDao.findOneFull(portalEnv.getSiteContentId(), language)
-                    .orElse(null));
             if (portalEnv.getPreRegSurveyId() != null) {
                 portalEnv.setPreRegSurvey(surveyDao.find(portalEnv.getPreRegSurveyId()).get());
             }
@@ -2,17 +2,32 @@ package bio.terra.pearl.core.dao.survey;
 
 import bio.terra.pearl.core.dao.BaseMutableJdbiDao;
 import bio.terra.pearl.core.model.survey.Answer;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.jdbi.v3.core.Jdbi;
 import org.springframework.stereotype.Component;
 
 @Component
 public class AnswerDao extends BaseMutableJdbiDao<Answer> {
+    private final String upsertForResponseSql;
+
     public AnswerDao(Jdbi jdbi) {
         super(jdbi);
+        // on conflict, set every column except created_at -- this matches what update() would do for an existing answer
+        upsertForResponseSql = "insert into " + tableName + " (" + String.join(", ", insertColumns) + ") values <answers>"
+                + " on conflict (survey_response_id, question_stable_id) do update set "
+                + insertColumns.stream()
+                        .filter(column -> !"created_at".equals(column))
+                        .map(column -> column + " = excluded." + column)
+                        .collect(Collectors.joining(", "))
+                + " returning *";
     }
 
     @Override
@@ -28,6 +43,10 @@ public class AnswerDao extends BaseMutableJdbiDao<Answer> {
         deleteByProperty("survey_response_id", responseId);
     }
 
+    public void deleteByEnrolleeIds(Collection<UUID> enrolleeIds) {
+        deleteByPropertyCollection("enrollee_id", enrolleeIds);
+    }
+
     public Optional<Answer> findByResponseQuestion(UUID surveyResponseId, String questionStableId) {
         return findByTwoProperties("survey_response_id", surveyResponseId,
                 "question_stable_id", questionStableId);
@@ -49,6 +68,36 @@ public class AnswerDao extends BaseMutableJdbiDao<Answer> {
 
     }
 
+    /**
+     * creates or updates all the given answers with a single statement, matching existing answers on their
+     * survey response and question stableId (ids on the passed-in answers are ignored).  Returns the saved answers
+     * in the same order as they were passed in.  The list must not contain two answers for the same response and
+     * question, since postgres will not update the same row twice in one statement.
+     */
+    public List<Answer> upsertAllForResponse(List<Answer> answers) {
+        if (answers.isEmpty()) {
+            // short circuit this case because bindBeanList errors if list is empty
+            return new ArrayList<>();
+        }
+        Instant now = Instant.now();
+        answers.forEach(answer -> answer.setLastUpdatedAt(now));
+        Map<ResponseQuestionKey, Answer> savedAnswers = jdbi.withHandle(handle ->
+                handle.createQuery(upsertForResponseSql)
+                        .bindBeanList("answers", answers, insertFields)
+                        .mapTo(clazz)
+                        .stream()
+                        .collect(Collectors.toMap(ResponseQuestionKey::of, Function.identity()))
+        );
+        // postgres does not guarantee the order of returned rows, so match them back up to the inputs
+        return answers.stream().map(answer -> savedAnswers.get(ResponseQuestionKey.of(answer))).toList();
+    }
+
+    private record ResponseQuestionKey(UUID surveyResponseId, String questionStableId) {
+        static ResponseQuestionKey of(Answer answer) {
+            return new ResponseQuestionKey(answer.getSurveyResponseId(), answer.getQuestionStableId());
+        }
+    }
+
     public List<Answer> findByEnrolleeAndSurvey(UUID enrolleeId, String surveyStableId) {
         return findAllByTwoProperties("enrollee_id", enrolleeId, "survey_stable_id", surveyStableId);
     }
@@ -56,4 +105,10 @@ public class AnswerDao extends BaseMutableJdbiDao<Answer> {
     public List<Answer> findByEnrolleeId(UUID enrolleeId) {
         return findAllByProperty("enrollee_id", enrolleeId);
     }
+
+    /** returns all answers for the given enrollees, grouped by enrollee id.  Fetches with a single query */
+    public Map<UUID, List<Answer>> findByEnrolleeIds(Collection<UUID> enrolleeIds) {
+        return findAllByPropertyCollection("enrollee_id", enrolleeIds).stream()
+                .collect(Collectors.groupingBy(Answer::getEnrolleeId));
+    }
 }
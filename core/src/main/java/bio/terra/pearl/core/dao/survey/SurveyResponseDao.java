@@ -4,6 +4,7 @@ import bio.terra.pearl.core.dao.BaseMutableJdbiDao;
 import bio.terra.pearl.core.model.survey.Answer;
 import bio.terra.pearl.core.model.survey.SurveyResponse;
 import java.util.*;
+import java.util.stream.Collectors;
 import org.jdbi.v3.core.Jdbi;
 import org.springframework.stereotype.Component;
 
@@ -26,6 +27,16 @@ public class SurveyResponseDao extends BaseMutableJdbiDao<SurveyResponse> {
         return findAllByProperty("enrollee_id", enrolleeId);
     }
 
+    /** returns all responses (without answers) for the given enrollees, grouped by enrollee id */
+    public Map<UUID, List<SurveyResponse>> findByEnrolleeIds(Collection<UUID> enrolleeIds) {
+        return findAllByPropertyCollection("enrollee_id", enrolleeIds).stream()
+                .collect(Collectors.groupingBy(SurveyResponse::getEnrolleeId));
+    }
+
+    public void deleteByEnrolleeIds(Collection<UUID> enrolleeIds) {
+        deleteByPropertyCollection("enrollee_id", enrolleeIds);
+    }
+
     /**
      * this avoids N+1 querying, but is otherwise unoptimized. It grabs all the responses, then all the answers
      */
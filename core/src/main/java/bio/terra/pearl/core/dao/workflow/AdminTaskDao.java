@@ -39,6 +39,10 @@ public class AdminTaskDao extends BaseMutableJdbiDao<AdminTask> {
         deleteByProperty("enrollee_id", enrolleeId);
     }
 
+    public void deleteByEnrolleeIds(Collection<UUID> enrolleeIds) {
+        deleteByPropertyCollection("enrollee_id", enrolleeIds);
+    }
+
     public List<AdminTask> findByAssignee(UUID adminUserId) {
         return findAllByProperty("assigned_admin_user_id", adminUserId);
     }
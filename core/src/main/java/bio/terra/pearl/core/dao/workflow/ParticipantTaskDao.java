@@ -1,6 +1,7 @@
 package bio.terra.pearl.core.dao.workflow;
 
 import bio.terra.pearl.core.dao.BaseMutableJdbiDao;
+import bio.terra.pearl.core.model.notification.NotificationType;
 import bio.terra.pearl.core.model.workflow.ParticipantTask;
 import bio.terra.pearl.core.model.workflow.TaskStatus;
 import bio.terra.pearl.core.model.workflow.TaskType;
@@ -15,6 +16,7 @@ import lombok.Setter;
 import org.jdbi.v3.core.Jdbi;
 import org.jdbi.v3.core.mapper.RowMapper;
 import org.jdbi.v3.core.mapper.reflect.BeanMapper;
+import org.jdbi.v3.core.statement.Query;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -34,7 +36,7 @@ public class ParticipantTaskDao extends BaseMutableJdbiDao<ParticipantTask> {
     }
 
     public Map<UUID, Set<ParticipantTask>> findByEnrolleeIds(Collection<UUID> enrolleeIds) {
-        return streamAllByPropertyCollection("enrollee_id", enrolleeIds)
+        return findAllByPropertyCollection("enrollee_id", enrolleeIds).stream()
                 .collect(Collectors.groupingBy(ParticipantTask::getEnrolleeId, Collectors.toSet()));
     }
 
@@ -60,6 +62,10 @@ public class ParticipantTaskDao extends BaseMutableJdbiDao<ParticipantTask> {
         deleteByProperty("enrollee_id", enrolleeId);
     }
 
+    public void deleteByEnrolleeIds(Collection<UUID> enrolleeIds) {
+        deleteByPropertyCollection("enrollee_id", enrolleeIds);
+    }
+
     public List<EnrolleeWithTasks> findByStatusAndTime(UUID studyEnvironmentId,
                                                        TaskType taskType,
                                                        Duration minTimeSinceCreation,
@@ -95,6 +101,73 @@ public class ParticipantTaskDao extends BaseMutableJdbiDao<ParticipantTask> {
         );
     }
 
+    /**
+     * finds the enrollees due a reminder from each active TASK_REMINDER config, across all study environments (or
+     * just the given one, if not null) in a single query.  An enrollee is due a reminder if they have an incomplete
+     * task of the config's type that is old enough, but not so old that all the reminders have been sent, and they
+     * haven't been sent a notification from the config within its reminder interval (see
+     * NotificationDao.recordSentNotificationTimes).  Only consent tasks are reminded to enrollees who haven't
+     * consented.
+     *
+     * Results are ordered by config and enrollee, and are paged by passing the last result of the previous page
+     * as "after" (or null for the first page).
+     */
+    public List<DueReminder> findDueReminders(UUID studyEnvironmentId, Instant now, DueReminder after, int limit) {
+        UUID afterConfigId = after == null ? new UUID(0, 0) : after.getNotificationConfigId();
+        UUID afterEnrolleeId = after == null ? new UUID(0, 0) : after.getEnrolleeId();
+        String studyEnvCondition = studyEnvironmentId == null ? ""
+                : " and notification_config.study_environment_id = :studyEnvironmentId";
+        return jdbi.withHandle(handle -> {
+            Query query = handle.createQuery("""
+                        select distinct notification_config.id as notificationConfigId,
+                               participant_task.enrollee_id as enrolleeId
+                        from notification_config
+                        join participant_task on participant_task.study_environment_id = notification_config.study_environment_id
+                          and participant_task.task_type = notification_config.task_type
+                        join enrollee on enrollee.id = participant_task.enrollee_id
+                        left join enrollee_notification_time
+                          on enrollee_notification_time.enrollee_id = participant_task.enrollee_id
+                          and enrollee_notification_time.notification_config_id = notification_config.id
+                        where notification_config.notification_type = :notificationType
+                        and notification_config.active = true
+                        and participant_task.status in (<statuses>)
+                        and participant_task.created_at < :now - notification_config.after_minutes_incomplete * interval '1 minute'
+                        -- a config with no maximum keeps reminding for as long as a hundred years
+                        and participant_task.created_at > :now - least(notification_config.after_minutes_incomplete
+                            + cast(notification_config.reminder_interval_minutes as bigint) * (case when notification_config.max_num_reminders <= 0
+                                then 100000 else notification_config.max_num_reminders end), 52560000) * interval '1 minute'
+                        and (enrollee_notification_time.last_notification_time is null
+                          or enrollee_notification_time.last_notification_time
+                            < :now - notification_config.reminder_interval_minutes * interval '1 minute')
+                        and (notification_config.task_type = :consentTaskType or enrollee.consented = true)
+                        and (notification_config.id, participant_task.enrollee_id) > (:afterConfigId, :afterEnrolleeId)
+                        """ + studyEnvCondition + """
+                         order by notificationConfigId, enrolleeId
+                        limit :limit
+                        """)
+                    .bind("notificationType", NotificationType.TASK_REMINDER)
+                    .bindList("statuses", List.of(TaskStatus.NEW, TaskStatus.IN_PROGRESS))
+                    .bind("consentTaskType", TaskType.CONSENT)
+                    .bind("now", now)
+                    .bind("afterConfigId", afterConfigId)
+                    .bind("afterEnrolleeId", afterEnrolleeId)
+                    .bind("limit", limit);
+            if (studyEnvironmentId != null) {
+                query.bind("studyEnvironmentId", studyEnvironmentId);
+            }
+            return query.map(dueReminderMapper).list();
+        });
+    }
+
+    @Getter
+    @Setter @NoArgsConstructor
+    public static class DueReminder {
+        private UUID notificationConfigId;
+        private UUID enrolleeId;
+    }
+
+    public RowMapper<DueReminder> dueReminderMapper = BeanMapper.of(DueReminder.class);
+
     @Getter
     @Setter @NoArgsConstructor
     public static class EnrolleeWithTasks {
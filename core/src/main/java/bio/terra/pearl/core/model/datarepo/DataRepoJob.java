@@ -7,6 +7,7 @@ import lombok.Setter;
 import lombok.ToString;
 import lombok.experimental.SuperBuilder;
 
+import java.time.Instant;
 import java.util.UUID;
 
 @Getter
@@ -19,4 +20,6 @@ public class DataRepoJob extends BaseEntity {
     private UUID datasetId;
     private String status;
     private JobType jobType;
+    /** for ingest jobs, the time the ingested data was read from the database */
+    private Instant dataAsOf;
 }
@@ -0,0 +1,37 @@
+package bio.terra.pearl.core.model.export;
+
+import bio.terra.pearl.core.model.BaseEntity;
+import bio.terra.pearl.core.service.export.ExportFileFormat;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * A request to export the enrollees of a study environment, run in the background.  The output is written to the
+ * ExportFileStore, which any node can serve it from.
+ */
+@Getter
+@Setter
+@SuperBuilder
+@NoArgsConstructor
+public class ExportJob extends BaseEntity {
+    private UUID studyEnvironmentId;
+    private UUID creatingAdminUserId;
+    @Builder.Default
+    private ExportJobStatus status = ExportJobStatus.PENDING;
+    private ExportFileFormat fileFormat;
+    /** the ExportOptions of the job, serialized as json */
+    private String optionsJson;
+    /** hash of the options that affect the output, so that jobs with identical output can be matched */
+    private String optionsHash;
+    /** fingerprint of the environment's participant data at the time the job ran */
+    private String dataVersion;
+    private Long fileSize;
+    private Instant startedAt;
+    private Instant completedAt;
+    private String errorMessage;
+}
@@ -0,0 +1,9 @@
+package bio.terra.pearl.core.model.export;
+
+public enum ExportJobStatus {
+    PENDING,
+    RUNNING,
+    COMPLETE,
+    FAILED,
+    EXPIRED // the job completed, but its file has since been cleaned up
+}
@@ -0,0 +1,15 @@
+package bio.terra.pearl.core.model.metrics;
+
+import java.time.Instant;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/** the number of events of a metric (and subcategory) in the time bucket starting at 'time' */
+@Getter @Setter @NoArgsConstructor
+public class BucketedMetricDatum {
+  private String name;
+  private String subcategory;
+  private Instant time;
+  private long count;
+}
@@ -0,0 +1,12 @@
+package bio.terra.pearl.core.model.metrics;
+
+/** the width of the time buckets metrics are counted in.  The names are postgres date_trunc fields */
+public enum MetricBucket {
+  HOUR,
+  DAY,
+  WEEK;
+
+  public String dateTruncField() {
+    return name().toLowerCase();
+  }
+}
@@ -0,0 +1,14 @@
+package bio.terra.pearl.core.model.participant;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/** a page of enrollee search results.  nextCursor is null if there are no further results */
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class EnrolleeSearchPage {
+    private List<EnrolleeSearchResult> results;
+    private String nextCursor;
+}
@@ -1,23 +1,40 @@
 package bio.terra.pearl.core.service;
 
 import bio.terra.pearl.core.dao.BaseVersionedJdbiDao;
-import bio.terra.pearl.core.dao.survey.SurveyDao;
 import bio.terra.pearl.core.model.BaseEntity;
 import bio.terra.pearl.core.model.Versioned;
-import bio.terra.pearl.core.model.survey.Survey;
+import bio.terra.pearl.core.service.cache.VersionedEntityCache;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 public abstract class VersionedEntityService<T extends BaseEntity & Versioned, D extends BaseVersionedJdbiDao<T>>
         extends ImmutableEntityService<T, D> {
+    /** cache of entities by stableId and version, or null if this service does not cache */
+    protected final VersionedEntityCache<StableIdVersion, T> versionCache;
 
     public VersionedEntityService(D dao) {
+        this(dao, null);
+    }
+
+    public VersionedEntityService(D dao, VersionedEntityCache<StableIdVersion, T> versionCache) {
         super(dao);
+        this.versionCache = versionCache;
     }
+
     public Optional<T> findByStableId(String stableId, int version) {
+        if (versionCache == null) {
+            return dao.findByStableId(stableId, version);
+        }
+        return versionCache.get(new StableIdVersion(stableId, version),
+                key -> loadForCache(key.stableId(), key.version()));
+    }
+
+    /** loads the entity to be stored in the version cache.  Subclasses can override to attach children */
+    protected Optional<T> loadForCache(String stableId, int version) {
         return dao.findByStableId(stableId, version);
     }
 
@@ -39,6 +56,25 @@ public abstract class VersionedEntityService<T extends BaseEntity & Versioned, D
         int nextVersion = dao.getNextPublishedVersion(entity.getStableId());
         entity.setPublishedVersion(nextVersion);
         dao.setPublishedVersion(id, nextVersion);
+        invalidateCached(id);
+    }
+
+    @Transactional
+    @Override
+    public void delete(UUID id, Set<CascadeProperty> cascade) {
+        invalidateCached(id);
+        dao.delete(id);
+    }
+
+    /**
+     * removes the entity with the given id from this node's cache.  Versions are otherwise never modified, so this is
+     * only needed on deletion, publishing, and when populate overwrites a version in place
+     */
+    public void invalidateCached(UUID id) {
+        if (versionCache != null) {
+            versionCache.invalidateIf(entity -> id.equals(entity.getId()));
+        }
     }
 
+    public record StableIdVersion(String stableId, int version) {}
 }
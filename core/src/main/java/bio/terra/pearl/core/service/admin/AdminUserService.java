@@ -15,12 +15,15 @@ import org.springframework.transaction.annotation.Transactional;
 public class AdminUserService extends CrudService<AdminUser, AdminUserDao> {
     private PortalAdminUserService portalAdminUserService;
     private PortalAdminUserRoleService portalAdminUserRoleService;
+    private AdminUserTokenCache adminUserTokenCache;
 
     public AdminUserService(AdminUserDao adminUserDao, PortalAdminUserService portalAdminUserService,
-                            PortalAdminUserRoleService portalAdminUserRoleService) {
+                            PortalAdminUserRoleService portalAdminUserRoleService,
+                            AdminUserTokenCache adminUserTokenCache) {
         super(adminUserDao);
         this.portalAdminUserService = portalAdminUserService;
         this.portalAdminUserRoleService = portalAdminUserRoleService;
+        this.adminUserTokenCache = adminUserTokenCache;
     }
 
     public Optional<AdminUser> findByUsername(String username) {
@@ -43,9 +46,18 @@ public class AdminUserService extends CrudService<AdminUser, AdminUserDao> {
         return savedUser;
     }
 
+    /** updates the user, e.g. to change whether they are a superuser */
+    @Override
+    @Transactional
+    public AdminUser update(AdminUser adminUser) {
+        adminUserTokenCache.invalidateAll();
+        return dao.update(adminUser);
+    }
+
     @Override
     @Transactional
     public void delete(UUID adminUserId, Set<CascadeProperty> cascade) {
+        adminUserTokenCache.invalidateAll();
         portalAdminUserService.deleteByUserId(adminUserId);
         dao.delete(adminUserId);
     }
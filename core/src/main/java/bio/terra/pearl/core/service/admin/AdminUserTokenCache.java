@@ -0,0 +1,55 @@
+package bio.terra.pearl.core.service.admin;
+
+import bio.terra.pearl.core.dao.admin.AdminUserDao;
+import bio.terra.pearl.core.model.admin.AdminUser;
+import bio.terra.pearl.core.model.admin.AdminUserWithPermissions;
+import bio.terra.pearl.core.service.cache.TokenKey;
+import bio.terra.pearl.core.service.cache.VersionedEntityCache;
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Optional;
+import org.springframework.beans.BeanUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves admin bearer tokens to the user and their permissions, caching the result so that authenticating admin
+ * requests does not need any queries.  Entries expire with the token, or after MAX_TIME_TO_LIVE, whichever is sooner.
+ * Services that change users, portal membership, roles or role permissions call invalidateAll, since any of those can
+ * change the permissions of a cached user.
+ */
+@Component
+public class AdminUserTokenCache {
+    private static final int MAX_CACHED_TOKENS = 5000;
+    private static final Duration MAX_TIME_TO_LIVE = Duration.ofMinutes(5);
+    private final AdminUserDao adminUserDao;
+    // each entry weighs 1, so the max weight is the max number of tokens
+    private final VersionedEntityCache<TokenKey, AdminUserWithPermissions> cache =
+            new VersionedEntityCache<>("adminUserToken", MAX_CACHED_TOKENS, MAX_TIME_TO_LIVE, user -> 1,
+                    AdminUserTokenCache::copy);
+
+    public AdminUserTokenCache(AdminUserDao adminUserDao) {
+        this.adminUserDao = adminUserDao;
+    }
+
+    /** returns the user identified by the token's email claim, with their permissions */
+    public Optional<AdminUserWithPermissions> findByToken(String token) {
+        DecodedJWT decodedJWT = JWT.decode(token);
+        return cache.get(TokenKey.of(token, null),
+                key -> adminUserDao.findByUsernameWithPermissions(decodedJWT.getClaim("email").asString()),
+                decodedJWT.getExpiresAtAsInstant());
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /** copies the user, which callers may modify.  The permissions are only ever read, so are shared */
+    private static AdminUserWithPermissions copy(AdminUserWithPermissions userWithPermissions) {
+        AdminUser userCopy = new AdminUser();
+        BeanUtils.copyProperties(userWithPermissions.user(), userCopy, "portalAdminUsers");
+        userCopy.setPortalAdminUsers(new HashSet<>(userWithPermissions.user().getPortalAdminUsers()));
+        return new AdminUserWithPermissions(userCopy, userWithPermissions.portalPermissions());
+    }
+}
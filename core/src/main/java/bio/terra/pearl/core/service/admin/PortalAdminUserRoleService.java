@@ -3,11 +3,13 @@ package bio.terra.pearl.core.service.admin;
 import bio.terra.pearl.core.dao.admin.PortalAdminUserRoleDao;
 import bio.terra.pearl.core.model.admin.PortalAdminUserRole;
 import bio.terra.pearl.core.model.admin.Role;
+import bio.terra.pearl.core.service.CascadeProperty;
 import bio.terra.pearl.core.service.ImmutableEntityService;
 import bio.terra.pearl.core.service.exception.RoleNotFoundException;
 import bio.terra.pearl.core.service.exception.UserNotFoundException;
 import bio.terra.pearl.core.service.exception.ValidationException;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
@@ -24,12 +26,16 @@ public class PortalAdminUserRoleService extends ImmutableEntityService<PortalAdm
 
     private RoleService roleService;
 
-    public PortalAdminUserRoleService(PermissionService permissionService,
+    private AdminUserTokenCache adminUserTokenCache;
+
+    public PortalAdminUserRoleService(AdminUserTokenCache adminUserTokenCache,
+                                      PermissionService permissionService,
                                       PortalAdminUserRoleDao portalAdminUserRoleDao,
                                       @Lazy PortalAdminUserService portalAdminUserService,
                                       RolePermissionService rolePermissionService,
                                       RoleService roleService) {
         super(portalAdminUserRoleDao);
+        this.adminUserTokenCache = adminUserTokenCache;
         this.permissionService = permissionService;
         this.portalAdminUserService = portalAdminUserService;
         this.rolePermissionService = rolePermissionService;
@@ -57,6 +63,7 @@ public class PortalAdminUserRoleService extends ImmutableEntityService<PortalAdm
     public List<String> setRoles(UUID portalAdminUserId, List<String> roleNames) throws ValidationException {
         var portalAdminUser = portalAdminUserService.find(portalAdminUserId).orElseThrow(() -> new UserNotFoundException(portalAdminUserId));
         var roles = roleNames.stream().map(roleName -> roleService.findByName(roleName).orElseThrow(() -> new RoleNotFoundException(roleName))).toList();
+        adminUserTokenCache.invalidateAll();
 
         dao.deleteByPortalAdminUserId(portalAdminUser.getId());
         roles.forEach(role -> {
@@ -84,7 +91,22 @@ public class PortalAdminUserRoleService extends ImmutableEntityService<PortalAdm
         return portalAdminUserRoles;
     }
 
+    @Override
+    @Transactional
+    public PortalAdminUserRole create(PortalAdminUserRole portalAdminUserRole) {
+        adminUserTokenCache.invalidateAll();
+        return super.create(portalAdminUserRole);
+    }
+
+    @Override
+    @Transactional
+    public void delete(UUID id, Set<CascadeProperty> cascade) {
+        adminUserTokenCache.invalidateAll();
+        super.delete(id, cascade);
+    }
+
     public void deleteByPortalAdminUserId(UUID portalAdminUserId) {
+        adminUserTokenCache.invalidateAll();
         dao.deleteByPortalAdminUserId(portalAdminUserId);
     }
 }
@@ -17,11 +17,22 @@ import org.springframework.transaction.annotation.Transactional;
 public class PortalAdminUserService extends ImmutableEntityService<PortalAdminUser, PortalAdminUserDao> {
 
     private PortalAdminUserRoleService portalAdminUserRoleService;
+    private AdminUserTokenCache adminUserTokenCache;
 
     public PortalAdminUserService(PortalAdminUserDao portalAdminUserDao,
-                                  PortalAdminUserRoleService portalAdminUserRoleService) {
+                                  PortalAdminUserRoleService portalAdminUserRoleService,
+                                  AdminUserTokenCache adminUserTokenCache) {
         super(portalAdminUserDao);
         this.portalAdminUserRoleService = portalAdminUserRoleService;
+        this.adminUserTokenCache = adminUserTokenCache;
+    }
+
+    /** adds the user to a portal, which changes the portals a cached user has permissions for */
+    @Override
+    @Transactional
+    public PortalAdminUser create(PortalAdminUser portalAdminUser) {
+        adminUserTokenCache.invalidateAll();
+        return super.create(portalAdminUser);
     }
 
     public List<PortalAdminUser> findByPortal(UUID portalId) {
@@ -2,17 +2,37 @@ package bio.terra.pearl.core.service.admin;
 
 import bio.terra.pearl.core.dao.admin.RolePermissionDao;
 import bio.terra.pearl.core.model.admin.RolePermission;
+import bio.terra.pearl.core.service.CascadeProperty;
 import bio.terra.pearl.core.service.ImmutableEntityService;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
 public class RolePermissionService extends ImmutableEntityService<RolePermission, RolePermissionDao> {
 
-    public RolePermissionService(RolePermissionDao rolePermissionDao) {
+    private AdminUserTokenCache adminUserTokenCache;
+
+    public RolePermissionService(RolePermissionDao rolePermissionDao, AdminUserTokenCache adminUserTokenCache) {
         super(rolePermissionDao);
+        this.adminUserTokenCache = adminUserTokenCache;
+    }
+
+    @Override
+    @Transactional
+    public RolePermission create(RolePermission rolePermission) {
+        adminUserTokenCache.invalidateAll();
+        return super.create(rolePermission);
+    }
+
+    @Override
+    @Transactional
+    public void delete(UUID id, Set<CascadeProperty> cascade) {
+        adminUserTokenCache.invalidateAll();
+        super.delete(id, cascade);
     }
 
     public List<RolePermission> findByRole(UUID roleId) {
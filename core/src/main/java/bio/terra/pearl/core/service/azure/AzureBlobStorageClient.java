@@ -7,6 +7,7 @@ import com.azure.storage.blob.sas.BlobServiceSasSignatureValues;
 import com.azure.storage.blob.specialized.BlockBlobClient;
 import com.azure.storage.common.StorageSharedKeyCredential;
 import com.azure.storage.common.sas.SasProtocol;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
@@ -14,8 +15,10 @@ import org.springframework.stereotype.Component;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.Locale;
 
 @Component
@@ -26,6 +29,8 @@ public class AzureBlobStorageClient {
        Sample repo: https://github.com/Azure/azure-sdk-for-java/blob/main/sdk/storage/azure-storage-blob/src/samples/java/com/azure/storage/blob/BasicExample.java
      */
 
+    /** size of each staged block when streaming uploads -- this bounds the memory used per upload */
+    public static final int UPLOAD_BLOCK_SIZE = 4 * 1024 * 1024;
     private Environment env;
 
     @Autowired
@@ -39,6 +44,32 @@ public class AzureBlobStorageClient {
     }
 
     public BlockBlobClient uploadBlob(String blobName, String data) {
+        BlockBlobClient blobClient = getBlockBlobClient(blobName);
+
+        //Upload the blob
+        blobClient.upload(BinaryData.fromString(data));
+
+        return blobClient;
+    }
+
+    /** class for writing the contents of a blob */
+    public interface BlobWriter {
+        void write(OutputStream os) throws Exception;
+    }
+
+    /**
+     * uploads the blob as the writer writes it, staging a block at a time, so that large blobs don't have to be
+     * held in memory.  The blob is only committed if the writer completes successfully.
+     */
+    public String streamBlobAndSignUrl(String blobName, BlobWriter writer) throws Exception {
+        BlockBlobClient blobClient = getBlockBlobClient(blobName);
+        StagedBlockOutputStream outputStream = new StagedBlockOutputStream(new AzureBlockStager(blobClient), UPLOAD_BLOCK_SIZE);
+        writer.write(outputStream);
+        outputStream.close();
+        return getBlobSasUrl(blobClient);
+    }
+
+    public BlockBlobClient getBlockBlobClient(String blobName) {
         String containerName = env.getProperty("env.tdr.storageContainerName");
 
         StorageSharedKeyCredential credential = getStorageCredential();
@@ -49,12 +80,7 @@ public class AzureBlobStorageClient {
         BlobContainerClient blobContainerClient = storageClient.getBlobContainerClient(containerName);
 
         //Create a client that references the to-be-created blob in the storage container
-        BlockBlobClient blobClient = blobContainerClient.getBlobClient(blobName).getBlockBlobClient();
-
-        //Upload the blob
-        blobClient.upload(BinaryData.fromString(data));
-
-        return blobClient;
+        return blobContainerClient.getBlobClient(blobName).getBlockBlobClient();
     }
 
     public String getBlobSasUrl(BlockBlobClient blobClient) {
@@ -85,8 +111,31 @@ public class AzureBlobStorageClient {
         String accountName = env.getProperty("env.tdr.storageAccountName");
 
         //Create a BlobServiceClient object that wraps the service endpoint, credential and a request pipeline.
-        String storageClientEndpoint = String.format(Locale.ROOT, "https://%s.blob.core.windows.net", accountName);
+        //The endpoint can be overridden to point at a local emulator such as Azurite
+        String storageClientEndpoint = env.getProperty("env.tdr.storageEndpoint");
+        if (StringUtils.isBlank(storageClientEndpoint)) {
+            storageClientEndpoint = String.format(Locale.ROOT, "https://%s.blob.core.windows.net", accountName);
+        }
         return new BlobServiceClientBuilder().endpoint(storageClientEndpoint).credential(credential).buildClient();
     }
 
+    /** stages and commits blocks of a block blob through the Azure SDK */
+    protected static class AzureBlockStager implements StagedBlockOutputStream.BlockStager {
+        private final BlockBlobClient blobClient;
+
+        public AzureBlockStager(BlockBlobClient blobClient) {
+            this.blobClient = blobClient;
+        }
+
+        @Override
+        public void stageBlock(String blockId, byte[] data, int length) {
+            blobClient.stageBlock(blockId, new ByteArrayInputStream(data, 0, length), length);
+        }
+
+        @Override
+        public void commitBlockList(List<String> blockIds) {
+            blobClient.commitBlockList(blockIds, true);
+        }
+    }
+
 }
@@ -0,0 +1,89 @@
+package bio.terra.pearl.core.service.azure;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * OutputStream that uploads a block blob as it is written.  Bytes are buffered until a full block has accumulated,
+ * and then that block is staged, so at most one block is held in memory regardless of the size of the blob.
+ * Closing the stream stages the final partial block and commits the block list, which is what makes the blob
+ * visible.  If the stream is never closed (e.g. because the writer failed), nothing is committed, and the staged
+ * blocks are discarded by the storage service.
+ */
+public class StagedBlockOutputStream extends OutputStream {
+    /** the block storage operations needed by the stream, so it can be run against a local stand-in */
+    public interface BlockStager {
+        void stageBlock(String blockId, byte[] data, int length) throws IOException;
+        void commitBlockList(List<String> blockIds) throws IOException;
+    }
+
+    private final BlockStager blockStager;
+    private final byte[] buffer;
+    private int bufferedLength = 0;
+    private final List<String> blockIds = new ArrayList<>();
+    private boolean closed = false;
+
+    public StagedBlockOutputStream(BlockStager blockStager, int blockSize) {
+        this.blockStager = blockStager;
+        this.buffer = new byte[blockSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        buffer[bufferedLength++] = (byte) b;
+        if (bufferedLength == buffer.length) {
+            stageBuffer();
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            int toCopy = Math.min(len, buffer.length - bufferedLength);
+            System.arraycopy(b, off, buffer, bufferedLength, toCopy);
+            bufferedLength += toCopy;
+            off += toCopy;
+            len -= toCopy;
+            if (bufferedLength == buffer.length) {
+                stageBuffer();
+            }
+        }
+    }
+
+    /** stages the last partial block and commits the blob.  Closing an already closed stream has no effect */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        if (bufferedLength > 0) {
+            stageBuffer();
+        }
+        blockStager.commitBlockList(blockIds);
+        closed = true;
+    }
+
+    private void stageBuffer() throws IOException {
+        String blockId = toBlockId(blockIds.size());
+        blockStager.stageBlock(blockId, buffer, bufferedLength);
+        blockIds.add(blockId);
+        bufferedLength = 0;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream is closed");
+        }
+    }
+
+    /** block ids must be base64-encoded, and all the ids in a blob must be the same length */
+    protected static String toBlockId(int blockIndex) {
+        return Base64.getEncoder().encodeToString("%08d".formatted(blockIndex).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,26 @@
+package bio.terra.pearl.core.service.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Cache key for the user (or other principal) loaded for a bearer token.  Only a hash of the token is kept, so tokens
+ * themselves are never held in memory.  The qualifier is for tokens that correspond to different principals depending
+ * on the request, such as participant tokens, which are resolved per environment.
+ */
+public record TokenKey(String tokenHash, String qualifier) {
+    public static TokenKey of(String token, String qualifier) {
+        return new TokenKey(hash(token), qualifier);
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package bio.terra.pearl.core.service.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-memory cache for entities that do not change once a given version has been created, such as a Survey or
+ * ConsentForm version.  The cache is bounded by total weight (roughly, the characters of content held) and evicts
+ * the least recently used entries first.  Entries also expire after a fixed time to live, so that a version which is
+ * deleted and recreated by another node (e.g. when a portal is repopulated) is picked up without any coordination
+ * between nodes.  Callers can also give an entry an earlier expiry when it is loaded, as is done for the user loaded
+ * for a bearer token, which should not outlive the token.
+ *
+ * Values are only cached once the transaction that loaded them commits, so data from a rolled-back transaction is
+ * never cached.  Missing values are not cached, since the version may be created later.
+ *
+ * Hit, miss, and eviction counts and the current size and weight are published to the global micrometer registry,
+ * tagged with the cache name.
+ */
+public class VersionedEntityCache<K, V> {
+    public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(15);
+    private final String name;
+    private final long maxWeight;
+    private final Duration timeToLive;
+    private final ToLongFunction<V> weigher;
+    private final UnaryOperator<V> copier;
+    private final Clock clock;
+    // access-ordered, so iteration starts from the least recently used entry
+    private final LinkedHashMap<K, CacheEntry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalWeight = 0;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param weigher returns the weight of a value -- values heavier than maxWeight are never cached
+     * @param copier applied to values on the way into and out of the cache, so that callers modifying the entities
+     *               they are given do not change the cached copy.  Pass UnaryOperator.identity() only for values
+     *               that are never modified by callers.
+     */
+    public VersionedEntityCache(String name, long maxWeight, Duration timeToLive,
+                                ToLongFunction<V> weigher, UnaryOperator<V> copier) {
+        this(name, maxWeight, timeToLive, weigher, copier, Clock.systemUTC(), Metrics.globalRegistry);
+    }
+
+    protected VersionedEntityCache(String name, long maxWeight, Duration timeToLive, ToLongFunction<V> weigher,
+                                   UnaryOperator<V> copier, Clock clock, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.maxWeight = maxWeight;
+        this.timeToLive = timeToLive;
+        this.weigher = weigher;
+        this.copier = copier;
+        this.clock = clock;
+        registerMetrics(meterRegistry);
+    }
+
+    /** returns the cached value for the key, or loads it with the loader (and caches it, if present) */
+    public Optional<V> get(K key, Function<K, Optional<V>> loader) {
+        return get(key, loader, null);
+    }
+
+    /**
+     * as get(key, loader), but if the value is loaded, its entry expires at expiresAt if that is sooner than the time
+     * to live.  A null expiresAt means the entry just expires after the time to live.
+     */
+    public Optional<V> get(K key, Function<K, Optional<V>> loader, Instant expiresAt) {
+        V cached = getIfPresent(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return Optional.of(copier.apply(cached));
+        }
+        misses.incrementAndGet();
+        Optional<V> loaded = loader.apply(key);
+        loaded.ifPresent(value -> putAfterCommit(key, copier.apply(value), expiresAt));
+        return loaded;
+    }
+
+    /** removes any entries whose values match the predicate, both now and when the current transaction commits */
+    public void invalidateIf(Predicate<V> predicate) {
+        removeIf(predicate);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // a concurrent request could cache the old value before this transaction commits
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    removeIf(predicate);
+                }
+            });
+        }
+    }
+
+    /** removes the entry for the key, both now and when the current transaction commits */
+    public void invalidate(K key) {
+        removeKey(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    removeKey(key);
+                }
+            });
+        }
+    }
+
+    /** removes all entries, both now and when the current transaction commits */
+    public void invalidateAll() {
+        clear();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    clear();
+                }
+            });
+        }
+    }
+
+    public synchronized CacheStats getStats() {
+        return new CacheStats(hits.get(), misses.get(), evictions.get(), entries.size(), totalWeight);
+    }
+
+    private synchronized V getIfPresent(K key) {
+        CacheEntry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.expiresAt().isAfter(clock.instant())) {
+            remove(key);
+            return null;
+        }
+        return entry.value();
+    }
+
+    private void putAfterCommit(K key, V value, Instant expiresAt) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(key, value, expiresAt);
+                }
+            });
+        } else {
+            put(key, value, expiresAt);
+        }
+    }
+
+    private synchronized void put(K key, V value, Instant expiresAt) {
+        long weight = weigher.applyAsLong(value);
+        Instant now = clock.instant();
+        Instant entryExpiresAt = now.plus(timeToLive);
+        if (expiresAt != null && expiresAt.isBefore(entryExpiresAt)) {
+            entryExpiresAt = expiresAt;
+        }
+        if (weight > maxWeight || !entryExpiresAt.isAfter(now)) {
+            return;
+        }
+        remove(key);
+        entries.put(key, new CacheEntry<>(value, weight, entryExpiresAt));
+        totalWeight += weight;
+        Iterator<CacheEntry<V>> leastRecentlyUsed = entries.values().iterator();
+        while (totalWeight > maxWeight && leastRecentlyUsed.hasNext()) {
+            totalWeight -= leastRecentlyUsed.next().weight();
+            leastRecentlyUsed.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private synchronized void removeIf(Predicate<V> predicate) {
+        Iterator<CacheEntry<V>> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            CacheEntry<V> entry = iterator.next();
+            if (predicate.test(entry.value())) {
+                totalWeight -= entry.weight();
+                iterator.remove();
+            }
+        }
+    }
+
+    private synchronized void clear() {
+        entries.clear();
+        totalWeight = 0;
+    }
+
+    private synchronized void removeKey(K key) {
+        remove(key);
+    }
+
+    private void remove(K key) {
+        CacheEntry<V> removed = entries.remove(key);
+        if (removed != null) {
+            totalWeight -= removed.weight();
+        }
+    }
+
+    private void registerMetrics(MeterRegistry meterRegistry) {
+        FunctionCounter.builder("cache.gets", hits, AtomicLong::get)
+                .tags("cache", name, "result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.gets", misses, AtomicLong::get)
+                .tags("cache", name, "result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.evictions", evictions, AtomicLong::get)
+                .tag("cache", name)
+                .register(meterRegistry);
+        Gauge.builder("cache.size", this, cache -> cache.getStats().size())
+                .tag("cache", name)
+                .register(meterRegistry);
+        Gauge.builder("cache.weight", this, cache -> cache.getStats().weight())
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+
+    private record CacheEntry<V>(V value, long weight, Instant expiresAt) {}
+
+    public record CacheStats(long hits, long misses, long evictions, int size, long weight) {}
+
+    /** a simple weigher for entities whose size is dominated by a single text field, like survey content */
+    public static <V> ToLongFunction<V> textWeigher(Function<V, String> textGetter) {
+        return value -> {
+            String text = textGetter.apply(value);
+            return text == null ? 1 : text.length() + 1;
+        };
+    }
+}
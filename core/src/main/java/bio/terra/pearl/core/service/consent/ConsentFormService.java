@@ -4,6 +4,7 @@ import bio.terra.pearl.core.dao.consent.ConsentFormDao;
 import bio.terra.pearl.core.model.consent.ConsentForm;
 import bio.terra.pearl.core.service.ImmutableEntityService;
 import bio.terra.pearl.core.service.VersionedEntityService;
+import bio.terra.pearl.core.service.cache.VersionedEntityCache;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
@@ -14,8 +15,14 @@ import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class ConsentFormService extends VersionedEntityService<ConsentForm, ConsentFormDao> {
+    /** total characters of consent content to hold in memory */
+    private static final long CACHE_MAX_WEIGHT = 20_000_000;
+
     public ConsentFormService(ConsentFormDao dao) {
-        super(dao);
+        super(dao, new VersionedEntityCache<>("consentForm", CACHE_MAX_WEIGHT,
+                VersionedEntityCache.DEFAULT_TIME_TO_LIVE,
+                VersionedEntityCache.textWeigher(ConsentForm::getContent),
+                ConsentFormService::copy));
     }
 
     @Transactional
@@ -41,4 +48,10 @@ public class ConsentFormService extends VersionedEntityService<ConsentForm, Cons
     public int getNextVersion(String stableId) {
         return dao.getNextVersion(stableId);
     }
+
+    private static ConsentForm copy(ConsentForm form) {
+        ConsentForm copy = new ConsentForm();
+        BeanUtils.copyProperties(form, copy);
+        return copy;
+    }
 }
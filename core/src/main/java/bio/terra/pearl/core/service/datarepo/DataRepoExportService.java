@@ -30,7 +30,6 @@ import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.ByteArrayOutputStream;
 import java.time.Instant;
 import java.util.*;
 
@@ -159,8 +158,15 @@ public class DataRepoExportService {
         datasetService.updateStatus(dataset.getId(), DatasetStatus.DELETING);
     }
 
-    public String uploadCsvToAzureStorage(UUID studyEnvironmentId, UUID datasetId) {
-        ExportOptions exportOptions = new ExportOptions(false, false, false, ExportFileFormat.TSV, null);
+    /**
+     * exports the environment's enrollees to a TSV blob, and returns a signed URL for it.
+     * @param updatedSince if non-null, only enrollees with data updated after this time are exported
+     */
+    public String uploadCsvToAzureStorage(UUID studyEnvironmentId, UUID datasetId, Instant updatedSince) {
+        ExportOptions exportOptions = ExportOptions.builder()
+                .fileFormat(ExportFileFormat.TSV)
+                .updatedSince(updatedSince)
+                .build();
 
         //Even though this is actually formatted as a TSV, TDR only accepts files ending in .csv or .json.
         //In the DataRepoClient call, we specify that the CSV delimiter is "\t", which will make it all work fine.
@@ -171,22 +177,38 @@ public class DataRepoExportService {
         PortalStudy portalStudy = portalStudyDao.findByStudyId(studyEnv.getStudyId()).stream().findFirst().orElseThrow(() -> new NotFoundException("Portal study not found."));
 
         try {
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            enrolleeExportService.export(exportOptions, studyEnvironmentId, outputStream);
-            outputStream.close();
-
-            String exportData = outputStream.toString();
-            return azureBlobStorageClient.uploadBlobAndSignUrl(blobName, exportData);
+            // the export is uploaded a block at a time as it is written, so the full file is never held in memory
+            return azureBlobStorageClient.streamBlobAndSignUrl(blobName, outputStream ->
+                    enrolleeExportService.export(exportOptions, studyEnvironmentId, outputStream));
         } catch (Exception e) {
             throw new RuntimeException("Could not export and upload CSV for TDR ingest. Error: " + e.getMessage());
         }
     }
 
+    /** ingests all enrollees of the dataset's study environment */
     public void ingestDataForStudyEnvironment(UUID datasetId) {
+        ingestDataForStudyEnvironment(datasetId, false);
+    }
+
+    /**
+     * ingests the enrollees of the dataset's study environment.  If deltaOnly is true, only enrollees whose data has
+     * changed since the dataset was last exported are ingested, and the ingest is skipped entirely if there are none,
+     * so the cost of a routine ingest is proportional to activity rather than to the size of the study.
+     * Note that TDR on Azure only supports appending, so a delta ingest adds a new row for each changed enrollee.
+     */
+    public void ingestDataForStudyEnvironment(UUID datasetId, boolean deltaOnly) {
         Dataset dataset = datasetService.findById(datasetId).get();
+        Instant updatedSince = deltaOnly ? dataset.getLastExported() : null;
+        if (updatedSince != null && enrolleeDao.findPageByStudyEnvironmentId(dataset.getStudyEnvironmentId(),
+                updatedSince, null, 1).isEmpty()) {
+            logger.info("No enrollees changed since {} for dataset {}, skipping ingest", updatedSince, dataset.getDatasetName());
+            return;
+        }
 
         UUID defaultSpendProfileId = UUID.fromString(Objects.requireNonNull(env.getProperty("env.tdr.billingProfileId")));
-        String blobSasUrl = uploadCsvToAzureStorage(dataset.getStudyEnvironmentId(), dataset.getId());
+        // read before the export starts, so changes made while it runs are picked up by the next delta ingest
+        Instant dataAsOf = Instant.now();
+        String blobSasUrl = uploadCsvToAzureStorage(dataset.getStudyEnvironmentId(), dataset.getId(), updatedSince);
 
         try {
             JobModel ingestJob = dataRepoClient.ingestDataset(defaultSpendProfileId, dataset.getTdrDatasetId(), "enrollee", blobSasUrl);
@@ -199,6 +221,7 @@ public class DataRepoExportService {
                     .datasetName(dataset.getDatasetName())
                     .tdrJobId(ingestJob.getId())
                     .jobType(JobType.INGEST_DATASET)
+                    .dataAsOf(dataAsOf)
                     .build();
 
             dataRepoJobService.create(job);
@@ -207,6 +230,27 @@ public class DataRepoExportService {
         }
     }
 
+    /**
+     * runs a delta ingest for every created dataset.  Datasets with an ingest still running are skipped, since their
+     * lastExported time hasn't been advanced yet and the same changes would be ingested twice.
+     */
+    public void ingestDeltasForAllDatasets() {
+        for (Dataset dataset : datasetDao.findByStatus(DatasetStatus.CREATED)) {
+            boolean ingestRunning = dataRepoJobDao.findByDatasetId(dataset.getId()).stream()
+                    .anyMatch(job -> job.getJobType() == JobType.INGEST_DATASET
+                            && JobStatusEnum.RUNNING.getValue().equals(job.getStatus()));
+            if (ingestRunning) {
+                logger.info("Skipping delta ingest for dataset {}, as an ingest is already running", dataset.getDatasetName());
+                continue;
+            }
+            try {
+                ingestDataForStudyEnvironment(dataset.getId(), true);
+            } catch (Exception e) {
+                logger.error("Delta ingest failed for dataset {}. Error: {}", dataset.getDatasetName(), e.getMessage());
+            }
+        }
+    }
+
     public Set<TdrColumn> generateDatasetSchema(UUID studyEnvironmentId) {
         ExportOptions exportOptions = new ExportOptions(false, false, false, ExportFileFormat.TSV, null);
 
@@ -218,12 +262,8 @@ public class DataRepoExportService {
 
         try {
             List<ModuleExportInfo> moduleExportInfos = enrolleeExportService.generateModuleInfos(exportOptions, studyEnvironmentId);
-            List<Map<String, String>> enrolleeMaps = enrolleeExportService.generateExportMaps(studyEnvironmentId,
-                    moduleExportInfos, exportOptions.limit());
-
-            TsvExporter tsvExporter = new TsvExporter(moduleExportInfos, enrolleeMaps);
-
-            tsvExporter.applyToEveryColumn((moduleExportInfo, itemExportInfo, choice, isOtherDescription) -> tdrColumns.add(new TdrColumn(
+            // the columns are determined by the module infos alone, so no enrollee data needs to be loaded
+            BaseExporter.applyToEveryColumn(moduleExportInfos, (moduleExportInfo, itemExportInfo, choice, isOtherDescription) -> tdrColumns.add(new TdrColumn(
                     DataRepoExportUtils.juniperToDataRepoColumnName(moduleExportInfo.getFormatter().getColumnKey(moduleExportInfo, itemExportInfo, choice, isOtherDescription)),
                     DataRepoExportUtils.juniperToDataRepoColumnType(itemExportInfo.getDataType())
                 )
@@ -301,7 +341,8 @@ public class DataRepoExportService {
                 case SUCCEEDED -> {
                     logger.info("ingestDataset job ID {} has succeeded. Dataset {} successfully ingested.", job.getId(), job.getDatasetName());
                     dataRepoJobService.updateJobStatus(job.getId(), jobStatus.getValue());
-                    datasetService.updateLastExported(job.getDatasetId(), Instant.now());
+                    // jobs created before dataAsOf was recorded fall back to the completion time
+                    datasetService.updateLastExported(job.getDatasetId(), job.getDataAsOf() != null ? job.getDataAsOf() : Instant.now());
                 }
                 case FAILED -> {
                     logger.warn("ingestDataset job ID {} has failed. Dataset {} failed to ingest.", job.getId(), job.getDatasetName());
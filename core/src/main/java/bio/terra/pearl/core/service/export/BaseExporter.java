@@ -1,43 +1,57 @@
 package bio.terra.pearl.core.service.export;
 
 import bio.terra.pearl.core.model.survey.QuestionChoice;
-import bio.terra.pearl.core.service.export.formatters.SurveyFormatter;
 import bio.terra.pearl.core.service.export.instance.ItemExportInfo;
 import bio.terra.pearl.core.service.export.instance.ModuleExportInfo;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
 
 public abstract class BaseExporter {
 
     protected final List<ModuleExportInfo> moduleExportInfos;
-    protected final List<Map<String, String>> enrolleeMaps;
     /**
-     * map of column keys to the value that should be exported if the value for an enrollee is nullish.
-     * This saves us from having to include "0" for every option possibility in multiple choice questions
-     * exported in the analysis-friendly format, which for some Pepper datasets reduced the memory taken by
-     * the enrolleeMaps by >50%
+     * the enrollees to export.  This is generally lazily loaded from the database a chunk at a time, so exporters
+     * should pull from it exactly once, formatting and writing each row as they go, and never collect it.
      */
-    protected final Map<String, String> columnEmptyValueMap;
-    public final String DEFAULT_EMPTY_STRING_VALUE = "";
+    protected final Stream<EnrolleeExportData> enrolleeExportData;
+    /**
+     * the compiled columns of the export, with the value that should be exported for each if the value for an
+     * enrollee is nullish.  Enrollee values are stored in dense arrays by column ordinal, and the empty values
+     * save us from having to store "0" for every option possibility in multiple choice questions exported in the
+     * analysis-friendly format.
+     */
+    protected final ExportColumnIndex columnIndex;
+    /** if set, rows are formatted on this executor rather than on the thread calling export */
+    protected ExecutorService formatExecutor;
+    protected int formatParallelism = 1;
+    protected int formatBatchSize = 1;
 
-    public BaseExporter(List<ModuleExportInfo> moduleExportInfos, List<Map<String, String>> enrolleeMaps) {
+    public BaseExporter(List<ModuleExportInfo> moduleExportInfos, Stream<EnrolleeExportData> enrolleeExportData) {
         this.moduleExportInfos = moduleExportInfos;
-        this.enrolleeMaps = enrolleeMaps;
-        this.columnEmptyValueMap = makeEmptyValueMap();
+        this.enrolleeExportData = enrolleeExportData;
+        this.columnIndex = new ExportColumnIndex(moduleExportInfos);
     }
 
     public abstract void export(OutputStream os) throws IOException;
 
+    /**
+     * Formats rows on the executor, batchSize enrollees at a time, with up to parallelism batches in progress at
+     * once.  Formatting is the CPU-heavy part of the export, and the rows are still written in the original order
+     * from the thread calling export, so exporters do not need to be thread-safe.
+     */
+    public void formatInParallel(ExecutorService executor, int parallelism, int batchSize) {
+        this.formatExecutor = executor;
+        this.formatParallelism = parallelism;
+        this.formatBatchSize = batchSize;
+    }
+
     protected List<String> getColumnKeys() {
-        List<String> columnKeys = new ArrayList<>();
-        applyToEveryColumn((moduleExportInfo, itemExportInfo, isOtherDescription, choice) -> {
-            columnKeys.add(moduleExportInfo.getFormatter().getColumnKey(moduleExportInfo, itemExportInfo, isOtherDescription, choice));
-        });
-        return columnKeys;
+        return columnIndex.getColumnKeys();
     }
 
     /** gets the header row - uses getColumnHeader from ExportFormatter */
@@ -58,18 +72,82 @@ public abstract class BaseExporter {
         return headers;
     }
 
+    /** class for writing a single row of values, in column order, to the export output */
+    public interface RowWriter {
+        void write(List<String> rowValues) throws IOException;
+    }
+
+    /**
+     * Pulls each enrollee from the source in turn, formats it, and passes its row values to the rowWriter.
+     * Only the row currently being written is held in memory, so memory use does not grow with the number of enrollees.
+     */
+    protected void writeEnrolleeRows(RowWriter rowWriter) throws IOException {
+        Iterator<EnrolleeExportData> iterator = enrolleeExportData.iterator();
+        if (formatExecutor == null) {
+            while (iterator.hasNext()) {
+                rowWriter.write(getRowValues(formatRow(iterator.next())));
+            }
+            return;
+        }
+        OrderedParallelIterator<List<EnrolleeExportData>, List<List<String>>> formattedBatches =
+                new OrderedParallelIterator<>(
+                        inBatches(iterator, formatBatchSize),
+                        batch -> batch.stream().map(exportData -> getRowValues(formatRow(exportData))).toList(),
+                        formatExecutor, formatParallelism);
+        try {
+            while (formattedBatches.hasNext()) {
+                for (List<String> rowValues : formattedBatches.next()) {
+                    rowWriter.write(rowValues);
+                }
+            }
+        } finally {
+            // e.g. if writing fails, don't leave this export's batches running on the shared executor
+            formattedBatches.cancel();
+        }
+    }
+
+    /** groups the elements of the iterator into lists of up to batchSize, without reading ahead of the current batch */
+    protected static <T> Iterator<List<T>> inBatches(Iterator<T> source, int batchSize) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return source.hasNext();
+            }
+
+            @Override
+            public List<T> next() {
+                List<T> batch = new ArrayList<>(batchSize);
+                while (batch.size() < batchSize && source.hasNext()) {
+                    batch.add(source.next());
+                }
+                return batch;
+            }
+        };
+    }
+
+    /** formats the enrollee's data for every module into a single row, indexed by column ordinal */
+    protected ExportRow formatRow(EnrolleeExportData exportData) {
+        ExportRow row = columnIndex.newRow();
+        try {
+            for (ModuleExportInfo moduleExportInfo : moduleExportInfos) {
+                moduleExportInfo.writeValues(exportData, row);
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Error formatting enrollee for export", e);
+        }
+        return row;
+    }
+
     /**
      * Gets the values to render for a row (usually an enrollee -- later we will have rows for proxies).
      * This handles any sanitization of string values (e.g. if commas/newlines/tabs need to be escaped)
-     * @param enrolleeMap map of columnName => value
-     * @param headerRowValues the ordered list of column keys
+     * @param row the formatted row
      * @return the ordered list of values
      */
-    protected List<String> getRowValues(Map<String, String> enrolleeMap, List<String> headerRowValues) {
-        List<String> rowValues = new ArrayList(headerRowValues.size());
-        for (String header : headerRowValues) {
-            String value = enrolleeMap.get(header);
-            rowValues.add(sanitizeValue(value, columnEmptyValueMap.getOrDefault(header, DEFAULT_EMPTY_STRING_VALUE)));
+    protected List<String> getRowValues(ExportRow row) {
+        List<String> rowValues = new ArrayList<>(row.size());
+        for (int i = 0; i < row.size(); i++) {
+            rowValues.add(sanitizeValue(row.get(i), columnIndex.getEmptyValue(i)));
         }
         return rowValues;
     }
@@ -81,6 +159,11 @@ public abstract class BaseExporter {
     }
 
     public void applyToEveryColumn(ColumnProcessor columnProcessor) {
+        applyToEveryColumn(moduleExportInfos, columnProcessor);
+    }
+
+    /** iterates over the columns of the given modules, in export order */
+    public static void applyToEveryColumn(List<ModuleExportInfo> moduleExportInfos, ColumnProcessor columnProcessor) {
         for (ModuleExportInfo moduleExportInfo : moduleExportInfos) {
             for (ItemExportInfo itemExportInfo : moduleExportInfo.getItems()) {
                 if (itemExportInfo.isSplitOptionsIntoColumns()) {
@@ -99,19 +182,6 @@ public abstract class BaseExporter {
         }
     }
 
-    protected Map<String, String> makeEmptyValueMap() {
-        Map<String, String> emptyValueMap = new HashMap<>();
-        applyToEveryColumn((moduleExportInfo, itemExportInfo, isOtherDescription, choice) -> {
-            String columnKey = moduleExportInfo.getFormatter().getColumnKey(moduleExportInfo, itemExportInfo, isOtherDescription, choice);
-            if (itemExportInfo.isSplitOptionsIntoColumns()) {
-                emptyValueMap.put(columnKey, SurveyFormatter.SPLIT_OPTION_UNSELECTED_VALUE);
-            } else {
-                emptyValueMap.put(columnKey, DEFAULT_EMPTY_STRING_VALUE);
-            }
-        });
-        return emptyValueMap;
-    }
-
     /**
      * Take a string value and sanitize it for export. E.g. For a TSV exporter, we need to escape double quotes.
      */
@@ -5,18 +5,69 @@ import bio.terra.pearl.core.model.participant.Profile;
 import bio.terra.pearl.core.model.survey.Answer;
 import bio.terra.pearl.core.model.survey.SurveyResponse;
 import bio.terra.pearl.core.model.workflow.ParticipantTask;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
-import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
-import lombok.Setter;
 
-@Getter @Setter @Builder @AllArgsConstructor
+/**
+ * All the data for a single enrollee needed by the export formatters.  On construction, the answers and responses
+ * are indexed in a single pass, so that each survey module can look up its answers directly instead of
+ * re-filtering and regrouping every answer of the enrollee.
+ */
+@Getter
 public class EnrolleeExportData {
-    private Enrollee enrollee;
-    private Profile profile;
-    private List<Answer> answers;
-    private List<ParticipantTask> tasks;
-    private List<SurveyResponse> responses;
+    private final Enrollee enrollee;
+    private final Profile profile;
+    private final List<Answer> answers;
+    private final List<ParticipantTask> tasks;
+    private final List<SurveyResponse> responses;
+    /** survey stableId => question stableId => answers, in the order the answers were loaded */
+    private final Map<String, Map<String, List<Answer>>> answersBySurvey = new HashMap<>();
+    private final Map<UUID, SurveyResponse> responsesById = new HashMap<>();
+
+    @Builder
+    public EnrolleeExportData(Enrollee enrollee, Profile profile, List<Answer> answers,
+                              List<ParticipantTask> tasks, List<SurveyResponse> responses) {
+        this.enrollee = enrollee;
+        this.profile = profile;
+        this.answers = answers;
+        this.tasks = tasks;
+        this.responses = responses;
+        if (answers != null) {
+            for (Answer answer : answers) {
+                answersBySurvey.computeIfAbsent(answer.getSurveyStableId(), stableId -> new LinkedHashMap<>())
+                        .computeIfAbsent(answer.getQuestionStableId(), stableId -> new ArrayList<>())
+                        .add(answer);
+            }
+        }
+        if (responses != null) {
+            for (SurveyResponse response : responses) {
+                responsesById.put(response.getId(), response);
+            }
+        }
+    }
+
+    /** returns a map of question stableId => answers for the given survey, empty if the enrollee has no answers to it */
+    public Map<String, List<Answer>> getAnswersByQuestion(String surveyStableId) {
+        return answersBySurvey.getOrDefault(surveyStableId, Map.of());
+    }
+
+    /**
+     * returns the response the enrollee's answers to the given survey belong to, or null if there isn't one.
+     * For now, we only support exporting a single response per survey, so this is the response of the first answer
+     */
+    public SurveyResponse getSurveyResponse(String surveyStableId) {
+        Map<String, List<Answer>> answerMap = getAnswersByQuestion(surveyStableId);
+        if (answerMap.isEmpty()) {
+            return null;
+        }
+        UUID responseId = answerMap.values().iterator().next().get(0).getSurveyResponseId();
+        return responseId == null ? null : responsesById.get(responseId);
+    }
 }
@@ -1,31 +1,137 @@
 package bio.terra.pearl.core.service.export;
 
 import bio.terra.pearl.core.dao.survey.AnswerDao;
-import bio.terra.pearl.core.dao.survey.SurveyDao;
-import bio.terra.pearl.core.dao.survey.SurveyQuestionDefinitionDao;
+import bio.terra.pearl.core.model.participant.Enrollee;
+import bio.terra.pearl.core.model.participant.Profile;
+import bio.terra.pearl.core.model.survey.Answer;
+import bio.terra.pearl.core.model.survey.SurveyResponse;
+import bio.terra.pearl.core.model.workflow.ParticipantTask;
+import bio.terra.pearl.core.service.participant.EnrolleeService;
 import bio.terra.pearl.core.service.workflow.ParticipantTaskService;
 import bio.terra.pearl.core.service.participant.ProfileService;
 import bio.terra.pearl.core.service.survey.SurveyResponseService;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import org.springframework.stereotype.Service;
 
+/**
+ * Loads enrollee data for export in chunks.  Each chunk of enrollees is hydrated with a fixed number of queries
+ * (one each for profiles, mailing addresses, answers, tasks, and responses), so the number of database round trips
+ * scales with the number of chunks, rather than the number of enrollees.
+ */
 @Service
 public class EnrolleeExportLoader {
-    private ProfileService profileService;
-    private AnswerDao answerDao;
-    private SurveyQuestionDefinitionDao surveyQuestionDefinitionDao;
-    private SurveyResponseService surveyResponseService;
-    private ParticipantTaskService participantTaskService;
-    private SurveyDao surveyDao;
-
-    public EnrolleeExportLoader(ProfileService profileService, AnswerDao answerDao,
-                                SurveyQuestionDefinitionDao surveyQuestionDefinitionDao,
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+    private final EnrolleeService enrolleeService;
+    private final ProfileService profileService;
+    private final AnswerDao answerDao;
+    private final SurveyResponseService surveyResponseService;
+    private final ParticipantTaskService participantTaskService;
+
+    public EnrolleeExportLoader(EnrolleeService enrolleeService,
+                                ProfileService profileService, AnswerDao answerDao,
                                 SurveyResponseService surveyResponseService,
-                                ParticipantTaskService participantTaskService, SurveyDao surveyDao) {
+                                ParticipantTaskService participantTaskService) {
+        this.enrolleeService = enrolleeService;
         this.profileService = profileService;
         this.answerDao = answerDao;
-        this.surveyQuestionDefinitionDao = surveyQuestionDefinitionDao;
         this.surveyResponseService = surveyResponseService;
         this.participantTaskService = participantTaskService;
-        this.surveyDao = surveyDao;
+    }
+
+    /**
+     * streams the export data for the enrollees of the given environment, most-recently-created first.  Enrollees are
+     * fetched and hydrated a chunk at a time as the stream is consumed, so only one chunk is held in memory at once.
+     * @param limit the maximum number of enrollees to return, or null for all of them
+     */
+    public Stream<EnrolleeExportData> streamExportData(UUID studyEnvironmentId, Integer limit, int chunkSize) {
+        return streamExportData(studyEnvironmentId, null, limit, chunkSize);
+    }
+
+    /**
+     * as above, but if updatedSince is non-null, only includes enrollees with data updated after that time
+     */
+    public Stream<EnrolleeExportData> streamExportData(UUID studyEnvironmentId, Instant updatedSince, Integer limit,
+                                                       int chunkSize) {
+        Stream<EnrolleeExportData> exportDataStream = streamEnrolleePages(studyEnvironmentId, updatedSince, limit, chunkSize)
+                .flatMap(chunk -> loadChunk(chunk).stream());
+        return limit != null ? exportDataStream.limit(limit) : exportDataStream;
+    }
+
+    /**
+     * like streamExportData, but hydrates up to `parallelism` chunks at once on the given executor.  Enrollee pages
+     * are still fetched in order from the consuming thread, and the chunks are returned in the same order, so the
+     * stream is still most-recently-created first.
+     */
+    public Stream<EnrolleeExportData> streamExportData(UUID studyEnvironmentId, Instant updatedSince, Integer limit,
+                                                       int chunkSize, ExecutorService executor, int parallelism) {
+        Stream<List<Enrollee>> pages = streamEnrolleePages(studyEnvironmentId, updatedSince, limit, chunkSize);
+        OrderedParallelIterator<List<Enrollee>, List<EnrolleeExportData>> chunks =
+                new OrderedParallelIterator<>(pages.iterator(), this::loadChunk, executor, parallelism);
+        Stream<EnrolleeExportData> exportDataStream = StreamSupport
+                .stream(Spliterators.spliteratorUnknownSize(chunks, Spliterator.ORDERED), false)
+                .flatMap(List::stream)
+                .onClose(chunks::cancel)
+                .onClose(pages::close);
+        return limit != null ? exportDataStream.limit(limit) : exportDataStream;
+    }
+
+    /**
+     * lazily pages through the enrollees of the environment, most-recently-created first.  If a limit is given,
+     * only as many pages as are needed to reach it are fetched
+     */
+    protected Stream<List<Enrollee>> streamEnrolleePages(UUID studyEnvironmentId, Instant updatedSince, Integer limit,
+                                                         int chunkSize) {
+        int pageSize = limit != null ? Math.min(limit, chunkSize) : chunkSize;
+        Stream<List<Enrollee>> pages = Stream.iterate(
+                enrolleeService.findPageByStudyEnvironment(studyEnvironmentId, updatedSince, null, pageSize),
+                chunk -> !chunk.isEmpty(),
+                chunk -> chunk.size() < pageSize ? List.of() :
+                        enrolleeService.findPageByStudyEnvironment(studyEnvironmentId, updatedSince,
+                                chunk.get(chunk.size() - 1), pageSize));
+        if (limit != null) {
+            pages = pages.limit((limit + pageSize - 1) / pageSize);
+        }
+        return pages;
+    }
+
+    /**
+     * loads the export data for all the given enrollees, using a fixed number of queries regardless of how many
+     * enrollees are passed.  The returned list is in the same order as the passed-in enrollees.
+     */
+    public List<EnrolleeExportData> loadChunk(List<Enrollee> enrollees) {
+        if (enrollees.isEmpty()) {
+            return List.of();
+        }
+        List<UUID> enrolleeIds = enrollees.stream().map(Enrollee::getId).toList();
+        List<UUID> profileIds = enrollees.stream().map(Enrollee::getProfileId).distinct().toList();
+        Map<UUID, Profile> profilesById = profileService.findAllWithMailingAddress(profileIds).stream()
+                .collect(Collectors.toMap(Profile::getId, Function.identity()));
+        Map<UUID, List<Answer>> answersByEnrollee = answerDao.findByEnrolleeIds(enrolleeIds);
+        Map<UUID, Set<ParticipantTask>> tasksByEnrollee = participantTaskService.findByEnrolleeIds(enrolleeIds);
+        Map<UUID, List<SurveyResponse>> responsesByEnrollee = surveyResponseService.findByEnrolleeIds(enrolleeIds);
+
+        List<EnrolleeExportData> exportData = new ArrayList<>(enrollees.size());
+        for (Enrollee enrollee : enrollees) {
+            exportData.add(new EnrolleeExportData(
+                    enrollee,
+                    profilesById.get(enrollee.getProfileId()),
+                    answersByEnrollee.getOrDefault(enrollee.getId(), List.of()),
+                    new ArrayList<>(tasksByEnrollee.getOrDefault(enrollee.getId(), Set.of())),
+                    responsesByEnrollee.getOrDefault(enrollee.getId(), List.of())
+            ));
+        }
+        return exportData;
     }
 }
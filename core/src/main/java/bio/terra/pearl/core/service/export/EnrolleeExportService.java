@@ -1,7 +1,5 @@
 package bio.terra.pearl.core.service.export;
 
-import bio.terra.pearl.core.dao.survey.AnswerDao;
-import bio.terra.pearl.core.dao.survey.SurveyDao;
 import bio.terra.pearl.core.dao.survey.SurveyQuestionDefinitionDao;
 import bio.terra.pearl.core.model.participant.Enrollee;
 import bio.terra.pearl.core.model.survey.StudyEnvironmentSurvey;
@@ -12,14 +10,12 @@ import bio.terra.pearl.core.service.export.formatters.ProfileFormatter;
 import bio.terra.pearl.core.service.export.formatters.SurveyFormatter;
 import bio.terra.pearl.core.service.export.instance.ExportOptions;
 import bio.terra.pearl.core.service.export.instance.ModuleExportInfo;
-import bio.terra.pearl.core.service.participant.EnrolleeService;
-import bio.terra.pearl.core.service.workflow.ParticipantTaskService;
-import bio.terra.pearl.core.service.participant.ProfileService;
 import bio.terra.pearl.core.service.study.StudyEnvironmentSurveyService;
-import bio.terra.pearl.core.service.survey.SurveyResponseService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.OutputStream;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -29,73 +25,110 @@ import static java.util.stream.Collectors.groupingBy;
 @Service
 @Slf4j
 public class EnrolleeExportService {
-    private final ProfileService profileService;
-    private final AnswerDao answerDao;
+    /** upper bounds on the requested parallelism and chunk size, so a single export can't starve the server */
+    public static final int MAX_PARALLELISM = 8;
+    public static final int MAX_CHUNK_SIZE = 5000;
     private final SurveyQuestionDefinitionDao surveyQuestionDefinitionDao;
     private final StudyEnvironmentSurveyService studyEnvironmentSurveyService;
-    private final SurveyResponseService surveyResponseService;
-    private final ParticipantTaskService participantTaskService;
-    private final SurveyDao surveyDao;
-    private final EnrolleeService enrolleeService;
+    private final EnrolleeExportLoader enrolleeExportLoader;
     private final ObjectMapper objectMapper;
+    private final ExecutorService exportExecutor;
 
-    public EnrolleeExportService(ProfileService profileService,
-                                 AnswerDao answerDao,
-                                 SurveyQuestionDefinitionDao surveyQuestionDefinitionDao,
-                                 StudyEnvironmentSurveyService studyEnvironmentSurveyService, SurveyResponseService surveyResponseService,
-                                 ParticipantTaskService participantTaskService,
-                                 SurveyDao surveyDao,
-                                 EnrolleeService enrolleeService, ObjectMapper objectMapper) {
-        this.profileService = profileService;
-        this.answerDao = answerDao;
+    public EnrolleeExportService(SurveyQuestionDefinitionDao surveyQuestionDefinitionDao,
+                                 StudyEnvironmentSurveyService studyEnvironmentSurveyService,
+                                 EnrolleeExportLoader enrolleeExportLoader,
+                                 ObjectMapper objectMapper,
+                                 ExportExecutor exportExecutor) {
         this.surveyQuestionDefinitionDao = surveyQuestionDefinitionDao;
         this.studyEnvironmentSurveyService = studyEnvironmentSurveyService;
-        this.surveyResponseService = surveyResponseService;
-        this.participantTaskService = participantTaskService;
-        this.surveyDao = surveyDao;
-        this.enrolleeService = enrolleeService;
+        this.enrolleeExportLoader = enrolleeExportLoader;
         this.objectMapper = objectMapper;
+        this.exportExecutor = exportExecutor.getExecutorService();
     }
 
     /**
      * exports the specified number of enrollees from the given environment
-     * The enrollees will be returned most-recently-created first
+     * The enrollees will be returned most-recently-created first.  Enrollees are loaded a chunk at a time as the
+     * exporter pulls them, and each is formatted as it is written, so the full dataset is never held in memory.
+     * If exportOptions.parallelism is greater than one, up to that many chunks at a time are loaded and formatted on
+     * the shared export worker pool, and the output is written in the same order as a serial export.
+     * If exportOptions.updatedSince is set, only enrollees with data updated after that time are exported.
      * */
     public void export(ExportOptions exportOptions, UUID studyEnvironmentId, OutputStream os) throws Exception {
         List<ModuleExportInfo> moduleExportInfos = generateModuleInfos(exportOptions, studyEnvironmentId);
-        var enrolleeMaps = generateExportMaps(studyEnvironmentId,
-                moduleExportInfos, exportOptions.limit());
-        BaseExporter exporter = getExporter(exportOptions.fileFormat(), moduleExportInfos, enrolleeMaps);
-        exporter.export(os);
+        int chunkSize = getChunkSize(exportOptions);
+        int parallelism = getParallelism(exportOptions);
+        if (parallelism <= 1) {
+            try (Stream<EnrolleeExportData> enrolleeExportData = enrolleeExportLoader.streamExportData(studyEnvironmentId,
+                    exportOptions.updatedSince(), exportOptions.limit(), chunkSize)) {
+                BaseExporter exporter = getExporter(exportOptions.fileFormat(), moduleExportInfos, enrolleeExportData);
+                exporter.export(os);
+            }
+            return;
+        }
+        try (Stream<EnrolleeExportData> enrolleeExportData = enrolleeExportLoader.streamExportData(studyEnvironmentId,
+                exportOptions.updatedSince(), exportOptions.limit(), chunkSize, exportExecutor, parallelism)) {
+            BaseExporter exporter = getExporter(exportOptions.fileFormat(), moduleExportInfos, enrolleeExportData);
+            exporter.formatInParallel(exportExecutor, parallelism, chunkSize);
+            exporter.export(os);
+        }
+    }
+
+    protected int getParallelism(ExportOptions exportOptions) {
+        if (exportOptions.parallelism() == null) {
+            return 1;
+        }
+        return Math.max(1, Math.min(exportOptions.parallelism(), MAX_PARALLELISM));
+    }
+
+    protected int getChunkSize(ExportOptions exportOptions) {
+        if (exportOptions.chunkSize() == null) {
+            return EnrolleeExportLoader.DEFAULT_CHUNK_SIZE;
+        }
+        return Math.max(1, Math.min(exportOptions.chunkSize(), MAX_CHUNK_SIZE));
+    }
+
+    /** lazily loads and formats enrollees, a chunk at a time, as the returned stream is consumed */
+    public Stream<Map<String, String>> streamExportMaps(UUID studyEnvironmentId,
+                                                        List<ModuleExportInfo> moduleExportInfos, Integer limit) {
+        ExportColumnIndex columnIndex = new ExportColumnIndex(moduleExportInfos);
+        return enrolleeExportLoader.streamExportData(studyEnvironmentId, limit, EnrolleeExportLoader.DEFAULT_CHUNK_SIZE)
+                .map(exportData -> {
+                    try {
+                        return generateExportMap(exportData, moduleExportInfos, columnIndex);
+                    } catch (Exception e) {
+                        throw new RuntimeException("Error formatting enrollee " + exportData.getEnrollee().getShortcode()
+                                + " for export", e);
+                    }
+                });
     }
 
     public List<Map<String, String>> generateExportMaps(UUID studyEnvironmentId,
                                                    List<ModuleExportInfo> moduleExportInfos, Integer limit) throws Exception {
-        List<Enrollee> enrollees = enrolleeService.findByStudyEnvironment(studyEnvironmentId, "created_at", "DESC");
-        if (limit != null && enrollees.size() > 0) {
-            enrollees = enrollees.subList(0, Math.min(enrollees.size(), limit));
+        try (Stream<Map<String, String>> enrolleeMaps = streamExportMaps(studyEnvironmentId, moduleExportInfos, limit)) {
+            return enrolleeMaps.toList();
         }
-        return generateExportMaps(enrollees, moduleExportInfos);
     }
 
     public List<Map<String, String>> generateExportMaps(List<Enrollee> enrollees,
                                                         List<ModuleExportInfo> moduleExportInfos) throws Exception {
-        List<EnrolleeExportData> enrolleeExportData = loadAllEnrolleesForExport(enrollees);
+        List<EnrolleeExportData> enrolleeExportData = enrolleeExportLoader.loadChunk(enrollees);
+        ExportColumnIndex columnIndex = new ExportColumnIndex(moduleExportInfos);
 
         List<Map<String, String>> exportMaps = new ArrayList<>();
         for (EnrolleeExportData exportData : enrolleeExportData) {
-            exportMaps.add(generateExportMap(exportData, moduleExportInfos));
+            exportMaps.add(generateExportMap(exportData, moduleExportInfos, columnIndex));
         }
         return exportMaps;
     }
 
-    public Map<String, String> generateExportMap(EnrolleeExportData exportData,
-                                                 List<ModuleExportInfo> moduleExportInfos) throws Exception {
-        Map<String, String> valueMap = new HashMap<>();
+    public Map<String, String> generateExportMap(EnrolleeExportData exportData, List<ModuleExportInfo> moduleExportInfos,
+                                                 ExportColumnIndex columnIndex) throws Exception {
+        ExportRow row = columnIndex.newRow();
         for (ModuleExportInfo moduleExportInfo : moduleExportInfos) {
-            valueMap.putAll(moduleExportInfo.toStringMap(exportData));
+            moduleExportInfo.writeValues(exportData, row);
         }
-        return valueMap;
+        return row.toMap();
     }
 
     /**
@@ -138,31 +171,14 @@ public class EnrolleeExportService {
         return moduleExportInfos;
     }
 
-    protected List<EnrolleeExportData> loadAllEnrolleesForExport(List<Enrollee> enrollees) {
-        // for now, load each enrollee individually.  Later we'll want more sophisticated batching strategies
-        return enrollees.stream().map(enrollee ->
-                loadEnrolleeData(enrollee)
-        ).toList();
-    }
-
-    protected EnrolleeExportData loadEnrolleeData(Enrollee enrollee) {
-        return new EnrolleeExportData(
-                enrollee,
-                profileService.loadWithMailingAddress(enrollee.getProfileId()).get(),
-                answerDao.findByEnrolleeId(enrollee.getId()),
-                participantTaskService.findByEnrolleeId(enrollee.getId()),
-                surveyResponseService.findByEnrolleeId(enrollee.getId())
-        );
-    }
-
     protected BaseExporter getExporter(ExportFileFormat fileFormat, List<ModuleExportInfo> moduleExportInfos,
-                                       List<Map<String, String>> enrolleeMaps) {
+                                       Stream<EnrolleeExportData> enrolleeExportData) {
         if (fileFormat.equals(ExportFileFormat.JSON)) {
-            return new JsonExporter(moduleExportInfos, enrolleeMaps, objectMapper);
+            return new JsonExporter(moduleExportInfos, enrolleeExportData, objectMapper);
         } else if (fileFormat.equals(ExportFileFormat.EXCEL)) {
-            return new ExcelExporter(moduleExportInfos, enrolleeMaps);
+            return new ExcelExporter(moduleExportInfos, enrolleeExportData);
         }
-        return new TsvExporter(moduleExportInfos, enrolleeMaps);
+        return new TsvExporter(moduleExportInfos, enrolleeExportData);
     }
 
 
@@ -4,15 +4,18 @@ import bio.terra.pearl.core.service.export.instance.ModuleExportInfo;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
-import org.apache.commons.lang3.StringUtils;
+import java.util.stream.Stream;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.xssf.streaming.SXSSFSheet;
 import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 
 
-/** generates an excel file with a single sheet containing the participant data */
+/**
+ * generates an excel file with a single sheet containing the participant data.  Uses a streaming workbook, so only
+ * the most recent ROW_ACCESS_WINDOW_SIZE rows are held in memory -- earlier rows are flushed to a temp file
+ */
 public class ExcelExporter extends BaseExporter {
     private final static int ROW_ACCESS_WINDOW_SIZE = 200;
     protected final SXSSFWorkbook workbook;
@@ -20,26 +23,23 @@ public class ExcelExporter extends BaseExporter {
     protected final SXSSFSheet sheet;
     private static final String SHEET_NAME = "Participants";
 
-    public ExcelExporter(List<ModuleExportInfo> moduleInfos, List<Map<String, String>> enrolleeMaps) {
-        super(moduleInfos, enrolleeMaps);
+    public ExcelExporter(List<ModuleExportInfo> moduleInfos, Stream<EnrolleeExportData> enrolleeExportData) {
+        super(moduleInfos, enrolleeExportData);
         workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW_SIZE);
+        // the flushed rows can be large for big studies, so compress them on disk
+        workbook.setCompressTempFiles(true);
         sheet = workbook.createSheet(getSheetName());
-        sheet.trackAllColumnsForAutoSizing();
     }
 
     public void export(OutputStream os) throws IOException {
-        List<String> columnKeys = getColumnKeys();
         List<String> headerRowValues = getHeaderRow();
         List<String> subHeaderRowValues = getSubHeaderRow();
 
         writeRowToSheet(headerRowValues, 0);
         writeRowToSheet(subHeaderRowValues, 1);
 
-        IntStream.range(0, enrolleeMaps.size()).forEach(i -> {
-            Map<String, String> valueMap = enrolleeMaps.get(i);
-            List<String> rowValues = getRowValues(valueMap, columnKeys);
-            writeRowToSheet(rowValues, i + 2);
-        });
+        AtomicInteger rowNum = new AtomicInteger(2);
+        writeEnrolleeRows(rowValues -> writeRowToSheet(rowValues, rowNum.getAndIncrement()));
 
         writeAndCloseSheet(os);
     }
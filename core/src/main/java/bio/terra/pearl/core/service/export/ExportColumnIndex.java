@@ -0,0 +1,101 @@
+package bio.terra.pearl.core.service.export;
+
+import bio.terra.pearl.core.service.export.formatters.SurveyFormatter;
+import bio.terra.pearl.core.service.export.instance.ItemExportInfo;
+import bio.terra.pearl.core.service.export.instance.ModuleExportInfo;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The compiled, ordered set of columns for an export.  This is built once per export by walking
+ * BaseExporter.applyToEveryColumn, and gives every column an ordinal.  Formatters then write each enrollee's
+ * values into a dense array by ordinal (see ExportRow), rather than into a map keyed by full column key strings --
+ * for exports with thousands of split-option columns, that map meant thousands of duplicated keys and entries
+ * per enrollee.
+ *
+ * The index is immutable once built, so a single instance can be shared by concurrent formatting threads.
+ */
+public class ExportColumnIndex {
+    public static final int NO_COLUMN = -1;
+    public static final String DEFAULT_EMPTY_VALUE = "";
+
+    private final String[] columnKeys;
+    /** the value to export if the value for an enrollee is nullish, indexed by ordinal */
+    private final String[] emptyValues;
+    /**
+     * the column ordinals for each item.  Keyed by identity, since items are unique instances per export and this
+     * avoids hashing the item contents
+     */
+    private final Map<ItemExportInfo, ItemColumns> itemColumns = new IdentityHashMap<>();
+
+    public ExportColumnIndex(List<ModuleExportInfo> moduleExportInfos) {
+        List<String> keys = new ArrayList<>();
+        List<String> empties = new ArrayList<>();
+        BaseExporter.applyToEveryColumn(moduleExportInfos, (moduleExportInfo, itemExportInfo, isOtherDescription, choice) -> {
+            int ordinal = keys.size();
+            keys.add(moduleExportInfo.getFormatter().getColumnKey(moduleExportInfo, itemExportInfo, isOtherDescription, choice));
+            // split option columns default to "unselected", so we don't have to store a "0" for every unselected option
+            empties.add(itemExportInfo.isSplitOptionsIntoColumns() ? SurveyFormatter.SPLIT_OPTION_UNSELECTED_VALUE : DEFAULT_EMPTY_VALUE);
+
+            ItemColumns columns = itemColumns.computeIfAbsent(itemExportInfo, item -> new ItemColumns());
+            if (isOtherDescription) {
+                columns.otherDescriptionOrdinal = ordinal;
+            } else if (choice != null) {
+                columns.choiceOrdinals.put(choice.stableId(), ordinal);
+            } else {
+                columns.valueOrdinal = ordinal;
+            }
+        });
+        this.columnKeys = keys.toArray(new String[0]);
+        this.emptyValues = empties.toArray(new String[0]);
+    }
+
+    public int size() {
+        return columnKeys.length;
+    }
+
+    public String getColumnKey(int ordinal) {
+        return columnKeys[ordinal];
+    }
+
+    public List<String> getColumnKeys() {
+        return List.of(columnKeys);
+    }
+
+    public String getEmptyValue(int ordinal) {
+        return emptyValues[ordinal];
+    }
+
+    /** the ordinal of the single value column for the item, or NO_COLUMN if it has none (e.g. its options are split) */
+    public int getValueOrdinal(ItemExportInfo itemExportInfo) {
+        ItemColumns columns = itemColumns.get(itemExportInfo);
+        return columns == null ? NO_COLUMN : columns.valueOrdinal;
+    }
+
+    public int getOtherDescriptionOrdinal(ItemExportInfo itemExportInfo) {
+        ItemColumns columns = itemColumns.get(itemExportInfo);
+        return columns == null ? NO_COLUMN : columns.otherDescriptionOrdinal;
+    }
+
+    /** the ordinal of the column for the given choice of a split-options item, or NO_COLUMN if there isn't one */
+    public int getChoiceOrdinal(ItemExportInfo itemExportInfo, String choiceStableId) {
+        ItemColumns columns = itemColumns.get(itemExportInfo);
+        if (columns == null) {
+            return NO_COLUMN;
+        }
+        return columns.choiceOrdinals.getOrDefault(choiceStableId, NO_COLUMN);
+    }
+
+    public ExportRow newRow() {
+        return new ExportRow(this);
+    }
+
+    private static class ItemColumns {
+        private int valueOrdinal = NO_COLUMN;
+        private int otherDescriptionOrdinal = NO_COLUMN;
+        private final Map<String, Integer> choiceOrdinals = new HashMap<>();
+    }
+}
@@ -0,0 +1,38 @@
+package bio.terra.pearl.core.service.export;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PreDestroy;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * The worker pool shared by all parallel exports, so that concurrent exports can't use more than a fixed number of
+ * threads between them.  The pool isn't registered as an Executor bean itself, since that would replace Spring's
+ * default task executor for @Async methods.
+ */
+@Component
+public class ExportExecutor {
+    private final ExecutorService executorService;
+
+    public ExportExecutor(Environment env) {
+        int threads = env.getProperty("env.export.workerThreads", Integer.class,
+                EnrolleeExportService.MAX_PARALLELISM);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executorService = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "export-worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public ExecutorService getExecutorService() {
+        return executorService;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executorService.shutdownNow();
+    }
+}
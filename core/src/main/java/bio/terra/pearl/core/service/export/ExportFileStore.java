@@ -0,0 +1,193 @@
+package bio.terra.pearl.core.service.export;
+
+import bio.terra.pearl.core.dao.export.ExportFileChunkDao;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.UUID;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stores the output files of export jobs in the database, split into fixed-size chunks, so that any node can serve a
+ * file regardless of which node ran the job.  Chunks are written as the export streams them, so a file is only
+ * complete once its job is -- callers check the job's status before reading.  Reads fetch one chunk at a time, and
+ * skipping (e.g. for a Range request) doesn't fetch the skipped chunks.
+ */
+@Component
+public class ExportFileStore {
+    /** large enough that a file is a modest number of rows, small enough that a reader only holds one in memory */
+    static final int CHUNK_SIZE = 1024 * 1024;
+    private final ExportFileChunkDao chunkDao;
+
+    public ExportFileStore(ExportFileChunkDao chunkDao) {
+        this.chunkDao = chunkDao;
+    }
+
+    /** class for writing the contents of a file */
+    public interface FileWriter {
+        void write(OutputStream os) throws Exception;
+    }
+
+    /** writes the file for the job, replacing any existing one, and returns its size in bytes */
+    public long write(UUID jobId, FileWriter writer) throws Exception {
+        chunkDao.deleteByExportJobId(jobId);
+        try (ChunkOutputStream os = new ChunkOutputStream(jobId)) {
+            writer.write(os);
+            os.close();
+            return os.size;
+        } catch (Exception e) {
+            chunkDao.deleteByExportJobId(jobId);
+            throw e;
+        }
+    }
+
+    /** returns the job's file, which must have been written, as a resource of the given size */
+    public Resource getResource(UUID jobId, long size) {
+        return new AbstractResource() {
+            @Override
+            public String getDescription() {
+                return "export file for job " + jobId;
+            }
+
+            @Override
+            public long contentLength() {
+                return size;
+            }
+
+            @Override
+            public InputStream getInputStream() {
+                return new ChunkInputStream(jobId, size);
+            }
+        };
+    }
+
+    public boolean exists(UUID jobId) {
+        return chunkDao.exists(jobId);
+    }
+
+    public void delete(UUID jobId) {
+        chunkDao.deleteByExportJobId(jobId);
+    }
+
+    public void deleteByStudyEnvironmentId(UUID studyEnvId) {
+        chunkDao.deleteByStudyEnvironmentId(studyEnvId);
+    }
+
+    /** buffers a chunk at a time, saving each as it fills.  An empty file is saved as one empty chunk */
+    private class ChunkOutputStream extends OutputStream {
+        private final UUID jobId;
+        private final byte[] buffer = new byte[CHUNK_SIZE];
+        private int buffered = 0;
+        private int chunkIndex = 0;
+        private long size = 0;
+        private boolean closed = false;
+
+        ChunkOutputStream(UUID jobId) {
+            this.jobId = jobId;
+        }
+
+        @Override
+        public void write(int b) {
+            buffer[buffered++] = (byte) b;
+            size++;
+            if (buffered == CHUNK_SIZE) {
+                saveChunk();
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            while (length > 0) {
+                int copied = Math.min(length, CHUNK_SIZE - buffered);
+                System.arraycopy(bytes, offset, buffer, buffered, copied);
+                buffered += copied;
+                size += copied;
+                offset += copied;
+                length -= copied;
+                if (buffered == CHUNK_SIZE) {
+                    saveChunk();
+                }
+            }
+        }
+
+        /** saves the last, partial, chunk.  Exporters may close the stream themselves, so this is idempotent */
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (buffered > 0 || chunkIndex == 0) {
+                saveChunk();
+            }
+        }
+
+        private void saveChunk() {
+            chunkDao.create(jobId, chunkIndex++, Arrays.copyOf(buffer, buffered));
+            buffered = 0;
+        }
+    }
+
+    /** reads the file a chunk at a time, fetching each chunk only when a byte of it is read */
+    private class ChunkInputStream extends InputStream {
+        private final UUID jobId;
+        private final long size;
+        private long position = 0;
+        private int chunkIndex = -1;
+        private byte[] chunk;
+
+        ChunkInputStream(UUID jobId, long size) {
+            this.jobId = jobId;
+            this.size = size;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (position >= size) {
+                return -1;
+            }
+            int value = loadChunk()[(int) (position % CHUNK_SIZE)] & 0xff;
+            position++;
+            return value;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (position >= size) {
+                return -1;
+            }
+            int chunkOffset = (int) (position % CHUNK_SIZE);
+            int read = (int) Math.min(Math.min(length, CHUNK_SIZE - chunkOffset), size - position);
+            System.arraycopy(loadChunk(), chunkOffset, bytes, offset, read);
+            position += read;
+            return read;
+        }
+
+        @Override
+        public long skip(long n) {
+            long skipped = Math.max(Math.min(n, size - position), 0);
+            position += skipped;
+            return skipped;
+        }
+
+        private byte[] loadChunk() throws IOException {
+            int index = (int) (position / CHUNK_SIZE);
+            if (index != chunkIndex) {
+                chunk = chunkDao.find(jobId, index)
+                        .orElseThrow(() -> new IOException("Missing chunk %d of export file for job %s"
+                                .formatted(index, jobId)));
+                chunkIndex = index;
+            }
+            if (chunk.length <= position % CHUNK_SIZE) {
+                throw new IOException("Export file for job %s is shorter than its size".formatted(jobId));
+            }
+            return chunk;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package bio.terra.pearl.core.service.export;
+
+import bio.terra.pearl.core.dao.export.ExportJobDao;
+import bio.terra.pearl.core.model.export.ExportJob;
+import bio.terra.pearl.core.model.export.ExportJobStatus;
+import bio.terra.pearl.core.service.CrudService;
+import bio.terra.pearl.core.service.exception.NotFoundException;
+import bio.terra.pearl.core.service.export.instance.ExportOptions;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Manages export jobs, which run exports in the background and write the output to the ExportFileStore.  Since the
+ * store is shared, any node can run a job and any node can serve its file.  Coordinating which node runs a job is the
+ * caller's responsibility -- this service only guarantees that a given job is run at most once.
+ */
+@Service
+public class ExportJobService extends CrudService<ExportJob, ExportJobDao> {
+    /** jobs that have been running longer than this are assumed to have been abandoned, e.g. by a node shutting down */
+    public static final Duration MAX_RUN_TIME = Duration.ofHours(2);
+    private final EnrolleeExportService enrolleeExportService;
+    private final ExportFileStore exportFileStore;
+    private final ObjectMapper objectMapper;
+
+    public ExportJobService(ExportJobDao dao, EnrolleeExportService enrolleeExportService,
+                            ExportFileStore exportFileStore, ObjectMapper objectMapper) {
+        super(dao);
+        this.enrolleeExportService = enrolleeExportService;
+        this.exportFileStore = exportFileStore;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * creates a pending job to export the environment with the given options.  If an identical job is already
+     * pending or running, that job is returned instead.  Likewise, if an identical job has completed and the
+     * environment's data has not changed since, that job is returned so its file can be downloaded directly.
+     * Concurrent identical submits get the same job, rather than each starting one.
+     */
+    @Transactional
+    public ExportJob submit(ExportOptions exportOptions, UUID studyEnvironmentId, UUID adminUserId) {
+        String optionsHash = hashOptions(exportOptions);
+        Optional<ExportJob> inProgressJob = dao.findLatestByOptionsHash(studyEnvironmentId, optionsHash,
+                List.of(ExportJobStatus.PENDING, ExportJobStatus.RUNNING));
+        if (inProgressJob.isPresent()) {
+            return inProgressJob.get();
+        }
+        Optional<ExportJob> cachedJob = findCachedResult(studyEnvironmentId, optionsHash);
+        if (cachedJob.isPresent()) {
+            return cachedJob.get();
+        }
+        ExportJob job = ExportJob.builder()
+                .studyEnvironmentId(studyEnvironmentId)
+                .creatingAdminUserId(adminUserId)
+                .status(ExportJobStatus.PENDING)
+                .fileFormat(exportOptions.fileFormat())
+                .optionsJson(toJson(exportOptions))
+                .optionsHash(optionsHash)
+                .build();
+        // an identical submit may have created a job since the check above
+        return dao.createIfNoneInProgress(job).orElseGet(() -> dao.findLatestByOptionsHash(studyEnvironmentId,
+                optionsHash, List.of(ExportJobStatus.PENDING, ExportJobStatus.RUNNING)).get());
+    }
+
+    /** returns the most recent completed job with the given options, if its file is present and still current */
+    protected Optional<ExportJob> findCachedResult(UUID studyEnvironmentId, String optionsHash) {
+        Optional<ExportJob> completedJob = dao.findLatestByOptionsHash(studyEnvironmentId, optionsHash,
+                List.of(ExportJobStatus.COMPLETE));
+        if (completedJob.isEmpty() || !exportFileStore.exists(completedJob.get().getId())) {
+            return Optional.empty();
+        }
+        String currentDataVersion = dao.findDataVersion(studyEnvironmentId);
+        if (!currentDataVersion.equals(completedJob.get().getDataVersion())) {
+            return Optional.empty();
+        }
+        return completedJob;
+    }
+
+    public List<ExportJob> findPending() {
+        return dao.findByStatus(ExportJobStatus.PENDING);
+    }
+
+    /**
+     * runs the job, if it is still pending, writing the output to the file store.  This is deliberately not
+     * transactional, since exports can take a long time -- the job is claimed atomically, so if two callers
+     * race, only one will run it.  Likewise, the outcome is only saved if the job is still running, so a job
+     * that overran MAX_RUN_TIME stays failed.
+     */
+    public void run(UUID jobId) {
+        if (!dao.claim(jobId, Instant.now())) {
+            return;
+        }
+        ExportJob job = dao.find(jobId).orElseThrow(() -> new NotFoundException("Export job not found"));
+        try {
+            ExportOptions exportOptions = objectMapper.readValue(job.getOptionsJson(), ExportOptions.class);
+            // record the data version before reading, so that changes made during the export invalidate the result
+            job.setDataVersion(dao.findDataVersion(job.getStudyEnvironmentId()));
+            long fileSize = exportFileStore.write(job.getId(), os ->
+                    enrolleeExportService.export(exportOptions, job.getStudyEnvironmentId(), os));
+            job.setFileSize(fileSize);
+            job.setStatus(ExportJobStatus.COMPLETE);
+        } catch (Exception e) {
+            logger.error("Export job {} failed", jobId, e);
+            job.setStatus(ExportJobStatus.FAILED);
+            job.setErrorMessage(e.getMessage());
+        }
+        job.setCompletedAt(Instant.now());
+        // the job may have been marked failed by failAbandonedJobs while this was running, in which case that stands
+        if (!dao.finish(job)) {
+            logger.warn("Export job {} was no longer running when it finished, discarding its output", jobId);
+            exportFileStore.delete(job.getId());
+        }
+    }
+
+    /** returns the job's output file.  Throws NotFoundException if the job is not complete, or its file has expired */
+    public Resource getFileResource(ExportJob job) {
+        if (job.getStatus() != ExportJobStatus.COMPLETE) {
+            throw new NotFoundException("Export job is not complete");
+        }
+        if (!exportFileStore.exists(job.getId())) {
+            throw new NotFoundException("Export file is not available");
+        }
+        return exportFileStore.getResource(job.getId(), job.getFileSize());
+    }
+
+    /** marks jobs that have been running longer than MAX_RUN_TIME as failed, so they aren't waited on forever */
+    @Transactional
+    public void failAbandonedJobs() {
+        for (ExportJob job : dao.findByStatusUpdatedBefore(ExportJobStatus.RUNNING, Instant.now().minus(MAX_RUN_TIME))) {
+            job.setStatus(ExportJobStatus.FAILED);
+            job.setErrorMessage("Export did not complete in time");
+            dao.update(job);
+        }
+    }
+
+    /** deletes the files of jobs that completed more than maxAge ago, and marks those jobs as expired */
+    @Transactional
+    public void expireCompletedJobs(Duration maxAge) {
+        for (ExportJob job : dao.findByStatusUpdatedBefore(ExportJobStatus.COMPLETE, Instant.now().minus(maxAge))) {
+            exportFileStore.delete(job.getId());
+            job.setStatus(ExportJobStatus.EXPIRED);
+            dao.update(job);
+        }
+    }
+
+    @Transactional
+    public void deleteByStudyEnvironmentId(UUID studyEnvironmentId) {
+        exportFileStore.deleteByStudyEnvironmentId(studyEnvironmentId);
+        dao.deleteByStudyEnvironmentId(studyEnvironmentId);
+    }
+
+    /**
+     * hashes the options that affect the output of the export.  Parallelism and chunk size only affect how the
+     * export is run, so jobs that differ only in those can share a result.
+     */
+    protected String hashOptions(ExportOptions exportOptions) {
+        ExportOptions outputOptions = new ExportOptions(exportOptions.splitOptionsIntoColumns(),
+                exportOptions.stableIdsForOptions(), exportOptions.onlyIncludeMostRecent(), exportOptions.fileFormat(),
+                exportOptions.limit(), null, null, exportOptions.updatedSince());
+        return DigestUtils.md5DigestAsHex(toJson(outputOptions).getBytes(StandardCharsets.UTF_8));
+    }
+
+    protected String toJson(ExportOptions exportOptions) {
+        try {
+            return objectMapper.writeValueAsString(exportOptions);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize export options", e);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package bio.terra.pearl.core.service.export;
+
+import bio.terra.pearl.core.service.export.instance.ItemExportInfo;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The formatted values of a single export row (usually an enrollee), stored in a dense array by the column
+ * ordinals of an ExportColumnIndex.  Formatters address values by the item they belong to; values for which the
+ * index has no column (e.g. a choice that only existed in an earlier version of a question) are dropped.
+ */
+public class ExportRow {
+    private final ExportColumnIndex columnIndex;
+    private final String[] values;
+
+    public ExportRow(ExportColumnIndex columnIndex) {
+        this.columnIndex = columnIndex;
+        this.values = new String[columnIndex.size()];
+    }
+
+    public void put(ItemExportInfo itemExportInfo, String value) {
+        set(columnIndex.getValueOrdinal(itemExportInfo), value);
+    }
+
+    public void putOtherDescription(ItemExportInfo itemExportInfo, String value) {
+        set(columnIndex.getOtherDescriptionOrdinal(itemExportInfo), value);
+    }
+
+    public void putChoice(ItemExportInfo itemExportInfo, String choiceStableId, String value) {
+        set(columnIndex.getChoiceOrdinal(itemExportInfo, choiceStableId), value);
+    }
+
+    /** returns the raw value for the column, or null if no value was written to it */
+    public String get(int ordinal) {
+        return values[ordinal];
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    /** returns a map of column key => value for every column that has a value */
+    public Map<String, String> toMap() {
+        Map<String, String> valueMap = new HashMap<>();
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                valueMap.put(columnIndex.getColumnKey(i), values[i]);
+            }
+        }
+        return valueMap;
+    }
+
+    private void set(int ordinal, String value) {
+        if (ordinal != ExportColumnIndex.NO_COLUMN) {
+            values[ordinal] = value;
+        }
+    }
+}
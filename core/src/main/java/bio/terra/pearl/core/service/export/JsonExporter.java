@@ -1,36 +1,53 @@
 package bio.terra.pearl.core.service.export;
 
 import bio.terra.pearl.core.service.export.instance.ModuleExportInfo;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.PrintWriter;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.stream.Stream;
 
+/**
+ * writes the export as a single json object with columnKeys, headerRowValues, subHeaderRowValues, and valueMaps
+ * properties.  The valueMaps array is written incrementally with a streaming generator, one enrollee at a time.
+ */
 public class JsonExporter extends BaseExporter {
 
     private final ObjectMapper objectMapper;
 
-    public JsonExporter(List<ModuleExportInfo> moduleExportInfos, List<Map<String, String>> enrolleeMaps,
+    public JsonExporter(List<ModuleExportInfo> moduleExportInfos, Stream<EnrolleeExportData> enrolleeExportData,
                         ObjectMapper objectMapper) {
-        super(moduleExportInfos, enrolleeMaps);
+        super(moduleExportInfos, enrolleeExportData);
         this.objectMapper = objectMapper;
     }
 
     public void export(OutputStream os) throws IOException {
-        PrintWriter printWriter = new PrintWriter(os);
-        List<String> columnKeys = getColumnKeys();
-        List<String> headerRowValues = getHeaderRow();
-        List<String> subHeaderRowValues = getSubHeaderRow();
-
-        JsonExport jsonExport = new JsonExport(columnKeys, headerRowValues, subHeaderRowValues, enrolleeMaps);
-        printWriter.println(objectMapper.writeValueAsString(jsonExport));
-        printWriter.flush();
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(os);
         // do not close os -- that's the caller's responsibility
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        generator.writeStartObject();
+        writeStringArray(generator, "columnKeys", getColumnKeys());
+        writeStringArray(generator, "headerRowValues", getHeaderRow());
+        writeStringArray(generator, "subHeaderRowValues", getSubHeaderRow());
+        generator.writeArrayFieldStart("valueMaps");
+        Iterator<EnrolleeExportData> iterator = enrolleeExportData.iterator();
+        while (iterator.hasNext()) {
+            generator.writeObject(formatRow(iterator.next()).toMap());
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.writeRaw(System.lineSeparator());
+        generator.close();
     }
 
-    public record JsonExport(List<String> columnKeys, List<String> headerRowValues, List<String> subHeaderRowValues,
-                             List<Map<String, String>> valueMaps) {}
-
+    protected void writeStringArray(JsonGenerator generator, String fieldName, List<String> values) throws IOException {
+        generator.writeArrayFieldStart(fieldName);
+        for (String value : values) {
+            generator.writeString(value);
+        }
+        generator.writeEndArray();
+    }
 }
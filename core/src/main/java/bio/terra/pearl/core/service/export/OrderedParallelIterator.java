@@ -0,0 +1,75 @@
+package bio.terra.pearl.core.service.export;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Maps the elements of a source iterator on an executor, keeping up to maxInFlight elements in progress at once,
+ * and returns the results in the same order as the source.  The source is only read from the consuming thread, so
+ * it does not need to be thread-safe, and at most maxInFlight results are held in memory at a time.  Since the
+ * executor may be shared, consumers that stop early should call cancel, so their remaining work doesn't hold up others.
+ */
+public class OrderedParallelIterator<T, R> implements Iterator<R> {
+    private final Iterator<T> source;
+    private final Function<T, R> mapper;
+    private final ExecutorService executor;
+    private final int maxInFlight;
+    private final Deque<Future<R>> inFlight = new ArrayDeque<>();
+
+    public OrderedParallelIterator(Iterator<T> source, Function<T, R> mapper, ExecutorService executor, int maxInFlight) {
+        this.source = source;
+        this.mapper = mapper;
+        this.executor = executor;
+        this.maxInFlight = Math.max(1, maxInFlight);
+    }
+
+    @Override
+    public boolean hasNext() {
+        fill();
+        return !inFlight.isEmpty();
+    }
+
+    @Override
+    public R next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Future<R> result = inFlight.poll();
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            cancelInFlight();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted waiting for parallel export result", e);
+        } catch (ExecutionException e) {
+            cancelInFlight();
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException("Error in parallel export", e.getCause());
+        }
+    }
+
+    private void fill() {
+        while (inFlight.size() < maxInFlight && source.hasNext()) {
+            T element = source.next();
+            inFlight.add(executor.submit(() -> mapper.apply(element)));
+        }
+    }
+
+    /** cancels any results still in progress */
+    public void cancel() {
+        cancelInFlight();
+    }
+
+    private void cancelInFlight() {
+        inFlight.forEach(future -> future.cancel(true));
+        inFlight.clear();
+    }
+}
@@ -1,44 +1,49 @@
 package bio.terra.pearl.core.service.export;
 
 import bio.terra.pearl.core.service.export.instance.ModuleExportInfo;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.PrintWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.Map;
-import org.apache.commons.lang3.StringUtils;
+import java.util.stream.Stream;
 
 public class TsvExporter extends BaseExporter {
     public static final String DELIMITER = "\t";
+    public static final String LINE_SEPARATOR = "\n";
 
-    public TsvExporter(List<ModuleExportInfo> moduleExportInfos, List<Map<String, String>> enrolleeMaps) {
-        super(moduleExportInfos, enrolleeMaps);
+    public TsvExporter(List<ModuleExportInfo> moduleExportInfos, Stream<EnrolleeExportData> enrolleeExportData) {
+        super(moduleExportInfos, enrolleeExportData);
     }
 
     /**
-     * writes the data to the given stream. This does not close the stream, so that multi-part streams (e.g. zip files)
-     * can be supported
+     * writes the data to the given stream, one row at a time as each enrollee is pulled from the source.
+     * This does not close the stream, so that multi-part streams (e.g. zip files) can be supported
      */
     @Override
     public void export(OutputStream os) throws IOException {
-        PrintWriter printWriter = new PrintWriter(os);
-        List<String> columnKeys = getColumnKeys();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8));
         List<String> headerRowValues = getHeaderRow();
         List<String> subHeaderRowValues = getSubHeaderRow();
 
-        printWriter.println(getRowString(headerRowValues));
-        printWriter.println(getRowString(subHeaderRowValues));
-        for (Map<String, String> enrolleeMap : enrolleeMaps) {
-            List<String> rowValues = getRowValues(enrolleeMap, columnKeys);
-            String rowString = getRowString(rowValues);
-            printWriter.println(rowString);
-        }
-        printWriter.flush();
+        writeRow(writer, headerRowValues);
+        writeRow(writer, subHeaderRowValues);
+        writeEnrolleeRows(rowValues -> writeRow(writer, rowValues));
+        writer.flush();
         // do not close os -- that's the caller's responsibility
     }
 
-    protected String getRowString(List<String> rowValues) {
-        return String.join(DELIMITER, rowValues);
+    /** writes the row values directly to the writer, without building an intermediate string for the row */
+    protected void writeRow(Writer writer, List<String> rowValues) throws IOException {
+        for (int i = 0; i < rowValues.size(); i++) {
+            if (i > 0) {
+                writer.write(DELIMITER);
+            }
+            writer.write(rowValues.get(i));
+        }
+        writer.write(LINE_SEPARATOR);
     }
 
 
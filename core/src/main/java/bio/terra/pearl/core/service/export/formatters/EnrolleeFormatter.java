@@ -3,19 +3,19 @@ package bio.terra.pearl.core.service.export.formatters;
 import bio.terra.pearl.core.model.participant.Enrollee;
 import bio.terra.pearl.core.model.survey.QuestionChoice;
 import bio.terra.pearl.core.service.export.EnrolleeExportData;
+import bio.terra.pearl.core.service.export.ExportRow;
 import bio.terra.pearl.core.service.export.instance.ExportOptions;
 import bio.terra.pearl.core.service.export.instance.ItemExportInfo;
 import bio.terra.pearl.core.service.export.instance.ModuleExportInfo;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 public class EnrolleeFormatter implements ExportFormatter {
     public static final String ENROLLEE_MODULE_NAME = "enrollee";
 
     @Override
-    public Map<String, String> toStringMap(EnrolleeExportData enrolleeData, ModuleExportInfo moduleExportInfo) throws Exception {
-        return ExportFormatUtils.mapBeanForExport(enrolleeData.getEnrollee(), moduleExportInfo);
+    public void writeValues(EnrolleeExportData enrolleeData, ModuleExportInfo moduleExportInfo, ExportRow row) throws Exception {
+        ExportFormatUtils.writeBeanForExport(enrolleeData.getEnrollee(), moduleExportInfo, row);
     }
 
     @Override
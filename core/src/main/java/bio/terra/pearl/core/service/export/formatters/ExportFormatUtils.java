@@ -1,5 +1,6 @@
 package bio.terra.pearl.core.service.export.formatters;
 
+import bio.terra.pearl.core.service.export.ExportRow;
 import bio.terra.pearl.core.service.export.instance.ItemExportInfo;
 import bio.terra.pearl.core.service.export.instance.ModuleExportInfo;
 import java.beans.BeanInfo;
@@ -10,7 +11,6 @@ import java.time.LocalDate;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -66,15 +66,13 @@ public class ExportFormatUtils {
                 .collect(Collectors.toList());
     }
 
-    public static Map<String, String> mapBeanForExport(Object bean, ModuleExportInfo moduleInfo) throws Exception {
-        Map<String, String> valueMap = new HashMap<>();
+    public static void writeBeanForExport(Object bean, ModuleExportInfo moduleInfo, ExportRow row) throws Exception {
         for (ItemExportInfo itemInfo : moduleInfo.getItems()) {
-            addPropertyForExport(bean, itemInfo, valueMap);
+            addPropertyForExport(bean, itemInfo, row);
         }
-        return valueMap;
     }
 
-    public static void addPropertyForExport(Object bean, ItemExportInfo itemExportInfo, Map<String, String> valueMap) throws Exception {
+    public static void addPropertyForExport(Object bean, ItemExportInfo itemExportInfo, ExportRow row) throws Exception {
         Object value = null;
         try {
             value = PropertyUtils.getNestedProperty(bean, itemExportInfo.getPropertyAccessor());
@@ -82,7 +80,7 @@ public class ExportFormatUtils {
             // do nothing
         }
         String columnValue = ExportFormatUtils.formatForExport(value);
-        valueMap.put(itemExportInfo.getBaseColumnKey(), columnValue);
+        row.put(itemExportInfo, columnValue);
     }
 
     public static ItemExportInfo getItemInfoForBeanProp(String moduleName, String propertyName, Class beanClass) {
@@ -2,12 +2,13 @@ package bio.terra.pearl.core.service.export.formatters;
 
 import bio.terra.pearl.core.model.survey.QuestionChoice;
 import bio.terra.pearl.core.service.export.EnrolleeExportData;
+import bio.terra.pearl.core.service.export.ExportRow;
 import bio.terra.pearl.core.service.export.instance.ItemExportInfo;
 import bio.terra.pearl.core.service.export.instance.ModuleExportInfo;
-import java.util.Map;
 
 public interface ExportFormatter {
-    Map<String, String> toStringMap(EnrolleeExportData enrolleeData, ModuleExportInfo moduleInfo) throws Exception;
+    /** writes the formatted values of this module for the enrollee into the row, addressed by ItemExportInfo */
+    void writeValues(EnrolleeExportData enrolleeData, ModuleExportInfo moduleInfo, ExportRow row) throws Exception;
 
     /** the header is the guaranteed unique key for the column.  In simple cases, this will just be the
      * itemExportInfo.getBaseColumnKey.  But for cases involving split options, repeats, and other descriptions,
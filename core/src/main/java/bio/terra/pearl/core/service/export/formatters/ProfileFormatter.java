@@ -4,11 +4,11 @@ import bio.terra.pearl.core.model.participant.MailingAddress;
 import bio.terra.pearl.core.model.participant.Profile;
 import bio.terra.pearl.core.model.survey.QuestionChoice;
 import bio.terra.pearl.core.service.export.EnrolleeExportData;
+import bio.terra.pearl.core.service.export.ExportRow;
 import bio.terra.pearl.core.service.export.instance.ExportOptions;
 import bio.terra.pearl.core.service.export.instance.ItemExportInfo;
 import bio.terra.pearl.core.service.export.instance.ModuleExportInfo;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
 
 
@@ -21,9 +21,9 @@ public class ProfileFormatter implements ExportFormatter {
             "lastUpdatedAt", "class");
 
     @Override
-    public Map<String, String> toStringMap(EnrolleeExportData exportData, ModuleExportInfo moduleInfo) throws Exception {
+    public void writeValues(EnrolleeExportData exportData, ModuleExportInfo moduleInfo, ExportRow row) throws Exception {
         Profile profile = exportData.getProfile();
-        return ExportFormatUtils.mapBeanForExport(profile, moduleInfo);
+        ExportFormatUtils.writeBeanForExport(profile, moduleInfo, row);
     }
 
     @Override
@@ -2,6 +2,7 @@ package bio.terra.pearl.core.service.export.formatters;
 
 import bio.terra.pearl.core.model.survey.*;
 import bio.terra.pearl.core.service.export.EnrolleeExportData;
+import bio.terra.pearl.core.service.export.ExportRow;
 import bio.terra.pearl.core.service.export.instance.ExportOptions;
 import bio.terra.pearl.core.service.export.instance.ItemExportInfo;
 import bio.terra.pearl.core.service.export.instance.ModuleExportInfo;
@@ -33,34 +34,23 @@ public class SurveyFormatter implements ExportFormatter {
     }
 
     @Override
-    public Map<String, String> toStringMap(EnrolleeExportData exportData, ModuleExportInfo moduleInfo) throws Exception {
-        Map<String, String> valueMap = new HashMap<>();
+    public void writeValues(EnrolleeExportData exportData, ModuleExportInfo moduleInfo, ExportRow row) throws Exception {
         String surveyStableId = moduleInfo.getModuleName();
-        List<Answer> answers = exportData.getAnswers().stream().filter(ans ->
-            Objects.equals(ans.getSurveyStableId(), surveyStableId)
-        ).toList();
-        // map the answers by question stable id for easier access
-        Map<String, List<Answer>> answerMap = answers.stream().collect(groupingBy(Answer::getQuestionStableId));
-        List<UUID> responseIds = answers.stream().map(Answer::getSurveyResponseId).distinct().toList();
-        if (responseIds.isEmpty()) {
-            return valueMap;
-        }
-        // for now, we only support exporting a single response per survey, so just grab the one that matches the first id
-        SurveyResponse matchedResponse = exportData.getResponses().stream().filter(response ->
-                response.getId().equals(responseIds.get(0))).findAny().orElse(null);
+        // the answers are pre-grouped by survey and question stable id on the export data, so this is just a lookup
+        Map<String, List<Answer>> answerMap = exportData.getAnswersByQuestion(surveyStableId);
+        SurveyResponse matchedResponse = exportData.getSurveyResponse(surveyStableId);
         if (matchedResponse == null) {
-            return valueMap;
+            return;
         }
         for (ItemExportInfo itemExportInfo : moduleInfo.getItems()) {
             if (itemExportInfo.getPropertyAccessor() != null) {
                 // it's a property of the SurveyResponse
-                ExportFormatUtils.addPropertyForExport(matchedResponse, itemExportInfo, valueMap);
+                ExportFormatUtils.addPropertyForExport(matchedResponse, itemExportInfo, row);
             } else {
                 // it's an answer value
-                addAnswersToMap(moduleInfo, itemExportInfo, answerMap, valueMap);
+                addAnswersToRow(moduleInfo, itemExportInfo, answerMap, row);
             }
         }
-        return valueMap;
     }
 
     @Override
@@ -188,8 +178,8 @@ public class SurveyFormatter implements ExportFormatter {
                 .build();
     }
 
-    public void addAnswersToMap(ModuleExportInfo moduleInfo, ItemExportInfo itemExportInfo,
-                               Map<String, List<Answer>> answerMap, Map<String, String> valueMap) {
+    public void addAnswersToRow(ModuleExportInfo moduleInfo, ItemExportInfo itemExportInfo,
+                                Map<String, List<Answer>> answerMap, ExportRow row) {
         List<Answer> matchedAnswers = answerMap.get(itemExportInfo.getQuestionStableId());
         if (matchedAnswers == null) {
             return;
@@ -203,19 +193,24 @@ public class SurveyFormatter implements ExportFormatter {
             // just use the current version
             matchedItemExportInfo = itemExportInfo;
         }
-        addAnswerToMap(moduleInfo, matchedItemExportInfo, matchedAnswer, valueMap, objectMapper);
+        addAnswerToRow(itemExportInfo, matchedItemExportInfo, matchedAnswer, row, objectMapper);
     }
 
-    protected static void addAnswerToMap(ModuleExportInfo moduleInfo, ItemExportInfo itemExportInfo,
-                               Answer answer, Map<String, String> valueMap, ObjectMapper objectMapper) {
-        if (itemExportInfo.isSplitOptionsIntoColumns()) {
-            addSplitOptionSelectionsToMap(itemExportInfo, answer, valueMap, objectMapper);
+    /**
+     * adds the answer's value(s) to the row.  The columnItemInfo is the item the export columns were generated from,
+     * and the versionItemInfo is the item for the version of the question the answer was given to, which is
+     * used to translate the answer's choices.
+     */
+    protected static void addAnswerToRow(ItemExportInfo columnItemInfo, ItemExportInfo versionItemInfo,
+                                         Answer answer, ExportRow row, ObjectMapper objectMapper) {
+        if (versionItemInfo.isSplitOptionsIntoColumns()) {
+            addSplitOptionSelectionsToRow(columnItemInfo, answer, row, objectMapper);
         } else {
-            valueMap.put(itemExportInfo.getBaseColumnKey(), valueAsString(answer, itemExportInfo.getChoices(),
-                    itemExportInfo.isStableIdsForOptions(), objectMapper));
+            row.put(columnItemInfo, valueAsString(answer, versionItemInfo.getChoices(),
+                    versionItemInfo.isStableIdsForOptions(), objectMapper));
         }
-        if (itemExportInfo.isHasOtherDescription() && answer.getOtherDescription() != null) {
-            valueMap.put(itemExportInfo.getBaseColumnKey() + OTHER_DESCRIPTION_KEY_SUFFIX, answer.getOtherDescription());
+        if (versionItemInfo.isHasOtherDescription() && answer.getOtherDescription() != null) {
+            row.putOtherDescription(columnItemInfo, answer.getOtherDescription());
         }
     }
 
@@ -232,18 +227,18 @@ public class SurveyFormatter implements ExportFormatter {
         return "";
     }
 
-    /** adds an entry to the valueMap for each selected option of a 'splitOptionsIntoColumns' question */
-    protected static void addSplitOptionSelectionsToMap(ItemExportInfo itemExportInfo,
-                                              Answer answer, Map<String, String> valueMap, ObjectMapper objectMapper) {
+    /** sets the column for each selected option of a 'splitOptionsIntoColumns' question */
+    protected static void addSplitOptionSelectionsToRow(ItemExportInfo itemExportInfo,
+                                                        Answer answer, ExportRow row, ObjectMapper objectMapper) {
         if (answer.getStringValue() != null) {
             // this was a single-select question, so we only need to add the selected option
-            valueMap.put(getColumnKeyForChoice(itemExportInfo, answer.getStringValue()),SPLIT_OPTION_SELECTED_VALUE);
+            row.putChoice(itemExportInfo, answer.getStringValue(), SPLIT_OPTION_SELECTED_VALUE);
         } else if (answer.getObjectValue() != null) {
             // this was a multi-select question, so we need to add all selected options
             try {
                 List<String> answerValues = objectMapper.readValue(answer.getObjectValue(), new TypeReference<List<String>>() {});
                 for (String answerValue : answerValues) {
-                    valueMap.put(getColumnKeyForChoice(itemExportInfo, answerValue), SPLIT_OPTION_SELECTED_VALUE);
+                    row.putChoice(itemExportInfo, answerValue, SPLIT_OPTION_SELECTED_VALUE);
                 }
             } catch (JsonProcessingException e) {
                 // don't stop the entire export for one bad value, see JN-650 for aggregating these to user messages
@@ -253,13 +248,6 @@ public class SurveyFormatter implements ExportFormatter {
         }
     }
 
-    /** Returns the column key for a specific choice of a question for 'splitOptionsIntoColumns' questions */
-    protected static String getColumnKeyForChoice(ItemExportInfo itemExportInfo, String choiceStableId) {
-        return itemExportInfo.getBaseColumnKey() + ExportFormatUtils.COLUMN_NAME_DELIMITER + choiceStableId;
-    }
-
-
-
     protected static String formatStringValue(String value, List<QuestionChoice> choices, boolean stableIdForOptions, Answer answer) {
         if (stableIdForOptions || choices == null || choices.isEmpty()) {
             return value;
@@ -1,15 +1,30 @@
 package bio.terra.pearl.core.service.export.instance;
 
 import bio.terra.pearl.core.service.export.ExportFileFormat;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import java.time.Instant;
 import lombok.Builder;
 
+/**
+ * @param parallelism the number of worker threads to load and format enrollees with, or null for a serial export
+ * @param chunkSize the number of enrollees to load and format at a time, or null for the default
+ * @param updatedSince if set, only enrollees with data updated after this time are exported
+ */
 public record ExportOptions (boolean splitOptionsIntoColumns, boolean stableIdsForOptions, boolean onlyIncludeMostRecent,
                              ExportFileFormat fileFormat,
-                             Integer limit) {
+                             Integer limit,
+                             Integer parallelism,
+                             Integer chunkSize,
+                             Instant updatedSince) {
     public ExportOptions() {
         this(false, false, true, ExportFileFormat.TSV, null);
     }
 
-    @Builder
+    public ExportOptions(boolean splitOptionsIntoColumns, boolean stableIdsForOptions, boolean onlyIncludeMostRecent,
+                         ExportFileFormat fileFormat, Integer limit) {
+        this(splitOptionsIntoColumns, stableIdsForOptions, onlyIncludeMostRecent, fileFormat, limit, null, null, null);
+    }
+
+    @Builder @JsonCreator
     public ExportOptions {}
 }
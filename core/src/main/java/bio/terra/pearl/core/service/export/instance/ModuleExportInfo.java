@@ -1,6 +1,8 @@
 package bio.terra.pearl.core.service.export.instance;
 
 import bio.terra.pearl.core.service.export.EnrolleeExportData;
+import bio.terra.pearl.core.service.export.ExportColumnIndex;
+import bio.terra.pearl.core.service.export.ExportRow;
 import bio.terra.pearl.core.service.export.formatters.ExportFormatter;
 import java.util.List;
 import java.util.Map;
@@ -18,7 +20,17 @@ public class ModuleExportInfo {
     private List<ItemExportInfo> items;
     private ExportFormatter formatter;
 
-    public Map<String, String> toStringMap(EnrolleeExportData enrolleeExportData) throws Exception{
-        return formatter.toStringMap(enrolleeExportData, this);
+    public void writeValues(EnrolleeExportData enrolleeExportData, ExportRow row) throws Exception {
+        formatter.writeValues(enrolleeExportData, this, row);
+    }
+
+    /**
+     * formats this module alone into a map of column key => value.  Exporters should use writeValues with a
+     * shared ExportColumnIndex instead, since this compiles a column index on every call
+     */
+    public Map<String, String> toStringMap(EnrolleeExportData enrolleeExportData) throws Exception {
+        ExportRow row = new ExportColumnIndex(List.of(this)).newRow();
+        writeValues(enrolleeExportData, row);
+        return row.toMap();
     }
 }
@@ -27,10 +27,16 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -52,7 +58,9 @@ public class KitRequestService extends CrudService<KitRequest, KitRequestDao> {
                              @Lazy StudyEnvironmentService studyEnvironmentService,
                              @Lazy StudyService studyService,
                              ObjectMapper objectMapper,
-                             DaoUtils daoUtils) {
+                             DaoUtils daoUtils,
+                             LivePepperDSMClient.PepperDSMConfig pepperDSMConfig,
+                             PlatformTransactionManager transactionManager) {
         super(dao);
         this.studyEnvironmentKitTypeService = studyEnvironmentKitTypeService;
         this.enrolleeService = enrolleeService;
@@ -63,6 +71,8 @@ public class KitRequestService extends CrudService<KitRequest, KitRequestDao> {
         this.studyService = studyService;
         this.objectMapper = objectMapper;
         this.daoUtils = daoUtils;
+        this.pepperDSMConfig = pepperDSMConfig;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     /**
@@ -163,8 +173,11 @@ public class KitRequestService extends CrudService<KitRequest, KitRequestDao> {
      * scheduled job during expected non-busy times for DSM. If on-demand updates are needed outside the scheduled job,
      * use {@link KitRequestService#syncKitStatusFromPepper} for a single kit or a batch operation that queries
      * Pepper for less than all open kits.
+     *
+     * Studies are fetched from Pepper concurrently, up to env.dsm.syncParallelism at a time, and each study
+     * environment's kits are saved in their own short transaction as its study's fetch completes, so the sync
+     * doesn't hold a transaction open for the duration of all the Pepper requests.
      */
-    @Transactional
     public void syncAllKitStatusesFromPepper() {
         // first get a list of all studies that have kit types configured
         List<StudyEnvironmentKitType> envKitTypes = studyEnvironmentKitTypeService.findAll();
@@ -173,54 +186,74 @@ public class KitRequestService extends CrudService<KitRequest, KitRequestDao> {
         List<Study> studies = studyService.findAll(
                 studyEnvs.stream().map(StudyEnvironment::getStudyId).distinct().collect(Collectors.toList())
         );
+        if (studies.isEmpty()) {
+            return;
+        }
         // it doesn't actually matter what order we process the studies in, but it's nice for logging to have them
         // consistently alphabetical
         studies.sort(Comparator.comparing(Study::getShortcode));
-        for (Study study : studies) {
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(pepperDSMConfig.getSyncParallelism(), studies.size())));
+        try {
             // for each study, grab all the statuses from Pepper
             // (Pepper doesn't have a concept of study environments, so all kits from a study are under the same code)
+            Map<UUID, Future<Collection<PepperKitStatus>>> statusFetches = new HashMap<>();
+            for (Study study : studies) {
+                statusFetches.put(study.getId(),
+                        executor.submit(() -> pepperDSMClient.fetchKitStatusByStudy(study.getShortcode())));
+            }
             // then update the statuses in Juniper for each environment
-           try {
-               Collection<PepperKitStatus> pepperKitStatuses = pepperDSMClient.fetchKitStatusByStudy(study.getShortcode());
-               // now find the environments for this study from the list of environments with kit types
-               studyEnvs.stream().filter(studyEnv -> studyEnv.getStudyId().equals(study.getId())).forEach( studyEnv -> {
-                   syncKitStatusesForStudyEnv(study.getShortcode(), studyEnv.getEnvironmentName(), pepperKitStatuses);
-               });
-            } catch (PepperParseException | PepperApiException e) {
-                // if one sync fails, keep trying others in case the failure is just isolated unexpected data
-                log.error("kit status sync failed for study %s".formatted(study.getShortcode()), e);
+            for (Study study : studies) {
+                try {
+                    Collection<PepperKitStatus> pepperKitStatuses = statusFetches.get(study.getId()).get();
+                    Instant pepperStatusFetchedAt = Instant.now();
+                    studyEnvs.stream().filter(studyEnv -> studyEnv.getStudyId().equals(study.getId())).forEach(studyEnv ->
+                            transactionTemplate.executeWithoutResult(status ->
+                                    syncKitStatusesForStudyEnv(studyEnv.getId(), pepperKitStatuses, pepperStatusFetchedAt)));
+                } catch (ExecutionException e) {
+                    // if one sync fails, keep trying others in case the failure is just isolated unexpected data
+                    log.error("kit status sync failed for study %s".formatted(study.getShortcode()), e.getCause());
+                }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while syncing kit statuses", e);
+        } finally {
+            executor.shutdownNow();
         }
     }
 
     @Transactional
     public void syncKitStatusesForStudyEnv(Study study, EnvironmentName environmentName) throws PepperParseException, PepperApiException {
         Collection<PepperKitStatus> pepperKitStatuses = pepperDSMClient.fetchKitStatusByStudy(study.getShortcode());
-        syncKitStatusesForStudyEnv(study.getShortcode(), environmentName, pepperKitStatuses);
+        UUID studyEnvId = studyEnvironmentService.findByStudy(study.getShortcode(), environmentName)
+                .orElseThrow(() -> new NotFoundException("No matching study")).getId();
+        syncKitStatusesForStudyEnv(studyEnvId, pepperKitStatuses, Instant.now());
     }
 
-    private void syncKitStatusesForStudyEnv(String studyShortcode, EnvironmentName envName, Collection<PepperKitStatus> pepperKitStatuses) throws PepperParseException, PepperApiException {
-        UUID studyEnvId = studyEnvironmentService.findByStudy(studyShortcode, envName)
-                .orElseThrow(() -> new NotFoundException("No matching study")).getId();
-        var pepperStatusFetchedAt = Instant.now();
+    /**
+     * Saves the statuses of the environment's kits with a single batched update.  Kits whose status JSON is
+     * unchanged since the last sync are skipped, so on a typical night only the few kits that have moved are written.
+     */
+    private void syncKitStatusesForStudyEnv(UUID studyEnvId, Collection<PepperKitStatus> pepperKitStatuses,
+                                            Instant pepperStatusFetchedAt) {
         var pepperKitStatusByKitId = pepperKitStatuses.stream().collect(
                 Collectors.toMap(PepperKitStatus::getJuniperKitId, Function.identity(),
                         (kit1, kit2) -> !kit1.getCurrentStatus().equals("Deactivated") ? kit1 : kit2));
+        var kits = dao.findByStudyEnvironment(studyEnvId);
 
-        studyEnvironmentService.find(studyEnvId).ifPresent(
-                studyEnvironment -> {
-                    var kits = dao.findByStudyEnvironment(studyEnvironment.getId());
-
-                    // The set of kits returned from DSM may be different from the set of incomplete kits in Juniper, but
-                    // we want to update the records in Juniper so those are the ones we want to iterate here.
-                    for (KitRequest kit : kits) {
-                        var pepperKitStatus = pepperKitStatusByKitId.get(kit.getId().toString());
-                        if (pepperKitStatus != null) {
-                            saveKitStatus(kit, pepperKitStatus, pepperStatusFetchedAt);
-                        }
-                    }
-                }
-        );
+        // The set of kits returned from DSM may be different from the set of incomplete kits in Juniper, but
+        // we want to update the records in Juniper so those are the ones we want to iterate here.
+        List<KitRequest> changedKits = new ArrayList<>();
+        for (KitRequest kit : kits) {
+            var pepperKitStatus = pepperKitStatusByKitId.get(kit.getId().toString());
+            if (pepperKitStatus != null && updateKitStatus(kit, pepperKitStatus, pepperStatusFetchedAt)) {
+                changedKits.add(kit);
+            }
+        }
+        dao.bulkUpdateDsmStatus(changedKits);
+        log.info("Kit statuses synced for study environment {}: {} kits, {} changed",
+                studyEnvId, kits.size(), changedKits.size());
     }
 
     public List<KitRequest> findByStudyEnvironment(UUID studyEnvironmentId) {
@@ -242,6 +275,15 @@ public class KitRequestService extends CrudService<KitRequest, KitRequestDao> {
         }
     }
 
+    /**
+     * Delete kits for a set of enrollees, with a single statement.  Used by EnrolleeService.bulkDelete, both when
+     * populate functions reset an environment and when enrollees are deleted in production (e.g. on withdrawal), so
+     * callers must have already removed anything that references the kits.
+     */
+    public void deleteByEnrolleeIds(Collection<UUID> enrolleeIds) {
+        dao.deleteByEnrolleeIds(enrolleeIds);
+    }
+
     /** Just creates the object -- does not communicate with pepper or save to database.  The created
      * object will have an id so that external requests will be sent on it.  */
     public KitRequest assemble(
@@ -273,19 +315,25 @@ public class KitRequestService extends CrudService<KitRequest, KitRequestDao> {
     }
 
     /**
-     * Saves updated kit status. This is called from a batch job, so exceptions are caught and logged instead of thrown
-     * to allow the rest of the batch to be processed.
+     * Sets the updated status on the kit, returning whether it changed. This is called from a batch job, so
+     * exceptions are caught and logged instead of thrown to allow the rest of the batch to be processed.
+     * dsmStatusFetchedAt is only updated along with the status, so it records when the current status was fetched.
      */
-    private void saveKitStatus(KitRequest kit, PepperKitStatus pepperKitStatus, Instant pepperStatusFetchedAt) {
+    private boolean updateKitStatus(KitRequest kit, PepperKitStatus pepperKitStatus, Instant pepperStatusFetchedAt) {
         try {
-            kit.setDsmStatus(objectMapper.writeValueAsString(pepperKitStatus));
+            String dsmStatus = objectMapper.writeValueAsString(pepperKitStatus);
+            if (dsmStatus.equals(kit.getDsmStatus())) {
+                return false;
+            }
+            kit.setDsmStatus(dsmStatus);
             kit.setDsmStatusFetchedAt(pepperStatusFetchedAt);
             kit.setStatus(statusFromPepperCurrentStatus(pepperKitStatus.getCurrentStatus()));
-            dao.update(kit);
+            return true;
         } catch (JsonProcessingException e) {
             logger.warn(
                     "Unable to serialize status JSON for kit %s: %s".formatted(kit.getId(), pepperKitStatus.toString()),
                     e);
+            return false;
         }
     }
 
@@ -311,5 +359,7 @@ public class KitRequestService extends CrudService<KitRequest, KitRequestDao> {
     private final StudyService studyService;
     private final StudyEnvironmentService studyEnvironmentService;
     private final ObjectMapper objectMapper;
+    private final LivePepperDSMClient.PepperDSMConfig pepperDSMConfig;
+    private final TransactionTemplate transactionTemplate;
     private StudyEnvironmentKitTypeService studyEnvironmentKitTypeService;
 }
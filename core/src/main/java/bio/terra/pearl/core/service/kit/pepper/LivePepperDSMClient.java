@@ -227,12 +227,15 @@ public class LivePepperDSMClient implements PepperDSMClient {
         private String basePath;
         private String issuerClaim;
         private String secret;
+        /** how many studies' kit statuses are fetched from DSM at once by the nightly sync */
+        private int syncParallelism;
 
         public PepperDSMConfig(Environment environment) {
             this.useLiveDsm = environment.getProperty("env.dsm.useLiveDsm", Boolean.class, false);
             this.basePath = environment.getProperty("env.dsm.basePath");
             this.issuerClaim = environment.getProperty("env.dsm.issuerClaim");
             this.secret = environment.getProperty("env.dsm.secret");
+            this.syncParallelism = environment.getProperty("env.dsm.syncParallelism", Integer.class, 4);
         }
     }
 }
@@ -0,0 +1,39 @@
+package bio.terra.pearl.core.service.metrics;
+
+import bio.terra.pearl.core.dao.metrics.MetricName;
+import bio.terra.pearl.core.dao.metrics.MetricsDao;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/** Maintains the hourly metric counts that MetricsDao.bucketedCounts reads */
+@Service
+@Slf4j
+public class MetricsRollupService {
+    private final MetricsDao metricsDao;
+    private final TransactionTemplate transactionTemplate;
+
+    public MetricsRollupService(MetricsDao metricsDao, PlatformTransactionManager transactionManager) {
+        this.metricsDao = metricsDao;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /** refreshes each metric's rollup in its own transaction, so a slow first refresh of one doesn't hold up others */
+    public void refreshRollups() {
+        for (MetricName metricName : MetricName.values()) {
+            Instant refreshedAt = Instant.now();
+            transactionTemplate.executeWithoutResult(status -> metricsDao.refreshRollup(metricName, refreshedAt));
+            log.info("Metric rollup refreshed: {}, took {} ms", metricName,
+                    Instant.now().toEpochMilli() - refreshedAt.toEpochMilli());
+        }
+    }
+
+    @Transactional
+    public void rebuildRollups(UUID studyEnvironmentId) {
+        metricsDao.rebuildRollups(studyEnvironmentId);
+    }
+}
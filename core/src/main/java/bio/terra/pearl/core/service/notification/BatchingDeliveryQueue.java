@@ -0,0 +1,141 @@
+package bio.terra.pearl.core.service.notification;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * A bounded queue of deliveries (e.g. emails to send), processed in batches by a fixed number of worker threads.
+ * Each worker takes whatever is queued, up to maxBatchSize items, and hands it to the processor, so deliveries are
+ * batched when there's a backlog, and processed immediately when there isn't.
+ *
+ * Queueing blocks when the queue is full, so a bulk operation producing deliveries faster than they can be made
+ * is slowed to the delivery rate, rather than filling memory.  The queue size is reported as the
+ * "delivery.queue.size" gauge, tagged with the queue name.
+ *
+ * On shutdown, the workers drain the queue for up to a given time.  Anything not delivered by then (or queued
+ * after shutdown starts) is dropped, so callers must persist what they queue in a way they can recover from --
+ * e.g. notifications are saved as READY before being queued, and stale READY notifications are requeued.
+ */
+public class BatchingDeliveryQueue<T> {
+    private static final Logger logger = LoggerFactory.getLogger(BatchingDeliveryQueue.class);
+    private final String name;
+    private final BlockingQueue<T> queue;
+    private final int maxBatchSize;
+    private final Consumer<List<T>> processor;
+    private final ExecutorService workers;
+    /** false once shutdown starts -- workers then exit when the queue is empty */
+    private volatile boolean running = true;
+    /** true once the shutdown wait has passed -- workers then exit after their current batch */
+    private volatile boolean abandoned = false;
+
+    public BatchingDeliveryQueue(String name, int threads, int capacity, int maxBatchSize,
+                                 Consumer<List<T>> processor) {
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatchSize = maxBatchSize;
+        this.processor = processor;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, name + "-delivery-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < threads; i++) {
+            workers.execute(this::processUntilShutdown);
+        }
+        Gauge.builder("delivery.queue.size", queue, BlockingQueue::size)
+                .tag("queue", name)
+                .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * queues the items once the current transaction commits, so that they are not delivered if it rolls back, and
+     * so that workers can see anything the transaction saved (e.g. the notifications being delivered).  If there is
+     * no transaction, the items are queued immediately.
+     */
+    public void queueAfterCommit(List<T> items) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    queue(items);
+                }
+            });
+        } else {
+            queue(items);
+        }
+    }
+
+    /** queues the items, waiting for space in the queue if it is full */
+    public void queue(List<T> items) {
+        if (!running) {
+            logger.warn("Not queueing {} items to {}: delivery queue is shutting down", items.size(), name);
+            return;
+        }
+        try {
+            for (T item : items) {
+                queue.put(item);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted queueing deliveries to " + name, e);
+        }
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    /**
+     * stops taking new items, and waits up to maxWait for the workers to deliver what is already queued.  Workers
+     * aren't interrupted, so a batch being delivered when the wait runs out can still save its results.
+     */
+    public void shutdown(Duration maxWait) {
+        running = false;
+        workers.shutdown();
+        try {
+            if (workers.awaitTermination(maxWait.toMillis(), TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        abandoned = true;
+        logger.warn("Shut down {} delivery queue with {} undelivered items", name, queue.size());
+    }
+
+    private void processUntilShutdown() {
+        while (!abandoned && (running || !queue.isEmpty())) {
+            try {
+                T first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<T> batch = new ArrayList<>();
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                processor.accept(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // the processor is responsible for recording failures -- just keep the worker alive
+                logger.error("Error processing {} deliveries", name, e);
+            }
+        }
+    }
+}
@@ -1,22 +1,28 @@
 package bio.terra.pearl.core.service.notification;
 
+import bio.terra.pearl.core.dao.workflow.ParticipantTaskDao;
 import bio.terra.pearl.core.model.notification.NotificationConfig;
-import bio.terra.pearl.core.model.notification.NotificationType;
 import bio.terra.pearl.core.model.study.StudyEnvironment;
-import bio.terra.pearl.core.model.workflow.TaskType;
 import bio.terra.pearl.core.service.rule.EnrolleeRuleData;
 import bio.terra.pearl.core.service.rule.EnrolleeRuleService;
-import bio.terra.pearl.core.service.study.StudyEnvironmentService;
-import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 @Service
 public class EnrolleeReminderService {
+    /** how many reminders are loaded and sent at once */
+    private static final int PAGE_SIZE = 1000;
     private ParticipantTaskQueryService participantTaskQueryService;
-    private StudyEnvironmentService studyEnvironmentService;
     private NotificationConfigService notificationConfigService;
     private EnrolleeRuleService enrolleeRuleService;
     private NotificationDispatcher notificationDispatcher;
@@ -24,64 +30,85 @@ public class EnrolleeReminderService {
     private static final Logger logger = LoggerFactory.getLogger(EnrolleeReminderService.class);
 
     public EnrolleeReminderService(ParticipantTaskQueryService participantTaskQueryService,
-                                   StudyEnvironmentService studyEnvironmentService,
                                    NotificationConfigService notificationConfigService,
                                    EnrolleeRuleService enrolleeRuleService,
                                    NotificationDispatcher notificationDispatcher) {
         this.participantTaskQueryService = participantTaskQueryService;
-        this.studyEnvironmentService = studyEnvironmentService;
         this.notificationConfigService = notificationConfigService;
         this.enrolleeRuleService = enrolleeRuleService;
         this.notificationDispatcher = notificationDispatcher;
     }
 
+    /** sends all due reminders, for every study environment */
     public void sendTaskReminders() {
-        List<StudyEnvironment> studyEnvironments = studyEnvironmentService.findAll();
-        for (StudyEnvironment studyEnv : studyEnvironments) {
-            sendTaskReminders(studyEnv);
-        }
+        sendTaskReminders((UUID) null);
     }
 
     public void sendTaskReminders(StudyEnvironment studyEnv) {
         logger.info("querying enrollee reminder queries for study environment {} ({})", studyEnv.getId(), studyEnv.getEnvironmentName());
-        var allEnvConfigs = notificationConfigService.findByStudyEnvironmentId(studyEnv.getId(), true);
-        var reminderConfigs = allEnvConfigs.stream().filter(config ->
-                config.getNotificationType().equals(NotificationType.TASK_REMINDER)).toList();
-        for (var reminderConfig : reminderConfigs) {
-            sendTaskReminders(studyEnv, reminderConfig);
-        }
+        sendTaskReminders(studyEnv.getId());
     }
 
-    public void sendTaskReminders(StudyEnvironment studyEnv, NotificationConfig notificationConfig) {
-        Duration timeSinceCreation = Duration.ofMinutes(notificationConfig.getAfterMinutesIncomplete());
-
-        Duration timeSinceLastNotification = Duration.ofMinutes(notificationConfig.getReminderIntervalMinutes());
-        long maxReminders = notificationConfig.getMaxNumReminders() <= 0 ? 100000 : notificationConfig.getMaxNumReminders();
-        Duration maxTimeSinceCreation = timeSinceCreation.plus(timeSinceLastNotification.multipliedBy(maxReminders));
-        var enrolleesWithTasks = participantTaskQueryService
-                .findIncompleteByTime(studyEnv.getId(),
-                        notificationConfig.getTaskType(),
-                        timeSinceCreation,
-                        maxTimeSinceCreation,
-                        timeSinceLastNotification);
-        logger.info("Found {} enrollees with tasks needing reminder from config {}: taskType {}",
-                enrolleesWithTasks.size(), notificationConfig.getId(), notificationConfig.getTaskType());
+    /**
+     * finds the due reminders for all configs with a single paged query, so the work per run scales with the number
+     * of reminders due, rather than the number of study environments and configs.  Each page is sent before the
+     * next is fetched, so memory use is bounded by the page size.
+     */
+    protected void sendTaskReminders(UUID studyEnvironmentId) {
+        Instant now = Instant.now();
+        Map<UUID, NotificationConfig> configs = new HashMap<>();
+        Map<UUID, NotificationContextInfo> contexts = new HashMap<>();
+        int reminderCount = 0;
+        ParticipantTaskDao.DueReminder after = null;
+        while (true) {
+            List<ParticipantTaskDao.DueReminder> page = participantTaskQueryService
+                    .findDueReminders(studyEnvironmentId, now, after, PAGE_SIZE);
+            if (page.isEmpty()) {
+                break;
+            }
+            sendReminders(page, configs, contexts);
+            reminderCount += page.size();
+            if (page.size() < PAGE_SIZE) {
+                break;
+            }
+            after = page.get(page.size() - 1);
+        }
+        logger.info("Sent {} task reminders from {} configs", reminderCount, configs.size());
+    }
 
-        // bulk load the enrollees
-        List<EnrolleeRuleData> enrolleeData = enrolleeRuleService
-                .fetchData(enrolleesWithTasks.stream().map(ewt -> ewt.getEnrolleeId()).toList());
+    /** sends a page of reminders, using and adding to the configs and contexts already loaded by previous pages */
+    private void sendReminders(List<ParticipantTaskDao.DueReminder> reminders, Map<UUID, NotificationConfig> configs,
+                               Map<UUID, NotificationContextInfo> contexts) {
+        List<UUID> newConfigIds = reminders.stream().map(ParticipantTaskDao.DueReminder::getNotificationConfigId)
+                .distinct().filter(configId -> !configs.containsKey(configId)).toList();
+        notificationConfigService.findAll(newConfigIds).forEach(config -> configs.put(config.getId(), config));
 
-        var envContext = notificationDispatcher.loadContextInfo(notificationConfig);
+        Map<UUID, EnrolleeRuleData> ruleDataByEnrolleeId = enrolleeRuleService
+                .fetchData(reminders.stream().map(ParticipantTaskDao.DueReminder::getEnrolleeId).distinct().toList())
+                .stream().collect(Collectors.toMap(ruleData -> ruleData.enrollee().getId(), Function.identity()));
 
-        for (var enrolleeWithTask : enrolleesWithTasks) {
-            // this isn't an optimized match -- we're assuming the number of reminders we send on any given run for a single
-            // config will likely be < 100
-            EnrolleeRuleData ruleData = enrolleeData.stream()
-                    .filter(erd -> erd.enrollee().getId().equals(enrolleeWithTask.getEnrolleeId())).findFirst().get();
-            // don't send non-consent task reminders to enrollees who haven't consented
-            if (notificationConfig.getTaskType().equals(TaskType.CONSENT) || ruleData.enrollee().isConsented()) {
-                notificationDispatcher.dispatchNotification(notificationConfig, ruleData, envContext);
+        // the page is ordered by config, so this keeps each config's reminders together
+        Map<UUID, List<EnrolleeRuleData>> ruleDataByConfigId = new LinkedHashMap<>();
+        for (ParticipantTaskDao.DueReminder reminder : reminders) {
+            EnrolleeRuleData ruleData = ruleDataByEnrolleeId.get(reminder.getEnrolleeId());
+            // the enrollee could have been deleted since the page was queried
+            if (ruleData != null) {
+                ruleDataByConfigId.computeIfAbsent(reminder.getNotificationConfigId(), configId -> new ArrayList<>())
+                        .add(ruleData);
+            }
+        }
+        for (Map.Entry<UUID, List<EnrolleeRuleData>> entry : ruleDataByConfigId.entrySet()) {
+            NotificationConfig config = configs.get(entry.getKey());
+            NotificationContextInfo context = contexts.computeIfAbsent(config.getId(),
+                    configId -> notificationDispatcher.loadContextInfo(config));
+            if (context == null) {
+                logger.info("Skipping {} reminders from config {}: no environment context could be loaded",
+                        entry.getValue().size(), config.getId());
+                continue;
             }
+            logger.info("Sending {} reminders from config {}: taskType {}",
+                    entry.getValue().size(), config.getId(), config.getTaskType());
+            notificationDispatcher.dispatchNotifications(config, entry.getValue(), context);
         }
     }
 }
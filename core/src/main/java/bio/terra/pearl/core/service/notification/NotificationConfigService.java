@@ -3,15 +3,35 @@ package bio.terra.pearl.core.service.notification;
 import bio.terra.pearl.core.dao.notification.NotificationConfigDao;
 import bio.terra.pearl.core.model.notification.EmailTemplate;
 import bio.terra.pearl.core.model.notification.NotificationConfig;
+import bio.terra.pearl.core.model.notification.NotificationType;
+import bio.terra.pearl.core.service.CascadeProperty;
 import bio.terra.pearl.core.service.CrudService;
+import bio.terra.pearl.core.service.cache.VersionedEntityCache;
 import bio.terra.pearl.core.service.notification.email.EmailTemplateService;
+import bio.terra.pearl.core.service.workflow.BaseEvent;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.UnaryOperator;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class NotificationConfigService extends CrudService<NotificationConfig, NotificationConfigDao> {
     private EmailTemplateService emailTemplateService;
+    /**
+     * the active event configs for each study environment, indexed by event class, since these are checked on every
+     * enrollee event.  Changes made through this service clear the affected entries; the time to live bounds how long
+     * changes made in the admin tool take to reach the participant app.
+     */
+    private final VersionedEntityCache<UUID, EventConfigIndex> eventConfigCache = new VersionedEntityCache<>(
+            "notificationConfig", 100_000, Duration.ofMinutes(1), EventConfigIndex::weight,
+            UnaryOperator.identity());
 
     public NotificationConfigService(NotificationConfigDao dao, EmailTemplateService emailTemplateService) {
         super(dao);
@@ -26,6 +46,16 @@ public class NotificationConfigService extends CrudService<NotificationConfig, N
         return dao.findByStudyEnvironmentId(studyEnvironmentId, active);
     }
 
+    /**
+     * the active configs for notifications triggered by events of the given class (or its superclasses) in the study
+     * environment.  The returned configs are shared, and must not be modified.
+     */
+    public List<NotificationConfig> findActiveEventConfigs(UUID studyEnvironmentId,
+                                                           Class<? extends BaseEvent> eventClass) {
+        Optional<EventConfigIndex> index = eventConfigCache.get(studyEnvironmentId, this::loadEventConfigIndex);
+        return index.map(configIndex -> configIndex.find(eventClass)).orElse(List.of());
+    }
+
     /** gets configs unaffiliated with a study */
     public List<NotificationConfig> findByPortalEnvironmentId(UUID portalEnvId) {
         return dao.findByPortalEnvironmentId(portalEnvId);
@@ -40,18 +70,75 @@ public class NotificationConfigService extends CrudService<NotificationConfig, N
         }
         NotificationConfig savedConfig = dao.create(config);
         savedConfig.setEmailTemplate(emailTemplate);
+        invalidateCached(savedConfig.getStudyEnvironmentId());
         return savedConfig;
     }
 
+    @Override
+    @Transactional
+    public NotificationConfig update(NotificationConfig config) {
+        invalidateCached(config.getStudyEnvironmentId());
+        return dao.update(config);
+    }
+
+    @Override
+    @Transactional
+    public void delete(UUID id, Set<CascadeProperty> cascade) {
+        dao.find(id).ifPresent(config -> invalidateCached(config.getStudyEnvironmentId()));
+        dao.delete(id);
+    }
+
     public void attachTemplates(List<NotificationConfig> configs) {
         dao.attachTemplates(configs);
     }
 
     public void deleteByStudyEnvironmentId(UUID studyEnvironmentId) {
+        invalidateCached(studyEnvironmentId);
         dao.deleteByStudyEnvironmentId(studyEnvironmentId);
     }
 
     public void deleteByPortalEnvironmentId(UUID portalEnvironmentId) {
+        eventConfigCache.invalidateAll();
         dao.deleteByPortalEnvironmentId(portalEnvironmentId);
     }
+
+    private void invalidateCached(UUID studyEnvironmentId) {
+        if (studyEnvironmentId != null) {
+            eventConfigCache.invalidate(studyEnvironmentId);
+        }
+    }
+
+    private Optional<EventConfigIndex> loadEventConfigIndex(UUID studyEnvironmentId) {
+        Map<Class<?>, List<NotificationConfig>> configsByEventClass = new HashMap<>();
+        for (NotificationConfig config : dao.findByStudyEnvironmentId(studyEnvironmentId, true)) {
+            if (config.getNotificationType() == NotificationType.EVENT && config.getEventType() != null) {
+                configsByEventClass.computeIfAbsent(config.getEventType().eventClass, key -> new ArrayList<>())
+                        .add(config);
+            }
+        }
+        return Optional.of(new EventConfigIndex(configsByEventClass));
+    }
+
+    private record EventConfigIndex(Map<Class<?>, List<NotificationConfig>> configsByEventClass) {
+        /** configs for the class and its superclasses, matching the isInstance semantics of event listeners */
+        List<NotificationConfig> find(Class<?> eventClass) {
+            List<NotificationConfig> matches = null;
+            for (Class<?> clazz = eventClass; clazz != null; clazz = clazz.getSuperclass()) {
+                List<NotificationConfig> configs = configsByEventClass.get(clazz);
+                if (configs != null) {
+                    if (matches == null) {
+                        matches = configs;
+                    } else {
+                        matches = new ArrayList<>(matches);
+                        matches.addAll(configs);
+                    }
+                }
+            }
+            return matches == null ? List.of() : matches;
+        }
+
+        long weight() {
+            return 1 + configsByEventClass.values().stream().mapToLong(List::size).sum();
+        }
+    }
 }
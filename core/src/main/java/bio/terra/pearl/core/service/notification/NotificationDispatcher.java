@@ -34,26 +34,19 @@ public class NotificationDispatcher {
     @Order(DispatcherOrder.NOTIFICATION)
     public void handleEvent(EnrolleeEvent event) {
         List<NotificationConfig> configs = notificationConfigService
-                .findByStudyEnvironmentId(event.getEnrollee().getStudyEnvironmentId(), true)
-                .stream().filter(config  -> config.getNotificationType().equals(NotificationType.EVENT))
-                .toList();
+                .findActiveEventConfigs(event.getEnrollee().getStudyEnvironmentId(), event.getClass());
         for (NotificationConfig config: configs) {
-            Class configClass = config.getEventType().eventClass;
-            if (configClass.isInstance(event)) {
-                if (RuleEvaluator.evaluateEnrolleeRule(config.getRule(), event.getEnrolleeRuleData())) {
-                    dispatchNotificationAsync(config, event.getEnrolleeRuleData(),
-                            event.getPortalParticipantUser().getPortalEnvironmentId());
-                }
+            if (RuleEvaluator.evaluateEnrolleeRule(config.getRule(), event.getEnrolleeRuleData())) {
+                dispatchNotificationAsync(config, event.getEnrolleeRuleData(),
+                        event.getPortalParticipantUser().getPortalEnvironmentId());
             }
         }
     }
 
     /**
-     * if we invoke the EmailService async, then we save the notification first so that we have a record of it.
-     * If we invoke it synchronously, then we don't save it. Because if it's a synchronous call and the process gets killed,
-     * the surrounding transaction will roll back (e.g. undoing the enrollee creation) and so we don't want a saved notification.
-     * Where this will help is for bulk operations -- if we want to send out 2000 emails to all the ourHealth participants
-     * because of a new survey, it lets us have just 1 database operation per notification instead of 2
+     * saves the notification first so that we have a record of it, then hands it to the sender, which delivers it
+     * once the surrounding transaction (e.g. the enrollee creation) commits.  If the transaction rolls back, neither
+     * the notification nor the delivery happen.
      * */
     protected void dispatchNotificationAsync(NotificationConfig config, EnrolleeRuleData enrolleeRuleData, UUID portalEnvId) {
         Notification notification = initializeNotification(config, enrolleeRuleData, portalEnvId, null);
@@ -62,17 +55,24 @@ public class NotificationDispatcher {
                 .processNotificationAsync(notification, config, enrolleeRuleData);
     }
 
-    public void dispatchNotification(NotificationConfig config, EnrolleeRuleData enrolleeRuleData,
-                                     NotificationContextInfo notificationContextInfo) {
-        dispatchNotification(config, enrolleeRuleData, notificationContextInfo, Map.of());
+    public void dispatchNotifications(NotificationConfig config, List<EnrolleeRuleData> enrolleeRuleData,
+                                      NotificationContextInfo notificationContextInfo) {
+        dispatchNotifications(config, enrolleeRuleData, notificationContextInfo, Map.of());
     }
 
-    public void dispatchNotification(NotificationConfig config, EnrolleeRuleData enrolleeRuleData,
-                                     NotificationContextInfo notificationContextInfo, Map<String, String> customMessages) {
-        Notification notification = initializeNotification(config, enrolleeRuleData,
-            notificationContextInfo.portalEnv().getId(), customMessages);
+    /**
+     * for bulk sends, such as reminders or a message to many enrollees.  The notifications are saved in a single
+     * batch, and delivered through the sender's queue, so this doesn't wait for them to be sent unless the queue is full.
+     */
+    public void dispatchNotifications(NotificationConfig config, List<EnrolleeRuleData> enrolleeRuleData,
+                                      NotificationContextInfo notificationContextInfo, Map<String, String> customMessages) {
+        if (enrolleeRuleData.isEmpty()) {
+            return;
+        }
+        List<Notification> notifications = enrolleeRuleData.stream().map(ruleData -> initializeNotification(config,
+                ruleData, notificationContextInfo.portalEnv().getId(), customMessages)).toList();
         senderMap.get(config.getDeliveryType())
-            .processNotification(notification, config, enrolleeRuleData, notificationContextInfo);
+                .processNotificationsAsync(notifications, config, enrolleeRuleData, notificationContextInfo);
     }
 
     public void dispatchTestNotification(NotificationConfig config, EnrolleeRuleData enrolleeRuleData) throws Exception {
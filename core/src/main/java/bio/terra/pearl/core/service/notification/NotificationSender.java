@@ -3,11 +3,24 @@ package bio.terra.pearl.core.service.notification;
 import bio.terra.pearl.core.model.notification.Notification;
 import bio.terra.pearl.core.model.notification.NotificationConfig;
 import bio.terra.pearl.core.service.rule.EnrolleeRuleData;
+import java.util.List;
 
 /** notification sender -- e.g. emailer or text messager */
 public interface NotificationSender {
+    /**
+     * delivers the already-saved notification once the current transaction commits.  Notifications that won't be
+     * sent (e.g. to enrollees who opted out) are marked skipped immediately.
+     */
     void processNotificationAsync(Notification notification, NotificationConfig config, EnrolleeRuleData ruleData);
 
+    /**
+     * saves the new notifications, and delivers them once the current transaction commits.  The rule data is for
+     * each notification, in the same order.
+     */
+    void processNotificationsAsync(List<Notification> notifications, NotificationConfig config,
+                                   List<EnrolleeRuleData> ruleData, NotificationContextInfo notificationContextInfo);
+
+    /** delivers the notification immediately, and saves the result */
     void processNotification(Notification notification, NotificationConfig config, EnrolleeRuleData ruleData,
                              NotificationContextInfo notificationContextInfo);
 
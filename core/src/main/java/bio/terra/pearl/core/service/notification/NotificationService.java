@@ -2,12 +2,20 @@ package bio.terra.pearl.core.service.notification;
 
 import bio.terra.pearl.core.dao.notification.NotificationDao;
 import bio.terra.pearl.core.model.notification.Notification;
+import bio.terra.pearl.core.model.notification.NotificationDeliveryType;
 import bio.terra.pearl.core.service.CrudService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Every method that can save a SENT notification also records it for spacing task reminders -- see
+ * NotificationDao.recordSentNotificationTimes
+ */
 @Service
 public class NotificationService extends CrudService<Notification, NotificationDao> {
     private ObjectMapper objectMapper;
@@ -16,10 +24,48 @@ public class NotificationService extends CrudService<Notification, NotificationD
         this.objectMapper = objectMapper;
     }
 
+    @Override
+    @Transactional
+    public Notification create(Notification notification) {
+        Notification savedNotification = dao.create(notification);
+        dao.recordSentNotificationTimes(List.of(savedNotification));
+        return savedNotification;
+    }
+
+    @Override
+    @Transactional
+    public Notification update(Notification notification) {
+        Notification savedNotification = dao.update(notification);
+        dao.recordSentNotificationTimes(List.of(savedNotification));
+        return savedNotification;
+    }
+
+    /** creates the notifications in a single batch, assigning their ids */
+    @Override
+    @Transactional
+    public void bulkCreate(List<Notification> notifications) {
+        dao.bulkCreateWithIds(notifications);
+        dao.recordSentNotificationTimes(notifications);
+    }
+
+    /** saves the delivery status of the notifications, in a single batch */
+    @Transactional
+    public void bulkUpdateDeliveryStatus(List<Notification> notifications) {
+        dao.bulkUpdateDeliveryStatus(notifications);
+        dao.recordSentNotificationTimes(notifications);
+    }
+
+    public List<Notification> claimStaleReady(NotificationDeliveryType deliveryType, Instant cutoff, int limit) {
+        return dao.claimStaleReady(deliveryType, cutoff, limit);
+    }
+
     public List<Notification> findByEnrolleeId(UUID enrolleeId) {
         return dao.findByEnrolleeId(enrolleeId);
     }
     public void deleteByEnrolleeId(UUID enrolleeId) {
         dao.deleteByEnrolleeId(enrolleeId);
     }
+    public void deleteByEnrolleeIds(Collection<UUID> enrolleeIds) {
+        dao.deleteByEnrolleeIds(enrolleeIds);
+    }
 }
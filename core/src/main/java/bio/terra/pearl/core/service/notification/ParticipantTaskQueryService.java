@@ -5,6 +5,7 @@ import bio.terra.pearl.core.dao.workflow.ParticipantTaskDao;
 import bio.terra.pearl.core.model.workflow.TaskStatus;
 import bio.terra.pearl.core.model.workflow.TaskType;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 import org.springframework.stereotype.Service;
@@ -37,4 +38,9 @@ public class ParticipantTaskQueryService {
         return findByStatusAndTime(studyEnvironmentId, taskType, timeSinceCreation, maxTimeSinceCreation, timeSinceLastNotification,
                 List.of(TaskStatus.NEW, TaskStatus.IN_PROGRESS));
     }
+
+    public List<ParticipantTaskDao.DueReminder> findDueReminders(UUID studyEnvironmentId, Instant now,
+                                                                 ParticipantTaskDao.DueReminder after, int limit) {
+        return participantTaskDao.findDueReminders(studyEnvironmentId, now, after, limit);
+    }
 }
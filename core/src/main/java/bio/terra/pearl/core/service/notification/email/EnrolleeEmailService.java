@@ -1,11 +1,16 @@
 package bio.terra.pearl.core.service.notification.email;
 
+import bio.terra.pearl.core.model.notification.EmailTemplate;
 import bio.terra.pearl.core.model.notification.Notification;
 import bio.terra.pearl.core.model.notification.NotificationConfig;
 import bio.terra.pearl.core.model.notification.NotificationDeliveryStatus;
+import bio.terra.pearl.core.model.notification.NotificationDeliveryType;
 import bio.terra.pearl.core.model.portal.Portal;
 import bio.terra.pearl.core.model.portal.PortalEnvironment;
 import bio.terra.pearl.core.model.study.Study;
+import bio.terra.pearl.core.service.cache.VersionedEntityCache;
+import bio.terra.pearl.core.service.notification.BatchingDeliveryQueue;
+import bio.terra.pearl.core.service.notification.NotificationConfigService;
 import bio.terra.pearl.core.service.notification.NotificationContextInfo;
 import bio.terra.pearl.core.service.notification.NotificationSender;
 import bio.terra.pearl.core.service.notification.NotificationService;
@@ -13,20 +18,44 @@ import bio.terra.pearl.core.service.notification.substitutors.EnrolleeEmailSubst
 import bio.terra.pearl.core.service.portal.PortalEnvironmentService;
 import bio.terra.pearl.core.service.portal.PortalService;
 import bio.terra.pearl.core.service.rule.EnrolleeRuleData;
+import bio.terra.pearl.core.service.rule.EnrolleeRuleService;
 import bio.terra.pearl.core.service.study.StudyService;
 import bio.terra.pearl.core.shared.ApplicationRoutingPaths;
 import com.sendgrid.Mail;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.text.StringSubstitutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.retry.backoff.FixedBackOffPolicy;
-import org.springframework.retry.support.RetryTemplate;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class EnrolleeEmailService implements NotificationSender {
     private static final Logger logger = LoggerFactory.getLogger(EnrolleeEmailService.class);
+    private static final long CONTEXT_BASE_WEIGHT = 1000;
+    /** how many threads send queued emails -- together with the SendGrid rate limit, this bounds the send rate */
+    public static final String DELIVERY_THREADS_VAR = "env.email.deliveryThreads";
+    /** how many emails can be queued before bulk sends wait for them to be sent */
+    public static final String DELIVERY_QUEUE_SIZE_VAR = "env.email.deliveryQueueSize";
+    /** how many seconds to wait on shutdown for queued emails to be sent */
+    public static final String SHUTDOWN_WAIT_SECONDS_VAR = "env.email.shutdownWaitSeconds";
+    /** how many stale notifications are requeued at once */
+    private static final int REQUEUE_BATCH_SIZE = 1000;
     private NotificationService notificationService;
     private PortalEnvironmentService portalEnvService;
     private PortalService portalService;
@@ -34,11 +63,25 @@ public class EnrolleeEmailService implements NotificationSender {
     private EmailTemplateService emailTemplateService;
     private ApplicationRoutingPaths routingPaths;
     private SendgridClient sendgridClient;
+    private NotificationConfigService notificationConfigService;
+    private EnrolleeRuleService enrolleeRuleService;
+    private final Duration shutdownWait;
+    /** emails waiting to be sent.  Each worker sends what's queued in batches, so bulk sends need fewer API calls */
+    private final BatchingDeliveryQueue<EmailDelivery> deliveryQueue;
+    /**
+     * contexts by portal environment, study environment and template.  Templates don't change once created, but
+     * portal environment configs can, so the time to live bounds how long config changes take to reach emails.
+     */
+    private final VersionedEntityCache<ContextKey, NotificationContextInfo> contextCache = new VersionedEntityCache<>(
+            "notificationContext", 10_000_000, Duration.ofMinutes(1), EnrolleeEmailService::weigh,
+            UnaryOperator.identity());
 
     public EnrolleeEmailService(NotificationService notificationService,
                                 PortalEnvironmentService portalEnvService, PortalService portalService,
                                 StudyService studyService, EmailTemplateService emailTemplateService,
-                                ApplicationRoutingPaths routingPaths, SendgridClient sendgridClient) {
+                                ApplicationRoutingPaths routingPaths, SendgridClient sendgridClient,
+                                NotificationConfigService notificationConfigService,
+                                EnrolleeRuleService enrolleeRuleService, Environment env) {
         this.notificationService = notificationService;
         this.portalEnvService = portalEnvService;
         this.portalService = portalService;
@@ -46,44 +89,153 @@ public class EnrolleeEmailService implements NotificationSender {
         this.emailTemplateService = emailTemplateService;
         this.routingPaths = routingPaths;
         this.sendgridClient = sendgridClient;
+        this.notificationConfigService = notificationConfigService;
+        this.enrolleeRuleService = enrolleeRuleService;
+        this.shutdownWait = Duration.ofSeconds(env.getProperty(SHUTDOWN_WAIT_SECONDS_VAR, Integer.class, 30));
+        this.deliveryQueue = new BatchingDeliveryQueue<>("enrolleeEmail",
+                env.getProperty(DELIVERY_THREADS_VAR, Integer.class, 2),
+                env.getProperty(DELIVERY_QUEUE_SIZE_VAR, Integer.class, 5000),
+                SendgridClient.MAX_PERSONALIZATIONS, this::deliver);
     }
 
-    @Async
     @Override
     public void processNotificationAsync(Notification notification, NotificationConfig config, EnrolleeRuleData ruleData) {
         NotificationContextInfo contextInfo = loadContextInfo(config);
-        processNotification(notification, config, ruleData, contextInfo);
+        if (!shouldSendEmail(config, ruleData, contextInfo)) {
+            notification.setDeliveryStatus(NotificationDeliveryStatus.SKIPPED);
+            notificationService.update(notification);
+            return;
+        }
+        deliveryQueue.queueAfterCommit(List.of(new EmailDelivery(notification, config, ruleData, contextInfo)));
     }
 
+    @Override
+    public void processNotificationsAsync(List<Notification> notifications, NotificationConfig config,
+                                          List<EnrolleeRuleData> ruleData, NotificationContextInfo contextInfo) {
+        List<EmailDelivery> deliveries = new ArrayList<>();
+        for (int i = 0; i < notifications.size(); i++) {
+            Notification notification = notifications.get(i);
+            if (shouldSendEmail(config, ruleData.get(i), contextInfo)) {
+                deliveries.add(new EmailDelivery(notification, config, ruleData.get(i), contextInfo));
+            } else {
+                notification.setDeliveryStatus(NotificationDeliveryStatus.SKIPPED);
+            }
+        }
+        notificationService.bulkCreate(notifications);
+        deliveryQueue.queueAfterCommit(deliveries);
+    }
+
+    @Override
     public void processNotification(Notification notification, NotificationConfig config, EnrolleeRuleData ruleData,
                                     NotificationContextInfo contextInfo) {
         if (!shouldSendEmail(config, ruleData, contextInfo)) {
             notification.setDeliveryStatus(NotificationDeliveryStatus.SKIPPED);
-        } else {
-            notification.setSentTo(ruleData.profile().getContactEmail());
+            saveDeliveryStatus(List.of(notification));
+            return;
+        }
+        deliver(List.of(new EmailDelivery(notification, config, ruleData, contextInfo)));
+    }
+
+    /**
+     * sends the emails, combining those with identical content (i.e. from templates without enrollee-specific
+     * values) into a single SendGrid call, then saves all the delivery statuses in one batch.
+     * The queue never passes more than SendgridClient.MAX_PERSONALIZATIONS deliveries at once.
+     */
+    protected void deliver(List<EmailDelivery> deliveries) {
+        Map<EmailContent, List<Mail>> mailsByContent = new LinkedHashMap<>();
+        Map<EmailContent, List<EmailDelivery>> deliveriesByContent = new HashMap<>();
+        for (EmailDelivery delivery : deliveries) {
+            Notification notification = delivery.notification();
+            // anything going wrong with one email only fails that one, not the rest of the batch
             try {
-                buildAndSendEmail(contextInfo, ruleData, notification);
-                logger.info("Email sent: config: {}, enrollee: {}", config.getId(),
-                        ruleData.enrollee().getShortcode());
-                notification.setDeliveryStatus(NotificationDeliveryStatus.SENT);
+                notification.setSentTo(delivery.ruleData().profile().getContactEmail());
+                Mail mail = buildEmail(delivery.contextInfo(), delivery.ruleData(), notification);
+                EmailContent content = EmailContent.of(mail);
+                mailsByContent.computeIfAbsent(content, key -> new ArrayList<>()).add(mail);
+                deliveriesByContent.computeIfAbsent(content, key -> new ArrayList<>()).add(delivery);
             } catch (Exception e) {
                 notification.setDeliveryStatus(NotificationDeliveryStatus.FAILED);
                 // don't log the exception itself since the trace might have PII in it.
-                logger.error("Email failed to send: config: {}, enrollee: {}", config.getId(),
-                        ruleData.enrollee().getShortcode());
+                logger.error("Email could not be built: config: {}, enrollee: {}", delivery.config().getId(),
+                        delivery.ruleData().enrollee().getShortcode());
+            }
+        }
+        for (Map.Entry<EmailContent, List<Mail>> entry : mailsByContent.entrySet()) {
+            List<EmailDelivery> contentDeliveries = deliveriesByContent.get(entry.getKey());
+            NotificationDeliveryStatus status;
+            try {
+                sendgridClient.sendEmail(sendgridClient.combine(entry.getValue()));
+                status = NotificationDeliveryStatus.SENT;
+                logger.info("Email sent to {} recipients: config: {}", contentDeliveries.size(),
+                        contentDeliveries.get(0).config().getId());
+            } catch (Exception e) {
+                status = NotificationDeliveryStatus.FAILED;
+                // don't log the exception itself since the trace might have PII in it.
+                logger.error("Email failed to send to {} recipients: config: {}, enrollees: {}",
+                        contentDeliveries.size(), contentDeliveries.get(0).config().getId(),
+                        contentDeliveries.stream().map(delivery -> delivery.ruleData().enrollee().getShortcode()).toList());
+            }
+            for (EmailDelivery delivery : contentDeliveries) {
+                delivery.notification().setDeliveryStatus(status);
             }
         }
-        if (notification.getId() != null) {
-            // the notification might have been saved, but in a transaction not-yet completed (if, for example,
-            // study enrollment transaction is taking a long time). So retry the update if it fails
-            RetryTemplate retryTemplate = RetryTemplate.defaultInstance();
-            FixedBackOffPolicy backOffPolicy = new FixedBackOffPolicy();
-            backOffPolicy.setBackOffPeriod(2000);  // this will retry once every two seconds for 3 tries
-            retryTemplate.setBackOffPolicy(backOffPolicy);
-            retryTemplate.execute(arg -> notificationService.update(notification));
-        } else {
-            notificationService.create(notification);
+        saveDeliveryStatus(deliveries.stream().map(EmailDelivery::notification).toList());
+    }
+
+    private void saveDeliveryStatus(List<Notification> notifications) {
+        List<Notification> newNotifications = notifications.stream().filter(n -> n.getId() == null).toList();
+        List<Notification> savedNotifications = notifications.stream().filter(n -> n.getId() != null).toList();
+        notificationService.bulkCreate(newNotifications);
+        notificationService.bulkUpdateDeliveryStatus(savedNotifications);
+    }
+
+    /**
+     * queues email notifications that have been READY for longer than staleAfter to be sent again.  Notifications
+     * are saved as READY before they're queued, so these are ones that were queued on a node that shut down before
+     * sending them.  staleAfter should be well over the time a full queue takes to send, so notifications still
+     * waiting in a live node's queue aren't sent twice.  Returns the number of notifications requeued.
+     */
+    @Transactional
+    public int requeueStaleNotifications(Duration staleAfter) {
+        List<Notification> notifications = notificationService.claimStaleReady(NotificationDeliveryType.EMAIL,
+                Instant.now().minus(staleAfter), REQUEUE_BATCH_SIZE);
+        if (notifications.isEmpty()) {
+            return 0;
+        }
+        Map<UUID, NotificationConfig> configsById = notificationConfigService.findAll(notifications.stream()
+                        .map(Notification::getNotificationConfigId).filter(Objects::nonNull).distinct().toList())
+                .stream().collect(Collectors.toMap(NotificationConfig::getId, Function.identity()));
+        Map<UUID, EnrolleeRuleData> ruleDataByEnrolleeId = enrolleeRuleService.fetchData(notifications.stream()
+                        .map(Notification::getEnrolleeId).filter(Objects::nonNull).distinct().toList())
+                .stream().collect(Collectors.toMap(ruleData -> ruleData.enrollee().getId(), Function.identity()));
+
+        List<EmailDelivery> deliveries = new ArrayList<>();
+        List<Notification> skippedNotifications = new ArrayList<>();
+        for (Notification notification : notifications) {
+            NotificationConfig config = configsById.get(notification.getNotificationConfigId());
+            EnrolleeRuleData ruleData = ruleDataByEnrolleeId.get(notification.getEnrolleeId());
+            NotificationContextInfo contextInfo = config == null ? null : loadContextInfo(config);
+            if (config == null || ruleData == null || !shouldSendEmail(config, ruleData, contextInfo)) {
+                notification.setDeliveryStatus(NotificationDeliveryStatus.SKIPPED);
+                skippedNotifications.add(notification);
+            } else {
+                deliveries.add(new EmailDelivery(notification, config, ruleData, contextInfo));
+            }
         }
+        notificationService.bulkUpdateDeliveryStatus(skippedNotifications);
+        deliveryQueue.queueAfterCommit(deliveries);
+        logger.info("Requeued {} stale email notifications, skipped {}", deliveries.size(),
+                skippedNotifications.size());
+        return deliveries.size();
+    }
+
+    /**
+     * gives the queue a bounded time to send what's queued.  Anything left stays READY in the database, and is
+     * requeued by requeueStaleNotifications
+     */
+    @PreDestroy
+    public void shutdown() {
+        deliveryQueue.shutdown(shutdownWait);
     }
 
     /**
@@ -118,7 +270,12 @@ public class EnrolleeEmailService implements NotificationSender {
     public boolean shouldSendEmail(NotificationConfig config,
                                    EnrolleeRuleData ruleData,
                                    NotificationContextInfo contextInfo) {
-        if (ruleData.profile() != null && ruleData.profile().isDoNotEmail()) {
+        if (ruleData.profile() == null) {
+            logger.info("skipping email, enrollee {} has no profile: notificationConfig: {}, portalEnv: {}",
+                    ruleData.enrollee().getShortcode(), config.getId(), config.getPortalEnvironmentId());
+            return false;
+        }
+        if (ruleData.profile().isDoNotEmail()) {
             logger.info("skipping email, enrollee {} is doNotEmail: notificationConfig: {}, portalEnv: {}",
                     ruleData.enrollee().getShortcode(), config.getId(), config.getPortalEnvironmentId());
             return false;
@@ -137,28 +294,62 @@ public class EnrolleeEmailService implements NotificationSender {
     }
 
     /**
-     * loads the context information needed to send a notification (things not specific to an enrollee/user)
-     * this method will almost certainly benefit from caching, especially with respect to bulk emails.
+     * loads the context information needed to send a notification (things not specific to an enrollee/user).
+     * The context is cached, since every notification sent from a config (and every reminder in a bulk run) needs
+     * the same one.  The returned context is shared, and must not be modified.
      *
      * This can return null if called in an async context where the notificationConfig points to an
      * environment that either no longer exists or has not yet been populated (e.g. during a populate_portal.sh call)
      */
     @Override
     public NotificationContextInfo loadContextInfo(NotificationConfig config) {
-        PortalEnvironment portalEnvironment = portalEnvService.loadWithEnvConfig(config.getPortalEnvironmentId()).orElse(null);
+        ContextKey key = new ContextKey(config.getPortalEnvironmentId(), config.getStudyEnvironmentId(),
+                config.getEmailTemplateId());
+        return contextCache.get(key, this::loadUncachedContextInfo).orElse(null);
+    }
+
+    private Optional<NotificationContextInfo> loadUncachedContextInfo(ContextKey key) {
+        PortalEnvironment portalEnvironment = portalEnvService.loadWithEnvConfig(key.portalEnvironmentId()).orElse(null);
         if (portalEnvironment == null) {
-            return null;
+            return Optional.empty();
         }
 
-        Study study = studyService.findByStudyEnvironmentId(config.getStudyEnvironmentId()).get();
+        Study study = studyService.findByStudyEnvironmentId(key.studyEnvironmentId()).get();
 
         Portal portal = portalService.find(portalEnvironment.getPortalId()).get();
-        return new NotificationContextInfo(
+        return Optional.of(new NotificationContextInfo(
                 portal,
                 portalEnvironment,
                 portalEnvironment.getPortalEnvironmentConfig(),
                 study,
-                emailTemplateService.find(config.getEmailTemplateId()).orElse(null)
-        );
+                key.emailTemplateId() == null ? null : emailTemplateService.find(key.emailTemplateId()).orElse(null)
+        ));
+    }
+
+    /** a notification to be sent, with everything needed to build its email */
+    protected record EmailDelivery(Notification notification, NotificationConfig config, EnrolleeRuleData ruleData,
+                                   NotificationContextInfo contextInfo) {}
+
+    /** what has to match for emails to be sent in a single call */
+    private record EmailContent(String fromAddress, String fromName, String subject, String body) {
+        static EmailContent of(Mail mail) {
+            return new EmailContent(mail.getFrom().getEmail(), mail.getFrom().getName(), mail.getSubject(),
+                    mail.getContent().get(0).getValue());
+        }
+    }
+
+    /**
+     * the context depends only on these, so configs sharing them share a context, and a config changed to use a
+     * different template gets a new one
+     */
+    private record ContextKey(UUID portalEnvironmentId, UUID studyEnvironmentId, UUID emailTemplateId) {}
+
+    /** weighs by template size, since templates are most of a context's memory */
+    private static long weigh(NotificationContextInfo contextInfo) {
+        EmailTemplate template = contextInfo.template();
+        if (template == null) {
+            return CONTEXT_BASE_WEIGHT;
+        }
+        return CONTEXT_BASE_WEIGHT + StringUtils.length(template.getSubject()) + StringUtils.length(template.getBody());
     }
 }
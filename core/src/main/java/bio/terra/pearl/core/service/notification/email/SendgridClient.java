@@ -2,6 +2,7 @@ package bio.terra.pearl.core.service.notification.email;
 
 import bio.terra.pearl.core.model.notification.SendgridEvent;
 import bio.terra.pearl.core.service.notification.NotificationContextInfo;
+import bio.terra.pearl.core.service.notification.substitutors.CompiledTemplate;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -9,6 +10,7 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.sendgrid.*;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.text.StringSubstitutor;
+import org.apache.commons.text.lookup.StringLookup;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.env.Environment;
@@ -16,18 +18,31 @@ import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class SendgridClient {
   private static final Logger logger = LoggerFactory.getLogger(SendgridClient.class);
   public static final String EMAIL_REDIRECT_VAR = "env.email.redirectAllTo";
   public static final String SENDGRID_API_KEY_VAR = "env.email.sendgridApiKey";
+  /** host (and port) to send to instead of SendGrid's API, over http, e.g. a local stub for load testing */
+  public static final String SENDGRID_HOST_VAR = "env.email.sendgridHost";
+  /** limit on calls to the SendGrid API, across all threads.  0 means no limit */
+  public static final String MAX_REQUESTS_PER_SECOND_VAR = "env.email.maxRequestsPerSecond";
+  /** SendGrid's limit on the personalizations (i.e. recipients) in a single mail/send call */
+  public static final int MAX_PERSONALIZATIONS = 1000;
   private final String sendGridApiKey;
+  private final String sendGridHost;
   private String emailRedirectAddress = "";
+  private final long minNanosBetweenRequests;
+  private long nextRequestNanos = System.nanoTime();
 
   public SendgridClient(Environment env) {
     this.sendGridApiKey = env.getProperty(SENDGRID_API_KEY_VAR, "");
     this.emailRedirectAddress = env.getProperty(EMAIL_REDIRECT_VAR, "");
+    this.sendGridHost = env.getProperty(SENDGRID_HOST_VAR, "");
+    int maxRequestsPerSecond = env.getProperty(MAX_REQUESTS_PER_SECOND_VAR, Integer.class, 0);
+    this.minNanosBetweenRequests = maxRequestsPerSecond > 0 ? 1_000_000_000L / maxRequestsPerSecond : 0;
   }
 
 
@@ -37,15 +52,61 @@ public class SendgridClient {
       logger.info("Email send skipped: no sendgrid api provided");
       throw new UnsupportedOperationException("Attempted to send email without sendgrid key");
     }
-    SendGrid sg = new SendGrid(sendGridApiKey);
+    SendGrid sg = newSendGrid();
     Request request = new Request();
 
     request.setMethod(Method.POST);
     request.setEndpoint("mail/send");
     request.setBody(mail.build());
+    awaitRateLimit();
     sg.api(request);
   }
 
+  /**
+   * combines emails with the same sender, subject, and content into one, with a personalization for each
+   * recipient, so they can be sent in a single call.  Recipients don't see each other, since each personalization
+   * is a separate email.  The emails must each have a single personalization, as built by buildEmail.
+   */
+  public Mail combine(List<Mail> mails) {
+    if (mails.size() > MAX_PERSONALIZATIONS) {
+      throw new IllegalArgumentException("Cannot send more than " + MAX_PERSONALIZATIONS + " emails in one call");
+    }
+    if (mails.size() == 1) {
+      return mails.get(0);
+    }
+    Mail first = mails.get(0);
+    Mail combined = new Mail();
+    combined.setFrom(first.getFrom());
+    combined.setSubject(first.getSubject());
+    first.getContent().forEach(combined::addContent);
+    for (Mail mail : mails) {
+      combined.addPersonalization(mail.getPersonalization().get(0));
+    }
+    return combined;
+  }
+
+  private SendGrid newSendGrid() {
+    if (StringUtils.isEmpty(sendGridHost)) {
+      return new SendGrid(sendGridApiKey);
+    }
+    // test mode sends over http, for a stub server
+    SendGrid sg = new SendGrid(sendGridApiKey, true);
+    sg.setHost(sendGridHost);
+    return sg;
+  }
+
+  /** spaces requests at least minNanosBetweenRequests apart.  Waiting threads queue on the lock */
+  private synchronized void awaitRateLimit() throws InterruptedException {
+    if (minNanosBetweenRequests == 0) {
+      return;
+    }
+    long waitNanos = nextRequestNanos - System.nanoTime();
+    if (waitNanos > 0) {
+      TimeUnit.NANOSECONDS.sleep(waitNanos);
+    }
+    nextRequestNanos = Math.max(nextRequestNanos, System.nanoTime()) + minNanosBetweenRequests;
+  }
+
   public List<SendgridEvent> getEvents(Instant startDate, Instant endDate, int queryLimit) throws Exception {
     SendGrid sg = new SendGrid(sendGridApiKey);
     Request request = new Request();
@@ -82,8 +143,10 @@ public class SendgridClient {
       from.setName(contextInfo.portal().getName());
     }
 
-    String subject = stringSubstitutor.replace(contextInfo.template().getSubject());
-    String contentString = stringSubstitutor.replace(contextInfo.template().getBody());
+    // render with the substitutor's lookup, using the compiled template rather than rescanning the template text
+    StringLookup lookup = stringSubstitutor.getStringLookup();
+    String subject = CompiledTemplate.render(contextInfo.template().getSubject(), lookup);
+    String contentString = CompiledTemplate.render(contextInfo.template().getBody(), lookup);
 
     if (!StringUtils.isEmpty(emailRedirectAddress)) {
       to =  new Email(emailRedirectAddress);
@@ -0,0 +1,125 @@
+package bio.terra.pearl.core.service.notification.substitutors;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.commons.text.lookup.StringLookup;
+
+/**
+ * A template split once into literal text and ${variable} segments, so that rendering it for each recipient of a
+ * bulk email is just a lookup per variable, rather than a rescan of the template text.  Follows the same syntax as
+ * StringSubstitutor's defaults: ${name}, ${name:-default} for a value to use if the lookup returns null, and $${
+ * for a literal ${.  Values containing variables are themselves rendered, as StringSubstitutor does.
+ *
+ * Compiled templates are cached by template text, since the same few templates are sent to many enrollees.
+ */
+public class CompiledTemplate {
+    private static final String PREFIX = "${";
+    private static final String ESCAPED_PREFIX = "$${";
+    private static final String SUFFIX = "}";
+    private static final String DEFAULT_DELIMITER = ":-";
+    /** templates come from configuration, so there are few distinct ones -- this is just a safeguard */
+    private static final int MAX_CACHED_TEMPLATES = 1000;
+    /** bounds rendering of values that contain variables, since those could refer to each other */
+    private static final int MAX_RENDER_DEPTH = 5;
+    private static final Map<String, CompiledTemplate> compiledTemplates = new ConcurrentHashMap<>();
+
+    /** a literal if variableName is null, otherwise a variable */
+    private record Segment(String literal, String variableName, String defaultValue) {}
+
+    private final List<Segment> segments;
+
+    private CompiledTemplate(List<Segment> segments) {
+        this.segments = segments;
+    }
+
+    /** returns the compiled template, from the cache if it has been compiled before */
+    public static CompiledTemplate compile(String template) {
+        CompiledTemplate compiled = compiledTemplates.get(template);
+        if (compiled != null) {
+            return compiled;
+        }
+        if (compiledTemplates.size() >= MAX_CACHED_TEMPLATES) {
+            compiledTemplates.clear();
+        }
+        return compiledTemplates.computeIfAbsent(template, CompiledTemplate::parse);
+    }
+
+    /** renders the template, or returns null if the template is null, matching StringSubstitutor.replace */
+    public static String render(String template, StringLookup lookup) {
+        if (template == null) {
+            return null;
+        }
+        return compile(template).render(lookup);
+    }
+
+    public String render(StringLookup lookup) {
+        StringBuilder builder = new StringBuilder();
+        appendTo(builder, lookup, 0);
+        return builder.toString();
+    }
+
+    private void appendTo(StringBuilder builder, StringLookup lookup, int depth) {
+        for (Segment segment : segments) {
+            if (segment.variableName() == null) {
+                builder.append(segment.literal());
+                continue;
+            }
+            String value = lookup.lookup(segment.variableName());
+            if (value == null) {
+                value = segment.defaultValue();
+            }
+            if (value == null) {
+                // unresolved variables are left as they are
+                builder.append(segment.literal());
+            } else if (depth < MAX_RENDER_DEPTH && value.contains(PREFIX)) {
+                compile(value).appendTo(builder, lookup, depth + 1);
+            } else {
+                builder.append(value);
+            }
+        }
+    }
+
+    private static CompiledTemplate parse(String template) {
+        List<Segment> segments = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int position = 0;
+        while (position < template.length()) {
+            if (template.startsWith(ESCAPED_PREFIX, position)) {
+                literal.append(PREFIX);
+                position += ESCAPED_PREFIX.length();
+                continue;
+            }
+            if (template.startsWith(PREFIX, position)) {
+                int end = template.indexOf(SUFFIX, position + PREFIX.length());
+                if (end >= 0) {
+                    if (!literal.isEmpty()) {
+                        segments.add(new Segment(literal.toString(), null, null));
+                        literal.setLength(0);
+                    }
+                    segments.add(variableSegment(template.substring(position, end + SUFFIX.length())));
+                    position = end + SUFFIX.length();
+                    continue;
+                }
+            }
+            literal.append(template.charAt(position));
+            position++;
+        }
+        if (!literal.isEmpty()) {
+            segments.add(new Segment(literal.toString(), null, null));
+        }
+        return new CompiledTemplate(List.copyOf(segments));
+    }
+
+    /** the literal of a variable segment is its original text, so that it can be output if it is unresolved */
+    private static Segment variableSegment(String variableText) {
+        String name = variableText.substring(PREFIX.length(), variableText.length() - SUFFIX.length());
+        int delimiterIndex = name.indexOf(DEFAULT_DELIMITER);
+        if (delimiterIndex >= 0) {
+            return new Segment(variableText, name.substring(0, delimiterIndex),
+                    name.substring(delimiterIndex + DEFAULT_DELIMITER.length()));
+        }
+        return new Segment(variableText, name, null);
+    }
+}
@@ -2,12 +2,15 @@ package bio.terra.pearl.core.service.notification.substitutors;
 
 import bio.terra.pearl.core.model.portal.Portal;
 import bio.terra.pearl.core.model.portal.PortalEnvironment;
+import bio.terra.pearl.core.model.portal.PortalEnvironmentConfig;
 import bio.terra.pearl.core.model.study.Study;
 import bio.terra.pearl.core.service.notification.NotificationContextInfo;
 import bio.terra.pearl.core.service.rule.EnrolleeRuleData;
 import bio.terra.pearl.core.shared.ApplicationRoutingPaths;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import org.apache.commons.beanutils.PropertyUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.text.StringSubstitutor;
@@ -15,11 +18,38 @@ import org.apache.commons.text.lookup.StringLookup;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import static java.util.Map.entry;
+
 /** handles template replacement.  Note that this class is not a Spring component since a separate instance should be created
  * for each email to be sent. */
 public class EnrolleeEmailSubstitutor implements StringLookup {
     private static final Logger logger = LoggerFactory.getLogger(EnrolleeEmailSubstitutor.class);
-    private final Map<String, Object> valueMap = new HashMap<>();
+    /**
+     * accessors for the variables templates commonly use, so those can be resolved without reflection.  Any other
+     * property of the values in the value map can still be used, and is looked up with PropertyUtils
+     */
+    private static final Map<String, Function<EnrolleeEmailSubstitutor, Object>> ACCESSORS = Map.ofEntries(
+            entry("profile.givenName", substitutor -> substitutor.enrolleeRuleData.profile().getGivenName()),
+            entry("profile.familyName", substitutor -> substitutor.enrolleeRuleData.profile().getFamilyName()),
+            entry("profile.contactEmail", substitutor -> substitutor.enrolleeRuleData.profile().getContactEmail()),
+            entry("portalEnv.environmentName", substitutor -> substitutor.contextInfo.portalEnv().getEnvironmentName()),
+            entry("envConfig.participantHostname", substitutor -> substitutor.envConfig().getParticipantHostname()),
+            entry("envConfig.emailSourceAddress", substitutor -> substitutor.envConfig().getEmailSourceAddress()),
+            entry("study.name", substitutor -> substitutor.study().getName()),
+            entry("study.shortcode", substitutor -> substitutor.study().getShortcode()),
+            entry("dashboardLink", substitutor -> substitutor.getDashboardLink(substitutor.contextInfo.portalEnv(),
+                    substitutor.contextInfo.portal(), substitutor.contextInfo.study())),
+            entry("dashboardUrl", substitutor -> substitutor.getDashboardUrl(substitutor.contextInfo.portalEnv(),
+                    substitutor.contextInfo.portal())),
+            entry("siteLink", substitutor -> substitutor.getSiteLink(substitutor.contextInfo.portalEnv(),
+                    substitutor.contextInfo.portal())),
+            entry("participantSupportEmailLink",
+                    substitutor -> substitutor.getParticipantSupportEmailLink(substitutor.contextInfo.portalEnv())),
+            entry("siteImageBaseUrl", substitutor -> substitutor.getImageBaseUrl(substitutor.contextInfo.portalEnv(),
+                    substitutor.contextInfo.portal().getShortcode()))
+    );
+    private Map<String, Object> valueMap;
+    private final Map<String, String> messages;
     private EnrolleeRuleData enrolleeRuleData;
     private NotificationContextInfo contextInfo;
     private final ApplicationRoutingPaths routingPaths;
@@ -29,21 +59,7 @@ public class EnrolleeEmailSubstitutor implements StringLookup {
         this.enrolleeRuleData = ruleData;
         this.contextInfo = contextInfo;
         this.routingPaths = routingPaths;
-        valueMap.putAll(Map.of("profile", enrolleeRuleData.profile(),
-                "portalEnv", contextInfo.portalEnv(),
-                "envConfig", contextInfo.portalEnv().getPortalEnvironmentConfig(),
-                "dashboardLink", getDashboardLink(contextInfo.portalEnv(),
-                        contextInfo.portal(), contextInfo.study()),
-                "dashboardUrl", getDashboardUrl(contextInfo.portalEnv(), contextInfo.portal()),
-                "siteLink", getSiteLink(contextInfo.portalEnv(), contextInfo.portal()),
-                "participantSupportEmailLink", getParticipantSupportEmailLink(contextInfo.portalEnv()),
-                "siteImageBaseUrl", getImageBaseUrl(contextInfo.portalEnv(), contextInfo.portal().getShortcode()),
-                // providing a study isn't required, since emails might come from the portal, rather than a study
-                // but immutable map doesn't allow nulls
-                "study", contextInfo.study() != null ? contextInfo.study() : ""));
-        if (messages != null) {
-            valueMap.putAll(messages);
-        }
+        this.messages = messages != null ? messages : Map.of();
     }
 
     /** create a new substitutor.  the portalEnv must have the envConfig attached */
@@ -65,7 +81,7 @@ public class EnrolleeEmailSubstitutor implements StringLookup {
     @Override
     public String lookup(String key) {
         try {
-            return PropertyUtils.getNestedProperty(valueMap, key).toString();
+            return resolve(key).toString();
         } catch (Exception e) {
             logger.error("Could not resolve template value {}, environment: {}, enrollee: {}",
                     key, contextInfo.portal().getShortcode(), enrolleeRuleData.enrollee().getShortcode());
@@ -73,6 +89,46 @@ public class EnrolleeEmailSubstitutor implements StringLookup {
         return "";
     }
 
+    private Object resolve(String key) throws Exception {
+        // custom messages take precedence, so they can override any of the standard values
+        if (messages.containsKey(key)) {
+            return messages.get(key);
+        }
+        Function<EnrolleeEmailSubstitutor, Object> accessor = ACCESSORS.get(key);
+        if (accessor != null) {
+            return accessor.apply(this);
+        }
+        return PropertyUtils.getNestedProperty(getValueMap(), key);
+    }
+
+    private PortalEnvironmentConfig envConfig() {
+        return contextInfo.portalEnv().getPortalEnvironmentConfig();
+    }
+
+    private Study study() {
+        // providing a study isn't required, since emails might come from the portal, rather than a study
+        return Objects.requireNonNull(contextInfo.study(), "no study for this email");
+    }
+
+    /** the values available to templates, only built for variables that don't have an accessor */
+    private Map<String, Object> getValueMap() {
+        if (valueMap == null) {
+            valueMap = new HashMap<>();
+            valueMap.putAll(Map.of("profile", enrolleeRuleData.profile(),
+                    "portalEnv", contextInfo.portalEnv(),
+                    "envConfig", contextInfo.portalEnv().getPortalEnvironmentConfig(),
+                    "dashboardLink", getDashboardLink(contextInfo.portalEnv(),
+                            contextInfo.portal(), contextInfo.study()),
+                    "dashboardUrl", getDashboardUrl(contextInfo.portalEnv(), contextInfo.portal()),
+                    "siteLink", getSiteLink(contextInfo.portalEnv(), contextInfo.portal()),
+                    "participantSupportEmailLink", getParticipantSupportEmailLink(contextInfo.portalEnv()),
+                    "siteImageBaseUrl", getImageBaseUrl(contextInfo.portalEnv(), contextInfo.portal().getShortcode()),
+                    // immutable map doesn't allow nulls
+                    "study", contextInfo.study() != null ? contextInfo.study() : ""));
+        }
+        return valueMap;
+    }
+
     public String getSiteLink(PortalEnvironment portalEnv, Portal portal) {
         String href = routingPaths.getParticipantBaseUrl(portalEnv, portal.getShortcode());
         return String.format("<a rel=\"noopener\" href=\"%s\" target=\"_blank\">%s</a>", href, href);
@@ -1,13 +1,12 @@
 package bio.terra.pearl.core.service.participant;
 
+import bio.terra.pearl.core.dao.metrics.MetricsDao;
 import bio.terra.pearl.core.dao.participant.EnrolleeDao;
 import bio.terra.pearl.core.dao.survey.PreEnrollmentResponseDao;
 import bio.terra.pearl.core.model.EnvironmentName;
-import bio.terra.pearl.core.model.consent.ConsentResponse;
 import bio.terra.pearl.core.model.participant.Enrollee;
 import bio.terra.pearl.core.model.participant.PortalParticipantUser;
 import bio.terra.pearl.core.model.study.StudyEnvironment;
-import bio.terra.pearl.core.model.survey.SurveyResponse;
 import bio.terra.pearl.core.service.CascadeProperty;
 import bio.terra.pearl.core.service.CrudService;
 import bio.terra.pearl.core.service.consent.ConsentResponseService;
@@ -20,10 +19,13 @@ import bio.terra.pearl.core.service.survey.SurveyResponseService;
 import bio.terra.pearl.core.service.workflow.AdminTaskService;
 import bio.terra.pearl.core.service.workflow.DataChangeRecordService;
 import java.security.SecureRandom;
+import java.time.Instant;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import bio.terra.pearl.core.service.workflow.ParticipantTaskService;
 import org.springframework.context.annotation.Lazy;
@@ -48,6 +50,7 @@ public class EnrolleeService extends CrudService<Enrollee, EnrolleeDao> {
     private ParticipantNoteService participantNoteService;
     private KitRequestService kitRequestService;
     private AdminTaskService adminTaskService;
+    private MetricsDao metricsDao;
     private SecureRandom secureRandom;
 
     public EnrolleeService(EnrolleeDao enrolleeDao,
@@ -63,7 +66,8 @@ public class EnrolleeService extends CrudService<Enrollee, EnrolleeDao> {
                            @Lazy ParticipantUserService participantUserService,
                            ParticipantNoteService participantNoteService,
                            KitRequestService kitRequestService,
-                           AdminTaskService adminTaskService, SecureRandom secureRandom) {
+                           AdminTaskService adminTaskService, MetricsDao metricsDao,
+                           SecureRandom secureRandom) {
         super(enrolleeDao);
         this.surveyResponseService = surveyResponseService;
         this.participantTaskService = participantTaskService;
@@ -79,6 +83,7 @@ public class EnrolleeService extends CrudService<Enrollee, EnrolleeDao> {
         this.participantNoteService = participantNoteService;
         this.kitRequestService = kitRequestService;
         this.adminTaskService = adminTaskService;
+        this.metricsDao = metricsDao;
         this.secureRandom = secureRandom;
     }
 
@@ -105,6 +110,16 @@ public class EnrolleeService extends CrudService<Enrollee, EnrolleeDao> {
         return dao.findByStudyEnvironmentId(studyEnvironmentId, sortProperty, sortDir);
     }
 
+    public List<Enrollee> findPageByStudyEnvironment(UUID studyEnvironmentId, Enrollee previousPageLast, int pageSize) {
+        return dao.findPageByStudyEnvironmentId(studyEnvironmentId, previousPageLast, pageSize);
+    }
+
+    /** as above, but only returns enrollees with exportable data updated after updatedSince, if it is non-null */
+    public List<Enrollee> findPageByStudyEnvironment(UUID studyEnvironmentId, Instant updatedSince,
+                                                     Enrollee previousPageLast, int pageSize) {
+        return dao.findPageByStudyEnvironmentId(studyEnvironmentId, updatedSince, previousPageLast, pageSize);
+    }
+
     public List<Enrollee> findForKitManagement(String studyShortcode, EnvironmentName envName) {
         StudyEnvironment studyEnvironment = studyEnvironmentService.findByStudy(studyShortcode, envName).get();
         return dao.findForKitManagement(studyEnvironment.getId());
@@ -125,41 +140,64 @@ public class EnrolleeService extends CrudService<Enrollee, EnrolleeDao> {
     @Override
     @Transactional
     public void delete(UUID enrolleeId, Set<CascadeProperty> cascades) {
-        Enrollee enrollee = dao.find(enrolleeId).get();
-        StudyEnvironment studyEnv = studyEnvironmentService.find(enrollee.getStudyEnvironmentId()).get();
-        /**
-         * For production environments, we only allow deletion if a withdrawal record has already been preserved
-         */
-        if (studyEnv.getEnvironmentName().equals(EnvironmentName.live) &&
-            !withdrawnEnrolleeService.isWithdrawn(enrollee.getShortcode())) {
-            throw new UnsupportedOperationException("Cannot delete live, non-withdrawn participants");
-        }
-        participantTaskService.deleteByEnrolleeId(enrolleeId);
-        for (SurveyResponse surveyResponse : surveyResponseService.findByEnrolleeId(enrolleeId)) {
-            surveyResponseService.delete(surveyResponse.getId(), cascades);
-        }
-        for (ConsentResponse consentResponse : consentResponseService.findByEnrolleeId(enrolleeId)) {
-            consentResponseService.delete(consentResponse.getId(), cascades);
-        }
-        adminTaskService.deleteByEnrolleId(enrolleeId, null);
-        participantNoteService.deleteByEnrollee(enrolleeId);
-        kitRequestService.deleteByEnrolleeId(enrolleeId, cascades);
-
-        notificationService.deleteByEnrolleeId(enrolleeId);
-        dataChangeRecordService.deleteByEnrolleeId(enrolleeId);
-        dao.delete(enrolleeId);
-        if (enrollee.getPreEnrollmentResponseId() != null) {
-            preEnrollmentResponseDao.delete(enrollee.getPreEnrollmentResponseId());
+        bulkDelete(List.of(dao.find(enrolleeId).get()), cascades);
+    }
+
+    @Transactional
+    public void deleteByStudyEnvironmentId(UUID studyEnvironmentId, Set<CascadeProperty> cascade) {
+        bulkDelete(dao.findByStudyEnvironmentId(studyEnvironmentId), cascade);
+    }
+
+    /**
+     * Deletes the enrollees and everything attached to them.  Each child table is cleared with a single statement
+     * covering all the enrollees, in foreign key order, so the number of statements doesn't grow with the number
+     * of enrollees (or of their responses, kits, notes, etc...).  The metric rollups are recounted first, so the
+     * deleted enrollees drop out of the dashboard counts.
+     */
+    @Transactional
+    public void bulkDelete(List<Enrollee> enrollees, Set<CascadeProperty> cascades) {
+        if (enrollees.isEmpty()) {
+            return;
         }
+        checkDeletable(enrollees);
+        List<UUID> enrolleeIds = enrollees.stream().map(Enrollee::getId).toList();
+        metricsDao.recountWithoutEnrollees(enrolleeIds);
+        participantTaskService.deleteByEnrolleeIds(enrolleeIds);
+        surveyResponseService.deleteByEnrolleeIds(enrolleeIds);
+        consentResponseService.deleteByEnrolleeIds(enrolleeIds);
+        adminTaskService.deleteByEnrolleeIds(enrolleeIds);
+        // change records can reference notes, and notes can reference kits
+        dataChangeRecordService.deleteByEnrolleeIds(enrolleeIds);
+        participantNoteService.deleteByEnrolleeIds(enrolleeIds);
+        kitRequestService.deleteByEnrolleeIds(enrolleeIds);
+        notificationService.deleteByEnrolleeIds(enrolleeIds);
+        dao.deleteAll(enrolleeIds);
+        List<UUID> preEnrollmentResponseIds = enrollees.stream().map(Enrollee::getPreEnrollmentResponseId)
+                .filter(Objects::nonNull).toList();
+        preEnrollmentResponseDao.deleteAll(preEnrollmentResponseIds);
         if (cascades.contains(AllowedCascades.PARTICIPANT_USER)) {
-            participantUserService.delete(enrollee.getParticipantUserId(), CascadeProperty.EMPTY_SET);
+            enrollees.stream().map(Enrollee::getParticipantUserId).distinct().forEach(participantUserId ->
+                    participantUserService.delete(participantUserId, CascadeProperty.EMPTY_SET));
         }
     }
 
-    @Transactional
-    public void deleteByStudyEnvironmentId(UUID studyEnvironmentId, Set<CascadeProperty> cascade) {
-        for (Enrollee enrollee : dao.findByStudyEnvironmentId(studyEnvironmentId)) {
-            delete(enrollee.getId(), cascade);
+    /**
+     * For production environments, we only allow deletion if a withdrawal record has already been preserved
+     */
+    private void checkDeletable(List<Enrollee> enrollees) {
+        List<UUID> studyEnvIds = enrollees.stream().map(Enrollee::getStudyEnvironmentId).distinct().toList();
+        Set<UUID> liveStudyEnvIds = studyEnvironmentService.findAll(studyEnvIds).stream()
+                .filter(studyEnv -> studyEnv.getEnvironmentName().equals(EnvironmentName.live))
+                .map(StudyEnvironment::getId)
+                .collect(Collectors.toSet());
+        if (liveStudyEnvIds.isEmpty()) {
+            return;
+        }
+        List<String> liveShortcodes = enrollees.stream()
+                .filter(enrollee -> liveStudyEnvIds.contains(enrollee.getStudyEnvironmentId()))
+                .map(Enrollee::getShortcode).toList();
+        if (withdrawnEnrolleeService.findWithdrawnShortcodes(liveShortcodes).size() < liveShortcodes.size()) {
+            throw new UnsupportedOperationException("Cannot delete live, non-withdrawn participants");
         }
     }
 
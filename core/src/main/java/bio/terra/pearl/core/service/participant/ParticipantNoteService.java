@@ -3,6 +3,7 @@ package bio.terra.pearl.core.service.participant;
 import bio.terra.pearl.core.dao.participant.ParticipantNoteDao;
 import bio.terra.pearl.core.model.participant.ParticipantNote;
 import bio.terra.pearl.core.service.CrudService;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import org.springframework.stereotype.Service;
@@ -19,6 +20,11 @@ public class ParticipantNoteService extends CrudService<ParticipantNote, Partici
     dao.deleteByEnrollee(enrolleeId);
   }
 
+  @Transactional
+  public void deleteByEnrolleeIds(Collection<UUID> enrolleeIds) {
+    dao.deleteByEnrolleeIds(enrolleeIds);
+  }
+
   public List<ParticipantNote> findByEnrollee(UUID enrolleeId) {
     return dao.findByEnrollee(enrolleeId);
   }
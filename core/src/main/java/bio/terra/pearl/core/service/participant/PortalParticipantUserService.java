@@ -65,6 +65,10 @@ public class PortalParticipantUserService extends ImmutableEntityService<PortalP
         return dao.findOne(participantUserId, portalShortcode);
     }
 
+    public Optional<String> findEnrolleeDataVersion(UUID participantUserId, String portalShortcode) {
+        return dao.findEnrolleeDataVersion(participantUserId, portalShortcode);
+    }
+
     public List<PortalParticipantUser> findByPortalEnvironmentId(UUID portalId) {
         return dao.findByPortalEnvironmentId(portalId);
     }
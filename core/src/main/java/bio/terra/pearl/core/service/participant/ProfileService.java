@@ -6,6 +6,7 @@ import bio.terra.pearl.core.model.participant.MailingAddress;
 import bio.terra.pearl.core.model.participant.Profile;
 import bio.terra.pearl.core.service.CascadeProperty;
 import bio.terra.pearl.core.service.CrudService;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -35,6 +36,10 @@ public class ProfileService extends CrudService<Profile, ProfileDao> {
         return dao.loadWithMailingAddress(profileId);
     }
 
+    public List<Profile> findAllWithMailingAddress(List<UUID> profileIds) {
+        return dao.findAllWithMailingAddress(profileIds);
+    }
+
     @Transactional
     public Profile updateWithMailingAddress(Profile profile) {
         return dao.updateWithMailingAddress(profile);
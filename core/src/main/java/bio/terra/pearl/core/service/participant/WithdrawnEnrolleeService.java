@@ -10,7 +10,9 @@ import bio.terra.pearl.core.service.ImmutableEntityService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -43,6 +45,10 @@ public class WithdrawnEnrolleeService extends ImmutableEntityService<WithdrawnEn
     return dao.isWithdrawn(shortcode);
   }
 
+  public Set<String> findWithdrawnShortcodes(Collection<String> shortcodes) {
+    return dao.findWithdrawnShortcodes(shortcodes);
+  }
+
   /**
    * creates a WithdrawnEnrollee for the passed-in enrollee, and DELETES THE ENROLLEE.
    * Although the WithdrawnEnrollee record may contain much of the enrollee's data, this should be assumed to be
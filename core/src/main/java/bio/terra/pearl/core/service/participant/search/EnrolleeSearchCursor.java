@@ -0,0 +1,28 @@
+package bio.terra.pearl.core.service.participant.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a sorted enrollee search -- the sort value and id of the last enrollee of a page.  Clients treat the
+ * encoded form as opaque, and pass it back to get the following page.
+ */
+public record EnrolleeSearchCursor(String sortValue, UUID enrolleeId) {
+  private static final String SEPARATOR = "|";
+
+  public String encode() {
+    String raw = enrolleeId + SEPARATOR + sortValue;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /** decodes a cursor from its encoded form.  Throws IllegalArgumentException if the string is not a valid cursor */
+  public static EnrolleeSearchCursor decode(String encoded) {
+    String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+    int separatorIndex = raw.indexOf(SEPARATOR);
+    if (separatorIndex < 0) {
+      throw new IllegalArgumentException("Invalid search cursor");
+    }
+    return new EnrolleeSearchCursor(raw.substring(separatorIndex + 1), UUID.fromString(raw.substring(0, separatorIndex)));
+  }
+}
@@ -1,18 +1,26 @@
 package bio.terra.pearl.core.service.participant.search;
 
 import bio.terra.pearl.core.dao.participant.EnrolleeSearchDao;
+import bio.terra.pearl.core.dao.study.StudyEnvironmentDao;
 import bio.terra.pearl.core.model.EnvironmentName;
+import bio.terra.pearl.core.model.participant.EnrolleeSearchPage;
 import bio.terra.pearl.core.model.participant.EnrolleeSearchResult;
+import bio.terra.pearl.core.model.study.StudyEnvironment;
+import bio.terra.pearl.core.service.exception.NotFoundException;
 import bio.terra.pearl.core.service.participant.search.facets.sql.SqlSearchableFacet;
 import java.util.List;
 import org.springframework.stereotype.Service;
 
 @Service
 public class EnrolleeSearchService {
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
     private EnrolleeSearchDao enrolleeSearchDao;
+    private StudyEnvironmentDao studyEnvironmentDao;
 
-    public EnrolleeSearchService(EnrolleeSearchDao enrolleeSearchDao) {
+    public EnrolleeSearchService(EnrolleeSearchDao enrolleeSearchDao, StudyEnvironmentDao studyEnvironmentDao) {
         this.enrolleeSearchDao = enrolleeSearchDao;
+        this.studyEnvironmentDao = studyEnvironmentDao;
     }
 
     public List<EnrolleeSearchResult> search(String studyShortcode, EnvironmentName envName,
@@ -20,4 +28,31 @@ public class EnrolleeSearchService {
 
         return enrolleeSearchDao.search(studyShortcode, envName, facets);
     }
+
+    /**
+     * returns a single sorted page of matching enrollees.
+     * @param sortField the field to sort by (see EnrolleeSearchSort), or null to sort by creation time
+     * @param cursor the nextCursor of the previous page, or null for the first page
+     * @param pageSize the page size, or null for the default.  Sizes above MAX_PAGE_SIZE are reduced to it
+     */
+    public EnrolleeSearchPage searchPage(String studyShortcode, EnvironmentName envName,
+                                         List<SqlSearchableFacet> facets, String sortField, boolean ascending,
+                                         String cursor, Integer pageSize) {
+        StudyEnvironment studyEnv = findStudyEnv(studyShortcode, envName);
+        int clampedPageSize = pageSize == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+        EnrolleeSearchCursor decodedCursor = cursor == null ? null : EnrolleeSearchCursor.decode(cursor);
+        return enrolleeSearchDao.searchPage(studyEnv.getId(), facets, EnrolleeSearchSort.fromFieldName(sortField),
+                ascending, decodedCursor, clampedPageSize);
+    }
+
+    /** returns the total number of matching enrollees, for displaying alongside a page of results */
+    public int count(String studyShortcode, EnvironmentName envName, List<SqlSearchableFacet> facets) {
+        StudyEnvironment studyEnv = findStudyEnv(studyShortcode, envName);
+        return enrolleeSearchDao.count(studyEnv.getId(), facets);
+    }
+
+    private StudyEnvironment findStudyEnv(String studyShortcode, EnvironmentName envName) {
+        return studyEnvironmentDao.findByStudy(studyShortcode, envName)
+                .orElseThrow(() -> new NotFoundException("Study environment not found"));
+    }
 }
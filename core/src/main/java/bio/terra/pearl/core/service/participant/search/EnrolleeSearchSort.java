@@ -0,0 +1,69 @@
+package bio.terra.pearl.core.service.participant.search;
+
+import bio.terra.pearl.core.model.participant.EnrolleeSearchResult;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * The columns enrollee search results can be sorted by.  Each is paired with enrollee.id as a tiebreaker, so that
+ * together they give a total order for keyset pagination.  Nullable columns are coalesced, since a null sort value
+ * can't be compared against in a keyset clause.
+ */
+public enum EnrolleeSearchSort {
+  CREATED_AT("createdAt", "enrollee.created_at", true,
+      result -> result.getEnrollee().getCreatedAt()),
+  SHORTCODE("shortcode", "enrollee.shortcode", false,
+      result -> result.getEnrollee().getShortcode()),
+  GIVEN_NAME("givenName", "coalesce(profile.given_name, '')", false,
+      result -> result.getProfile() == null || result.getProfile().getGivenName() == null ? "" : result.getProfile().getGivenName()),
+  FAMILY_NAME("familyName", "coalesce(profile.family_name, '')", false,
+      result -> result.getProfile() == null || result.getProfile().getFamilyName() == null ? "" : result.getProfile().getFamilyName()),
+  LAST_LOGIN("lastLogin", "coalesce(participant_user.last_login, 'epoch'::timestamp)", true,
+      result -> result.getParticipantUser() == null || result.getParticipantUser().getLastLogin() == null ?
+          Instant.EPOCH : result.getParticipantUser().getLastLogin());
+
+  private final String fieldName;
+  private final String sqlExpression;
+  private final boolean isTimestamp;
+  private final Function<EnrolleeSearchResult, Object> valueGetter;
+
+  EnrolleeSearchSort(String fieldName, String sqlExpression, boolean isTimestamp,
+                     Function<EnrolleeSearchResult, Object> valueGetter) {
+    this.fieldName = fieldName;
+    this.sqlExpression = sqlExpression;
+    this.isTimestamp = isTimestamp;
+    this.valueGetter = valueGetter;
+  }
+
+  public String getSqlExpression() {
+    return sqlExpression;
+  }
+
+  /** the sort value of the given result, as a string suitable for a cursor */
+  public String getCursorValue(EnrolleeSearchResult result) {
+    return valueGetter.apply(result).toString();
+  }
+
+  /** converts a cursor value back into the type the sort column should be bound as */
+  public Object parseCursorValue(String cursorValue) {
+    if (!isTimestamp) {
+      return cursorValue;
+    }
+    try {
+      return Instant.parse(cursorValue);
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException("Invalid search cursor", e);
+    }
+  }
+
+  /** returns the sort with the given field name, defaulting to CREATED_AT if the name is null */
+  public static EnrolleeSearchSort fromFieldName(String fieldName) {
+    if (fieldName == null) {
+      return CREATED_AT;
+    }
+    return Arrays.stream(values()).filter(sort -> sort.fieldName.equals(fieldName)).findFirst()
+        .orElseThrow(() -> new IllegalArgumentException("Unrecognized sort field: " + fieldName));
+  }
+}
@@ -10,6 +10,7 @@ import bio.terra.pearl.core.service.CrudService;
 import bio.terra.pearl.core.service.notification.NotificationConfigService;
 import bio.terra.pearl.core.service.participant.ParticipantUserService;
 import bio.terra.pearl.core.service.participant.PortalParticipantUserService;
+import bio.terra.pearl.core.service.site.SiteContentService;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -29,6 +30,7 @@ public class PortalEnvironmentService extends CrudService<PortalEnvironment, Por
     private NotificationConfigService notificationConfigService;
     private MailingListContactService mailingListContactService;
     private DataChangeRecordService dataChangeRecordService;
+    private SiteContentService siteContentService;
 
     public PortalEnvironmentService(PortalEnvironmentDao portalEnvironmentDao,
                                     PortalEnvironmentConfigService portalEnvironmentConfigService,
@@ -37,7 +39,8 @@ public class PortalEnvironmentService extends CrudService<PortalEnvironment, Por
                                     PreregistrationResponseDao preregistrationResponseDao,
                                     NotificationConfigService notificationConfigService,
                                     MailingListContactService mailingListContactService,
-                                    DataChangeRecordService dataChangeRecordService) {
+                                    DataChangeRecordService dataChangeRecordService,
+                                    SiteContentService siteContentService) {
         super(portalEnvironmentDao);
         this.portalEnvironmentConfigService = portalEnvironmentConfigService;
         this.portalParticipantUserService = portalParticipantUserService;
@@ -46,6 +49,7 @@ public class PortalEnvironmentService extends CrudService<PortalEnvironment, Por
         this.notificationConfigService = notificationConfigService;
         this.mailingListContactService = mailingListContactService;
         this.dataChangeRecordService = dataChangeRecordService;
+        this.siteContentService = siteContentService;
     }
 
     public List<PortalEnvironment> findByPortal(UUID portalId) {
@@ -56,11 +60,17 @@ public class PortalEnvironmentService extends CrudService<PortalEnvironment, Por
         return dao.findOne(portalShortcode, environmentName);
     }
 
-    /** loads a portal environment with everything needed to render the participant-facing site */
+    /**
+     * loads a portal environment with everything needed to render the participant-facing site.  The site content
+     * comes from the SiteContentService cache, and must not be modified
+     */
     public Optional<PortalEnvironment> loadWithParticipantSiteContent(String portalShortcode,
                                                                        EnvironmentName environmentName,
                                                                        String language) {
-        return dao.loadWithSiteContent(portalShortcode, environmentName, language);
+        Optional<PortalEnvironment> portalEnvOpt = dao.loadWithConfigAndPreRegSurvey(portalShortcode, environmentName);
+        portalEnvOpt.ifPresent(portalEnv -> portalEnv.setSiteContent(
+                siteContentService.findOneFull(portalEnv.getSiteContentId(), language).orElse(null)));
+        return portalEnvOpt;
     }
 
     /** loads a portal environment with everything needed to render the participant-facing site */
@@ -113,6 +113,14 @@ public class PortalService extends CrudService<Portal, PortalDao> {
         return dao.fullLoad(portal, language);
     }
 
+    /**
+     * returns a hash of everything shown on the participant-facing site for the portal environment, for checking
+     * whether a cached copy of loadWithParticipantSiteContent is still current
+     */
+    public Optional<String> findParticipantContentVersion(UUID portalId, EnvironmentName environmentName) {
+        return dao.findParticipantContentVersion(portalId, environmentName);
+    }
+
     /** loads a portal environment with everything needed to render the participant-facing site */
     public Optional<Portal> loadWithParticipantSiteContent(String shortcodeOrHostname,
                                                                        EnvironmentName environmentName,
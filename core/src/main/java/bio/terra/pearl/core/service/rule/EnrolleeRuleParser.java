@@ -0,0 +1,315 @@
+package bio.terra.pearl.core.service.rule;
+
+import bio.terra.pearl.core.model.participant.Enrollee;
+import bio.terra.pearl.core.model.participant.MailingAddress;
+import bio.terra.pearl.core.model.participant.Profile;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static java.util.Map.entry;
+
+/**
+ * Parses rule strings into predicates over EnrolleeRuleData.  Rules use the same expression syntax as survey
+ * visibleIf expressions, with variables naming enrollee and profile properties, e.g.
+ *
+ *   {profile.sexAtBirth} = 'female' && ({profile.mailingAddress.state} = 'MA' || {enrollee.consented})
+ *
+ * Supported operators are =, !=, <, <=, >, >=, contains, &&, ||, and !, with "and", "or" and "not" as synonyms.
+ * Literals are quoted strings, true, false, and null.  Dates are compared against 'yyyy-mm-dd' strings.
+ *
+ * All the work of resolving variables and converting literals is done here, so the returned predicates just read
+ * properties and compare them to constants, without allocating.
+ */
+public class EnrolleeRuleParser {
+    private enum ValueType { STRING, BOOLEAN, DATE }
+
+    private record Variable(ValueType type, Function<EnrolleeRuleData, Object> getter) {}
+
+    private static final Map<String, Variable> VARIABLES = Map.ofEntries(
+            entry("enrollee.shortcode", enrolleeVariable(ValueType.STRING, Enrollee::getShortcode)),
+            entry("enrollee.consented", enrolleeVariable(ValueType.BOOLEAN, Enrollee::isConsented)),
+            entry("profile.givenName", profileVariable(ValueType.STRING, Profile::getGivenName)),
+            entry("profile.familyName", profileVariable(ValueType.STRING, Profile::getFamilyName)),
+            entry("profile.contactEmail", profileVariable(ValueType.STRING, Profile::getContactEmail)),
+            entry("profile.phoneNumber", profileVariable(ValueType.STRING, Profile::getPhoneNumber)),
+            entry("profile.sexAtBirth", profileVariable(ValueType.STRING, Profile::getSexAtBirth)),
+            entry("profile.birthDate", profileVariable(ValueType.DATE, Profile::getBirthDate)),
+            entry("profile.doNotEmail", profileVariable(ValueType.BOOLEAN, Profile::isDoNotEmail)),
+            entry("profile.doNotEmailSolicit", profileVariable(ValueType.BOOLEAN, Profile::isDoNotEmailSolicit)),
+            entry("profile.mailingAddress.city", addressVariable(MailingAddress::getCity)),
+            entry("profile.mailingAddress.state", addressVariable(MailingAddress::getState)),
+            entry("profile.mailingAddress.postalCode", addressVariable(MailingAddress::getPostalCode)),
+            entry("profile.mailingAddress.country", addressVariable(MailingAddress::getCountry))
+    );
+
+    private enum TokenType { VARIABLE, STRING, TRUE, FALSE, NULL, AND, OR, NOT, LPAREN, RPAREN,
+        EQ, NE, LT, LE, GT, GE, CONTAINS, END }
+
+    private record Token(TokenType type, String text) {}
+
+    private final String rule;
+    private final List<Token> tokens;
+    private int position = 0;
+
+    private EnrolleeRuleParser(String rule) {
+        this.rule = rule;
+        this.tokens = tokenize(rule);
+    }
+
+    /** parses the rule, throwing RuleParsingException if it is not valid */
+    public static Predicate<EnrolleeRuleData> parse(String rule) {
+        EnrolleeRuleParser parser = new EnrolleeRuleParser(rule);
+        Predicate<EnrolleeRuleData> predicate = parser.parseOr();
+        parser.expect(TokenType.END);
+        return predicate;
+    }
+
+    private Predicate<EnrolleeRuleData> parseOr() {
+        Predicate<EnrolleeRuleData> predicate = parseAnd();
+        while (accept(TokenType.OR)) {
+            predicate = predicate.or(parseAnd());
+        }
+        return predicate;
+    }
+
+    private Predicate<EnrolleeRuleData> parseAnd() {
+        Predicate<EnrolleeRuleData> predicate = parseUnary();
+        while (accept(TokenType.AND)) {
+            predicate = predicate.and(parseUnary());
+        }
+        return predicate;
+    }
+
+    private Predicate<EnrolleeRuleData> parseUnary() {
+        if (accept(TokenType.NOT)) {
+            return parseUnary().negate();
+        }
+        if (accept(TokenType.LPAREN)) {
+            Predicate<EnrolleeRuleData> predicate = parseOr();
+            expect(TokenType.RPAREN);
+            return predicate;
+        }
+        return parseComparison();
+    }
+
+    private Predicate<EnrolleeRuleData> parseComparison() {
+        Token variableToken = expect(TokenType.VARIABLE);
+        Variable variable = VARIABLES.get(variableToken.text());
+        if (variable == null) {
+            throw new RuleParsingException(rule, "unknown variable {%s}".formatted(variableToken.text()));
+        }
+        Function<EnrolleeRuleData, Object> getter = variable.getter();
+        TokenType operator = peek().type();
+        if (!isComparisonOperator(operator)) {
+            // a variable on its own is a test of whether it is true
+            if (variable.type() != ValueType.BOOLEAN) {
+                throw new RuleParsingException(rule, "{%s} is not true/false".formatted(variableToken.text()));
+            }
+            return data -> Boolean.TRUE.equals(getter.apply(data));
+        }
+        position++;
+        Object constant = parseLiteral(variable, variableToken.text());
+        return switch (operator) {
+            case EQ -> data -> Objects.equals(getter.apply(data), constant);
+            case NE -> data -> !Objects.equals(getter.apply(data), constant);
+            case CONTAINS -> {
+                if (variable.type() != ValueType.STRING || constant == null) {
+                    throw new RuleParsingException(rule, "contains requires a text variable and value");
+                }
+                String substring = (String) constant;
+                yield data -> {
+                    Object value = getter.apply(data);
+                    return value != null && ((String) value).contains(substring);
+                };
+            }
+            default -> orderingPredicate(operator, variable, constant);
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate<EnrolleeRuleData> orderingPredicate(TokenType operator, Variable variable, Object constant) {
+        if (variable.type() == ValueType.BOOLEAN || constant == null) {
+            throw new RuleParsingException(rule, "<, <=, >, and >= require a text or date variable and value");
+        }
+        Function<EnrolleeRuleData, Object> getter = variable.getter();
+        Comparable comparableConstant = (Comparable) constant;
+        return switch (operator) {
+            case LT -> data -> {
+                Object value = getter.apply(data);
+                return value != null && ((Comparable) value).compareTo(comparableConstant) < 0;
+            };
+            case LE -> data -> {
+                Object value = getter.apply(data);
+                return value != null && ((Comparable) value).compareTo(comparableConstant) <= 0;
+            };
+            case GT -> data -> {
+                Object value = getter.apply(data);
+                return value != null && ((Comparable) value).compareTo(comparableConstant) > 0;
+            };
+            case GE -> data -> {
+                Object value = getter.apply(data);
+                return value != null && ((Comparable) value).compareTo(comparableConstant) >= 0;
+            };
+            default -> throw new IllegalStateException("not an ordering operator: " + operator);
+        };
+    }
+
+    /** reads a literal, converting it to the type of the variable it is compared with */
+    private Object parseLiteral(Variable variable, String variableName) {
+        Token token = next();
+        if (token.type() == TokenType.NULL) {
+            return null;
+        }
+        switch (variable.type()) {
+            case BOOLEAN -> {
+                if (token.type() == TokenType.TRUE || token.type() == TokenType.FALSE) {
+                    return token.type() == TokenType.TRUE;
+                }
+            }
+            case STRING -> {
+                if (token.type() == TokenType.STRING) {
+                    return token.text();
+                }
+            }
+            case DATE -> {
+                if (token.type() == TokenType.STRING) {
+                    try {
+                        return LocalDate.parse(token.text());
+                    } catch (DateTimeParseException e) {
+                        throw new RuleParsingException(rule, "'%s' is not a yyyy-mm-dd date".formatted(token.text()));
+                    }
+                }
+            }
+        }
+        throw new RuleParsingException(rule, "'%s' cannot be compared with {%s}".formatted(token.text(), variableName));
+    }
+
+    private static boolean isComparisonOperator(TokenType type) {
+        return switch (type) {
+            case EQ, NE, LT, LE, GT, GE, CONTAINS -> true;
+            default -> false;
+        };
+    }
+
+    private Token peek() {
+        return tokens.get(position);
+    }
+
+    private Token next() {
+        Token token = tokens.get(position);
+        if (token.type() != TokenType.END) {
+            position++;
+        }
+        return token;
+    }
+
+    private boolean accept(TokenType type) {
+        if (peek().type() == type) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private Token expect(TokenType type) {
+        Token token = peek();
+        if (token.type() != type) {
+            throw new RuleParsingException(rule, "expected %s but found '%s'".formatted(type, token.text()));
+        }
+        return next();
+    }
+
+    private List<Token> tokenize(String rule) {
+        List<Token> result = new ArrayList<>();
+        int i = 0;
+        while (i < rule.length()) {
+            char c = rule.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '{') {
+                int end = rule.indexOf('}', i);
+                if (end < 0) {
+                    throw new RuleParsingException(rule, "unclosed {");
+                }
+                result.add(new Token(TokenType.VARIABLE, rule.substring(i + 1, end).trim()));
+                i = end + 1;
+            } else if (c == '\'' || c == '"') {
+                int end = rule.indexOf(c, i + 1);
+                if (end < 0) {
+                    throw new RuleParsingException(rule, "unclosed quote");
+                }
+                result.add(new Token(TokenType.STRING, rule.substring(i + 1, end)));
+                i = end + 1;
+            } else if (Character.isLetter(c)) {
+                int end = i;
+                while (end < rule.length() && Character.isLetter(rule.charAt(end))) {
+                    end++;
+                }
+                String word = rule.substring(i, end);
+                result.add(new Token(keywordType(word), word));
+                i = end;
+            } else {
+                String twoChars = rule.substring(i, Math.min(i + 2, rule.length()));
+                TokenType twoCharType = switch (twoChars) {
+                    case "==" -> TokenType.EQ;
+                    case "!=" -> TokenType.NE;
+                    case "<=" -> TokenType.LE;
+                    case ">=" -> TokenType.GE;
+                    case "&&" -> TokenType.AND;
+                    case "||" -> TokenType.OR;
+                    default -> null;
+                };
+                if (twoCharType != null) {
+                    result.add(new Token(twoCharType, twoChars));
+                    i += 2;
+                    continue;
+                }
+                TokenType oneCharType = switch (c) {
+                    case '=' -> TokenType.EQ;
+                    case '<' -> TokenType.LT;
+                    case '>' -> TokenType.GT;
+                    case '!' -> TokenType.NOT;
+                    case '(' -> TokenType.LPAREN;
+                    case ')' -> TokenType.RPAREN;
+                    default -> throw new RuleParsingException(rule, "unexpected character '%s'".formatted(c));
+                };
+                result.add(new Token(oneCharType, String.valueOf(c)));
+                i++;
+            }
+        }
+        result.add(new Token(TokenType.END, "end of rule"));
+        return result;
+    }
+
+    private TokenType keywordType(String word) {
+        return switch (word.toLowerCase()) {
+            case "true" -> TokenType.TRUE;
+            case "false" -> TokenType.FALSE;
+            case "null" -> TokenType.NULL;
+            case "and" -> TokenType.AND;
+            case "or" -> TokenType.OR;
+            case "not" -> TokenType.NOT;
+            case "contains" -> TokenType.CONTAINS;
+            default -> throw new RuleParsingException(rule, "unexpected word '%s'".formatted(word));
+        };
+    }
+
+    private static Variable enrolleeVariable(ValueType type, Function<Enrollee, Object> getter) {
+        return new Variable(type, data -> data.enrollee() == null ? null : getter.apply(data.enrollee()));
+    }
+
+    private static Variable profileVariable(ValueType type, Function<Profile, Object> getter) {
+        return new Variable(type, data -> data.profile() == null ? null : getter.apply(data.profile()));
+    }
+
+    private static Variable addressVariable(Function<MailingAddress, Object> getter) {
+        return new Variable(ValueType.STRING, data -> data.profile() == null || data.profile().getMailingAddress() == null
+                ? null : getter.apply(data.profile().getMailingAddress()));
+    }
+}
@@ -5,7 +5,10 @@ import bio.terra.pearl.core.model.participant.Profile;
 import bio.terra.pearl.core.service.participant.EnrolleeService;
 import bio.terra.pearl.core.service.participant.ProfileService;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
@@ -26,18 +29,15 @@ public class EnrolleeRuleService {
     }
 
     /**
-     * useful for bulk-fetching enrollees for processing
-     * this isn't terribly optimized -- we could do the join in the DB.  But this is assuming that the number of enrollees
-     *  is ~5-30, not 1000+, and so the main goal is just making sure we only do 2 total DB roundtrips
+     * useful for bulk-fetching enrollees for processing, such as sending reminders.  Uses 2 total DB roundtrips,
+     * and matches profiles to enrollees by id, so it is suitable for pages of thousands of enrollees
      */
     public List<EnrolleeRuleData> fetchData(List<UUID> enrolleeIds) {
         List<Enrollee> enrollees = enrolleeService.findAll(enrolleeIds);
-        List<Profile> profiles = profileService.findAll(enrollees.stream().map(Enrollee::getProfileId).toList());
-        List<EnrolleeRuleData> ruleData = enrollees.stream().map(enrollee -> {
-            Profile profile = profiles.stream().filter(p ->
-                    p.getId().equals(enrollee.getProfileId())).findFirst().orElse(null);
-            return new EnrolleeRuleData(enrollee, profile);
-        }).toList();
+        Map<UUID, Profile> profilesById = profileService.findAll(enrollees.stream().map(Enrollee::getProfileId).toList())
+                .stream().collect(Collectors.toMap(Profile::getId, Function.identity()));
+        List<EnrolleeRuleData> ruleData = enrollees.stream().map(enrollee ->
+                new EnrolleeRuleData(enrollee, profilesById.get(enrollee.getProfileId()))).toList();
         return ruleData;
     }
 }
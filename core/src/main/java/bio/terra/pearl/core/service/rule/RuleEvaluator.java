@@ -1,13 +1,52 @@
 package bio.terra.pearl.core.service.rule;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import lombok.extern.slf4j.Slf4j;
+
 /**
- * Placeholder class for server-side rule evaluation -- this will likely get transformed as we adopt a 3rd party
- * rules engine like EasyRule
+ * Server-side rule evaluation.  Rules are parsed by EnrolleeRuleParser the first time they are seen, and the
+ * compiled predicates are cached by rule string, since the same few rules (from notification configs, study
+ * consents, and study surveys) are evaluated against many enrollees.
  */
+@Slf4j
 public class RuleEvaluator {
-    /** return whether the rule is satisfied by the given data */
+    /** rules come from configuration, so there are few distinct ones -- this is just a safeguard */
+    private static final int MAX_CACHED_RULES = 10000;
+    private static final Predicate<EnrolleeRuleData> ALWAYS_TRUE = ruleData -> true;
+    private static final Predicate<EnrolleeRuleData> ALWAYS_FALSE = ruleData -> false;
+    private static final Map<String, Predicate<EnrolleeRuleData>> compiledRules = new ConcurrentHashMap<>();
+
+    /** return whether the rule is satisfied by the given data.  An empty rule is always satisfied */
     public static boolean evaluateEnrolleeRule(String rule, EnrolleeRuleData ruleData) {
-        // TODO implement
-        return true;
+        return compile(rule).test(ruleData);
+    }
+
+    /**
+     * returns the compiled rule.  Invalid rules are logged and never satisfied, so that a misconfigured rule can't
+     * break the operation (e.g. an enrollment) that triggered it.  Use EnrolleeRuleParser.parse to validate a rule.
+     */
+    public static Predicate<EnrolleeRuleData> compile(String rule) {
+        if (rule == null || rule.isBlank()) {
+            return ALWAYS_TRUE;
+        }
+        Predicate<EnrolleeRuleData> compiled = compiledRules.get(rule);
+        if (compiled != null) {
+            return compiled;
+        }
+        if (compiledRules.size() >= MAX_CACHED_RULES) {
+            compiledRules.clear();
+        }
+        return compiledRules.computeIfAbsent(rule, RuleEvaluator::parseOrNeverSatisfied);
+    }
+
+    private static Predicate<EnrolleeRuleData> parseOrNeverSatisfied(String rule) {
+        try {
+            return EnrolleeRuleParser.parse(rule);
+        } catch (RuleParsingException e) {
+            log.error("Rule will never be satisfied: {}", e.getMessage());
+            return ALWAYS_FALSE;
+        }
     }
 }
@@ -0,0 +1,10 @@
+package bio.terra.pearl.core.service.rule;
+
+import bio.terra.pearl.core.service.exception.ValidationException;
+
+/** thrown when a rule string is not a valid rule */
+public class RuleParsingException extends ValidationException {
+    public RuleParsingException(String rule, String message) {
+        super("Invalid rule \"%s\": %s".formatted(rule, message));
+    }
+}
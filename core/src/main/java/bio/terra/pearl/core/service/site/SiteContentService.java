@@ -6,23 +6,45 @@ import bio.terra.pearl.core.model.site.*;
 import bio.terra.pearl.core.service.CascadeProperty;
 import bio.terra.pearl.core.service.ImmutableEntityService;
 import bio.terra.pearl.core.service.VersionedEntityService;
+import bio.terra.pearl.core.service.cache.VersionedEntityCache;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.UnaryOperator;
 
 @Service
 public class SiteContentService extends VersionedEntityService<SiteContent, SiteContentDao> {
+    /** total characters of html section content to hold in memory */
+    private static final long CACHE_MAX_WEIGHT = 20_000_000;
     private LocalizedSiteContentService localizedSiteContentService;
+    /**
+     * fully hydrated site contents by id and language.  These are large object graphs that are only serialized for the
+     * participant site, so they are shared rather than copied -- callers must not modify them
+     */
+    private final VersionedEntityCache<SiteContentLanguage, SiteContent> fullContentCache =
+            new VersionedEntityCache<>("siteContent", CACHE_MAX_WEIGHT, VersionedEntityCache.DEFAULT_TIME_TO_LIVE,
+                    SiteContentService::contentWeight, UnaryOperator.identity());
 
     public SiteContentService(SiteContentDao dao, LocalizedSiteContentService localizedSiteContentService) {
         super(dao);
         this.localizedSiteContentService = localizedSiteContentService;
     }
 
+    /**
+     * returns a fully hydrated SiteContent with all children of the given language attached, from the cache if
+     * possible.  The returned object is shared, and must not be modified.
+     */
+    public Optional<SiteContent> findOneFull(UUID siteContentId, String language) {
+        return fullContentCache.get(new SiteContentLanguage(siteContentId, language),
+                key -> dao.findOneFull(key.siteContentId(), key.language()));
+    }
+
     /** attaches all the content (pages, sections, navbar) children for the given language to the SiteContent */
     public void attachChildContent(SiteContent siteContent, String language) {
         dao.attachChildContent(siteContent, language);
@@ -55,6 +77,7 @@ public class SiteContentService extends VersionedEntityService<SiteContent, Site
 
     @Override
     public void delete(UUID siteContentId,  Set<CascadeProperty> cascade) {
+        invalidateCached(siteContentId);
         List<LocalizedSiteContent> localSites = localizedSiteContentService.findBySiteContent(siteContentId);
         for (LocalizedSiteContent localSite : localSites) {
             localizedSiteContentService.delete(localSite.getId(), cascade);
@@ -62,6 +85,12 @@ public class SiteContentService extends VersionedEntityService<SiteContent, Site
         dao.delete(siteContentId);
     }
 
+    @Override
+    public void invalidateCached(UUID id) {
+        super.invalidateCached(id);
+        fullContentCache.invalidateIf(siteContent -> id.equals(siteContent.getId()));
+    }
+
     public void deleteByPortalId(UUID portalId) {
         List<SiteContent> siteContents = dao.findByPortalId(portalId);
         for (SiteContent siteContent : siteContents) {
@@ -108,4 +137,31 @@ public class SiteContentService extends VersionedEntityService<SiteContent, Site
             section.setHtmlPageId(null);
         }
     }
+
+    /** weighs a site content by the html it holds, which dominates its size */
+    private static long contentWeight(SiteContent siteContent) {
+        long weight = 1;
+        for (LocalizedSiteContent localSite : siteContent.getLocalizedSiteContents()) {
+            List<HtmlSection> sections = new ArrayList<>();
+            sections.add(localSite.getFooterSection());
+            localSite.getNavbarItems().stream()
+                    .map(NavbarItem::getHtmlPage)
+                    .filter(Objects::nonNull)
+                    .forEach(page -> sections.addAll(page.getSections()));
+            if (localSite.getLandingPage() != null) {
+                sections.addAll(localSite.getLandingPage().getSections());
+            }
+            weight += sections.stream()
+                    .filter(Objects::nonNull)
+                    .mapToLong(section -> length(section.getRawContent()) + length(section.getSectionConfig()))
+                    .sum();
+        }
+        return weight;
+    }
+
+    private static long length(String text) {
+        return text == null ? 0 : text.length();
+    }
+
+    private record SiteContentLanguage(UUID siteContentId, String language) {}
 }
@@ -4,25 +4,40 @@ import bio.terra.pearl.core.dao.site.SiteImageDao;
 import bio.terra.pearl.core.model.site.SiteImage;
 import bio.terra.pearl.core.model.site.SiteImageMetadata;
 import bio.terra.pearl.core.service.ImmutableEntityService;
+import bio.terra.pearl.core.service.cache.VersionedEntityCache;
 import bio.terra.pearl.core.service.portal.PortalService;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URLConnection;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
 
 @Component
 public class SiteImageService extends ImmutableEntityService<SiteImage, SiteImageDao> {
     public static final List<String> ALLOWED_EXTENSIONS = Arrays.asList("png", "jpeg", "jpg", "svg", "gif", "webp", "ico");
+    /** total bytes of image data to hold in memory */
+    private static final long CACHE_MAX_BYTES = 100_000_000;
     private PortalService portalService;
+    /** images ready to serve.  A given version of an image never changes, so these only need clearing on deletion */
+    private final VersionedEntityCache<SiteImageKey, SiteImageContent> contentCache =
+            new VersionedEntityCache<>("siteImage", CACHE_MAX_BYTES, VersionedEntityCache.DEFAULT_TIME_TO_LIVE,
+                    SiteImageContent::size, UnaryOperator.identity());
+
     public SiteImageService(SiteImageDao dao, @Lazy PortalService portalService) {
         super(dao);
         this.portalService = portalService;
     }
 
     public void deleteByPortalShortcode(String portalShortcode) {
+        contentCache.invalidateAll();
         dao.deleteByPortalShortcode(portalShortcode);
     }
 
@@ -30,6 +45,16 @@ public class SiteImageService extends ImmutableEntityService<SiteImage, SiteImag
         return dao.findOne(portalShortcode, cleanFileName, version);
     }
 
+    /**
+     * returns the image data ready to be served, along with its content type and ETag, from the cache if possible.
+     * The returned arrays are shared and must not be modified.
+     */
+    public Optional<SiteImageContent> findContent(String portalShortcode, String cleanFileName, int version) {
+        return contentCache.get(new SiteImageKey(portalShortcode, cleanFileName, version),
+                key -> dao.findOne(key.portalShortcode(), key.cleanFileName(), key.version())
+                        .map(SiteImageService::toContent));
+    }
+
     public Optional<SiteImage> findOneLatestVersion(String portalShortcode, String cleanFileName) {
         return dao.findOneLatestVersion(portalShortcode, cleanFileName);
     }
@@ -80,4 +105,91 @@ public class SiteImageService extends ImmutableEntityService<SiteImage, SiteImag
     public int getNextVersion(String cleanFileName, String portalShortcode) {
         return dao.getNextVersion(cleanFileName, portalShortcode);
     }
+
+    protected static SiteImageContent toContent(SiteImage image) {
+        byte[] data = image.getData();
+        String hash = DigestUtils.md5DigestAsHex(data);
+        String contentType = getContentType(image.getCleanFileName());
+        byte[] gzippedData = null;
+        if (image.getCleanFileName().endsWith(".svg")) {
+            // svgs are text and compress well, unlike the other allowed formats, which are already compressed
+            gzippedData = gzip(data);
+            if (gzippedData.length >= data.length) {
+                gzippedData = null;
+            }
+        }
+        // strong etags have to differ between encodings of the same image, so caches don't mix them up
+        return new SiteImageContent(data, gzippedData, contentType, "\"" + hash + "\"",
+                gzippedData == null ? null : "\"" + hash + "-gzip\"");
+    }
+
+    /**
+     * whether an Accept-Encoding header value accepts gzip.  An explicit q=0 refuses it, and a wildcard accepts it
+     * unless gzip is listed separately.
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double wildcardQuality = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase();
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzipQuality = quality;
+            } else if (name.equals("*")) {
+                wildcardQuality = quality;
+            }
+        }
+        if (gzipQuality != null) {
+            return gzipQuality > 0;
+        }
+        return wildcardQuality != null && wildcardQuality > 0;
+    }
+
+    protected static String getContentType(String cleanFileName) {
+        if (cleanFileName.endsWith(".ico")) {
+            return "image/x-icon";
+        }
+        if (cleanFileName.endsWith(".svg")) {
+            return "image/svg+xml";
+        }
+        String contentType = URLConnection.guessContentTypeFromName(cleanFileName);
+        return contentType != null ? contentType : "application/octet-stream";
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(data.length / 2);
+        try (GZIPOutputStream gzipStream = new GZIPOutputStream(compressed)) {
+            gzipStream.write(data);
+        } catch (IOException e) {
+            throw new RuntimeException("Error compressing image", e);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * an image ready to be served.  gzippedData is a precompressed copy for formats that benefit from it, or null,
+     * and gzippedEtag is its etag
+     */
+    public record SiteImageContent(byte[] data, byte[] gzippedData, String contentType, String etag,
+                                   String gzippedEtag) {
+        public long size() {
+            return data.length + (gzippedData == null ? 0 : gzippedData.length);
+        }
+    }
+
+    private record SiteImageKey(String portalShortcode, String cleanFileName, int version) {}
 }
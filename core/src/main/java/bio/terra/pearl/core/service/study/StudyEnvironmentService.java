@@ -1,5 +1,6 @@
 package bio.terra.pearl.core.service.study;
 
+import bio.terra.pearl.core.dao.metrics.MetricsDao;
 import bio.terra.pearl.core.dao.study.StudyEnvironmentConsentDao;
 import bio.terra.pearl.core.dao.study.StudyEnvironmentDao;
 import bio.terra.pearl.core.dao.study.StudyEnvironmentSurveyDao;
@@ -14,6 +15,7 @@ import bio.terra.pearl.core.service.CascadeProperty;
 import bio.terra.pearl.core.service.CrudService;
 import bio.terra.pearl.core.service.datarepo.DataRepoJobService;
 import bio.terra.pearl.core.service.datarepo.DatasetService;
+import bio.terra.pearl.core.service.export.ExportJobService;
 import bio.terra.pearl.core.service.kit.StudyEnvironmentKitTypeService;
 import bio.terra.pearl.core.service.notification.NotificationConfigService;
 import bio.terra.pearl.core.service.participant.EnrolleeService;
@@ -34,9 +36,11 @@ public class StudyEnvironmentService extends CrudService<StudyEnvironment, Study
     private NotificationConfigService notificationConfigService;
     private DatasetService datasetService;
     private DataRepoJobService dataRepoJobService;
+    private ExportJobService exportJobService;
     private WithdrawnEnrolleeService withdrawnEnrolleeService;
     private AdminTaskService adminTaskService;
     private StudyEnvironmentKitTypeService studyEnvironmentKitTypeService;
+    private MetricsDao metricsDao;
 
 
     public StudyEnvironmentService(StudyEnvironmentDao studyEnvironmentDao,
@@ -48,8 +52,10 @@ public class StudyEnvironmentService extends CrudService<StudyEnvironment, Study
                                    NotificationConfigService notificationConfigService,
                                    DatasetService datasetService,
                                    DataRepoJobService dataRepoJobService,
+                                   ExportJobService exportJobService,
                                    WithdrawnEnrolleeService withdrawnEnrolleeService,
-                                   AdminTaskService adminTaskService, StudyEnvironmentKitTypeService studyEnvironmentKitTypeService) {
+                                   AdminTaskService adminTaskService, StudyEnvironmentKitTypeService studyEnvironmentKitTypeService,
+                                   MetricsDao metricsDao) {
         super(studyEnvironmentDao);
         this.studyEnvironmentSurveyDao = studyEnvironmentSurveyDao;
         this.studyEnvironmentConfigService =  studyEnvironmentConfigService;
@@ -59,9 +65,11 @@ public class StudyEnvironmentService extends CrudService<StudyEnvironment, Study
         this.notificationConfigService = notificationConfigService;
         this.datasetService = datasetService;
         this.dataRepoJobService = dataRepoJobService;
+        this.exportJobService = exportJobService;
         this.withdrawnEnrolleeService = withdrawnEnrolleeService;
         this.adminTaskService = adminTaskService;
         this.studyEnvironmentKitTypeService = studyEnvironmentKitTypeService;
+        this.metricsDao = metricsDao;
     }
 
     public List<StudyEnvironment> findByStudy(UUID studyId) {
@@ -111,10 +119,12 @@ public class StudyEnvironmentService extends CrudService<StudyEnvironment, Study
         notificationConfigService.deleteByStudyEnvironmentId(studyEnvironmentId);
         preEnrollmentResponseDao.deleteByStudyEnvironmentId(studyEnvironmentId);
         dataRepoJobService.deleteByStudyEnvironmentId(studyEnvironmentId);
+        exportJobService.deleteByStudyEnvironmentId(studyEnvironmentId);
         datasetService.deleteByStudyEnvironmentId(studyEnvironmentId);
         withdrawnEnrolleeService.deleteByStudyEnvironmentId(studyEnvironmentId);
         adminTaskService.deleteByStudyEnvironmentId(studyEnvironmentId, null);
         studyEnvironmentKitTypeService.deleteByStudyEnvironmentId(studyEnvironmentId, cascade);
+        metricsDao.deleteRollupsByStudyEnvironmentId(studyEnvironmentId);
         dao.delete(studyEnvironmentId);
         if (studyEnv.getStudyEnvironmentConfigId() != null) {
             studyEnvironmentConfigService.delete(studyEnv.getStudyEnvironmentConfigId());
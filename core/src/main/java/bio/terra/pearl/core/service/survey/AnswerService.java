@@ -3,6 +3,7 @@ package bio.terra.pearl.core.service.survey;
 import bio.terra.pearl.core.dao.survey.AnswerDao;
 import bio.terra.pearl.core.model.survey.Answer;
 import bio.terra.pearl.core.service.CrudService;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -30,7 +31,16 @@ public class AnswerService extends CrudService<Answer, AnswerDao> {
         return dao.findByEnrolleeAndSurvey(enrolleeID, surveyStableId);
     }
 
+    /** creates or updates the answers with a single statement -- see AnswerDao.upsertAllForResponse */
+    public List<Answer> upsertAllForResponse(List<Answer> answers) {
+        return dao.upsertAllForResponse(answers);
+    }
+
     public void deleteByResponseId(UUID responseId) {
         dao.deleteByResponseId(responseId);
     }
+
+    public void deleteByEnrolleeIds(Collection<UUID> enrolleeIds) {
+        dao.deleteByEnrolleeIds(enrolleeIds);
+    }
 }
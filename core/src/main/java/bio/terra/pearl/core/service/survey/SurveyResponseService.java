@@ -51,6 +51,10 @@ public class SurveyResponseService extends ImmutableEntityService<SurveyResponse
         return dao.findByEnrolleeId(enrolleeId);
     }
 
+    public Map<UUID, List<SurveyResponse>> findByEnrolleeIds(Collection<UUID> enrolleeIds) {
+        return dao.findByEnrolleeIds(enrolleeIds);
+    }
+
     public Optional<SurveyResponse> findOneWithAnswers(UUID responseId) {
         return dao.findOneWithAnswers(responseId);
     }
@@ -192,24 +196,34 @@ public class SurveyResponseService extends ImmutableEntityService<SurveyResponse
             existingAnswerMap.put(answer.getQuestionStableId(), answer);
         }
         List<DataChangeRecord> changeRecords = new ArrayList<>();
-        List<Answer> updatedAnswers = answers.stream().map(answer -> {
+        // the new and changed answers, by questionStableId.  If a question is submitted twice, the last one wins
+        Map<String, Answer> answersToSave = new LinkedHashMap<>();
+        for (Answer answer : answers) {
             Answer existing = existingAnswerMap.get(answer.getQuestionStableId());
-            if (existing != null) {
-                return updateAnswer(existing, answer, response, survey, ppUser, changeRecords);
+            if (existing == null) {
+                answersToSave.put(answer.getQuestionStableId(), initializeNewAnswer(answer, response, survey, ppUser));
+            } else if (!existing.valuesEqual(answer)) {
+                // if the values are the same, don't bother with an update
+                answersToSave.put(answer.getQuestionStableId(),
+                        updateAnswer(existing, answer, response, survey, ppUser, changeRecords));
             }
-            return createAnswer(answer, response, survey, ppUser);
-        }).toList();
+        }
+        // save all the new and changed answers with a single statement, rather than a round trip per answer
+        List<Answer> savedAnswers = answerService.upsertAllForResponse(new ArrayList<>(answersToSave.values()));
+        Map<String, Answer> savedAnswerMap = new HashMap<>(existingAnswerMap);
+        for (Answer answer : savedAnswers) {
+            savedAnswerMap.put(answer.getQuestionStableId(), answer);
+        }
         dataChangeRecordService.bulkCreate(changeRecords);
-        return updatedAnswers;
+        return answers.stream().map(answer -> savedAnswerMap.get(answer.getQuestionStableId())).toList();
     }
 
-    @Transactional
-    public Answer updateAnswer(Answer existing, Answer updated, SurveyResponse response,
+    /**
+     * copies the updated values onto the existing answer, and adds a record of the change to changeRecords.
+     * This does not save the answer.
+     */
+    protected Answer updateAnswer(Answer existing, Answer updated, SurveyResponse response,
                                   Survey survey, PortalParticipantUser ppUser, List<DataChangeRecord> changeRecords) {
-        if (existing.valuesEqual(updated)) {
-            // if the values are the same, don't bother with an update
-            return existing;
-        }
         DataChangeRecord change = DataChangeRecord.builder()
                 .surveyId(survey.getId())
                 .enrolleeId(response.getEnrolleeId())
@@ -228,11 +242,12 @@ public class SurveyResponseService extends ImmutableEntityService<SurveyResponse
             existing.setSurveyVersion(survey.getVersion());
         }
         existing.copyValuesFrom(updated);
-        return answerService.update(existing);
+        return existing;
     }
 
-    private Answer createAnswer(Answer answer, SurveyResponse response,
-                                  Survey survey, PortalParticipantUser ppUser) {
+    /** attaches a newly submitted answer to the response and user.  This does not save the answer. */
+    private Answer initializeNewAnswer(Answer answer, SurveyResponse response,
+                                       Survey survey, PortalParticipantUser ppUser) {
         answer.setCreatingParticipantUserId(ppUser.getParticipantUserId());
         answer.setSurveyResponseId(response.getId());
         answer.setSurveyStableId(survey.getStableId());
@@ -242,7 +257,7 @@ public class SurveyResponseService extends ImmutableEntityService<SurveyResponse
             answer.setSurveyVersion(survey.getVersion());
         }
         answer.setEnrolleeId(response.getEnrolleeId());
-        return answerService.create(answer);
+        return answer;
     }
 
     @Override
@@ -251,6 +266,13 @@ public class SurveyResponseService extends ImmutableEntityService<SurveyResponse
         dao.delete(responseId);
     }
 
+    /** deletes all the enrollees' responses and their answers, with a statement for each table */
+    @Transactional
+    public void deleteByEnrolleeIds(Collection<UUID> enrolleeIds) {
+        answerService.deleteByEnrolleeIds(enrolleeIds);
+        dao.deleteByEnrolleeIds(enrolleeIds);
+    }
+
     public void validateResponse(Survey survey, ParticipantTask task, List<Answer> answers) {
         if (!survey.getStableId().equals(task.getTargetStableId())) {
             throw new IllegalArgumentException("submitted form does not match assigned task");
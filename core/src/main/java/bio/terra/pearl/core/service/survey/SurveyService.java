@@ -10,6 +10,7 @@ import bio.terra.pearl.core.model.survey.SurveyQuestionDefinition;
 import bio.terra.pearl.core.service.CascadeProperty;
 import bio.terra.pearl.core.service.ImmutableEntityService;
 import bio.terra.pearl.core.service.VersionedEntityService;
+import bio.terra.pearl.core.service.cache.VersionedEntityCache;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -24,11 +25,16 @@ import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class SurveyService extends VersionedEntityService<Survey, SurveyDao> {
+    /** total characters of survey content to hold in memory */
+    private static final long CACHE_MAX_WEIGHT = 50_000_000;
     private AnswerMappingDao answerMappingDao;
     private SurveyQuestionDefinitionDao surveyQuestionDefinitionDao;
 
     public SurveyService(SurveyDao surveyDao, AnswerMappingDao answerMappingDao, SurveyQuestionDefinitionDao surveyQuestionDefinitionDao) {
-        super(surveyDao);
+        super(surveyDao, new VersionedEntityCache<>("survey", CACHE_MAX_WEIGHT,
+                VersionedEntityCache.DEFAULT_TIME_TO_LIVE,
+                VersionedEntityCache.textWeigher(Survey::getContent),
+                SurveyService::copy));
         this.answerMappingDao = answerMappingDao;
         this.surveyQuestionDefinitionDao = surveyQuestionDefinitionDao;
     }
@@ -37,13 +43,28 @@ public class SurveyService extends VersionedEntityService<Survey, SurveyDao> {
         return dao.findByStableIdNoContent(stableId);
     }
 
+    /** surveys are cached with their answer mappings, which are stripped here since most callers don't need them */
+    @Override
+    public Optional<Survey> findByStableId(String stableId, int version) {
+        return super.findByStableId(stableId, version).map(survey -> {
+            survey.setAnswerMappings(new ArrayList<>());
+            return survey;
+        });
+    }
+
     public Optional<Survey> findByStableIdWithMappings(String stableId, int version) {
+        return super.findByStableId(stableId, version);
+    }
+
+    @Override
+    protected Optional<Survey> loadForCache(String stableId, int version) {
         return dao.findByStableIdWithMappings(stableId, version);
     }
 
     @Transactional
     @Override
     public void delete(UUID surveyId, Set<CascadeProperty> cascades) {
+        invalidateCached(surveyId);
         answerMappingDao.deleteBySurveyId(surveyId);
         surveyQuestionDefinitionDao.deleteBySurveyId(surveyId);
         dao.delete(surveyId);
@@ -183,5 +204,13 @@ public class SurveyService extends VersionedEntityService<Survey, SurveyDao> {
         survey.setAnswerMappings(answerMappingDao.findBySurveyId(survey.getId()));
     }
 
+    /** copies the survey and its list of mappings, so callers can modify the copy without changing the cache */
+    private static Survey copy(Survey survey) {
+        Survey copy = new Survey();
+        BeanUtils.copyProperties(survey, copy, "answerMappings");
+        copy.setAnswerMappings(new ArrayList<>(survey.getAnswerMappings()));
+        return copy;
+    }
+
 
 }
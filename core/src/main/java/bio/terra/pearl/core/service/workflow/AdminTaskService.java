@@ -7,6 +7,7 @@ import bio.terra.pearl.core.model.workflow.AdminTask;
 import bio.terra.pearl.core.model.workflow.DataAuditInfo;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -42,6 +43,10 @@ public class AdminTaskService extends DataAuditedService<AdminTask, AdminTaskDao
         List<AdminTask> tasks = findByEnrolleeId(enrolleeId);
         bulkDelete(tasks, auditInfo);
     }
+    /** unaudited, since it's only for deleting the enrollees themselves, which is where auditing happens */
+    public void deleteByEnrolleeIds(Collection<UUID> enrolleeIds) {
+        dao.deleteByEnrolleeIds(enrolleeIds);
+    }
     @Transactional
     public void deleteByStudyEnvironmentId(UUID studyEnvId, DataAuditInfo auditInfo) {
         List<AdminTask> tasks = dao.findByStudyEnvironmentId(studyEnvId);
@@ -5,8 +5,11 @@ import bio.terra.pearl.core.model.workflow.ParticipantTask;
 import bio.terra.pearl.core.service.CrudService;
 import bio.terra.pearl.core.service.admin.AdminUserService;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,8 +28,14 @@ public class ParticipantTaskService extends CrudService<ParticipantTask, Partici
         return dao.findByEnrolleeId(enrolleeId);
     }
 
+    public Map<UUID, Set<ParticipantTask>> findByEnrolleeIds(Collection<UUID> enrolleeIds) {
+        return dao.findByEnrolleeIds(enrolleeIds);
+    }
+
     public void deleteByEnrolleeId(UUID enrolleeId) { dao.deleteByEnrolleeId(enrolleeId);}
 
+    public void deleteByEnrolleeIds(Collection<UUID> enrolleeIds) { dao.deleteByEnrolleeIds(enrolleeIds);}
+
     public Optional<ParticipantTask> authTaskToPortalParticipantUser(UUID taskId, UUID ppUserId) {
         return dao.findByPortalParticipantUserId(taskId, ppUserId);
     }
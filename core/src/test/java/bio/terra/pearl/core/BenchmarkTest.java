@@ -0,0 +1,20 @@
+package bio.terra.pearl.core;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marker for benchmarks, which seed large amounts of data and report timings.  These are too slow to run as part of
+ * an automated build, and are run explicitly with `./gradlew benchmark`.
+ */
+@Target({ ElementType.ANNOTATION_TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+@Test
+@Tag("benchmark")
+public @interface BenchmarkTest {
+}
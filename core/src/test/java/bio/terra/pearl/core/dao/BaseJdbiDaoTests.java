@@ -113,4 +113,38 @@ public class BaseJdbiDaoTests extends BaseSpringBootTest {
         // Assert
         assertThat(foundPortals, contains(portal1, portal2));
     }
+
+    @Test
+    @Transactional
+    public void testBulkCopyOfBasicList() {
+        // names with the characters COPY text format escapes
+        Portal portal1 = portalFactory.builder("testBulkCopyOfBasicList").name("tab\tnewline\nreturn\r").build();
+        Portal portal2 = portalFactory.builder("testBulkCopyOfBasicList").name("back\\slash \\N").build();
+        long rowsCopied = portalDao.bulkCopy(List.of(portal1, portal2));
+        assertThat(rowsCopied, equalTo(2L));
+        assertThat(portalDao.findOneByShortcode(portal1.getShortcode()).get().getName(), equalTo(portal1.getName()));
+        assertThat(portalDao.findOneByShortcode(portal2.getShortcode()).get().getName(), equalTo(portal2.getName()));
+    }
+
+    @Test
+    @Transactional
+    public void testBulkCopyWithIdSpecified() {
+        Instant createdAt = Instant.parse("2023-03-15T10:15:30.123456Z");
+        Portal portal = portalFactory.builder("testBulkCopyWithIdSpecified")
+                .id(UUID.randomUUID()).createdAt(createdAt).lastUpdatedAt(createdAt).build();
+        portalDao.bulkCopyWithIdSpecified(List.of(portal));
+        Portal savedPortal = portalDao.find(portal.getId()).get();
+        assertThat(savedPortal.getShortcode(), equalTo(portal.getShortcode()));
+        // timestamps should match what a bound insert would have saved
+        assertThat(savedPortal.getCreatedAt(), equalTo(createdAt));
+    }
+
+    @Test
+    @Transactional
+    public void testBulkCopyRejectsIds() {
+        Portal portal = portalFactory.builder("testBulkCopyRejectsIds").id(UUID.randomUUID()).build();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> {
+            portalDao.bulkCopy(List.of(portal));
+        });
+    }
 }
@@ -0,0 +1,69 @@
+package bio.terra.pearl.core.dao;
+
+import bio.terra.pearl.core.BaseSpringBootTest;
+import bio.terra.pearl.core.BenchmarkTest;
+import bio.terra.pearl.core.dao.participant.MailingAddressDao;
+import bio.terra.pearl.core.model.participant.MailingAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Compares bulkCreate, which binds each row's bean to a prepared batch, with bulkCopy, which streams rows with a
+ * Postgres COPY.  Mailing addresses are used since they have no foreign keys.  Each path is warmed up before it is
+ * timed.  Run with `./gradlew benchmark` -- the timings are printed.
+ */
+public class BulkCopyBenchmarkTests extends BaseSpringBootTest {
+    private static final int ROW_COUNT = 50000;
+    private static final int WARMUP_ROW_COUNT = 5000;
+    private static final int ROUNDS = 3;
+    @Autowired
+    private MailingAddressDao mailingAddressDao;
+
+    @BenchmarkTest
+    @Transactional
+    public void benchmarkBulkCopy() {
+        int startCount = mailingAddressDao.count();
+        long batchMillis = time("prepared batch", mailingAddressDao::bulkCreate);
+        long copyMillis = time("copy", addresses -> mailingAddressDao.bulkCopy(addresses));
+        System.out.printf("%d rows: prepared batch %d ms, copy %d ms (best of %d)%n",
+                ROW_COUNT, batchMillis, copyMillis, ROUNDS);
+        assertThat(mailingAddressDao.count() - startCount,
+                equalTo(2 * (WARMUP_ROW_COUNT + ROUNDS * ROW_COUNT)));
+    }
+
+    /** returns the best time of the rounds, after a warmup */
+    private long time(String name, Consumer<List<MailingAddress>> insert) {
+        insert.accept(buildAddresses(WARMUP_ROW_COUNT));
+        long bestMillis = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            List<MailingAddress> addresses = buildAddresses(ROW_COUNT);
+            long start = System.nanoTime();
+            insert.accept(addresses);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            System.out.printf("%s round %d: %d ms%n", name, round, millis);
+            bestMillis = Math.min(bestMillis, millis);
+        }
+        return bestMillis;
+    }
+
+    private List<MailingAddress> buildAddresses(int count) {
+        List<MailingAddress> addresses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            addresses.add(MailingAddress.builder()
+                    .street1(i + " Benchmark Way")
+                    .street2(i % 3 == 0 ? "Apt " + i : null)
+                    .city("Cambridge")
+                    .state("MA")
+                    .postalCode("02142")
+                    .country("US")
+                    .build());
+        }
+        return addresses;
+    }
+}
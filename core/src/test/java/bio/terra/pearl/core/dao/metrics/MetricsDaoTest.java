@@ -1,12 +1,17 @@
 package bio.terra.pearl.core.dao.metrics;
 
 import bio.terra.pearl.core.BaseSpringBootTest;
+import bio.terra.pearl.core.factory.EnvironmentFactory;
 import bio.terra.pearl.core.factory.StudyEnvironmentFactory;
+import bio.terra.pearl.core.factory.StudyFactory;
 import bio.terra.pearl.core.factory.participant.EnrolleeFactory;
 import bio.terra.pearl.core.factory.participant.PortalParticipantUserFactory;
 import bio.terra.pearl.core.factory.portal.PortalEnvironmentFactory;
 import bio.terra.pearl.core.factory.survey.SurveyFactory;
+import bio.terra.pearl.core.model.EnvironmentName;
 import bio.terra.pearl.core.model.metrics.BasicMetricDatum;
+import bio.terra.pearl.core.model.metrics.BucketedMetricDatum;
+import bio.terra.pearl.core.model.metrics.MetricBucket;
 import bio.terra.pearl.core.model.metrics.TimeRange;
 import bio.terra.pearl.core.model.participant.Enrollee;
 import bio.terra.pearl.core.model.portal.PortalEnvironment;
@@ -14,18 +19,27 @@ import bio.terra.pearl.core.model.study.StudyEnvironment;
 import bio.terra.pearl.core.model.survey.StudyEnvironmentSurvey;
 import bio.terra.pearl.core.model.survey.Survey;
 import bio.terra.pearl.core.model.workflow.TaskStatus;
+import bio.terra.pearl.core.service.CascadeProperty;
+import bio.terra.pearl.core.service.study.StudyEnvironmentService;
 import bio.terra.pearl.core.service.workflow.ParticipantTaskService;
 import bio.terra.pearl.core.service.study.StudyEnvironmentSurveyService;
 import bio.terra.pearl.core.service.survey.SurveyTaskDispatcher;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 public class MetricsDaoTest extends BaseSpringBootTest {
 
@@ -59,6 +73,83 @@ public class MetricsDaoTest extends BaseSpringBootTest {
     assertThat(rangeMetrics, hasSize(0));
   }
 
+  @Test
+  @Transactional
+  public void testBucketedEnrollmentCounts() {
+    StudyEnvironment studyEnvironment = studyEnvironmentFactory.buildPersisted("testBucketedEnrollmentCounts");
+    enrolleeFactory.buildPersisted("testBucketedEnrollmentCounts", studyEnvironment);
+    var builder = enrolleeFactory.builderWithDependencies("testBucketedEnrollmentCounts", studyEnvironment)
+        .createdAt(Instant.now().minus(Duration.ofDays(4)));
+    enrolleeFactory.buildPersisted((Enrollee.EnrolleeBuilder) builder);
+    metricsDao.refreshRollup(MetricName.STUDY_ENROLLMENT, Instant.now());
+    // enrollees since the refresh are counted live, and combined with the rollup counts
+    enrolleeFactory.buildPersisted("testBucketedEnrollmentCounts", studyEnvironment);
+
+    List<BucketedMetricDatum> counts = metricsDao.bucketedCounts(MetricName.STUDY_ENROLLMENT,
+        studyEnvironment.getId(), MetricBucket.DAY, new TimeRange(null, null));
+    assertThat(counts.get(0).getTime().isBefore(Instant.now().minus(Duration.ofDays(3))), equalTo(true));
+    assertThat(counts.get(0).getCount(), equalTo(1L));
+    assertThat(counts.stream().mapToLong(BucketedMetricDatum::getCount).sum(), equalTo(3L));
+
+    // rebuilding recounts the same totals from scratch
+    metricsDao.rebuildRollups(studyEnvironment.getId());
+    counts = metricsDao.bucketedCounts(MetricName.STUDY_ENROLLMENT,
+        studyEnvironment.getId(), MetricBucket.DAY, new TimeRange(null, Instant.now().minus(Duration.ofDays(1))));
+    assertThat(counts, hasSize(1));
+    assertThat(counts.get(0).getCount(), equalTo(1L));
+  }
+
+  /**
+   * a recount (as when withdrawing an enrollee) that starts while a refresh is in progress waits for the refresh to
+   * commit, rather than colliding with the rows it inserted.  Not transactional, since the two transactions need
+   * to see the same committed enrollees -- the study environment is deleted afterward.
+   */
+  @Test
+  public void testRecountDuringRefresh() throws Exception {
+    EnvironmentName envName = environmentFactory.buildPersisted("testRecountDuringRefresh", EnvironmentName.sandbox)
+        .getName();
+    StudyEnvironment studyEnvironment = studyEnvironmentFactory.buildPersisted(envName,
+        studyFactory.buildPersisted("testRecountDuringRefresh").getId(), "testRecountDuringRefresh");
+    Instant fourDaysAgo = Instant.now().minus(Duration.ofDays(4));
+    Enrollee withdrawingEnrollee = enrolleeFactory.buildPersisted((Enrollee.EnrolleeBuilder) enrolleeFactory
+        .builderWithDependencies("testRecountDuringRefresh", studyEnvironment).createdAt(fourDaysAgo));
+    enrolleeFactory.buildPersisted((Enrollee.EnrolleeBuilder) enrolleeFactory
+        .builderWithDependencies("testRecountDuringRefresh", studyEnvironment).createdAt(fourDaysAgo));
+
+    TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+    CountDownLatch refreshed = new CountDownLatch(1);
+    CountDownLatch commitRefresh = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<?> refresh = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+        metricsDao.refreshRollup(MetricName.STUDY_ENROLLMENT, Instant.now());
+        refreshed.countDown();
+        try {
+          commitRefresh.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }));
+      assertThat(refreshed.await(30, TimeUnit.SECONDS), equalTo(true));
+      Future<?> recount = executor.submit(() -> transactionTemplate.executeWithoutResult(status ->
+          metricsDao.recountWithoutEnrollees(List.of(withdrawingEnrollee.getId()))));
+      Thread.sleep(500);
+      assertThat(recount.isDone(), equalTo(false));
+
+      commitRefresh.countDown();
+      refresh.get(30, TimeUnit.SECONDS);
+      // throws if the recount failed
+      recount.get(30, TimeUnit.SECONDS);
+      List<BucketedMetricDatum> counts = metricsDao.bucketedCounts(MetricName.STUDY_ENROLLMENT,
+          studyEnvironment.getId(), MetricBucket.DAY, new TimeRange(null, null));
+      assertThat(counts.stream().mapToLong(BucketedMetricDatum::getCount).sum(), equalTo(1L));
+    } finally {
+      commitRefresh.countDown();
+      executor.shutdown();
+      studyEnvironmentService.delete(studyEnvironment.getId(), CascadeProperty.EMPTY_SET);
+    }
+  }
+
   @Test
   @Transactional
   public void testStudyConsentedMetric() {
@@ -113,6 +204,14 @@ public class MetricsDaoTest extends BaseSpringBootTest {
 
   @Autowired
   private MetricsDao metricsDao;
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+  @Autowired
+  private EnvironmentFactory environmentFactory;
+  @Autowired
+  private StudyFactory studyFactory;
+  @Autowired
+  private StudyEnvironmentService studyEnvironmentService;
 
   @Autowired
   private EnrolleeFactory enrolleeFactory;
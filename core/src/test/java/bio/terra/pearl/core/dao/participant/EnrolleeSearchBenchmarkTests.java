@@ -0,0 +1,140 @@
+package bio.terra.pearl.core.dao.participant;
+
+import bio.terra.pearl.core.BaseSpringBootTest;
+import bio.terra.pearl.core.BenchmarkTest;
+import bio.terra.pearl.core.factory.StudyEnvironmentFactory;
+import bio.terra.pearl.core.factory.kit.KitRequestFactory;
+import bio.terra.pearl.core.factory.participant.EnrolleeFactory;
+import bio.terra.pearl.core.model.kit.KitRequest;
+import bio.terra.pearl.core.model.participant.Enrollee;
+import bio.terra.pearl.core.model.participant.EnrolleeSearchResult;
+import bio.terra.pearl.core.model.study.StudyEnvironment;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.jdbi.v3.core.Jdbi;
+import org.junit.jupiter.api.TestInfo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+
+/**
+ * Compares the enrollee search query against the previous version, which joined every kit request and relied on
+ * distinct on to pick the most recent.  Run with `./gradlew benchmark` -- the plans and timings are printed.
+ */
+public class EnrolleeSearchBenchmarkTests extends BaseSpringBootTest {
+  private static final int ENROLLEE_COUNT = 20000;
+  private static final int KITS_PER_ENROLLEE = 5;
+  /** the search query as it was before the latest kit was looked up with a lateral join */
+  private static final String FAN_OUT_QUERY = """
+      select distinct on (enrollee.id) enrollee.id as enrollee__id, kit_request.status as kit_request__status
+      from enrollee
+      left join participant_user on participant_user.id = enrollee.participant_user_id
+      left join profile on profile.id = enrollee.profile_id
+      left join kit_request on enrollee.id = kit_request.enrollee_id
+      where enrollee.study_environment_id = :studyEnvironmentId
+      order by enrollee.id, enrollee.created_at desc, kit_request.created_at desc
+      """;
+  @Autowired
+  private StudyEnvironmentFactory studyEnvironmentFactory;
+  @Autowired
+  private EnrolleeFactory enrolleeFactory;
+  @Autowired
+  private KitRequestFactory kitRequestFactory;
+  @Autowired
+  private EnrolleeSearchDao enrolleeSearchDao;
+  @Autowired
+  private Jdbi jdbi;
+
+  @BenchmarkTest
+  @Transactional
+  public void benchmarkLatestKitLookup(TestInfo testInfo) throws Exception {
+    String testName = getTestName(testInfo);
+    StudyEnvironment studyEnv = studyEnvironmentFactory.buildPersisted(testName);
+    Enrollee templateEnrollee = enrolleeFactory.buildPersisted(testName, studyEnv);
+    KitRequest templateKit = kitRequestFactory.buildPersisted(testName, templateEnrollee.getId());
+    seed(studyEnv.getId(), templateEnrollee, templateKit);
+
+    String lateralQuery = enrolleeSearchDao.generateSearchQueryString(List.of());
+    printPlan("fan-out join", FAN_OUT_QUERY, studyEnv.getId());
+    printPlan("lateral join", lateralQuery, studyEnv.getId());
+
+    // the two queries should agree on every enrollee's most recent kit status
+    Map<UUID, String> fanOutStatuses = findKitStatuses(FAN_OUT_QUERY, studyEnv.getId());
+    List<EnrolleeSearchResult> results = enrolleeSearchDao.search(studyEnv.getId(), List.of());
+    assertThat(results, hasSize(ENROLLEE_COUNT + 1));
+    Map<UUID, String> lateralStatuses = results.stream().collect(Collectors.toMap(
+        result -> result.getEnrollee().getId(),
+        result -> result.getMostRecentKitStatus().name()));
+    assertThat(lateralStatuses, equalTo(fanOutStatuses));
+  }
+
+  /**
+   * copies the template enrollee and kit with set-based inserts, since building this many rows through the
+   * factories would take far longer than the queries being measured.  Copies share the template's profile.
+   */
+  private void seed(UUID studyEnvId, Enrollee templateEnrollee, KitRequest templateKit) {
+    jdbi.useHandle(handle -> {
+      handle.createUpdate("""
+              with users as (
+                insert into participant_user
+                select (jsonb_populate_record(null::participant_user, to_jsonb(pu)
+                    || jsonb_build_object('id', gen_random_uuid(), 'username', g || pu.username))).*
+                from participant_user pu, generate_series(1, :count) g where pu.id = :templateUserId
+                returning id
+              ), numbered_users as (select id, row_number() over () as n from users)
+              insert into enrollee
+              select (jsonb_populate_record(null::enrollee, to_jsonb(e)
+                  || jsonb_build_object('id', gen_random_uuid(), 'participant_user_id', nu.id,
+                      'shortcode', e.shortcode || nu.n, 'created_at', e.created_at - make_interval(secs => nu.n)))).*
+              from enrollee e, numbered_users nu where e.id = :templateEnrolleeId
+              """)
+          .bind("count", ENROLLEE_COUNT)
+          .bind("templateUserId", templateEnrollee.getParticipantUserId())
+          .bind("templateEnrolleeId", templateEnrollee.getId())
+          .execute();
+      // give each enrollee several kits, with the most recent one in a different status
+      handle.createUpdate("""
+              insert into kit_request
+              select (jsonb_populate_record(null::kit_request, to_jsonb(k)
+                  || jsonb_build_object('id', gen_random_uuid(), 'enrollee_id', e.id,
+                      'created_at', k.created_at - make_interval(days => g),
+                      'status', case when g = 1 then 'SENT' else k.status end))).*
+              from kit_request k, enrollee e, generate_series(1, :kitsPerEnrollee) g
+              where k.id = :templateKitId and e.study_environment_id = :studyEnvId and e.id != :templateEnrolleeId
+              """)
+          .bind("kitsPerEnrollee", KITS_PER_ENROLLEE)
+          .bind("templateKitId", templateKit.getId())
+          .bind("templateEnrolleeId", templateEnrollee.getId())
+          .bind("studyEnvId", studyEnvId)
+          .execute();
+      handle.execute("analyze enrollee");
+      handle.execute("analyze kit_request");
+    });
+  }
+
+  private void printPlan(String label, String query, UUID studyEnvId) {
+    List<String> plan = jdbi.withHandle(handle ->
+        handle.createQuery("explain (analyze, buffers) " + query)
+            .bind("studyEnvironmentId", studyEnvId)
+            .mapTo(String.class)
+            .list());
+    System.out.println("==== " + label + " ====");
+    plan.forEach(System.out::println);
+  }
+
+  private Map<UUID, String> findKitStatuses(String query, UUID studyEnvId) {
+    return jdbi.withHandle(handle ->
+        handle.createQuery(query)
+            .bind("studyEnvironmentId", studyEnvId)
+            .reduceRows(new HashMap<UUID, String>(), (map, rowView) -> {
+              map.put(rowView.getColumn("enrollee__id", UUID.class), rowView.getColumn("kit_request__status", String.class));
+              return map;
+            }));
+  }
+}
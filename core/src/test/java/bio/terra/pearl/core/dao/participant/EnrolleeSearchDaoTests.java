@@ -10,6 +10,7 @@ import bio.terra.pearl.core.factory.portal.PortalEnvironmentFactory;
 import bio.terra.pearl.core.model.EnvironmentName;
 import bio.terra.pearl.core.model.kit.KitRequestStatus;
 import bio.terra.pearl.core.model.participant.Enrollee;
+import bio.terra.pearl.core.model.participant.EnrolleeSearchPage;
 import bio.terra.pearl.core.model.participant.ParticipantUser;
 import bio.terra.pearl.core.model.participant.Profile;
 import bio.terra.pearl.core.model.portal.PortalEnvironment;
@@ -17,6 +18,8 @@ import bio.terra.pearl.core.model.study.StudyEnvironment;
 import bio.terra.pearl.core.model.workflow.TaskStatus;
 import bio.terra.pearl.core.model.workflow.TaskType;
 import bio.terra.pearl.core.service.participant.ParticipantUserService;
+import bio.terra.pearl.core.service.participant.search.EnrolleeSearchCursor;
+import bio.terra.pearl.core.service.participant.search.EnrolleeSearchSort;
 import bio.terra.pearl.core.service.participant.search.facets.CombinedStableIdFacetValue;
 import bio.terra.pearl.core.service.participant.search.facets.IntRangeFacetValue;
 import bio.terra.pearl.core.service.participant.search.facets.StableIdStringFacetValue;
@@ -30,7 +33,10 @@ import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.hasItems;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.transaction.annotation.Transactional;
@@ -228,4 +234,92 @@ public class EnrolleeSearchDaoTests extends BaseSpringBootTest {
     assertThat(bothSurveyResult, hasSize(1));
     assertThat(bothSurveyResult.get(0).getEnrollee().getShortcode(), equalTo(doneEnrolleeBundle.enrollee().getShortcode()));
   }
+
+  @Test
+  @Transactional
+  public void testSearchPage() {
+    StudyEnvironment studyEnv = studyEnvironmentFactory.buildPersisted("testSearchPage");
+    Enrollee enrolleeB = enrolleeFactory.buildPersisted("testSearchPage", studyEnv,
+        Profile.builder().familyName("Baker").build());
+    Enrollee enrolleeA = enrolleeFactory.buildPersisted("testSearchPage", studyEnv,
+        Profile.builder().familyName("Adams").build());
+    Enrollee enrolleeNoName = enrolleeFactory.buildPersisted("testSearchPage", studyEnv, new Profile());
+
+    // default sort is most recently created first
+    EnrolleeSearchPage page = enrolleeSearchDao.searchPage(studyEnv.getId(), List.of(),
+        EnrolleeSearchSort.CREATED_AT, false, null, 2);
+    assertThat(page.getResults().stream().map(result -> result.getEnrollee().getShortcode()).toList(),
+        contains(enrolleeNoName.getShortcode(), enrolleeA.getShortcode()));
+    assertThat(page.getNextCursor(), notNullValue());
+
+    EnrolleeSearchPage nextPage = enrolleeSearchDao.searchPage(studyEnv.getId(), List.of(),
+        EnrolleeSearchSort.CREATED_AT, false, EnrolleeSearchCursor.decode(page.getNextCursor()), 2);
+    assertThat(nextPage.getResults().stream().map(result -> result.getEnrollee().getShortcode()).toList(),
+        contains(enrolleeB.getShortcode()));
+    assertThat(nextPage.getNextCursor(), nullValue());
+
+    // null names sort as empty strings, so they come first in ascending order
+    page = enrolleeSearchDao.searchPage(studyEnv.getId(), List.of(),
+        EnrolleeSearchSort.FAMILY_NAME, true, null, 2);
+    assertThat(page.getResults().stream().map(result -> result.getEnrollee().getShortcode()).toList(),
+        contains(enrolleeNoName.getShortcode(), enrolleeA.getShortcode()));
+    nextPage = enrolleeSearchDao.searchPage(studyEnv.getId(), List.of(),
+        EnrolleeSearchSort.FAMILY_NAME, true, EnrolleeSearchCursor.decode(page.getNextCursor()), 2);
+    assertThat(nextPage.getResults().stream().map(result -> result.getEnrollee().getShortcode()).toList(),
+        contains(enrolleeB.getShortcode()));
+  }
+
+  @Test
+  @Transactional
+  public void testSearchPageWithFacetAndCount() throws Exception {
+    StudyEnvironment studyEnv = studyEnvironmentFactory.buildPersisted("testSearchPageWithFacetAndCount");
+    Enrollee femaleEnrollee = enrolleeFactory.buildPersisted("testSearchPageWithFacetAndCount", studyEnv,
+        Profile.builder().sexAtBirth("female").build());
+    enrolleeFactory.buildPersisted("testSearchPageWithFacetAndCount", studyEnv,
+        Profile.builder().sexAtBirth("male").build());
+    kitRequestFactory.buildPersisted("testSearchPageWithFacetAndCount", femaleEnrollee.getId());
+
+    SqlSearchableFacet facet = new SqlSearchableFacet(new StringFacetValue(
+        "sexAtBirth", List.of("female")), new ProfileFacetSqlGenerator());
+    EnrolleeSearchPage page = enrolleeSearchDao.searchPage(studyEnv.getId(), List.of(facet),
+        EnrolleeSearchSort.CREATED_AT, false, null, 10);
+    assertThat(page.getResults(), hasSize(1));
+    assertThat(page.getResults().get(0).getEnrollee().getShortcode(), equalTo(femaleEnrollee.getShortcode()));
+    assertThat(page.getResults().get(0).getMostRecentKitStatus(), equalTo(KitRequestStatus.CREATED));
+    assertThat(page.getNextCursor(), nullValue());
+
+    assertThat(enrolleeSearchDao.count(studyEnv.getId(), List.of(facet)), equalTo(1));
+    assertThat(enrolleeSearchDao.count(studyEnv.getId(), List.of()), equalTo(2));
+  }
+
+  @Test
+  @Transactional
+  public void testSearchPageWithFacetFanOut() {
+    PortalEnvironment portalEnv = portalEnvironmentFactory.buildPersisted("testSearchPageWithFacetFanOut");
+    StudyEnvironment studyEnv = studyEnvironmentFactory.buildPersisted(portalEnv, "testSearchPageWithFacetFanOut");
+    var oldestBundle = enrolleeFactory.buildWithPortalUser("testSearchPageWithFacetFanOut", portalEnv, studyEnv);
+    participantTaskFactory.buildPersisted(oldestBundle, "bigSurvey", TaskStatus.COMPLETE, TaskType.SURVEY);
+    var middleBundle = enrolleeFactory.buildWithPortalUser("testSearchPageWithFacetFanOut", portalEnv, studyEnv);
+    participantTaskFactory.buildPersisted(middleBundle, "bigSurvey", TaskStatus.COMPLETE, TaskType.SURVEY);
+    // the task facet joins every task of the enrollee, so this enrollee has three rows
+    var newestBundle = enrolleeFactory.buildWithPortalUser("testSearchPageWithFacetFanOut", portalEnv, studyEnv);
+    participantTaskFactory.buildPersisted(newestBundle, "bigSurvey", TaskStatus.COMPLETE, TaskType.SURVEY);
+    participantTaskFactory.buildPersisted(newestBundle, "otherSurvey", TaskStatus.NEW, TaskType.SURVEY);
+    participantTaskFactory.buildPersisted(newestBundle, "thirdSurvey", TaskStatus.NEW, TaskType.SURVEY);
+
+    SqlSearchableFacet facet = new SqlSearchableFacet(new CombinedStableIdFacetValue("status",
+        List.of(new StableIdStringFacetValue("status", "bigSurvey", List.of("COMPLETE")))), new ParticipantTaskFacetSqlGenerator());
+    // the page size counts enrollees, not joined rows
+    EnrolleeSearchPage page = enrolleeSearchDao.searchPage(studyEnv.getId(), List.of(facet),
+        EnrolleeSearchSort.CREATED_AT, false, null, 2);
+    assertThat(page.getResults().stream().map(result -> result.getEnrollee().getShortcode()).toList(),
+        contains(newestBundle.enrollee().getShortcode(), middleBundle.enrollee().getShortcode()));
+    assertThat(page.getNextCursor(), notNullValue());
+
+    EnrolleeSearchPage nextPage = enrolleeSearchDao.searchPage(studyEnv.getId(), List.of(facet),
+        EnrolleeSearchSort.CREATED_AT, false, EnrolleeSearchCursor.decode(page.getNextCursor()), 2);
+    assertThat(nextPage.getResults().stream().map(result -> result.getEnrollee().getShortcode()).toList(),
+        contains(oldestBundle.enrollee().getShortcode()));
+    assertThat(nextPage.getNextCursor(), nullValue());
+  }
 }
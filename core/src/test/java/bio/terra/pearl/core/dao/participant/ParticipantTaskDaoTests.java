@@ -1,6 +1,7 @@
 package bio.terra.pearl.core.dao.participant;
 
 import bio.terra.pearl.core.BaseSpringBootTest;
+import bio.terra.pearl.core.dao.notification.NotificationDao;
 import bio.terra.pearl.core.dao.workflow.ParticipantTaskDao;
 import bio.terra.pearl.core.factory.StudyEnvironmentFactory;
 import bio.terra.pearl.core.factory.notification.NotificationConfigFactory;
@@ -19,6 +20,7 @@ import bio.terra.pearl.core.model.workflow.TaskStatus;
 import bio.terra.pearl.core.model.workflow.TaskType;
 import bio.terra.pearl.core.service.workflow.ParticipantTaskService;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -107,9 +109,48 @@ public class ParticipantTaskDaoTests extends BaseSpringBootTest {
         assertThat(tasksRecentNotification.get(0).getEnrolleeId(), equalTo(enrolleeBundle2.enrollee().getId())); // only the second enrollee's task should appear
     }
 
+    @Test
+    @Transactional
+    public void testFindDueReminders() {
+        PortalEnvironment portalEnv = portalEnvironmentFactory.buildPersisted("testFindDueReminders");
+        StudyEnvironment studyEnv = studyEnvironmentFactory.buildPersisted(portalEnv, "testFindDueReminders");
+        var enrolleeBundle = enrolleeFactory.buildWithPortalUser("testFindDueReminders", portalEnv, studyEnv);
+        var enrolleeBundle2 = enrolleeFactory.buildWithPortalUser("testFindDueReminders", portalEnv, studyEnv);
+        participantTaskFactory.buildPersisted(enrolleeBundle, TaskStatus.NEW, TaskType.CONSENT);
+        participantTaskFactory.buildPersisted(enrolleeBundle2, TaskStatus.NEW, TaskType.CONSENT);
+        var notificationConfig = notificationConfigFactory.buildPersisted(NotificationConfig.builder()
+                        .deliveryType(NotificationDeliveryType.EMAIL)
+                        .notificationType(NotificationType.TASK_REMINDER)
+                        .taskType(TaskType.CONSENT)
+                        .afterMinutesIncomplete(0),
+                studyEnv.getId(), portalEnv.getId());
+
+        // page through the reminders one at a time
+        Instant now = Instant.now();
+        var firstPage = participantTaskDao.findDueReminders(studyEnv.getId(), now, null, 1);
+        assertThat(firstPage, hasSize(1));
+        var secondPage = participantTaskDao.findDueReminders(studyEnv.getId(), now, firstPage.get(0), 1);
+        assertThat(secondPage, hasSize(1));
+        assertThat(secondPage.get(0).getEnrolleeId(), not(equalTo(firstPage.get(0).getEnrolleeId())));
+        assertThat(participantTaskDao.findDueReminders(studyEnv.getId(), now, secondPage.get(0), 1), hasSize(0));
+
+        // a sent notification from the config holds off the next reminder, but a failed one doesn't
+        notificationDao.recordSentNotificationTimes(List.of(
+                notificationFactory.builder(enrolleeBundle, notificationConfig)
+                        .deliveryStatus(NotificationDeliveryStatus.SENT).build(),
+                notificationFactory.builder(enrolleeBundle2, notificationConfig)
+                        .deliveryStatus(NotificationDeliveryStatus.FAILED).build()));
+        var dueReminders = participantTaskDao.findDueReminders(studyEnv.getId(), Instant.now(), null, 10);
+        assertThat(dueReminders, hasSize(1));
+        assertThat(dueReminders.get(0).getEnrolleeId(), equalTo(enrolleeBundle2.enrollee().getId()));
+        assertThat(dueReminders.get(0).getNotificationConfigId(), equalTo(notificationConfig.getId()));
+    }
+
     @Autowired
     private ParticipantTaskDao participantTaskDao;
     @Autowired
+    private NotificationDao notificationDao;
+    @Autowired
     private ParticipantTaskFactory participantTaskFactory;
     @Autowired
     private StudyEnvironmentFactory studyEnvironmentFactory;
@@ -0,0 +1,67 @@
+package bio.terra.pearl.core.dao.participant;
+
+import bio.terra.pearl.core.BaseSpringBootTest;
+import bio.terra.pearl.core.dao.workflow.ParticipantTaskDao;
+import bio.terra.pearl.core.factory.StudyEnvironmentFactory;
+import bio.terra.pearl.core.factory.participant.EnrolleeFactory;
+import bio.terra.pearl.core.factory.participant.ParticipantTaskFactory;
+import bio.terra.pearl.core.factory.portal.PortalEnvironmentFactory;
+import bio.terra.pearl.core.model.portal.PortalEnvironment;
+import bio.terra.pearl.core.model.study.StudyEnvironment;
+import bio.terra.pearl.core.model.workflow.ParticipantTask;
+import bio.terra.pearl.core.model.workflow.TaskStatus;
+import bio.terra.pearl.core.model.workflow.TaskType;
+import bio.terra.pearl.core.service.portal.PortalService;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+public class PortalParticipantUserDaoTests extends BaseSpringBootTest {
+    @Test
+    @Transactional
+    public void testEnrolleeDataVersion(TestInfo testInfo) {
+        String testName = getTestName(testInfo);
+        PortalEnvironment portalEnv = portalEnvironmentFactory.buildPersisted(testName);
+        StudyEnvironment studyEnv = studyEnvironmentFactory.buildPersisted(portalEnv, testName);
+        EnrolleeFactory.EnrolleeBundle bundle = enrolleeFactory.buildWithPortalUser(testName, portalEnv, studyEnv);
+        UUID participantUserId = bundle.enrollee().getParticipantUserId();
+        String portalShortcode = portalService.find(portalEnv.getPortalId()).get().getShortcode();
+
+        String version = portalParticipantUserDao.findEnrolleeDataVersion(participantUserId, portalShortcode).get();
+        assertThat(portalParticipantUserDao.findEnrolleeDataVersion(participantUserId, portalShortcode).get(),
+                equalTo(version));
+
+        ParticipantTask task = participantTaskFactory.buildPersisted(bundle, TaskStatus.NEW, TaskType.SURVEY);
+        String versionWithTask = portalParticipantUserDao.findEnrolleeDataVersion(participantUserId, portalShortcode).get();
+        assertThat(versionWithTask, not(equalTo(version)));
+
+        task.setStatus(TaskStatus.COMPLETE);
+        participantTaskDao.update(task);
+        assertThat(portalParticipantUserDao.findEnrolleeDataVersion(participantUserId, portalShortcode).get(),
+                not(equalTo(versionWithTask)));
+
+        assertThat(portalParticipantUserDao.findEnrolleeDataVersion(participantUserId, "notAPortal").isPresent(),
+                equalTo(false));
+    }
+
+    @Autowired
+    private PortalParticipantUserDao portalParticipantUserDao;
+    @Autowired
+    private ParticipantTaskDao participantTaskDao;
+    @Autowired
+    private PortalService portalService;
+    @Autowired
+    private PortalEnvironmentFactory portalEnvironmentFactory;
+    @Autowired
+    private StudyEnvironmentFactory studyEnvironmentFactory;
+    @Autowired
+    private EnrolleeFactory enrolleeFactory;
+    @Autowired
+    private ParticipantTaskFactory participantTaskFactory;
+}
@@ -2,13 +2,16 @@ package bio.terra.pearl.core.dao.portal;
 
 import bio.terra.pearl.core.BaseSpringBootTest;
 import bio.terra.pearl.core.factory.EnvironmentFactory;
+import bio.terra.pearl.core.factory.portal.PortalEnvironmentFactory;
 import bio.terra.pearl.core.model.EnvironmentName;
 import bio.terra.pearl.core.model.portal.Portal;
 import bio.terra.pearl.core.model.portal.PortalEnvironment;
 import bio.terra.pearl.core.model.portal.PortalEnvironmentConfig;
+import bio.terra.pearl.core.service.portal.PortalEnvironmentConfigService;
 import bio.terra.pearl.core.service.portal.PortalEnvironmentService;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.transaction.annotation.Transactional;
@@ -20,6 +23,10 @@ public class PortalDaoTests extends BaseSpringBootTest {
     private PortalEnvironmentService portalEnvironmentService;
     @Autowired
     private EnvironmentFactory environmentFactory;
+    @Autowired
+    private PortalEnvironmentFactory portalEnvironmentFactory;
+    @Autowired
+    private PortalEnvironmentConfigService portalEnvironmentConfigService;
 
     @Test
     @Transactional
@@ -52,4 +59,23 @@ public class PortalDaoTests extends BaseSpringBootTest {
 
 
     }
+
+    @Test
+    @Transactional
+    public void testParticipantContentVersion() {
+        PortalEnvironment portalEnv = portalEnvironmentFactory.buildPersisted("testParticipantContentVersion",
+                EnvironmentName.sandbox);
+        String version = portalDao.findParticipantContentVersion(portalEnv.getPortalId(), EnvironmentName.sandbox).get();
+        assertThat(portalDao.findParticipantContentVersion(portalEnv.getPortalId(), EnvironmentName.sandbox).get(),
+                equalTo(version));
+        assertThat(portalDao.findParticipantContentVersion(portalEnv.getPortalId(), EnvironmentName.live).isPresent(),
+                equalTo(false));
+
+        // changing the environment config should change the version
+        PortalEnvironmentConfig config = portalEnv.getPortalEnvironmentConfig();
+        config.setPassword("newPassword");
+        portalEnvironmentConfigService.update(config);
+        assertThat(portalDao.findParticipantContentVersion(portalEnv.getPortalId(), EnvironmentName.sandbox).get(),
+                not(equalTo(version)));
+    }
 }
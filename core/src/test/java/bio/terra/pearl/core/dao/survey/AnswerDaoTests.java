@@ -7,7 +7,9 @@ import bio.terra.pearl.core.model.survey.Answer;
 import bio.terra.pearl.core.model.survey.Survey;
 import bio.terra.pearl.core.model.survey.SurveyResponse;
 import bio.terra.pearl.core.service.survey.SurveyService;
+import java.util.List;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.samePropertyValuesAs;
 import org.junit.jupiter.api.Test;
@@ -69,6 +71,25 @@ public class AnswerDaoTests extends BaseSpringBootTest {
     assertThat(savedAnswer.getNumberValue(), equalTo(numberAnswer.getNumberValue()));
   }
 
+  @Test
+  @Transactional
+  public void testUpsertAllForResponse() {
+    SurveyResponse response = surveyResponseFactory.buildPersisted("testUpsertAllForResponse");
+    Answer existing = answerDao.create(answerForResponse(response, "q1").stringValue("old").build());
+
+    Answer updated = answerForResponse(response, "q1").stringValue("new").build();
+    Answer created = answerForResponse(response, "q2").booleanValue(true).build();
+    List<Answer> saved = answerDao.upsertAllForResponse(List.of(created, updated));
+
+    // results come back in the order passed in, and the existing answer is updated rather than duplicated
+    assertThat(saved.stream().map(Answer::getQuestionStableId).toList(), contains("q2", "q1"));
+    DaoTestUtils.assertGeneratedProperties(saved.get(0));
+    assertThat(saved.get(0).getBooleanValue(), equalTo(true));
+    assertThat(saved.get(1).getId(), equalTo(existing.getId()));
+    assertThat(saved.get(1).getStringValue(), equalTo("new"));
+    assertThat(answerDao.findByResponse(response.getId()).size(), equalTo(2));
+    assertThat(answerDao.find(existing.getId()).get().getCreatedAt(), equalTo(existing.getCreatedAt()));
+  }
 
   private Answer.AnswerBuilder answerForResponse(SurveyResponse response, String questionStableId) {
     Survey survey = surveyService.find(response.getSurveyId()).get();
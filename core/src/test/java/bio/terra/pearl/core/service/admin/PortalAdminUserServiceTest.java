@@ -3,22 +3,31 @@ package bio.terra.pearl.core.service.admin;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.verify;
 
 import java.util.List;
 
 import bio.terra.pearl.core.BaseSpringBootTest;
+import bio.terra.pearl.core.factory.admin.AdminUserFactory;
 import bio.terra.pearl.core.factory.admin.PortalAdminUserFactory;
+import bio.terra.pearl.core.model.admin.AdminUser;
 import bio.terra.pearl.core.factory.portal.PortalFactory;
 import bio.terra.pearl.core.model.admin.PortalAdminUser;
 import bio.terra.pearl.core.model.admin.Role;
 import bio.terra.pearl.core.model.portal.Portal;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.transaction.annotation.Transactional;
 
 
 public class PortalAdminUserServiceTest extends BaseSpringBootTest {
 
+    @Autowired
+    private AdminUserFactory adminUserFactory;
+    @SpyBean
+    private AdminUserTokenCache adminUserTokenCache;
     @Autowired
     private PortalAdminUserFactory portalAdminUserFactory;
     @Autowired
@@ -96,4 +105,21 @@ public class PortalAdminUserServiceTest extends BaseSpringBootTest {
         List<PortalAdminUser> portal2Users = portalAdminUserService.findByPortal(portal2.getId());
         assertThat(portal2Users.size(), equalTo(0));
     }
+
+    @Transactional
+    @Test
+    public void testCreateInvalidatesTokenCache() {
+        String testName = "testCreateInvalidatesTokenCache";
+        Portal portal = portalFactory.buildPersisted(testName);
+        AdminUser adminUser = adminUserFactory.buildPersisted(testName);
+        clearInvocations(adminUserTokenCache);
+
+        portalAdminUserService.create(PortalAdminUser.builder()
+                .adminUserId(adminUser.getId())
+                .portalId(portal.getId())
+                .build());
+
+        // the user's cached permissions don't include the new portal
+        verify(adminUserTokenCache).invalidateAll();
+    }
 }
@@ -0,0 +1,77 @@
+package bio.terra.pearl.core.service.azure;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNull.nullValue;
+
+public class StagedBlockOutputStreamTests {
+    /** in-memory stand-in for a block blob */
+    private static class InMemoryBlockStager implements StagedBlockOutputStream.BlockStager {
+        private final Map<String, byte[]> stagedBlocks = new LinkedHashMap<>();
+        private List<String> committedBlockIds = null;
+
+        @Override
+        public void stageBlock(String blockId, byte[] data, int length) {
+            byte[] block = new byte[length];
+            System.arraycopy(data, 0, block, 0, length);
+            stagedBlocks.put(blockId, block);
+        }
+
+        @Override
+        public void commitBlockList(List<String> blockIds) {
+            committedBlockIds = new ArrayList<>(blockIds);
+        }
+
+        public String getCommittedContent() throws IOException {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            for (String blockId : committedBlockIds) {
+                content.write(stagedBlocks.get(blockId));
+            }
+            return content.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void testStagesBlocksAsWritten() throws Exception {
+        InMemoryBlockStager stager = new InMemoryBlockStager();
+        StagedBlockOutputStream outputStream = new StagedBlockOutputStream(stager, 4);
+        outputStream.write("abcdef".getBytes(StandardCharsets.UTF_8));
+        // one full block has been staged, but nothing is committed until close
+        assertThat(stager.stagedBlocks.size(), equalTo(1));
+        assertThat(stager.committedBlockIds, nullValue());
+
+        outputStream.write('g');
+        outputStream.write("hijk".getBytes(StandardCharsets.UTF_8));
+        outputStream.close();
+        outputStream.close();
+        assertThat(stager.committedBlockIds, contains(
+                StagedBlockOutputStream.toBlockId(0),
+                StagedBlockOutputStream.toBlockId(1),
+                StagedBlockOutputStream.toBlockId(2)));
+        assertThat(stager.getCommittedContent(), equalTo("abcdefghijk"));
+        Assertions.assertThrows(IOException.class, () -> outputStream.write('l'));
+    }
+
+    @Test
+    public void testEmptyStreamCommitsEmptyBlob() throws Exception {
+        InMemoryBlockStager stager = new InMemoryBlockStager();
+        new StagedBlockOutputStream(stager, 4).close();
+        assertThat(stager.committedBlockIds, empty());
+    }
+
+    @Test
+    public void testBlockIdsAreSameLength() {
+        assertThat(StagedBlockOutputStream.toBlockId(1).length(), equalTo(StagedBlockOutputStream.toBlockId(12345).length()));
+    }
+}
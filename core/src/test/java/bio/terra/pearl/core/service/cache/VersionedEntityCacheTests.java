@@ -0,0 +1,180 @@
+package bio.terra.pearl.core.service.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsSame.sameInstance;
+
+public class VersionedEntityCacheTests {
+    /** a clock that only moves when told to */
+    private static class TestClock extends Clock {
+        private Instant now = Instant.parse("2023-11-01T00:00:00Z");
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    private static class Doc {
+        private String content;
+
+        Doc(String content) {
+            this.content = content;
+        }
+    }
+
+    /** a loader that records the keys it was asked for */
+    private static class RecordingLoader implements Function<String, Optional<Doc>> {
+        private final List<String> loadedKeys = new ArrayList<>();
+
+        @Override
+        public Optional<Doc> apply(String key) {
+            loadedKeys.add(key);
+            return key.startsWith("missing") ? Optional.empty() : Optional.of(new Doc(key));
+        }
+    }
+
+    private final TestClock clock = new TestClock();
+
+    private VersionedEntityCache<String, Doc> newCache(long maxWeight) {
+        return new VersionedEntityCache<>("test", maxWeight, Duration.ofMinutes(10),
+                VersionedEntityCache.textWeigher(doc -> doc.content), doc -> new Doc(doc.content),
+                clock, new SimpleMeterRegistry());
+    }
+
+    @Test
+    public void testLoadsOnlyOnce() {
+        VersionedEntityCache<String, Doc> cache = newCache(100);
+        RecordingLoader loader = new RecordingLoader();
+        assertThat(cache.get("key1", loader).get().content, equalTo("key1"));
+        assertThat(cache.get("key1", loader).get().content, equalTo("key1"));
+        assertThat(loader.loadedKeys, contains("key1"));
+        assertThat(cache.getStats(), equalTo(new VersionedEntityCache.CacheStats(1, 1, 0, 1, 5)));
+    }
+
+    @Test
+    public void testReturnsCopies() {
+        VersionedEntityCache<String, Doc> cache = newCache(100);
+        RecordingLoader loader = new RecordingLoader();
+        Doc first = cache.get("key1", loader).get();
+        first.content = "modified";
+        Doc second = cache.get("key1", loader).get();
+        assertThat(second, not(sameInstance(first)));
+        assertThat(second.content, equalTo("key1"));
+    }
+
+    @Test
+    public void testMissingNotCached() {
+        VersionedEntityCache<String, Doc> cache = newCache(100);
+        RecordingLoader loader = new RecordingLoader();
+        assertThat(cache.get("missing1", loader).isPresent(), equalTo(false));
+        assertThat(cache.get("missing1", loader).isPresent(), equalTo(false));
+        assertThat(loader.loadedKeys, contains("missing1", "missing1"));
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        // each entry weighs 5, so only two fit
+        VersionedEntityCache<String, Doc> cache = newCache(10);
+        RecordingLoader loader = new RecordingLoader();
+        cache.get("key1", loader);
+        cache.get("key2", loader);
+        cache.get("key1", loader);
+        cache.get("key3", loader);
+        // key2 was the least recently used, so it should be the one evicted
+        cache.get("key1", loader);
+        cache.get("key2", loader);
+        assertThat(loader.loadedKeys, contains("key1", "key2", "key3", "key2"));
+        assertThat(cache.getStats().evictions(), equalTo(2L));
+        assertThat(cache.getStats().weight(), equalTo(10L));
+    }
+
+    @Test
+    public void testOversizedValuesNotCached() {
+        VersionedEntityCache<String, Doc> cache = newCache(4);
+        RecordingLoader loader = new RecordingLoader();
+        cache.get("key1", loader);
+        cache.get("key1", loader);
+        assertThat(loader.loadedKeys, contains("key1", "key1"));
+        assertThat(cache.getStats().size(), equalTo(0));
+    }
+
+    @Test
+    public void testExpiry() {
+        VersionedEntityCache<String, Doc> cache = newCache(100);
+        RecordingLoader loader = new RecordingLoader();
+        cache.get("key1", loader);
+        clock.now = clock.now.plus(Duration.ofMinutes(11));
+        cache.get("key1", loader);
+        assertThat(loader.loadedKeys, contains("key1", "key1"));
+    }
+
+    @Test
+    public void testEntryExpiresAt() {
+        VersionedEntityCache<String, Doc> cache = newCache(100);
+        RecordingLoader loader = new RecordingLoader();
+        // an expiry earlier than the time to live is used
+        cache.get("key1", loader, clock.now.plus(Duration.ofMinutes(1)));
+        // a later one is capped at the time to live
+        cache.get("key2", loader, clock.now.plus(Duration.ofHours(1)));
+        // and an expiry that has already passed isn't cached at all
+        cache.get("key3", loader, clock.now);
+        assertThat(cache.getStats().size(), equalTo(2));
+        clock.now = clock.now.plus(Duration.ofMinutes(2));
+        cache.get("key1", loader);
+        cache.get("key2", loader);
+        clock.now = clock.now.plus(Duration.ofMinutes(10));
+        cache.get("key2", loader);
+        assertThat(loader.loadedKeys, contains("key1", "key2", "key3", "key1", "key2"));
+    }
+
+    @Test
+    public void testTokenKeys() {
+        assertThat(TokenKey.of("token1", "sandbox"), equalTo(TokenKey.of("token1", "sandbox")));
+        assertThat(TokenKey.of("token1", "sandbox"), not(equalTo(TokenKey.of("token1", "live"))));
+        assertThat(TokenKey.of("token1", null), not(equalTo(TokenKey.of("token2", null))));
+        assertThat(TokenKey.of("token1", null).tokenHash(), not(containsString("token1")));
+    }
+
+    @Test
+    public void testInvalidate() {
+        VersionedEntityCache<String, Doc> cache = newCache(100);
+        RecordingLoader loader = new RecordingLoader();
+        cache.get("key1", loader);
+        cache.get("key2", loader);
+        cache.invalidateIf(doc -> doc.content.equals("key1"));
+        assertThat(cache.getStats().size(), equalTo(1));
+        cache.invalidate("key2");
+        assertThat(cache.getStats().size(), equalTo(0));
+        cache.get("key2", loader);
+        cache.invalidateAll();
+        assertThat(cache.getStats().size(), equalTo(0));
+        assertThat(cache.getStats().weight(), equalTo(0L));
+        cache.get("key1", loader);
+        assertThat(loader.loadedKeys, contains("key1", "key2", "key2", "key1"));
+    }
+}
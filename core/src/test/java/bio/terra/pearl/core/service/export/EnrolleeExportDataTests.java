@@ -0,0 +1,38 @@
+package bio.terra.pearl.core.service.export;
+
+import bio.terra.pearl.core.model.survey.Answer;
+import bio.terra.pearl.core.model.survey.SurveyResponse;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNull.nullValue;
+
+public class EnrolleeExportDataTests {
+    @Test
+    public void testIndexesAnswersBySurveyAndQuestion() {
+        SurveyResponse responseA = SurveyResponse.builder().id(UUID.randomUUID()).build();
+        SurveyResponse responseB = SurveyResponse.builder().id(UUID.randomUUID()).build();
+        Answer a1 = Answer.builder().surveyStableId("surveyA").questionStableId("q1").surveyResponseId(responseA.getId()).build();
+        Answer a2 = Answer.builder().surveyStableId("surveyA").questionStableId("q2").surveyResponseId(responseA.getId()).build();
+        Answer b1 = Answer.builder().surveyStableId("surveyB").questionStableId("q1").surveyResponseId(responseB.getId()).build();
+        EnrolleeExportData exportData = new EnrolleeExportData(null, null, List.of(a1, b1, a2), null,
+                List.of(responseB, responseA));
+
+        assertThat(exportData.getAnswersByQuestion("surveyA").keySet(), contains("q1", "q2"));
+        assertThat(exportData.getAnswersByQuestion("surveyA").get("q2"), contains(a2));
+        assertThat(exportData.getAnswersByQuestion("surveyB").get("q1"), contains(b1));
+        assertThat(exportData.getSurveyResponse("surveyA"), equalTo(responseA));
+        assertThat(exportData.getSurveyResponse("surveyB"), equalTo(responseB));
+    }
+
+    @Test
+    public void testMissingSurvey() {
+        EnrolleeExportData exportData = new EnrolleeExportData(null, null, null, null, null);
+        assertThat(exportData.getAnswersByQuestion("surveyA"), anEmptyMap());
+        assertThat(exportData.getSurveyResponse("surveyA"), nullValue());
+    }
+}
@@ -0,0 +1,90 @@
+package bio.terra.pearl.core.service.export;
+
+import bio.terra.pearl.core.BaseSpringBootTest;
+import bio.terra.pearl.core.factory.StudyEnvironmentFactory;
+import bio.terra.pearl.core.factory.participant.EnrolleeFactory;
+import bio.terra.pearl.core.model.participant.Enrollee;
+import bio.terra.pearl.core.model.participant.MailingAddress;
+import bio.terra.pearl.core.model.participant.Profile;
+import bio.terra.pearl.core.model.study.StudyEnvironment;
+import bio.terra.pearl.core.service.participant.ProfileService;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class EnrolleeExportLoaderTests extends BaseSpringBootTest {
+    @Autowired
+    private StudyEnvironmentFactory studyEnvironmentFactory;
+    @Autowired
+    private EnrolleeFactory enrolleeFactory;
+    @Autowired
+    private EnrolleeExportLoader enrolleeExportLoader;
+    @Autowired
+    private ProfileService profileService;
+
+    @Test
+    @Transactional
+    public void testStreamAcrossChunks(TestInfo testInfo) {
+        String testName = getTestName(testInfo);
+        StudyEnvironment studyEnv = studyEnvironmentFactory.buildPersisted(testName);
+        Enrollee enrollee1 = enrolleeFactory.buildPersisted(testName, studyEnv, new Profile());
+        Enrollee enrollee2 = enrolleeFactory.buildPersisted(testName, studyEnv, new Profile());
+        Enrollee enrollee3 = enrolleeFactory.buildPersisted(testName, studyEnv, new Profile());
+
+        // a chunk size of 2 forces a second page to be fetched
+        List<String> shortcodes = enrolleeExportLoader.streamExportData(studyEnv.getId(), null, 2)
+                .map(exportData -> exportData.getEnrollee().getShortcode()).toList();
+        assertThat(shortcodes, contains(enrollee3.getShortcode(), enrollee2.getShortcode(), enrollee1.getShortcode()));
+
+        List<String> limitedShortcodes = enrolleeExportLoader.streamExportData(studyEnv.getId(), 2, 1)
+                .map(exportData -> exportData.getEnrollee().getShortcode()).toList();
+        assertThat(limitedShortcodes, contains(enrollee3.getShortcode(), enrollee2.getShortcode()));
+    }
+
+    @Test
+    @Transactional
+    public void testStreamOnlyUpdatedSince(TestInfo testInfo) {
+        String testName = getTestName(testInfo);
+        StudyEnvironment studyEnv = studyEnvironmentFactory.buildPersisted(testName);
+        Enrollee enrollee1 = enrolleeFactory.buildPersisted(testName, studyEnv, new Profile());
+        Enrollee enrollee2 = enrolleeFactory.buildPersisted(testName, studyEnv, new Profile());
+        Instant updatedSince = Instant.now();
+
+        assertThat(enrolleeExportLoader.streamExportData(studyEnv.getId(), updatedSince, null, 10).toList(), empty());
+
+        // updating the profile marks the enrollee as changed, even though the enrollee record itself wasn't updated
+        Profile profile = profileService.find(enrollee1.getProfileId()).get();
+        profile.setGivenName("Updated");
+        profileService.update(profile);
+        List<String> shortcodes = enrolleeExportLoader.streamExportData(studyEnv.getId(), updatedSince, null, 10)
+                .map(exportData -> exportData.getEnrollee().getShortcode()).toList();
+        assertThat(shortcodes, contains(enrollee1.getShortcode()));
+    }
+
+    @Test
+    @Transactional
+    public void testLoadChunkAttachesProfiles(TestInfo testInfo) {
+        String testName = getTestName(testInfo);
+        StudyEnvironment studyEnv = studyEnvironmentFactory.buildPersisted(testName);
+        Enrollee enrollee1 = enrolleeFactory.buildPersisted(testName, studyEnv, Profile.builder()
+                .givenName("Jane")
+                .mailingAddress(MailingAddress.builder().city("Boston").build()).build());
+        Enrollee enrollee2 = enrolleeFactory.buildPersisted(testName, studyEnv, Profile.builder()
+                .givenName("John").build());
+
+        List<EnrolleeExportData> exportData = enrolleeExportLoader.loadChunk(List.of(enrollee2, enrollee1));
+        assertThat(exportData, hasSize(2));
+        assertThat(exportData.get(0).getEnrollee().getId(), equalTo(enrollee2.getId()));
+        assertThat(exportData.get(0).getProfile().getGivenName(), equalTo("John"));
+        assertThat(exportData.get(1).getProfile().getGivenName(), equalTo("Jane"));
+        assertThat(exportData.get(1).getProfile().getMailingAddress().getCity(), equalTo("Boston"));
+        assertThat(exportData.get(1).getAnswers(), empty());
+        assertThat(exportData.get(1).getTasks(), empty());
+    }
+}
@@ -0,0 +1,59 @@
+package bio.terra.pearl.core.service.export;
+
+import bio.terra.pearl.core.model.survey.QuestionChoice;
+import bio.terra.pearl.core.service.export.formatters.ProfileFormatter;
+import bio.terra.pearl.core.service.export.formatters.SurveyFormatter;
+import bio.terra.pearl.core.service.export.instance.ItemExportInfo;
+import bio.terra.pearl.core.service.export.instance.ModuleExportInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+public class ExportColumnIndexTests {
+    @Test
+    public void testOrdinalsFollowColumnOrder() {
+        ItemExportInfo field1 = ItemExportInfo.builder().baseColumnKey("test1.field1").propertyAccessor("givenName").build();
+        ItemExportInfo splitItem = ItemExportInfo.builder()
+                .baseColumnKey("test2.q1")
+                .questionStableId("q1")
+                .splitOptionsIntoColumns(true)
+                .hasOtherDescription(true)
+                .choices(List.of(new QuestionChoice("choice1", "Choice 1"), new QuestionChoice("choice2", "Choice 2")))
+                .build();
+        ExportColumnIndex columnIndex = new ExportColumnIndex(List.of(
+                ModuleExportInfo.builder().moduleName("test1").formatter(new ProfileFormatter()).items(List.of(field1)).build(),
+                ModuleExportInfo.builder().moduleName("test2").formatter(new SurveyFormatter(new ObjectMapper())).items(List.of(splitItem)).build()
+        ));
+
+        assertThat(columnIndex.getColumnKeys(), equalTo(List.of("test1.field1", "test2.q1.choice1", "test2.q1.choice2", "test2.q1_description")));
+        assertThat(columnIndex.getValueOrdinal(field1), equalTo(0));
+        assertThat(columnIndex.getChoiceOrdinal(splitItem, "choice2"), equalTo(2));
+        assertThat(columnIndex.getOtherDescriptionOrdinal(splitItem), equalTo(3));
+        // split items have no single value column, and unknown choices have no column
+        assertThat(columnIndex.getValueOrdinal(splitItem), equalTo(ExportColumnIndex.NO_COLUMN));
+        assertThat(columnIndex.getChoiceOrdinal(splitItem, "choiceFromOldVersion"), equalTo(ExportColumnIndex.NO_COLUMN));
+
+        assertThat(columnIndex.getEmptyValue(0), equalTo(""));
+        assertThat(columnIndex.getEmptyValue(1), equalTo(SurveyFormatter.SPLIT_OPTION_UNSELECTED_VALUE));
+    }
+
+    @Test
+    public void testRowDropsValuesWithoutColumns() {
+        ItemExportInfo field1 = ItemExportInfo.builder().baseColumnKey("test1.field1").propertyAccessor("givenName").build();
+        ItemExportInfo notExported = ItemExportInfo.builder().baseColumnKey("test1.field2").propertyAccessor("familyName").build();
+        ExportColumnIndex columnIndex = new ExportColumnIndex(List.of(
+                ModuleExportInfo.builder().moduleName("test1").formatter(new ProfileFormatter()).items(List.of(field1)).build()
+        ));
+        ExportRow row = columnIndex.newRow();
+        assertThat(row.toMap(), anEmptyMap());
+
+        row.put(field1, "value1");
+        row.put(notExported, "value2");
+        row.putChoice(field1, "choice1", "1");
+        assertThat(row.toMap(), equalTo(Map.of("test1.field1", "value1")));
+    }
+}
@@ -0,0 +1,69 @@
+package bio.terra.pearl.core.service.export;
+
+import bio.terra.pearl.core.BaseSpringBootTest;
+import bio.terra.pearl.core.factory.StudyEnvironmentFactory;
+import bio.terra.pearl.core.model.export.ExportJob;
+import bio.terra.pearl.core.model.study.StudyEnvironment;
+import bio.terra.pearl.core.service.export.instance.ExportOptions;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class ExportFileStoreTests extends BaseSpringBootTest {
+    @Autowired
+    private StudyEnvironmentFactory studyEnvironmentFactory;
+    @Autowired
+    private ExportJobService exportJobService;
+    @Autowired
+    private ExportFileStore exportFileStore;
+
+    @Test
+    @Transactional
+    public void testWriteAndReadAcrossChunks(TestInfo testInfo) throws Exception {
+        StudyEnvironment studyEnv = studyEnvironmentFactory.buildPersisted(getTestName(testInfo));
+        ExportJob job = exportJobService.submit(new ExportOptions(), studyEnv.getId(), null);
+        byte[] contents = new byte[ExportFileStore.CHUNK_SIZE * 2 + 100];
+        new Random(1).nextBytes(contents);
+
+        long size = exportFileStore.write(job.getId(), os -> {
+            // mix single byte and array writes, so both cross chunk boundaries
+            os.write(contents[0]);
+            os.write(contents, 1, contents.length - 1);
+        });
+        assertThat(size, equalTo((long) contents.length));
+        assertThat(exportFileStore.exists(job.getId()), equalTo(true));
+        try (InputStream is = exportFileStore.getResource(job.getId(), size).getInputStream()) {
+            assertThat(Arrays.equals(is.readAllBytes(), contents), equalTo(true));
+        }
+
+        // as for a Range request, skipping into the last chunk reads from there
+        long start = ExportFileStore.CHUNK_SIZE * 2L + 10;
+        try (InputStream is = exportFileStore.getResource(job.getId(), size).getInputStream()) {
+            assertThat(is.skip(start), equalTo(start));
+            assertThat(Arrays.equals(is.readAllBytes(), Arrays.copyOfRange(contents, (int) start, contents.length)),
+                    equalTo(true));
+        }
+
+        exportFileStore.delete(job.getId());
+        assertThat(exportFileStore.exists(job.getId()), equalTo(false));
+    }
+
+    @Test
+    @Transactional
+    public void testEmptyFile(TestInfo testInfo) throws Exception {
+        StudyEnvironment studyEnv = studyEnvironmentFactory.buildPersisted(getTestName(testInfo));
+        ExportJob job = exportJobService.submit(new ExportOptions(), studyEnv.getId(), null);
+        assertThat(exportFileStore.write(job.getId(), os -> {}), equalTo(0L));
+        assertThat(exportFileStore.exists(job.getId()), equalTo(true));
+        try (InputStream is = exportFileStore.getResource(job.getId(), 0).getInputStream()) {
+            assertThat(is.read(), equalTo(-1));
+        }
+    }
+}
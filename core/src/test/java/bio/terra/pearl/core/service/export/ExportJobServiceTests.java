@@ -0,0 +1,142 @@
+package bio.terra.pearl.core.service.export;
+
+import bio.terra.pearl.core.BaseSpringBootTest;
+import bio.terra.pearl.core.dao.export.ExportJobDao;
+import bio.terra.pearl.core.factory.StudyEnvironmentFactory;
+import bio.terra.pearl.core.factory.participant.EnrolleeFactory;
+import bio.terra.pearl.core.model.export.ExportJob;
+import bio.terra.pearl.core.model.export.ExportJobStatus;
+import bio.terra.pearl.core.model.participant.Profile;
+import bio.terra.pearl.core.model.study.StudyEnvironment;
+import bio.terra.pearl.core.service.export.instance.ExportOptions;
+import bio.terra.pearl.core.model.workflow.ParticipantTask;
+import bio.terra.pearl.core.model.workflow.TaskStatus;
+import bio.terra.pearl.core.model.workflow.TaskType;
+import bio.terra.pearl.core.service.workflow.ParticipantTaskService;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class ExportJobServiceTests extends BaseSpringBootTest {
+    @Autowired
+    private StudyEnvironmentFactory studyEnvironmentFactory;
+    @Autowired
+    private EnrolleeFactory enrolleeFactory;
+    @Autowired
+    private ExportJobService exportJobService;
+    @Autowired
+    private ParticipantTaskService participantTaskService;
+    @Autowired
+    private ExportJobDao exportJobDao;
+
+    @Test
+    @Transactional
+    public void testRunWritesFile(TestInfo testInfo) throws Exception {
+        String testName = getTestName(testInfo);
+        StudyEnvironment studyEnv = studyEnvironmentFactory.buildPersisted(testName);
+        enrolleeFactory.buildPersisted(testName, studyEnv, Profile.builder().givenName("Jane").build());
+
+        ExportJob job = exportJobService.submit(new ExportOptions(), studyEnv.getId(), null);
+        assertThat(job.getStatus(), equalTo(ExportJobStatus.PENDING));
+
+        exportJobService.run(job.getId());
+        ExportJob completedJob = exportJobService.find(job.getId()).get();
+        assertThat(completedJob.getStatus(), equalTo(ExportJobStatus.COMPLETE));
+        byte[] output = exportJobService.getFileResource(completedJob).getInputStream().readAllBytes();
+        assertThat(new String(output, StandardCharsets.UTF_8), containsString("Jane"));
+        assertThat(completedJob.getFileSize(), equalTo((long) output.length));
+    }
+
+    @Test
+    @Transactional
+    public void testSubmitReusesJobs(TestInfo testInfo) throws Exception {
+        String testName = getTestName(testInfo);
+        StudyEnvironment studyEnv = studyEnvironmentFactory.buildPersisted(testName);
+        enrolleeFactory.buildPersisted(testName, studyEnv, new Profile());
+
+        ExportJob job = exportJobService.submit(new ExportOptions(), studyEnv.getId(), null);
+        // an identical request while the job is pending returns the pending job, even with different parallelism
+        ExportOptions parallelOptions = new ExportOptions(false, false, true, ExportFileFormat.TSV, null, 4, 100, null);
+        assertThat(exportJobService.submit(parallelOptions, studyEnv.getId(), null).getId(), equalTo(job.getId()));
+        // a request with different output options gets a new job
+        ExportOptions jsonOptions = new ExportOptions(false, false, true, ExportFileFormat.JSON, null);
+        assertThat(exportJobService.submit(jsonOptions, studyEnv.getId(), null).getId(), not(equalTo(job.getId())));
+
+        exportJobService.run(job.getId());
+        // the completed job is reused as long as the data hasn't changed
+        assertThat(exportJobService.submit(new ExportOptions(), studyEnv.getId(), null).getId(), equalTo(job.getId()));
+
+        enrolleeFactory.buildPersisted(testName, studyEnv, new Profile());
+        ExportJob newJob = exportJobService.submit(new ExportOptions(), studyEnv.getId(), null);
+        assertThat(newJob.getId(), not(equalTo(job.getId())));
+        assertThat(newJob.getStatus(), equalTo(ExportJobStatus.PENDING));
+    }
+
+    @Test
+    @Transactional
+    public void testTaskChangesInvalidateCachedResult(TestInfo testInfo) {
+        EnrolleeFactory.EnrolleeBundle enrolleeBundle = enrolleeFactory.buildWithPortalUser(getTestName(testInfo));
+        UUID studyEnvId = enrolleeBundle.enrollee().getStudyEnvironmentId();
+        ExportJob job = exportJobService.submit(new ExportOptions(), studyEnvId, null);
+        exportJobService.run(job.getId());
+        assertThat(exportJobService.submit(new ExportOptions(), studyEnvId, null).getId(), equalTo(job.getId()));
+
+        participantTaskService.create(ParticipantTask.builder()
+                .enrolleeId(enrolleeBundle.enrollee().getId())
+                .portalParticipantUserId(enrolleeBundle.portalParticipantUser().getId())
+                .studyEnvironmentId(studyEnvId)
+                .taskType(TaskType.SURVEY)
+                .targetStableId("testTaskChangesInvalidateCachedResult")
+                .status(TaskStatus.NEW)
+                .build());
+        assertThat(exportJobService.submit(new ExportOptions(), studyEnvId, null).getId(), not(equalTo(job.getId())));
+    }
+
+    @Test
+    @Transactional
+    public void testCreateIfNoneInProgress(TestInfo testInfo) {
+        String testName = getTestName(testInfo);
+        StudyEnvironment studyEnv = studyEnvironmentFactory.buildPersisted(testName);
+        ExportJob job = exportJobService.submit(new ExportOptions(), studyEnv.getId(), null);
+        // as a concurrent submit would, try creating an identical job without checking for one first
+        ExportJob duplicate = ExportJob.builder()
+                .studyEnvironmentId(studyEnv.getId())
+                .status(ExportJobStatus.PENDING)
+                .fileFormat(job.getFileFormat())
+                .optionsJson(job.getOptionsJson())
+                .optionsHash(job.getOptionsHash())
+                .build();
+        assertThat(exportJobDao.createIfNoneInProgress(duplicate).isPresent(), equalTo(false));
+
+        // once the job is no longer in progress, an identical one can be created
+        job.setStatus(ExportJobStatus.FAILED);
+        exportJobDao.update(job);
+        assertThat(exportJobDao.createIfNoneInProgress(duplicate).isPresent(), equalTo(true));
+    }
+
+    @Test
+    @Transactional
+    public void testFinishDoesNotOverwriteAbandonedJob(TestInfo testInfo) {
+        String testName = getTestName(testInfo);
+        StudyEnvironment studyEnv = studyEnvironmentFactory.buildPersisted(testName);
+        ExportJob job = exportJobService.submit(new ExportOptions(), studyEnv.getId(), null);
+        assertThat(exportJobDao.claim(job.getId(), Instant.now()), equalTo(true));
+
+        // simulate the abandoned job sweep marking the job failed while it is still being written
+        ExportJob sweptJob = exportJobService.find(job.getId()).get();
+        sweptJob.setStatus(ExportJobStatus.FAILED);
+        exportJobDao.update(sweptJob);
+
+        job.setStatus(ExportJobStatus.COMPLETE);
+        job.setCompletedAt(Instant.now());
+        assertThat(exportJobDao.finish(job), equalTo(false));
+        assertThat(exportJobService.find(job.getId()).get().getStatus(), equalTo(ExportJobStatus.FAILED));
+    }
+}
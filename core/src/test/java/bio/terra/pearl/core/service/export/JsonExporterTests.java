@@ -0,0 +1,43 @@
+package bio.terra.pearl.core.service.export;
+
+import bio.terra.pearl.core.BaseSpringBootTest;
+import bio.terra.pearl.core.model.participant.Profile;
+import bio.terra.pearl.core.service.export.formatters.ProfileFormatter;
+import bio.terra.pearl.core.service.export.instance.ItemExportInfo;
+import bio.terra.pearl.core.service.export.instance.ModuleExportInfo;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.stream.Stream;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+public class JsonExporterTests extends BaseSpringBootTest {
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Test
+    public void testStreamedExport() throws Exception {
+        var profileModuleInfo = ModuleExportInfo.builder()
+                .moduleName("test1")
+                .formatter(new ProfileFormatter())
+                .items(List.of(
+                        ItemExportInfo.builder().baseColumnKey("test1.field1").propertyAccessor("givenName").build()
+                )).build();
+        Stream<EnrolleeExportData> exportData = Stream.of("one", "two").map(name ->
+                new EnrolleeExportData(null, Profile.builder().givenName(name).build(), null, null, null));
+        JsonExporter exporter = new JsonExporter(List.of(profileModuleInfo), exportData, objectMapper);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        exporter.export(baos);
+        baos.close();
+
+        JsonNode result = objectMapper.readTree(baos.toString());
+        assertThat(result.get("columnKeys").get(0).asText(), equalTo("test1.field1"));
+        assertThat(result.get("subHeaderRowValues").get(0).asText(), equalTo("Given Name"));
+        assertThat(result.get("valueMaps").size(), equalTo(2));
+        assertThat(result.get("valueMaps").get(1).get("test1.field1").asText(), equalTo("two"));
+    }
+}
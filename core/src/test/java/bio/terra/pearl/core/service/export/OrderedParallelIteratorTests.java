@@ -0,0 +1,81 @@
+package bio.terra.pearl.core.service.export;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class OrderedParallelIteratorTests {
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testPreservesSourceOrder() {
+        List<Integer> source = IntStream.range(0, 50).boxed().toList();
+        // earlier elements take longer, so they complete out of order
+        OrderedParallelIterator<Integer, Integer> iterator = new OrderedParallelIterator<>(source.iterator(), i -> {
+            sleep(50 - i);
+            return i * 2;
+        }, executor, 4);
+        List<Integer> results = new ArrayList<>();
+        iterator.forEachRemaining(results::add);
+        assertThat(results, equalTo(source.stream().map(i -> i * 2).toList()));
+    }
+
+    @Test
+    public void testPropagatesErrors() {
+        OrderedParallelIterator<Integer, Integer> iterator = new OrderedParallelIterator<>(List.of(1, 2, 3).iterator(), i -> {
+            if (i == 2) {
+                throw new IllegalStateException("bad element");
+            }
+            return i;
+        }, executor, 2);
+        assertThat(iterator.next(), equalTo(1));
+        assertThrows(IllegalStateException.class, iterator::next);
+    }
+
+    @Test
+    public void testCancelFreesExecutor() throws Exception {
+        CountDownLatch neverReleased = new CountDownLatch(1);
+        // enough elements to occupy every thread of the executor
+        OrderedParallelIterator<Integer, Integer> iterator = new OrderedParallelIterator<>(List.of(1, 2, 3, 4).iterator(), i -> {
+            try {
+                neverReleased.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return i;
+        }, executor, 4);
+        assertThat(iterator.hasNext(), equalTo(true));
+        iterator.cancel();
+        assertThat(iterator.hasNext(), equalTo(false));
+        // other work sharing the executor can now run
+        assertThat(executor.submit(() -> 5).get(5, TimeUnit.SECONDS), equalTo(5));
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
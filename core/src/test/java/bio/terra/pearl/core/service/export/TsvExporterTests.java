@@ -1,7 +1,10 @@
 package bio.terra.pearl.core.service.export;
 
 import bio.terra.pearl.core.BaseSpringBootTest;
+import bio.terra.pearl.core.model.participant.Profile;
+import bio.terra.pearl.core.model.survey.Answer;
 import bio.terra.pearl.core.model.survey.QuestionChoice;
+import bio.terra.pearl.core.model.survey.SurveyResponse;
 import bio.terra.pearl.core.service.export.formatters.ProfileFormatter;
 import bio.terra.pearl.core.service.export.formatters.SurveyFormatter;
 import bio.terra.pearl.core.service.export.instance.ItemExportInfo;
@@ -10,7 +13,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.List;
-import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.IsEqual.equalTo;
 import org.junit.jupiter.api.Test;
@@ -25,21 +31,20 @@ public class TsvExporterTests extends BaseSpringBootTest {
                 .moduleName("test1")
                 .formatter(new ProfileFormatter()) // use the profile formatter since it's just a basic bean format
                 .items(List.of(
-                        ItemExportInfo.builder().baseColumnKey("test1.field1").propertyAccessor("field1").build(),
-                        ItemExportInfo.builder().baseColumnKey("test1.field2").propertyAccessor("field2").build()
+                        ItemExportInfo.builder().baseColumnKey("test1.field1").propertyAccessor("givenName").build(),
+                        ItemExportInfo.builder().baseColumnKey("test1.field2").propertyAccessor("familyName").build()
                         )).build();
-        Map<String, String> valueMap = Map.of("test1.field1", "blahblah",
-                "test1.field2", "bloblob");
-        TsvExporter exporter = new TsvExporter(List.of(profileModuleInfo), List.of(valueMap));
-        String outString = getExportResult(List.of(valueMap), List.of(profileModuleInfo));
-        assertThat(outString, equalTo("test1.field1\ttest1.field2\nField 1\tField 2\nblahblah\tbloblob\n"));
+        Profile profile = Profile.builder().givenName("blahblah").familyName("bloblob").build();
+        EnrolleeExportData exportData = new EnrolleeExportData(null, profile, null, null, null);
+        String outString = getExportResult(List.of(exportData), List.of(profileModuleInfo));
+        assertThat(outString, equalTo("test1.field1\ttest1.field2\nGiven Name\tFamily Name\nblahblah\tbloblob\n"));
     }
 
     @Test
     public void testSplitColumnsExport() throws Exception {
         var profileModuleInfo = ModuleExportInfo.builder()
                 .moduleName("test1")
-                .formatter(new SurveyFormatter(objectMapper)) // use the profile formatter since it's just a basic bean format
+                .formatter(new SurveyFormatter(objectMapper))
                 .items(List.of(
                         ItemExportInfo.builder()
                                 .baseColumnKey("survey.q1")
@@ -53,14 +58,45 @@ public class TsvExporterTests extends BaseSpringBootTest {
                                 ))
                                 .build()
                 )).build();
-        Map<String, String> valueMap = Map.of("survey.q1.choice1", "1",
-                "survey.q1.choice3", "1");
-        String outString = getExportResult(List.of(valueMap), List.of(profileModuleInfo));
+        SurveyResponse response = SurveyResponse.builder().id(UUID.randomUUID()).build();
+        Answer answer = Answer.builder()
+                .surveyStableId("test1")
+                .questionStableId("q1")
+                .surveyResponseId(response.getId())
+                .objectValue("[\"choice1\", \"choice3\"]")
+                .build();
+        EnrolleeExportData exportData = new EnrolleeExportData(null, null, List.of(answer), null, List.of(response));
+        String outString = getExportResult(List.of(exportData), List.of(profileModuleInfo));
         assertThat(outString, equalTo("test1.q1.choice1\ttest1.q1.choice2\ttest1.q1.choice3\nChoice 1\tChoice 2\tChoice 3\n1\t0\t1\n"));
     }
 
-    private String getExportResult(List<Map<String, String>> valueMaps, List<ModuleExportInfo> moduleExportInfos) throws IOException {
-        TsvExporter exporter = new TsvExporter(moduleExportInfos, valueMaps);
+    @Test
+    public void testParallelFormattingPreservesOrder() throws Exception {
+        var profileModuleInfo = ModuleExportInfo.builder()
+                .moduleName("test1")
+                .formatter(new ProfileFormatter())
+                .items(List.of(
+                        ItemExportInfo.builder().baseColumnKey("test1.field1").propertyAccessor("givenName").build()
+                )).build();
+        List<EnrolleeExportData> exportData = IntStream.range(0, 100).mapToObj(i ->
+                new EnrolleeExportData(null, Profile.builder().givenName("name" + i).build(), null, null, null)).toList();
+        String serialResult = getExportResult(exportData, List.of(profileModuleInfo));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            TsvExporter exporter = new TsvExporter(List.of(profileModuleInfo), exportData.stream());
+            // small batches so that many are in flight at once
+            exporter.formatInParallel(executor, 4, 3);
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            exporter.export(baos);
+            assertThat(baos.toString(), equalTo(serialResult));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private String getExportResult(List<EnrolleeExportData> exportData, List<ModuleExportInfo> moduleExportInfos) throws IOException {
+        TsvExporter exporter = new TsvExporter(moduleExportInfos, exportData.stream());
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         exporter.export(baos);
         baos.close();
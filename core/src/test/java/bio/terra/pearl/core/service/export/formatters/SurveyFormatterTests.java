@@ -6,13 +6,14 @@ import bio.terra.pearl.core.model.survey.Survey;
 import bio.terra.pearl.core.model.survey.SurveyQuestionDefinition;
 import bio.terra.pearl.core.model.survey.SurveyResponse;
 import bio.terra.pearl.core.service.export.EnrolleeExportData;
+import bio.terra.pearl.core.service.export.ExportColumnIndex;
+import bio.terra.pearl.core.service.export.ExportRow;
 import bio.terra.pearl.core.service.export.formatters.SurveyFormatter;
 import bio.terra.pearl.core.service.export.instance.ExportOptions;
 import bio.terra.pearl.core.service.export.instance.ItemExportInfo;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -168,7 +169,6 @@ public class SurveyFormatterTests extends BaseSpringBootTest {
 
     /** helper for testing generation of answer maps values for a single question-answer pair */
     private Map<String, String> generateAnswerMap(SurveyQuestionDefinition question, Answer answer, ExportOptions exportOptions) throws JsonProcessingException {
-        Map<String, String> valueMap = new HashMap<>();
         Survey testSurvey =  Survey.builder()
                 .id(UUID.randomUUID())
                 .stableId("oh_surveyA")
@@ -181,8 +181,9 @@ public class SurveyFormatterTests extends BaseSpringBootTest {
                 itemInfo -> "oh_surveyA_q1".equals(itemInfo.getQuestionStableId())
         ).findFirst().get();
         Map<String, List<Answer>> answerMap = Map.of("oh_surveyA_q1", List.of(answer));
-        surveyFormatter.addAnswersToMap(moduleExportInfo, itemExportInfo, answerMap, valueMap);
-        return valueMap;
+        ExportRow row = new ExportColumnIndex(List.of(moduleExportInfo)).newRow();
+        surveyFormatter.addAnswersToRow(moduleExportInfo, itemExportInfo, answerMap, row);
+        return row.toMap();
     }
 
 }
@@ -224,6 +224,36 @@ public class KitRequestServiceTest extends BaseSpringBootTest {
         Mockito.verifyNoInteractions(mockPepperDSMClient);
     }
 
+    @Transactional
+    @Test
+    public void testSyncAllKitStatusesSkipsUnchangedKits(TestInfo testInfo) throws Exception {
+        String testName = getTestName(testInfo);
+        var kitType = kitTypeFactory.buildPersisted(testName);
+        var adminUser = adminUserFactory.buildPersisted(testName);
+        var studyEnvironment = studyEnvironmentFactory.buildPersisted(testName);
+        kitTypeFactory.attachTypeToEnvironment(kitType.getId(), studyEnvironment.getId());
+        var study = studyDao.find(studyEnvironment.getStudyId()).get();
+        var enrollee = enrolleeFactory.buildPersisted(testName, studyEnvironment);
+        var kitRequest = kitRequestFactory.buildPersisted(testName,
+            enrollee.getId(), kitType.getId(), adminUser.getId());
+        var kitStatus = PepperKitStatus.builder()
+                .juniperKitId(kitRequest.getId().toString())
+                .currentStatus(PepperKitStatus.Status.SENT.currentStatus)
+                .build();
+        when(mockPepperDSMClient.fetchKitStatusByStudy(study.getShortcode()))
+                .thenReturn(List.of(kitStatus));
+
+        kitRequestService.syncAllKitStatusesFromPepper();
+        var syncedKit = kitRequestDao.find(kitRequest.getId()).get();
+        verifyKit(kitRequest, kitStatus, KitRequestStatus.IN_PROGRESS);
+
+        // a second sync with the same status from Pepper shouldn't write the kit again
+        kitRequestService.syncAllKitStatusesFromPepper();
+        var resyncedKit = kitRequestDao.find(kitRequest.getId()).get();
+        assertThat(resyncedKit.getLastUpdatedAt(), equalTo(syncedKit.getLastUpdatedAt()));
+        assertThat(resyncedKit.getDsmStatusFetchedAt(), equalTo(syncedKit.getDsmStatusFetchedAt()));
+    }
+
     private void verifyKit(KitRequest kit, PepperKitStatus expectedDSMStatus, KitRequestStatus expectedStatus)
             throws JsonProcessingException {
         var savedKit = kitRequestDao.find(kit.getId()).get();
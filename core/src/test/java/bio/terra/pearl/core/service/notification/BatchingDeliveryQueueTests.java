@@ -0,0 +1,74 @@
+package bio.terra.pearl.core.service.notification;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class BatchingDeliveryQueueTests {
+    @Test
+    public void testDeliversAllItemsInBoundedBatches() throws Exception {
+        List<Integer> items = IntStream.range(0, 500).boxed().toList();
+        List<Integer> delivered = new CopyOnWriteArrayList<>();
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(items.size());
+        BatchingDeliveryQueue<Integer> queue = new BatchingDeliveryQueue<>("testBatches", 2, 100, 20, batch -> {
+            batchSizes.add(batch.size());
+            delivered.addAll(batch);
+            batch.forEach(item -> latch.countDown());
+        });
+
+        queue.queue(items);
+        assertThat(latch.await(10, TimeUnit.SECONDS), equalTo(true));
+        queue.shutdown(Duration.ofSeconds(5));
+        assertThat(delivered, containsInAnyOrder(items.toArray()));
+        assertThat(batchSizes, everyItem(lessThanOrEqualTo(20)));
+    }
+
+    @Test
+    public void testProcessorErrorsDoNotStopWorkers() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        BatchingDeliveryQueue<String> queue = new BatchingDeliveryQueue<>("testErrors", 1, 10, 1, batch -> {
+            if (batch.contains("bad")) {
+                throw new IllegalStateException("delivery failed");
+            }
+            latch.countDown();
+        });
+
+        // with no transaction, queueAfterCommit queues immediately
+        queue.queueAfterCommit(List.of("bad"));
+        queue.queueAfterCommit(List.of("good"));
+        assertThat(latch.await(10, TimeUnit.SECONDS), equalTo(true));
+        queue.shutdown(Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void testShutdownDrainsQueue() {
+        List<Integer> delivered = new CopyOnWriteArrayList<>();
+        BatchingDeliveryQueue<Integer> queue = new BatchingDeliveryQueue<>("testDrain", 1, 100, 5, batch -> {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            delivered.addAll(batch);
+        });
+
+        List<Integer> items = IntStream.range(0, 50).boxed().toList();
+        queue.queue(items);
+        // the queued items are delivered before shutdown returns, and nothing is queued afterward
+        queue.shutdown(Duration.ofSeconds(10));
+        assertThat(delivered, containsInAnyOrder(items.toArray()));
+        queue.queue(List.of(100));
+        assertThat(queue.size(), equalTo(0));
+    }
+}
@@ -8,6 +8,7 @@ import bio.terra.pearl.core.factory.participant.ParticipantTaskFactory;
 import bio.terra.pearl.core.factory.portal.PortalEnvironmentFactory;
 import bio.terra.pearl.core.model.notification.Notification;
 import bio.terra.pearl.core.model.notification.NotificationConfig;
+import bio.terra.pearl.core.model.notification.NotificationDeliveryStatus;
 import bio.terra.pearl.core.model.notification.NotificationDeliveryType;
 import bio.terra.pearl.core.model.notification.NotificationType;
 import bio.terra.pearl.core.model.portal.PortalEnvironment;
@@ -51,9 +52,48 @@ public class EnrolleeReminderServiceTests extends BaseSpringBootTest {
     assertThat(notificationList, hasSize(1));
     assertThat(notificationList.get(0).getNotificationConfigId(), equalTo(savedConfig.getId()));
   }
+
+  @Test
+  @Transactional
+  public void testRemindersAreSpacedFromSentNotifications() {
+    PortalEnvironment portalEnv = portalEnvironmentFactory.buildPersisted("testRemindersAreSpaced");
+    StudyEnvironment studyEnv = studyEnvironmentFactory.buildPersisted(portalEnv, "testRemindersAreSpaced");
+    var sentBundle = enrolleeFactory.buildWithPortalUser("testRemindersAreSpaced", portalEnv, studyEnv);
+    participantTaskFactory.buildPersisted(sentBundle, TaskStatus.NEW, TaskType.CONSENT);
+    // survey reminders are only sent to consented enrollees, and this one hasn't consented
+    participantTaskFactory.buildPersisted(sentBundle, TaskStatus.NEW, TaskType.SURVEY);
+    var failedBundle = enrolleeFactory.buildWithPortalUser("testRemindersAreSpaced", portalEnv, studyEnv);
+    participantTaskFactory.buildPersisted(failedBundle, TaskStatus.NEW, TaskType.CONSENT);
+
+    for (TaskType taskType : List.of(TaskType.CONSENT, TaskType.SURVEY)) {
+      notificationConfigService.create(NotificationConfig.builder()
+          .notificationType(NotificationType.TASK_REMINDER)
+          .taskType(taskType)
+          .afterMinutesIncomplete(0)
+          .deliveryType(NotificationDeliveryType.EMAIL)
+          .studyEnvironmentId(studyEnv.getId())
+          .portalEnvironmentId(portalEnv.getId())
+          .build());
+    }
+    enrolleeReminderService.sendTaskReminders(studyEnv);
+    // delivery happens after the run's transaction commits, so record the outcomes as the delivery queue would
+    Notification sentNotification = notificationDao.findByEnrolleeId(sentBundle.enrollee().getId()).get(0);
+    sentNotification.setDeliveryStatus(NotificationDeliveryStatus.SENT);
+    Notification failedNotification = notificationDao.findByEnrolleeId(failedBundle.enrollee().getId()).get(0);
+    failedNotification.setDeliveryStatus(NotificationDeliveryStatus.FAILED);
+    notificationService.bulkUpdateDeliveryStatus(List.of(sentNotification, failedNotification));
+
+    // the second run is within the reminder interval of the sent reminder, but a failed reminder doesn't count
+    enrolleeReminderService.sendTaskReminders(studyEnv);
+    assertThat(notificationDao.findByEnrolleeId(sentBundle.enrollee().getId()), hasSize(1));
+    assertThat(notificationDao.findByEnrolleeId(failedBundle.enrollee().getId()), hasSize(2));
+  }
+
   @Autowired
   private ParticipantTaskFactory participantTaskFactory;
   @Autowired
+  private NotificationService notificationService;
+  @Autowired
   private EnrolleeReminderService enrolleeReminderService;
   @Autowired
   private StudyEnvironmentFactory studyEnvironmentFactory;
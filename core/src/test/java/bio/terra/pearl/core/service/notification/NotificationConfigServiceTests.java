@@ -0,0 +1,64 @@
+package bio.terra.pearl.core.service.notification;
+
+import bio.terra.pearl.core.BaseSpringBootTest;
+import bio.terra.pearl.core.factory.participant.EnrolleeFactory;
+import bio.terra.pearl.core.model.notification.NotificationConfig;
+import bio.terra.pearl.core.model.notification.NotificationEventType;
+import bio.terra.pearl.core.model.notification.NotificationType;
+import bio.terra.pearl.core.model.workflow.TaskType;
+import bio.terra.pearl.core.service.survey.EnrolleeSurveyEvent;
+import bio.terra.pearl.core.service.workflow.EnrolleeCreationEvent;
+import bio.terra.pearl.core.service.workflow.PortalRegistrationEvent;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+
+public class NotificationConfigServiceTests extends BaseSpringBootTest {
+    @Autowired
+    private NotificationConfigService notificationConfigService;
+    @Autowired
+    private EnrolleeFactory enrolleeFactory;
+
+    @Test
+    @Transactional
+    public void testFindActiveEventConfigs(TestInfo testInfo) {
+        EnrolleeFactory.EnrolleeBundle bundle = enrolleeFactory.buildWithPortalUser(getTestName(testInfo));
+        UUID studyEnvId = bundle.enrollee().getStudyEnvironmentId();
+        UUID portalEnvId = bundle.portalParticipantUser().getPortalEnvironmentId();
+        NotificationConfig enrollmentConfig = notificationConfigService.create(eventConfig(studyEnvId, portalEnvId,
+                NotificationEventType.STUDY_ENROLLMENT).build());
+        NotificationConfig surveyConfig = notificationConfigService.create(eventConfig(studyEnvId, portalEnvId,
+                NotificationEventType.SURVEY_RESPONSE).build());
+        notificationConfigService.create(eventConfig(studyEnvId, portalEnvId, NotificationEventType.STUDY_ENROLLMENT)
+                .active(false).build());
+        notificationConfigService.create(NotificationConfig.builder()
+                .studyEnvironmentId(studyEnvId)
+                .portalEnvironmentId(portalEnvId)
+                .notificationType(NotificationType.TASK_REMINDER)
+                .taskType(TaskType.SURVEY).build());
+
+        assertThat(notificationConfigService.findActiveEventConfigs(studyEnvId, EnrolleeCreationEvent.class),
+                contains(enrollmentConfig));
+        assertThat(notificationConfigService.findActiveEventConfigs(studyEnvId, EnrolleeSurveyEvent.class),
+                contains(surveyConfig));
+        assertThat(notificationConfigService.findActiveEventConfigs(studyEnvId, PortalRegistrationEvent.class),
+                empty());
+        assertThat(notificationConfigService.findActiveEventConfigs(UUID.randomUUID(), EnrolleeCreationEvent.class),
+                empty());
+    }
+
+    private NotificationConfig.NotificationConfigBuilder eventConfig(UUID studyEnvId, UUID portalEnvId,
+                                                                     NotificationEventType eventType) {
+        return NotificationConfig.builder()
+                .studyEnvironmentId(studyEnvId)
+                .portalEnvironmentId(portalEnvId)
+                .notificationType(NotificationType.EVENT)
+                .eventType(eventType);
+    }
+}
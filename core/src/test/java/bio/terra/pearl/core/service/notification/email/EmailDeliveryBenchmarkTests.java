@@ -0,0 +1,98 @@
+package bio.terra.pearl.core.service.notification.email;
+
+import bio.terra.pearl.core.BenchmarkTest;
+import bio.terra.pearl.core.service.notification.BatchingDeliveryQueue;
+import com.sendgrid.Content;
+import com.sendgrid.Email;
+import com.sendgrid.Mail;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+
+/**
+ * Sends a bulk email (the same content to every recipient, like a new survey announcement) to a local SendGrid stub,
+ * once with a call per email from a fixed thread pool, as @Async delivery did, and once through a
+ * BatchingDeliveryQueue that combines identical emails into one call.  Run with `./gradlew benchmark` -- the
+ * timings are printed.
+ */
+public class EmailDeliveryBenchmarkTests {
+    private static final int EMAIL_COUNT = 20000;
+    private static final int THREADS = 4;
+    private static final Duration STUB_LATENCY = Duration.ofMillis(20);
+
+    @BenchmarkTest
+    public void benchmarkBulkDelivery() throws Exception {
+        try (SendgridStub stub = new SendgridStub(STUB_LATENCY)) {
+            SendgridClient sendgridClient = new SendgridClient(new MockEnvironment()
+                    .withProperty(SendgridClient.SENDGRID_API_KEY_VAR, "stub")
+                    .withProperty(SendgridClient.SENDGRID_HOST_VAR, "localhost:" + stub.getPort()));
+            List<Mail> mails = new ArrayList<>();
+            for (int i = 0; i < EMAIL_COUNT; i++) {
+                mails.add(new Mail(new Email("us@test.org", "Test Portal"), "A new survey is available",
+                        new Email("participant" + i + "@test.org"), new Content("text/html", "<p>Please take it</p>")));
+            }
+
+            long start = System.nanoTime();
+            sendIndividually(sendgridClient, mails);
+            long individualMillis = (System.nanoTime() - start) / 1_000_000;
+            long individualRequests = stub.getRequestCount();
+
+            start = System.nanoTime();
+            sendBatched(sendgridClient, mails);
+            long batchedMillis = (System.nanoTime() - start) / 1_000_000;
+            long batchedRequests = stub.getRequestCount() - individualRequests;
+
+            System.out.printf("%d emails, %dms stub latency, %d threads%n", EMAIL_COUNT, STUB_LATENCY.toMillis(), THREADS);
+            System.out.printf("call per email: %d ms, %d requests%n", individualMillis, individualRequests);
+            System.out.printf("batching queue: %d ms, %d requests%n", batchedMillis, batchedRequests);
+            assertThat(stub.getRecipientCount(), equalTo(2L * EMAIL_COUNT));
+            assertThat(batchedRequests, lessThan(individualRequests));
+        }
+    }
+
+    private void sendIndividually(SendgridClient sendgridClient, List<Mail> mails) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (Mail mail : mails) {
+            executor.execute(() -> send(sendgridClient, mail));
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.HOURS);
+    }
+
+    private void sendBatched(SendgridClient sendgridClient, List<Mail> mails) throws InterruptedException {
+        CountDownLatch sent = new CountDownLatch(mails.size());
+        BatchingDeliveryQueue<Mail> queue = new BatchingDeliveryQueue<>("benchmarkEmail", THREADS, 5000,
+                SendgridClient.MAX_PERSONALIZATIONS, batch -> {
+                    // group as EnrolleeEmailService does, though here every email has the same content
+                    Map<String, List<Mail>> byContent = new LinkedHashMap<>();
+                    for (Mail mail : batch) {
+                        byContent.computeIfAbsent(mail.getSubject() + mail.getContent().get(0).getValue(),
+                                key -> new ArrayList<>()).add(mail);
+                    }
+                    byContent.values().forEach(group -> send(sendgridClient, sendgridClient.combine(group)));
+                    batch.forEach(mail -> sent.countDown());
+                });
+        queue.queue(mails);
+        sent.await(1, TimeUnit.HOURS);
+        queue.shutdown();
+    }
+
+    private void send(SendgridClient sendgridClient, Mail mail) {
+        try {
+            sendgridClient.sendEmail(mail);
+        } catch (Exception e) {
+            throw new RuntimeException("Send to stub failed", e);
+        }
+    }
+}
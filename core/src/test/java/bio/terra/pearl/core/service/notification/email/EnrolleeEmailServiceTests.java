@@ -18,6 +18,9 @@ import bio.terra.pearl.core.service.rule.EnrolleeRuleData;
 import bio.terra.pearl.core.service.study.StudyService;
 import bio.terra.pearl.core.shared.ApplicationRoutingPaths;
 import com.sendgrid.Mail;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import org.junit.jupiter.api.Test;
@@ -87,6 +90,61 @@ public class EnrolleeEmailServiceTests extends BaseSpringBootTest {
         testDoNotSendProfile(enrolleeEmailService, enrolleeBundle, config);
     }
 
+    @Test
+    @Transactional
+    public void testRequeueStaleNotifications() {
+        EnrolleeFactory.EnrolleeBundle enrolleeBundle = enrolleeFactory.buildWithPortalUser("testRequeueStaleNotifications");
+        // with no template, the requeued notification will be skipped rather than sent
+        NotificationConfig config = notificationConfigFactory.buildPersisted(NotificationConfig.builder()
+                .deliveryType(NotificationDeliveryType.EMAIL)
+                .notificationType(NotificationType.EVENT),
+                enrolleeBundle.enrollee().getStudyEnvironmentId(), enrolleeBundle.portalParticipantUser().getPortalEnvironmentId());
+        Notification recentNotification = notificationFactory.buildPersisted(enrolleeBundle, config);
+        Notification staleNotification = notificationFactory.buildPersisted(notificationFactory
+                .builder(enrolleeBundle, config)
+                .lastUpdatedAt(Instant.now().minus(Duration.ofHours(2))));
+
+        enrolleeEmailService.requeueStaleNotifications(Duration.ofHours(1));
+        assertThat(notificationService.find(staleNotification.getId()).get().getDeliveryStatus(),
+                equalTo(NotificationDeliveryStatus.SKIPPED));
+        assertThat(notificationService.find(recentNotification.getId()).get().getDeliveryStatus(),
+                equalTo(NotificationDeliveryStatus.READY));
+    }
+
+    @Test
+    @Transactional
+    public void testDeliverIsolatesBadDeliveries() {
+        EnrolleeFactory.EnrolleeBundle enrolleeBundle = enrolleeFactory.buildWithPortalUser("testDeliverIsolatesBadDeliveries");
+        EmailTemplate emailTemplate = emailTemplateFactory.buildPersisted("testDeliverIsolatesBadDeliveries", enrolleeBundle.portalId());
+        NotificationConfig config = notificationConfigFactory.buildPersisted(NotificationConfig.builder()
+                .emailTemplateId(emailTemplate.getId())
+                .deliveryType(NotificationDeliveryType.EMAIL)
+                .notificationType(NotificationType.EVENT),
+                enrolleeBundle.enrollee().getStudyEnvironmentId(), enrolleeBundle.portalParticipantUser().getPortalEnvironmentId());
+        var contextInfo = new NotificationContextInfo(null, null, null, null, emailTemplate);
+        Notification noProfileNotification = notificationFactory.buildPersisted(enrolleeBundle, config);
+        Notification notification = notificationFactory.buildPersisted(enrolleeBundle, config);
+
+        enrolleeEmailService.deliver(List.of(
+                new EnrolleeEmailService.EmailDelivery(noProfileNotification, config,
+                        new EnrolleeRuleData(enrolleeBundle.enrollee(), null), contextInfo),
+                new EnrolleeEmailService.EmailDelivery(notification, config,
+                        new EnrolleeRuleData(enrolleeBundle.enrollee(), Profile.builder().build()), contextInfo)));
+        // the enrollee without a profile fails on its own, and the other delivery's status is still saved
+        assertThat(notificationService.find(noProfileNotification.getId()).get().getDeliveryStatus(),
+                equalTo(NotificationDeliveryStatus.FAILED));
+        // this one fails too, since there's no portal or sendgrid configured, but it gets there without throwing
+        assertThat(notificationService.find(notification.getId()).get().getDeliveryStatus(),
+                equalTo(NotificationDeliveryStatus.FAILED));
+
+        // and one without a profile is skipped before it gets to delivery
+        Notification skippedNotification = notificationFactory.buildPersisted(enrolleeBundle, config);
+        enrolleeEmailService.processNotification(skippedNotification, config,
+                new EnrolleeRuleData(enrolleeBundle.enrollee(), null), contextInfo);
+        assertThat(notificationService.find(skippedNotification.getId()).get().getDeliveryStatus(),
+                equalTo(NotificationDeliveryStatus.SKIPPED));
+    }
+
     private void testSendProfile(EnrolleeEmailService enrolleeEmailService, EnrolleeFactory.EnrolleeBundle enrolleeBundle, NotificationConfig config) {
         var notification = notificationFactory.buildPersisted(enrolleeBundle, config);
         var ruleData = new EnrolleeRuleData(enrolleeBundle.enrollee(), Profile.builder().build());
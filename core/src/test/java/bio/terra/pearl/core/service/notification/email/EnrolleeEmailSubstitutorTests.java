@@ -13,6 +13,7 @@ import bio.terra.pearl.core.service.notification.NotificationContextInfo;
 import bio.terra.pearl.core.service.notification.substitutors.EnrolleeEmailSubstitutor;
 import bio.terra.pearl.core.service.rule.EnrolleeRuleData;
 import bio.terra.pearl.core.shared.ApplicationRoutingPaths;
+import java.util.Map;
 import org.apache.commons.text.StringSubstitutor;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
@@ -138,4 +139,21 @@ public class EnrolleeEmailSubstitutorTests extends BaseSpringBootTest {
         assertThat(replacer.replace("here's an image: <img src=\"${siteImageBaseUrl}/1/ourhealth-logo.png\"/>"),
                 equalTo("here's an image: <img src=\"https://irb.newstudy.org/api/public/portals/v1/foo/env/irb/siteImages/1/ourhealth-logo.png\"/>"));
     }
+
+    @Test
+    public void customMessagesAndOtherPropertiesAreReplaced() {
+        Profile profile = Profile.builder().givenName("tester").phoneNumber("555-1234").build();
+        Enrollee enrollee = Enrollee.builder().build();
+        EnrolleeRuleData ruleData = new EnrolleeRuleData(enrollee, profile);
+        PortalEnvironmentConfig portalEnvironmentConfig = PortalEnvironmentConfig.builder().build();
+        PortalEnvironment portalEnv = portalEnvironmentFactory.builder("customMessagesAndOtherPropertiesAreReplaced")
+                .portalEnvironmentConfig(portalEnvironmentConfig).environmentName(EnvironmentName.irb).build();
+        Portal portal = Portal.builder().build();
+        var contextInfo = new NotificationContextInfo(portal, portalEnv, portalEnvironmentConfig, null, null);
+        StringSubstitutor replacer = EnrolleeEmailSubstitutor.newSubstitutor(ruleData, contextInfo, routingPaths,
+                Map.of("note", "see you soon", "siteLink", "custom link"));
+        // custom messages, including ones overriding standard values, and properties without a dedicated accessor
+        assertThat(replacer.replace("${note} at ${siteLink}, ${profile.phoneNumber} (${portalEnv.environmentName})"),
+                equalTo("see you soon at custom link, 555-1234 (irb)"));
+    }
 }
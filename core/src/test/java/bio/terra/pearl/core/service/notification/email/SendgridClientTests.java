@@ -5,9 +5,14 @@ import bio.terra.pearl.core.model.notification.EmailTemplate;
 import bio.terra.pearl.core.service.notification.NotificationContextInfo;
 import bio.terra.pearl.core.service.notification.substitutors.AdminEmailSubstitutor;
 import bio.terra.pearl.core.shared.ApplicationRoutingPaths;
+import com.sendgrid.Content;
+import com.sendgrid.Email;
 import com.sendgrid.Mail;
+import java.util.List;
+import java.util.stream.Stream;
 import org.apache.commons.text.StringSubstitutor;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -45,4 +50,20 @@ public class SendgridClientTests extends BaseSpringBootTest {
     Mail devEmail = devSendgridClient.buildEmail(contextInfo, "foo@bar.com", "us@broad.org", substitutor);
     assertThat(devEmail.personalization.get(0).getTos().get(0).getEmail(), equalTo("developer@broad.org"));
   }
+
+  @Test
+  public void testCombine() {
+    SendgridClient sendgridClient = new SendgridClient(new MockEnvironment());
+    List<Mail> mails = Stream.of("a@test.com", "b@test.com", "c@test.com").map(toAddress ->
+        new Mail(new Email("us@broad.org"), "Hello", new Email(toAddress), new Content("text/html", "hi"))).toList();
+
+    Mail combined = sendgridClient.combine(mails);
+    assertThat(combined.getSubject(), equalTo("Hello"));
+    assertThat(combined.getFrom().getEmail(), equalTo("us@broad.org"));
+    assertThat(combined.getContent().get(0).getValue(), equalTo("hi"));
+    // a personalization per recipient, so they don't see each other
+    assertThat(combined.getPersonalization().stream()
+        .map(personalization -> personalization.getTos().get(0).getEmail()).toList(),
+        contains("a@test.com", "b@test.com", "c@test.com"));
+  }
 }
@@ -0,0 +1,65 @@
+package bio.terra.pearl.core.service.notification.email;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A local stand-in for SendGrid's mail/send API, for load testing email delivery without sending real emails.
+ * Accepts every request after the given latency, and counts the requests and recipients.  Point a SendgridClient at
+ * it by setting env.email.sendgridHost to "localhost:" + getPort(), and env.email.sendgridApiKey to anything.
+ */
+public class SendgridStub implements AutoCloseable {
+    private final HttpServer server;
+    private final Duration latency;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong recipients = new AtomicLong();
+
+    public SendgridStub(Duration latency) throws IOException {
+        this.latency = latency;
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/v3/mail/send", this::handleSend);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    public long getRecipientCount() {
+        return recipients.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handleSend(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            JsonNode mail = objectMapper.readTree(body);
+            requests.incrementAndGet();
+            recipients.addAndGet(mail.get("personalizations").size());
+            Thread.sleep(latency.toMillis());
+            exchange.sendResponseHeaders(202, -1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exchange.sendResponseHeaders(503, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+}
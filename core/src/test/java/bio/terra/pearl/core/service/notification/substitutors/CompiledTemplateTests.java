@@ -0,0 +1,45 @@
+package bio.terra.pearl.core.service.notification.substitutors;
+
+import java.util.Map;
+import org.apache.commons.text.StringSubstitutor;
+import org.apache.commons.text.lookup.StringLookup;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class CompiledTemplateTests {
+    private final StringLookup lookup = Map.of("name", "tester", "greeting", "hi ${name}")::get;
+
+    @Test
+    public void testRendersLikeStringSubstitutor() {
+        StringSubstitutor substitutor = new StringSubstitutor(lookup);
+        String[] templates = {
+                "",
+                "no variables",
+                "${name}",
+                "hello ${name}, ${name}!",
+                "${greeting} again",
+                "${missing} stays",
+                "${missing:-fallback} and ${name:-unused}",
+                "escaped $${name} and unclosed ${name",
+                "$ and { and } on their own"
+        };
+        for (String template : templates) {
+            assertThat(template, CompiledTemplate.render(template, lookup), equalTo(substitutor.replace(template)));
+        }
+    }
+
+    @Test
+    public void testNullTemplate() {
+        assertThat(CompiledTemplate.render(null, lookup), nullValue());
+    }
+
+    @Test
+    public void testCompiledTemplatesAreCached() {
+        String template = "cached ${name}";
+        assertThat(CompiledTemplate.compile(template), sameInstance(CompiledTemplate.compile(template)));
+    }
+}
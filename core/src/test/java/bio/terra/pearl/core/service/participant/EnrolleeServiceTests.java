@@ -10,6 +10,7 @@ import bio.terra.pearl.core.model.participant.Enrollee;
 import bio.terra.pearl.core.model.portal.PortalEnvironment;
 import bio.terra.pearl.core.model.study.StudyEnvironment;
 import bio.terra.pearl.core.service.CascadeProperty;
+import java.util.List;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import org.junit.jupiter.api.Assertions;
@@ -60,4 +61,35 @@ public class EnrolleeServiceTests extends BaseSpringBootTest {
         });
         assertThat(enrolleeService.find(enrolleeBundle.enrollee().getId()).isPresent(), equalTo(true));
     }
+
+    @Test
+    @Transactional
+    public void testDeleteByStudyEnvironment() {
+        PortalEnvironment portalEnv = portalEnvironmentFactory.buildPersisted("testDeleteByStudyEnvironment", EnvironmentName.irb);
+        StudyEnvironment studyEnv = studyEnvironmentFactory.buildPersisted(portalEnv, "testDeleteByStudyEnvironment");
+        StudyEnvironment otherStudyEnv = studyEnvironmentFactory.buildPersisted(portalEnv, "testDeleteByStudyEnvironment");
+        var enrolleeBundle = enrolleeFactory.buildWithPortalUser("testDeleteByStudyEnvironment", portalEnv, studyEnv);
+        var enrolleeBundle2 = enrolleeFactory.buildWithPortalUser("testDeleteByStudyEnvironment", portalEnv, studyEnv);
+        var otherEnrolleeBundle = enrolleeFactory.buildWithPortalUser("testDeleteByStudyEnvironment", portalEnv, otherStudyEnv);
+
+        enrolleeService.deleteByStudyEnvironmentId(studyEnv.getId(), CascadeProperty.EMPTY_SET);
+        assertThat(enrolleeService.find(enrolleeBundle.enrollee().getId()).isPresent(), equalTo(false));
+        assertThat(enrolleeService.find(enrolleeBundle2.enrollee().getId()).isPresent(), equalTo(false));
+        assertThat(enrolleeService.find(otherEnrolleeBundle.enrollee().getId()).isPresent(), equalTo(true));
+    }
+
+    @Test
+    @Transactional
+    public void testBulkDeleteCannotDeleteLive() {
+        PortalEnvironment portalEnv = portalEnvironmentFactory.buildPersisted("testBulkDeleteCannotDeleteLive", EnvironmentName.live);
+        StudyEnvironment studyEnv = studyEnvironmentFactory.buildPersisted(portalEnv, "testBulkDeleteCannotDeleteLive");
+        var enrolleeBundle = enrolleeFactory.buildWithPortalUser("testBulkDeleteCannotDeleteLive", portalEnv, studyEnv);
+        var enrolleeBundle2 = enrolleeFactory.buildWithPortalUser("testBulkDeleteCannotDeleteLive", portalEnv, studyEnv);
+
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> {
+            enrolleeService.bulkDelete(List.of(enrolleeBundle.enrollee(), enrolleeBundle2.enrollee()), CascadeProperty.EMPTY_SET);
+        });
+        assertThat(enrolleeService.find(enrolleeBundle.enrollee().getId()).isPresent(), equalTo(true));
+        assertThat(enrolleeService.find(enrolleeBundle2.enrollee().getId()).isPresent(), equalTo(true));
+    }
 }
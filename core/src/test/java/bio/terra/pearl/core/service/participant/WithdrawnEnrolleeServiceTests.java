@@ -1,10 +1,19 @@
 package bio.terra.pearl.core.service.participant;
 
 import bio.terra.pearl.core.BaseSpringBootTest;
+import bio.terra.pearl.core.dao.metrics.MetricName;
+import bio.terra.pearl.core.dao.metrics.MetricsDao;
 import bio.terra.pearl.core.factory.DaoTestUtils;
+import bio.terra.pearl.core.factory.StudyEnvironmentFactory;
 import bio.terra.pearl.core.factory.participant.EnrolleeFactory;
+import bio.terra.pearl.core.model.metrics.BucketedMetricDatum;
+import bio.terra.pearl.core.model.metrics.MetricBucket;
+import bio.terra.pearl.core.model.metrics.TimeRange;
 import bio.terra.pearl.core.model.participant.Enrollee;
 import bio.terra.pearl.core.model.participant.WithdrawnEnrollee;
+import bio.terra.pearl.core.model.study.StudyEnvironment;
+import java.time.Duration;
+import java.time.Instant;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import org.junit.jupiter.api.Test;
@@ -18,6 +27,10 @@ public class WithdrawnEnrolleeServiceTests extends BaseSpringBootTest {
   private EnrolleeService enrolleeService;
   @Autowired
   private WithdrawnEnrolleeService withdrawnEnrolleeService;
+  @Autowired
+  private StudyEnvironmentFactory studyEnvironmentFactory;
+  @Autowired
+  private MetricsDao metricsDao;
 
   @Test
   @Transactional
@@ -31,4 +44,27 @@ public class WithdrawnEnrolleeServiceTests extends BaseSpringBootTest {
     assertThat(withdrawnEnrolleeService.find(withdrawnEnrollee.getId()).isPresent(), equalTo(true));
     assertThat(withdrawnEnrolleeService.isWithdrawn(enrollee.getShortcode()), equalTo(true));
   }
+
+  @Test
+  @Transactional
+  public void testWithdrawRecountsMetrics() throws Exception {
+    StudyEnvironment studyEnvironment = studyEnvironmentFactory.buildPersisted("testWithdrawRecountsMetrics");
+    Instant fourDaysAgo = Instant.now().minus(Duration.ofDays(4));
+    // the enrollees are created well before the refresh, so they are counted by the rollup rather than live
+    Enrollee enrollee = enrolleeFactory.buildPersisted((Enrollee.EnrolleeBuilder) enrolleeFactory
+        .builderWithDependencies("testWithdrawRecountsMetrics", studyEnvironment).createdAt(fourDaysAgo));
+    enrolleeFactory.buildPersisted((Enrollee.EnrolleeBuilder) enrolleeFactory
+        .builderWithDependencies("testWithdrawRecountsMetrics", studyEnvironment).createdAt(fourDaysAgo));
+    metricsDao.refreshRollup(MetricName.STUDY_ENROLLMENT, Instant.now());
+    assertThat(countEnrollments(studyEnvironment), equalTo(2L));
+
+    withdrawnEnrolleeService.withdrawEnrollee(enrollee);
+    assertThat(countEnrollments(studyEnvironment), equalTo(1L));
+  }
+
+  private long countEnrollments(StudyEnvironment studyEnvironment) {
+    return metricsDao.bucketedCounts(MetricName.STUDY_ENROLLMENT, studyEnvironment.getId(), MetricBucket.DAY,
+            new TimeRange(null, null))
+        .stream().mapToLong(BucketedMetricDatum::getCount).sum();
+  }
 }
@@ -0,0 +1,103 @@
+package bio.terra.pearl.core.service.rule;
+
+import bio.terra.pearl.core.model.participant.Enrollee;
+import bio.terra.pearl.core.model.participant.MailingAddress;
+import bio.terra.pearl.core.model.participant.Profile;
+import java.time.LocalDate;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsSame.sameInstance;
+
+public class EnrolleeRuleParserTests {
+    private final EnrolleeRuleData ruleData = new EnrolleeRuleData(
+            Enrollee.builder().shortcode("ABCDEF").consented(true).build(),
+            Profile.builder()
+                    .sexAtBirth("female")
+                    .birthDate(LocalDate.parse("1980-06-15"))
+                    .mailingAddress(MailingAddress.builder().state("MA").country("US").build())
+                    .build());
+
+    private boolean evaluate(String rule) {
+        return EnrolleeRuleParser.parse(rule).test(ruleData);
+    }
+
+    @Test
+    public void testEquality() {
+        assertThat(evaluate("{profile.sexAtBirth} = 'female'"), equalTo(true));
+        assertThat(evaluate("{profile.sexAtBirth} == \"male\""), equalTo(false));
+        assertThat(evaluate("{profile.sexAtBirth} != 'male'"), equalTo(true));
+        assertThat(evaluate("{profile.givenName} = null"), equalTo(true));
+        assertThat(evaluate("{enrollee.consented} = true"), equalTo(true));
+        assertThat(evaluate("{profile.doNotEmail} = true"), equalTo(false));
+    }
+
+    @Test
+    public void testBooleanVariable() {
+        assertThat(evaluate("{enrollee.consented}"), equalTo(true));
+        assertThat(evaluate("!{enrollee.consented}"), equalTo(false));
+        assertThat(evaluate("not {profile.doNotEmail}"), equalTo(true));
+    }
+
+    @Test
+    public void testOrdering() {
+        assertThat(evaluate("{profile.birthDate} < '1990-01-01'"), equalTo(true));
+        assertThat(evaluate("{profile.birthDate} >= '1980-06-15'"), equalTo(true));
+        assertThat(evaluate("{profile.birthDate} > '1980-06-15'"), equalTo(false));
+        assertThat(evaluate("{profile.mailingAddress.state} <= 'MA'"), equalTo(true));
+        // missing values never satisfy an ordering
+        assertThat(evaluate("{profile.familyName} < 'Z'"), equalTo(false));
+    }
+
+    @Test
+    public void testContains() {
+        assertThat(evaluate("{enrollee.shortcode} contains 'CDE'"), equalTo(true));
+        assertThat(evaluate("{profile.familyName} contains 'x'"), equalTo(false));
+    }
+
+    @Test
+    public void testBooleanOperators() {
+        assertThat(evaluate("{profile.sexAtBirth} = 'female' && {profile.mailingAddress.state} = 'NY'"),
+                equalTo(false));
+        assertThat(evaluate("{profile.sexAtBirth} = 'female' and ({profile.mailingAddress.state} = 'NY' " +
+                "or {profile.mailingAddress.country} = 'US')"), equalTo(true));
+        // && binds more tightly than ||
+        assertThat(evaluate("{enrollee.consented} || {profile.doNotEmail} && {profile.doNotEmail}"),
+                equalTo(true));
+        assertThat(evaluate("!({enrollee.consented} || {profile.doNotEmail})"), equalTo(false));
+    }
+
+    @Test
+    public void testMissingProfile() {
+        EnrolleeRuleData noProfile = new EnrolleeRuleData(Enrollee.builder().build(), null);
+        assertThat(EnrolleeRuleParser.parse("{profile.mailingAddress.state} = 'MA'").test(noProfile),
+                equalTo(false));
+        assertThat(EnrolleeRuleParser.parse("{profile.sexAtBirth} = null").test(noProfile), equalTo(true));
+    }
+
+    @Test
+    public void testInvalidRules() {
+        Assertions.assertThrows(RuleParsingException.class, () -> EnrolleeRuleParser.parse("{profile.foo} = 'x'"));
+        Assertions.assertThrows(RuleParsingException.class, () -> EnrolleeRuleParser.parse("{profile.sexAtBirth}"));
+        Assertions.assertThrows(RuleParsingException.class,
+                () -> EnrolleeRuleParser.parse("{profile.sexAtBirth} = 'female' &&"));
+        Assertions.assertThrows(RuleParsingException.class,
+                () -> EnrolleeRuleParser.parse("{profile.birthDate} < 'yesterday'"));
+        Assertions.assertThrows(RuleParsingException.class,
+                () -> EnrolleeRuleParser.parse("{enrollee.consented} = 'yes'"));
+        Assertions.assertThrows(RuleParsingException.class,
+                () -> EnrolleeRuleParser.parse("({enrollee.consented}"));
+        Assertions.assertThrows(RuleParsingException.class,
+                () -> EnrolleeRuleParser.parse("{profile.sexAtBirth} = 'female"));
+    }
+
+    @Test
+    public void testEvaluatorCachesAndHandlesEmptyAndInvalidRules() {
+        String rule = "{profile.sexAtBirth} = 'female'";
+        assertThat(RuleEvaluator.compile(rule), sameInstance(RuleEvaluator.compile(rule)));
+        assertThat(RuleEvaluator.evaluateEnrolleeRule(null, ruleData), equalTo(true));
+        assertThat(RuleEvaluator.evaluateEnrolleeRule(" ", ruleData), equalTo(true));
+        assertThat(RuleEvaluator.evaluateEnrolleeRule("{profile.foo} = 'x'", ruleData), equalTo(false));
+    }
+}
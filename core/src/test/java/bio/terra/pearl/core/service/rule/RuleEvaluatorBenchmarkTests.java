@@ -0,0 +1,81 @@
+package bio.terra.pearl.core.service.rule;
+
+import bio.terra.pearl.core.BenchmarkTest;
+import bio.terra.pearl.core.model.participant.Enrollee;
+import bio.terra.pearl.core.model.participant.MailingAddress;
+import bio.terra.pearl.core.model.participant.Profile;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+
+/**
+ * Evaluates thousands of rules against thousands of enrollees, as the notification and reminder loops do, and
+ * compares evaluating compiled rules against parsing each rule every time.  Run with `./gradlew benchmark` -- the
+ * timings are printed.
+ */
+public class RuleEvaluatorBenchmarkTests {
+    private static final int RULE_COUNT = 2000;
+    private static final int ENROLLEE_COUNT = 2000;
+    private static final String[] STATES = {"MA", "NY", "CA", "TX", "WA"};
+    private static final String[] SEXES = {"female", "male", "intersex"};
+
+    @BenchmarkTest
+    public void benchmarkRuleEvaluation() {
+        // seeded, so that runs are comparable
+        Random random = new Random(1234);
+        List<String> rules = new ArrayList<>();
+        for (int i = 0; i < RULE_COUNT; i++) {
+            rules.add("({profile.sexAtBirth} = '%s' || {profile.mailingAddress.state} = '%s') && {enrollee.consented} && {profile.birthDate} < '%s'"
+                    .formatted(SEXES[random.nextInt(SEXES.length)], STATES[random.nextInt(STATES.length)],
+                            LocalDate.of(1950 + random.nextInt(50), 1, 1)));
+        }
+        List<EnrolleeRuleData> enrollees = new ArrayList<>();
+        for (int i = 0; i < ENROLLEE_COUNT; i++) {
+            Profile profile = Profile.builder()
+                    .sexAtBirth(SEXES[random.nextInt(SEXES.length)])
+                    .birthDate(LocalDate.of(1940 + random.nextInt(60), 1 + random.nextInt(12), 1))
+                    .mailingAddress(MailingAddress.builder().state(STATES[random.nextInt(STATES.length)]).build())
+                    .build();
+            enrollees.add(new EnrolleeRuleData(Enrollee.builder().consented(random.nextBoolean()).build(), profile));
+        }
+
+        // warm up both paths, so the JIT has compiled them before timing
+        countMatches(rules.subList(0, 100), enrollees, true);
+        countMatches(rules.subList(0, 100), enrollees.subList(0, 100), false);
+
+        long start = System.nanoTime();
+        long compiledMatches = countMatches(rules, enrollees, true);
+        long compiledNanos = System.nanoTime() - start;
+        // parsing every time is much slower, so only run a tenth of the enrollees
+        List<EnrolleeRuleData> parsedSample = enrollees.subList(0, ENROLLEE_COUNT / 10);
+        start = System.nanoTime();
+        countMatches(rules, parsedSample, false);
+        long parsedNanos = (System.nanoTime() - start) * 10;
+
+        long evaluations = (long) RULE_COUNT * ENROLLEE_COUNT;
+        System.out.printf("%d evaluations, %d matched%n", evaluations, compiledMatches);
+        System.out.printf("compiled and cached: %d ms (%d ns per evaluation)%n",
+                compiledNanos / 1_000_000, compiledNanos / evaluations);
+        System.out.printf("parsed every time (extrapolated): %d ms (%d ns per evaluation)%n",
+                parsedNanos / 1_000_000, parsedNanos / evaluations);
+        assertThat(compiledMatches, greaterThan(0L));
+    }
+
+    private long countMatches(List<String> rules, List<EnrolleeRuleData> enrollees, boolean useCache) {
+        long matches = 0;
+        for (String rule : rules) {
+            for (EnrolleeRuleData enrollee : enrollees) {
+                boolean matched = useCache
+                        ? RuleEvaluator.evaluateEnrolleeRule(rule, enrollee)
+                        : EnrolleeRuleParser.parse(rule).test(enrollee);
+                if (matched) {
+                    matches++;
+                }
+            }
+        }
+        return matches;
+    }
+}
@@ -12,7 +12,10 @@ import org.junit.jupiter.api.TestInfo;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -85,4 +88,51 @@ public class SiteImageServiceTests extends BaseSpringBootTest {
         SiteImage savedImage = siteImageService.create(image);
         assertThat(savedImage.getCleanFileName(), equalTo( SiteImageService.cleanFileName(dirtyFileName)));
     }
+
+    @Test
+    @Transactional
+    public void testFindContent() {
+        SiteImage image = siteImageFactory.builderWithDependencies("testFindContent")
+                .cleanFileName("testFindContent.png")
+                .data("pngData".getBytes()).build();
+        SiteImage savedImage = siteImageService.create(image);
+        SiteImageService.SiteImageContent content = siteImageService.findContent(savedImage.getPortalShortcode(),
+                savedImage.getCleanFileName(), savedImage.getVersion()).get();
+        assertThat(content.data(), equalTo("pngData".getBytes()));
+        assertThat(content.contentType(), equalTo("image/png"));
+        assertThat(content.gzippedData(), nullValue());
+        assertThat(content.etag(), startsWith("\""));
+        assertThat(siteImageService.findContent(savedImage.getPortalShortcode(),
+                savedImage.getCleanFileName(), savedImage.getVersion() + 1).isPresent(), equalTo(false));
+    }
+
+    @Test
+    public void testSvgContentPrecompressed() throws IOException {
+        String svg = "<svg xmlns=\"http://www.w3.org/2000/svg\">" + "<rect width=\"1\" height=\"1\"/>".repeat(50) + "</svg>";
+        SiteImage image = SiteImage.builder().cleanFileName("logo.svg").data(svg.getBytes()).build();
+        SiteImageService.SiteImageContent content = SiteImageService.toContent(image);
+        assertThat(content.contentType(), equalTo("image/svg+xml"));
+        assertThat(content.gzippedData().length, lessThan(content.data().length));
+        try (GZIPInputStream gzipStream = new GZIPInputStream(new ByteArrayInputStream(content.gzippedData()))) {
+            assertThat(gzipStream.readAllBytes(), equalTo(svg.getBytes()));
+        }
+        assertThat(content.gzippedEtag(), not(equalTo(content.etag())));
+    }
+
+    @Test
+    public void testAcceptsGzip() {
+        assertThat(SiteImageService.acceptsGzip("gzip, deflate, br"), equalTo(true));
+        assertThat(SiteImageService.acceptsGzip("br;q=1.0, gzip;q=0.8"), equalTo(true));
+        assertThat(SiteImageService.acceptsGzip("gzip;q=0, deflate"), equalTo(false));
+        assertThat(SiteImageService.acceptsGzip("gzip; q=0.0"), equalTo(false));
+        assertThat(SiteImageService.acceptsGzip("*"), equalTo(true));
+        assertThat(SiteImageService.acceptsGzip("*, gzip;q=0"), equalTo(false));
+        assertThat(SiteImageService.acceptsGzip("identity"), equalTo(false));
+        assertThat(SiteImageService.acceptsGzip(null), equalTo(false));
+    }
+
+    @Test
+    public void testIconContentType() {
+        assertThat(SiteImageService.getContentType("favicon.ico"), equalTo("image/x-icon"));
+    }
 }
@@ -1,21 +1,33 @@
 package bio.terra.pearl.populate;
 
+import bio.terra.pearl.core.model.EnvironmentName;
+import bio.terra.pearl.populate.service.SyntheticEnrolleeGenerator;
 import java.io.IOException;
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
 /**
- * CLI populator -- see the "run" method for argument descriptions.  this will no-op if no arguments are passed
+ * CLI populator -- see the "run" method for argument descriptions.  Since the admin api scans this package, this
+ * also runs on server startup, so it silently no-ops unless the first non-option argument is a populator command.
  */
 @SpringBootApplication(scanBasePackages = {"bio.terra.pearl.core", "bio.terra.pearl.populate"})
 public class PopulateCliApp
-        implements CommandLineRunner {
+        implements ApplicationRunner {
 
     private static Logger LOG = LoggerFactory
             .getLogger(PopulateCliApp.class);
+    private static final String SYNTHETIC_ENROLLEES_COMMAND = "synthetic-enrollees";
+
+    private SyntheticEnrolleeGenerator syntheticEnrolleeGenerator;
+
+    public PopulateCliApp(SyntheticEnrolleeGenerator syntheticEnrolleeGenerator) {
+        this.syntheticEnrolleeGenerator = syntheticEnrolleeGenerator;
+    }
 
     public static void main(String[] args) {
         LOG.info("STARTING APPLICATION - pearl populate cli");
@@ -23,8 +35,30 @@ public class PopulateCliApp
         LOG.info("APPLICATION FINISHED - pearl populate cli");
     }
 
+    /**
+     * supported commands (option arguments, e.g. --spring.profiles.active, are ignored):
+     *   synthetic-enrollees portalShortcode envName studyShortcode numEnrollees [seed]
+     *     generates synthetic enrollees for load testing, see SyntheticEnrolleeGenerator
+     */
     @Override
-    public void run(String... args) throws IOException {
+    public void run(ApplicationArguments applicationArgs) throws IOException {
+        List<String> args = applicationArgs.getNonOptionArgs();
+        if (args.isEmpty() || !SYNTHETIC_ENROLLEES_COMMAND.equals(args.get(0))) {
+            return;
+        }
         LOG.info("EXECUTING : command line populator");
+        if (args.size() == 5 || args.size() == 6) {
+            var specBuilder = SyntheticEnrolleeGenerator.GenerationSpec.builder()
+                    .numEnrollees(Integer.parseInt(args.get(4)));
+            if (args.size() == 6) {
+                specBuilder.seed(Long.parseLong(args.get(5)));
+            }
+            var stats = syntheticEnrolleeGenerator.generate(args.get(1), EnvironmentName.valueOf(args.get(2)),
+                    args.get(3), specBuilder.build());
+            LOG.info("Synthetic enrollees generated: {}", stats);
+        } else {
+            LOG.error("Unrecognized arguments -- usage: {} portalShortcode envName studyShortcode numEnrollees [seed]",
+                    SYNTHETIC_ENROLLEES_COMMAND);
+        }
     }
 }
@@ -80,6 +80,7 @@ public class ConsentFormPopulator extends BasePopulator<ConsentForm, ConsentForm
         // don't delete the form, since it may have other entities attached to it. Just mod the content
         existingObj.setContent(popDto.getContent());
         existingObj.setName(popDto.getName());
+        consentFormService.invalidateCached(existingObj.getId());
         return consentFormPopulateDao.update(existingObj);
     }
 
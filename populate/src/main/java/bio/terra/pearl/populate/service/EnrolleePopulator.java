@@ -393,9 +393,15 @@ public class EnrolleePopulator extends BasePopulator<Enrollee, EnrolleePopDto, S
     public void bulkPopulateEnrollees(String portalShortcode, EnvironmentName envName, String studyShortcode, List<String> usernamesToLink) {
         StudyPopulateContext context = new StudyPopulateContext("portals/" + portalShortcode + "/studies/" + studyShortcode + "/enrollees/seed.json", portalShortcode, studyShortcode, envName, new HashMap<>());
 
+        String fileString;
+        try {
+            fileString = filePopulateService.readFile(context.getRootFileName(), context);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to bulk populate enrollees due to error: " + e.getMessage());
+        }
         usernamesToLink.forEach(username -> {
             try {
-                String fileString = filePopulateService.readFile(context.getRootFileName(), context);
+                // parsed for each enrollee, since the dto is modified as it is populated
                 EnrolleePopDto popDto = objectMapper.readValue(fileString, getDtoClazz());
                 popDto.setLinkedUsername(username);
                 popDto.setConsented(PopulateUtils.randomBoolean(95)); //95% chance an enrollee will be consented
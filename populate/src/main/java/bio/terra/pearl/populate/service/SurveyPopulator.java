@@ -89,6 +89,7 @@ public class SurveyPopulator extends BasePopulator<Survey, SurveyPopDto, PortalP
         existingObj.setFooter(popDto.getFooter());
         existingObj.setPublishedVersion(popDto.getPublishedVersion());
         surveyPopulateDao.update(existingObj);
+        surveyService.invalidateCached(existingObj.getId());
         updateAnswerMappings(existingObj, popDto);
         surveyQuestionDefinitionDao.deleteBySurveyId(existingObj.getId());
         popDto.setId(existingObj.getId());
@@ -0,0 +1,452 @@
+package bio.terra.pearl.populate.service;
+
+import bio.terra.pearl.core.dao.kit.KitRequestDao;
+import bio.terra.pearl.core.dao.participant.EnrolleeDao;
+import bio.terra.pearl.core.dao.participant.MailingAddressDao;
+import bio.terra.pearl.core.dao.participant.ParticipantUserDao;
+import bio.terra.pearl.core.dao.participant.PortalParticipantUserDao;
+import bio.terra.pearl.core.dao.participant.ProfileDao;
+import bio.terra.pearl.core.dao.survey.AnswerDao;
+import bio.terra.pearl.core.dao.survey.SurveyQuestionDefinitionDao;
+import bio.terra.pearl.core.dao.survey.SurveyResponseDao;
+import bio.terra.pearl.core.dao.workflow.ParticipantTaskDao;
+import bio.terra.pearl.core.model.EnvironmentName;
+import bio.terra.pearl.core.model.kit.KitRequest;
+import bio.terra.pearl.core.model.kit.KitRequestStatus;
+import bio.terra.pearl.core.model.kit.KitType;
+import bio.terra.pearl.core.model.participant.Enrollee;
+import bio.terra.pearl.core.model.participant.MailingAddress;
+import bio.terra.pearl.core.model.participant.ParticipantUser;
+import bio.terra.pearl.core.model.participant.PortalParticipantUser;
+import bio.terra.pearl.core.model.participant.Profile;
+import bio.terra.pearl.core.model.portal.PortalEnvironment;
+import bio.terra.pearl.core.model.study.StudyEnvironment;
+import bio.terra.pearl.core.model.survey.Answer;
+import bio.terra.pearl.core.model.survey.AnswerType;
+import bio.terra.pearl.core.model.survey.StudyEnvironmentSurvey;
+import bio.terra.pearl.core.model.survey.SurveyQuestionDefinition;
+import bio.terra.pearl.core.model.survey.SurveyResponse;
+import bio.terra.pearl.core.model.workflow.ParticipantTask;
+import bio.terra.pearl.core.model.workflow.TaskStatus;
+import bio.terra.pearl.core.model.workflow.TaskType;
+import bio.terra.pearl.core.service.kit.KitRequestService;
+import bio.terra.pearl.core.service.kit.StudyEnvironmentKitTypeService;
+import bio.terra.pearl.core.service.metrics.MetricsRollupService;
+import bio.terra.pearl.core.service.portal.PortalEnvironmentService;
+import bio.terra.pearl.core.service.study.StudyEnvironmentService;
+import bio.terra.pearl.core.service.study.StudyEnvironmentSurveyService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static java.time.temporal.ChronoUnit.SECONDS;
+
+/**
+ * Generates large numbers of synthetic enrollees (with users, profiles, survey responses, answers, tasks, and kits)
+ * for load testing.  Unlike the seed-file populators, this doesn't go through the service layer -- rows are built
+ * in memory with pre-assigned ids and copied into each table, a batch of enrollees at a time.
+ *
+ * Generation is deterministic: each enrollee's data comes from a random seeded by the spec seed, the study
+ * environment id, and the enrollee's index, so the same seed produces the same ids, usernames, shortcodes and answers
+ * in a given environment (timestamps are relative to the time of generation), and different ones in any other.
+ * Generating twice into the same environment requires different seeds -- reusing one is rejected up front.
+ */
+@Service
+@Slf4j
+public class SyntheticEnrolleeGenerator {
+    private static final List<String> GIVEN_NAMES = List.of("Alex", "Jordan", "Sam", "Taylor", "Morgan", "Casey",
+            "Riley", "Jamie", "Avery", "Quinn", "Rowan", "Skyler");
+    private static final List<String> FAMILY_NAMES = List.of("Smith", "Garcia", "Nguyen", "Okafor", "Kowalski",
+            "Haddad", "Tanaka", "Silva", "Murphy", "Cohen", "Patel", "Larsen");
+    private static final List<String> CITIES = List.of("Boston", "Chicago", "Denver", "Atlanta", "Seattle", "Austin");
+    private static final List<String> STATES = List.of("MA", "IL", "CO", "GA", "WA", "TX");
+    private static final List<String> SEXES_AT_BIRTH = List.of("male", "female", "other");
+    private static final List<String> ANSWER_WORDS = List.of("yes", "no", "sometimes", "rarely", "often", "unsure");
+    private static final String SHORTCODE_PREFIX = "SY";
+
+    private final PortalEnvironmentService portalEnvironmentService;
+    private final StudyEnvironmentService studyEnvironmentService;
+    private final StudyEnvironmentSurveyService studyEnvironmentSurveyService;
+    private final StudyEnvironmentKitTypeService studyEnvironmentKitTypeService;
+    private final SurveyQuestionDefinitionDao surveyQuestionDefinitionDao;
+    private final MailingAddressDao mailingAddressDao;
+    private final ProfileDao profileDao;
+    private final ParticipantUserDao participantUserDao;
+    private final PortalParticipantUserDao portalParticipantUserDao;
+    private final EnrolleeDao enrolleeDao;
+    private final SurveyResponseDao surveyResponseDao;
+    private final AnswerDao answerDao;
+    private final ParticipantTaskDao participantTaskDao;
+    private final KitRequestDao kitRequestDao;
+    private final MetricsRollupService metricsRollupService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    public SyntheticEnrolleeGenerator(PortalEnvironmentService portalEnvironmentService,
+                                      StudyEnvironmentService studyEnvironmentService,
+                                      StudyEnvironmentSurveyService studyEnvironmentSurveyService,
+                                      StudyEnvironmentKitTypeService studyEnvironmentKitTypeService,
+                                      SurveyQuestionDefinitionDao surveyQuestionDefinitionDao,
+                                      MailingAddressDao mailingAddressDao, ProfileDao profileDao,
+                                      ParticipantUserDao participantUserDao,
+                                      PortalParticipantUserDao portalParticipantUserDao, EnrolleeDao enrolleeDao,
+                                      SurveyResponseDao surveyResponseDao, AnswerDao answerDao,
+                                      ParticipantTaskDao participantTaskDao, KitRequestDao kitRequestDao,
+                                      MetricsRollupService metricsRollupService, ObjectMapper objectMapper,
+                                      PlatformTransactionManager transactionManager) {
+        this.portalEnvironmentService = portalEnvironmentService;
+        this.studyEnvironmentService = studyEnvironmentService;
+        this.studyEnvironmentSurveyService = studyEnvironmentSurveyService;
+        this.studyEnvironmentKitTypeService = studyEnvironmentKitTypeService;
+        this.surveyQuestionDefinitionDao = surveyQuestionDefinitionDao;
+        this.mailingAddressDao = mailingAddressDao;
+        this.profileDao = profileDao;
+        this.participantUserDao = participantUserDao;
+        this.portalParticipantUserDao = portalParticipantUserDao;
+        this.enrolleeDao = enrolleeDao;
+        this.surveyResponseDao = surveyResponseDao;
+        this.answerDao = answerDao;
+        this.participantTaskDao = participantTaskDao;
+        this.kitRequestDao = kitRequestDao;
+        this.metricsRollupService = metricsRollupService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * generates spec.numEnrollees enrollees in the given study environment.  Each batch of enrollees is committed
+     * in its own transaction, so memory use is bounded by the batch size, and an interrupted run leaves complete
+     * enrollees behind.
+     */
+    public GenerationStats generate(String portalShortcode, EnvironmentName envName, String studyShortcode,
+                                    GenerationSpec spec) {
+        if (spec.getNumEnrollees() > maxEnrollees()) {
+            throw new IllegalArgumentException("Cannot generate more than %d enrollees".formatted(maxEnrollees()));
+        }
+        PortalEnvironment portalEnv = portalEnvironmentService.findOne(portalShortcode, envName).get();
+        StudyEnvironment studyEnv = studyEnvironmentService.findByStudy(studyShortcode, envName).get();
+        long environmentSeed = environmentSeed(spec.getSeed(), studyEnv.getId());
+        if (enrolleeDao.findOneByShortcode(shortcode(environmentSeed, 0)).isPresent()) {
+            throw new IllegalArgumentException("Seed %d has already been used in this study environment"
+                    .formatted(spec.getSeed()));
+        }
+        List<StudyEnvironmentSurvey> studyEnvSurveys = studyEnvironmentSurveyService
+                .findAllByStudyEnvIdWithSurvey(studyEnv.getId(), true);
+        Map<UUID, List<SurveyQuestionDefinition>> questionsBySurveyId = new HashMap<>();
+        for (StudyEnvironmentSurvey studyEnvSurvey : studyEnvSurveys) {
+            questionsBySurveyId.put(studyEnvSurvey.getSurveyId(),
+                    surveyQuestionDefinitionDao.findAllBySurveyId(studyEnvSurvey.getSurveyId()));
+        }
+        KitType kitType = null;
+        if (spec.getKitRequestsPerEnrollee() > 0) {
+            List<KitType> kitTypes = studyEnvironmentKitTypeService.findKitTypesByStudyEnvironmentId(studyEnv.getId());
+            if (kitTypes.isEmpty() || spec.getCreatingAdminUserId() == null) {
+                log.warn("Synthetic kit requests skipped: they need a study kit type and a creating admin user");
+            } else {
+                kitType = kitTypes.get(0);
+            }
+        }
+        GenerationContext context = new GenerationContext(spec, environmentSeed, portalEnv, studyEnv, studyEnvSurveys,
+                questionsBySurveyId, kitType, Instant.now());
+
+        long start = System.currentTimeMillis();
+        GenerationStats totals = new GenerationStats(0, 0, 0, 0, 0, 0);
+        for (int batchStart = 0; batchStart < spec.getNumEnrollees(); batchStart += spec.getBatchSize()) {
+            GenerationBatch batch = new GenerationBatch();
+            int batchEnd = Math.min(batchStart + spec.getBatchSize(), spec.getNumEnrollees());
+            for (int index = batchStart; index < batchEnd; index++) {
+                addEnrollee(batch, index, context);
+            }
+            transactionTemplate.executeWithoutResult(status -> insert(batch));
+            totals = totals.plus(batch);
+            log.info("Synthetic enrollees generated: {} of {}", batchEnd, spec.getNumEnrollees());
+        }
+        // rows are backdated, so the incremental metric rollups wouldn't pick them up
+        metricsRollupService.rebuildRollups(studyEnv.getId());
+        return totals.withDurationMs(System.currentTimeMillis() - start);
+    }
+
+    /** inserts in foreign key order */
+    private void insert(GenerationBatch batch) {
+        mailingAddressDao.bulkCopyWithIdSpecified(batch.mailingAddresses);
+        profileDao.bulkCopyWithIdSpecified(batch.profiles);
+        participantUserDao.bulkCopyWithIdSpecified(batch.participantUsers);
+        portalParticipantUserDao.bulkCopyWithIdSpecified(batch.portalParticipantUsers);
+        enrolleeDao.bulkCopyWithIdSpecified(batch.enrollees);
+        surveyResponseDao.bulkCopyWithIdSpecified(batch.surveyResponses);
+        answerDao.bulkCopyWithIdSpecified(batch.answers);
+        participantTaskDao.bulkCopyWithIdSpecified(batch.participantTasks);
+        kitRequestDao.bulkCopyWithIdSpecified(batch.kitRequests);
+    }
+
+    private void addEnrollee(GenerationBatch batch, int index, GenerationContext context) {
+        GenerationSpec spec = context.spec();
+        Random random = new Random(context.environmentSeed() * 1_000_003L + index);
+        Instant enrolledAt = context.generatedAt()
+                .minus(random.nextLong(Math.max(spec.getEnrollmentSpanDays(), 1) * 86400L), SECONDS);
+
+        MailingAddress mailingAddress = MailingAddress.builder()
+                .id(randomUuid(random))
+                .street1("%d Synthetic St".formatted(random.nextInt(1, 10000)))
+                .city(pick(random, CITIES))
+                .state(pick(random, STATES))
+                .postalCode("%05d".formatted(random.nextInt(100000)))
+                .country("US")
+                .createdAt(enrolledAt).lastUpdatedAt(enrolledAt)
+                .build();
+        String shortcode = shortcode(context.environmentSeed(), index);
+        String username = "synthetic.%s@test.com".formatted(shortcode.toLowerCase());
+        Profile profile = Profile.builder()
+                .id(randomUuid(random))
+                .givenName(pick(random, GIVEN_NAMES))
+                .familyName(pick(random, FAMILY_NAMES))
+                .mailingAddress(mailingAddress)
+                .mailingAddressId(mailingAddress.getId())
+                .contactEmail(username)
+                // never attempt to email these users
+                .doNotEmail(true)
+                .doNotEmailSolicit(true)
+                .birthDate(LocalDate.of(1930, 1, 1).plusDays(random.nextInt(365 * 75)))
+                .sexAtBirth(pick(random, SEXES_AT_BIRTH))
+                .createdAt(enrolledAt).lastUpdatedAt(enrolledAt)
+                .build();
+        ParticipantUser user = ParticipantUser.builder()
+                .id(randomUuid(random))
+                .username(username)
+                .environmentName(context.studyEnv().getEnvironmentName())
+                .lastLogin(enrolledAt)
+                .createdAt(enrolledAt).lastUpdatedAt(enrolledAt)
+                .build();
+        PortalParticipantUser ppUser = PortalParticipantUser.builder()
+                .id(randomUuid(random))
+                .participantUserId(user.getId())
+                .portalEnvironmentId(context.portalEnv().getId())
+                .profileId(profile.getId())
+                .createdAt(enrolledAt).lastUpdatedAt(enrolledAt)
+                .build();
+        Enrollee enrollee = Enrollee.builder()
+                .id(randomUuid(random))
+                .participantUserId(user.getId())
+                .profileId(profile.getId())
+                .studyEnvironmentId(context.studyEnv().getId())
+                .shortcode(shortcode)
+                .consented(random.nextInt(100) < spec.getPercentConsented())
+                .createdAt(enrolledAt).lastUpdatedAt(enrolledAt)
+                .build();
+        batch.mailingAddresses.add(mailingAddress);
+        batch.profiles.add(profile);
+        batch.participantUsers.add(user);
+        batch.portalParticipantUsers.add(ppUser);
+        batch.enrollees.add(enrollee);
+
+        int numResponses = Math.min(spec.getSurveyResponsesPerEnrollee(), context.studyEnvSurveys().size());
+        for (int i = 0; i < numResponses; i++) {
+            addSurveyResponse(batch, random, context.studyEnvSurveys().get(i), enrollee, ppUser, context);
+        }
+        if (context.kitType() != null) {
+            for (int i = 0; i < spec.getKitRequestsPerEnrollee(); i++) {
+                addKitRequest(batch, random, enrollee, profile, context);
+            }
+        }
+    }
+
+    private void addSurveyResponse(GenerationBatch batch, Random random, StudyEnvironmentSurvey studyEnvSurvey,
+                                   Enrollee enrollee, PortalParticipantUser ppUser, GenerationContext context) {
+        Instant respondedAt = randomTimeAfter(random, enrollee.getCreatedAt(), context.generatedAt());
+        boolean complete = random.nextInt(100) < 80;
+        SurveyResponse response = SurveyResponse.builder()
+                .id(randomUuid(random))
+                .enrolleeId(enrollee.getId())
+                .creatingParticipantUserId(enrollee.getParticipantUserId())
+                .surveyId(studyEnvSurvey.getSurveyId())
+                .complete(complete)
+                .createdAt(respondedAt).lastUpdatedAt(respondedAt)
+                .build();
+        batch.surveyResponses.add(response);
+
+        List<SurveyQuestionDefinition> questions = context.questionsBySurveyId().get(studyEnvSurvey.getSurveyId());
+        int numAnswers = Math.min(context.spec().getAnswersPerResponse(), questions.size());
+        for (int i = 0; i < numAnswers; i++) {
+            SurveyQuestionDefinition question = questions.get(i);
+            batch.answers.add(Answer.builder()
+                    .id(randomUuid(random))
+                    .creatingParticipantUserId(enrollee.getParticipantUserId())
+                    .surveyResponseId(response.getId())
+                    .enrolleeId(enrollee.getId())
+                    .questionStableId(question.getQuestionStableId())
+                    .surveyStableId(question.getSurveyStableId())
+                    .surveyVersion(question.getSurveyVersion())
+                    .answerType(AnswerType.STRING)
+                    .stringValue(pick(random, ANSWER_WORDS))
+                    .createdAt(respondedAt).lastUpdatedAt(respondedAt)
+                    .build());
+        }
+
+        batch.participantTasks.add(ParticipantTask.builder()
+                .id(randomUuid(random))
+                .taskType(TaskType.SURVEY)
+                .status(complete ? TaskStatus.COMPLETE : TaskStatus.IN_PROGRESS)
+                .completedAt(complete ? respondedAt : null)
+                .targetName(studyEnvSurvey.getSurvey().getName())
+                .targetStableId(studyEnvSurvey.getSurvey().getStableId())
+                .targetAssignedVersion(studyEnvSurvey.getSurvey().getVersion())
+                .taskOrder(studyEnvSurvey.getSurveyOrder())
+                .blocksHub(studyEnvSurvey.isRequired())
+                .studyEnvironmentId(enrollee.getStudyEnvironmentId())
+                .enrolleeId(enrollee.getId())
+                .portalParticipantUserId(ppUser.getId())
+                .surveyResponseId(response.getId())
+                .createdAt(enrollee.getCreatedAt()).lastUpdatedAt(respondedAt)
+                .build());
+    }
+
+    private void addKitRequest(GenerationBatch batch, Random random, Enrollee enrollee, Profile profile,
+                               GenerationContext context) {
+        Instant requestedAt = randomTimeAfter(random, enrollee.getCreatedAt(), context.generatedAt());
+        String sentToAddress;
+        try {
+            sentToAddress = objectMapper.writeValueAsString(KitRequestService.makePepperKitAddress(profile));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Unable to serialize synthetic kit address", e);
+        }
+        batch.kitRequests.add(KitRequest.builder()
+                .id(randomUuid(random))
+                .creatingAdminUserId(context.spec().getCreatingAdminUserId())
+                .enrolleeId(enrollee.getId())
+                .kitTypeId(context.kitType().getId())
+                .sentToAddress(sentToAddress)
+                .status(pick(random, List.of(KitRequestStatus.CREATED, KitRequestStatus.IN_PROGRESS,
+                        KitRequestStatus.COMPLETE)))
+                .createdAt(requestedAt).lastUpdatedAt(requestedAt)
+                .build());
+    }
+
+    /**
+     * the shortcode of the enrollee with the given index, when generating with the given seed into the study
+     * environment
+     */
+    public static String shortcode(long seed, UUID studyEnvironmentId, int index) {
+        return shortcode(environmentSeed(seed, studyEnvironmentId), index);
+    }
+
+    /**
+     * shortcodes encode the environment seed and index in letters, so they are unique across the enrollees of a
+     * generation run and don't collide with the randomly generated (6 letter) or seed-file shortcodes
+     */
+    private static String shortcode(long environmentSeed, int index) {
+        return SHORTCODE_PREFIX + toLetters(Math.floorMod(environmentSeed, 26L * 26 * 26 * 26 * 26 * 26), 6)
+                + toLetters(index, 5);
+    }
+
+    /** mixes the study environment id into the seed, so the same seed generates different data in each environment */
+    private static long environmentSeed(long seed, UUID studyEnvironmentId) {
+        long mixed = seed * 0x9E3779B97F4A7C15L ^ studyEnvironmentId.getMostSignificantBits()
+                ^ Long.rotateLeft(studyEnvironmentId.getLeastSignificantBits(), 32);
+        // finalize, as in SplitMix64, so nearby seeds and ids give unrelated values
+        mixed = (mixed ^ (mixed >>> 30)) * 0xBF58476D1CE4E5B9L;
+        mixed = (mixed ^ (mixed >>> 27)) * 0x94D049BB133111EBL;
+        return mixed ^ (mixed >>> 31);
+    }
+
+    private static long maxEnrollees() {
+        return 26L * 26 * 26 * 26 * 26;
+    }
+
+    private static String toLetters(long value, int length) {
+        char[] letters = new char[length];
+        for (int i = length - 1; i >= 0; i--) {
+            letters[i] = (char) ('A' + value % 26);
+            value /= 26;
+        }
+        return new String(letters);
+    }
+
+    /** a version 4 UUID, as UUID.randomUUID would give, but from the seeded random */
+    private static UUID randomUuid(Random random) {
+        long mostSigBits = (random.nextLong() & 0xffffffffffff0fffL) | 0x0000000000004000L;
+        long leastSigBits = (random.nextLong() & 0x3fffffffffffffffL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    private static Instant randomTimeAfter(Random random, Instant start, Instant end) {
+        long spanSeconds = Math.max(start.until(end, SECONDS), 1);
+        return start.plus(random.nextLong(spanSeconds), SECONDS);
+    }
+
+    private static <T> T pick(Random random, List<T> items) {
+        return items.get(random.nextInt(items.size()));
+    }
+
+    private record GenerationContext(GenerationSpec spec, long environmentSeed, PortalEnvironment portalEnv,
+                                     StudyEnvironment studyEnv,
+                                     List<StudyEnvironmentSurvey> studyEnvSurveys,
+                                     Map<UUID, List<SurveyQuestionDefinition>> questionsBySurveyId,
+                                     KitType kitType, Instant generatedAt) {}
+
+    /** the rows for a batch of enrollees */
+    private static class GenerationBatch {
+        private final List<MailingAddress> mailingAddresses = new ArrayList<>();
+        private final List<Profile> profiles = new ArrayList<>();
+        private final List<ParticipantUser> participantUsers = new ArrayList<>();
+        private final List<PortalParticipantUser> portalParticipantUsers = new ArrayList<>();
+        private final List<Enrollee> enrollees = new ArrayList<>();
+        private final List<SurveyResponse> surveyResponses = new ArrayList<>();
+        private final List<Answer> answers = new ArrayList<>();
+        private final List<ParticipantTask> participantTasks = new ArrayList<>();
+        private final List<KitRequest> kitRequests = new ArrayList<>();
+    }
+
+    /**
+     * volumes for synthetic generation.  Responses are made to the study's active surveys, in survey order, so
+     * surveyResponsesPerEnrollee is capped by the number of surveys, and answersPerResponse by the number of
+     * questions.  Kit requests need a kit type configured for the study, and an admin user to attribute them to.
+     */
+    @Getter
+    @Builder
+    public static class GenerationSpec {
+        private int numEnrollees;
+        @Builder.Default
+        private long seed = 1;
+        @Builder.Default
+        private int surveyResponsesPerEnrollee = 2;
+        @Builder.Default
+        private int answersPerResponse = 10;
+        @Builder.Default
+        private int kitRequestsPerEnrollee = 0;
+        @Builder.Default
+        private int percentConsented = 95;
+        @Builder.Default
+        private int enrollmentSpanDays = 365;
+        @Builder.Default
+        private int batchSize = 1000;
+        private UUID creatingAdminUserId;
+    }
+
+    public record GenerationStats(int numEnrollees, int numSurveyResponses, int numAnswers, int numParticipantTasks,
+                                  int numKitRequests, long durationMs) {
+        private GenerationStats plus(GenerationBatch batch) {
+            return new GenerationStats(numEnrollees + batch.enrollees.size(),
+                    numSurveyResponses + batch.surveyResponses.size(), numAnswers + batch.answers.size(),
+                    numParticipantTasks + batch.participantTasks.size(), numKitRequests + batch.kitRequests.size(),
+                    durationMs);
+        }
+
+        private GenerationStats withDurationMs(long durationMs) {
+            return new GenerationStats(numEnrollees, numSurveyResponses, numAnswers, numParticipantTasks,
+                    numKitRequests, durationMs);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package bio.terra.pearl.populate;
+
+import bio.terra.pearl.core.model.EnvironmentName;
+import bio.terra.pearl.core.model.participant.Enrollee;
+import bio.terra.pearl.core.model.study.StudyEnvironment;
+import bio.terra.pearl.populate.service.SyntheticEnrolleeGenerator;
+import bio.terra.pearl.populate.service.contexts.FilePopulateContext;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SyntheticEnrolleeGeneratorTest extends BasePopulatePortalsTest {
+    @Autowired
+    private SyntheticEnrolleeGenerator syntheticEnrolleeGenerator;
+
+    @Test
+    @Transactional
+    public void testGenerateSyntheticEnrollees() throws Exception {
+        setUpEnvironments();
+        portalPopulator.populate(new FilePopulateContext("portals/demo/portal.json"), true);
+        StudyEnvironment studyEnv = studyEnvironmentService.findByStudy("heartdemo", EnvironmentName.irb).get();
+        int existingCount = enrolleeService.countByStudyEnvironmentId(studyEnv.getId());
+
+        // a batch size that doesn't divide the number of enrollees, to check the last partial batch
+        SyntheticEnrolleeGenerator.GenerationSpec spec = SyntheticEnrolleeGenerator.GenerationSpec.builder()
+                .numEnrollees(25)
+                .seed(7)
+                .surveyResponsesPerEnrollee(1)
+                .answersPerResponse(3)
+                .batchSize(10)
+                .build();
+        SyntheticEnrolleeGenerator.GenerationStats stats = syntheticEnrolleeGenerator.generate("demo",
+                EnvironmentName.irb, "heartdemo", spec);
+
+        assertThat(stats.numEnrollees(), equalTo(25));
+        assertThat(stats.numSurveyResponses(), equalTo(stats.numParticipantTasks()));
+        assertThat(stats.numAnswers(), lessThanOrEqualTo(3 * stats.numSurveyResponses()));
+        assertThat(enrolleeService.countByStudyEnvironmentId(studyEnv.getId()), equalTo(existingCount + 25));
+        // shortcodes are derived from the seed, study environment and index
+        List<Enrollee> generated = enrolleeService.findAllByShortcodes(List.of(
+                SyntheticEnrolleeGenerator.shortcode(7, studyEnv.getId(), 0),
+                SyntheticEnrolleeGenerator.shortcode(7, studyEnv.getId(), 24)));
+        assertThat(generated, hasSize(2));
+        assertThat(SyntheticEnrolleeGenerator.shortcode(7, UUID.randomUUID(), 0),
+                not(equalTo(generated.get(0).getShortcode())));
+
+        // reusing the seed in the same environment would collide with the first run
+        assertThrows(IllegalArgumentException.class, () -> syntheticEnrolleeGenerator.generate("demo",
+                EnvironmentName.irb, "heartdemo", spec));
+    }
+}
@@ -0,0 +1,16 @@
+#!/bin/sh
+SERVER_NAME="localhost:8080"
+set -u
+
+# generates a specified number of synthetic enrollees for load testing in the given portal/env/study.
+# The same seed always produces the same enrollees, so use a new seed to add more to an environment
+
+# populate_enrollee_synthetic.sh ourhealth sandbox ourheart 100000 1
+
+# Fake access token for dbush@broadinstitute.org, generated by CurrentUnauthedUserService.generateFakeJwtToken
+ACCESS_TOKEN="eyJ0eXAiOiJKV1QiLCJhbGciOiJub25lIn0.eyJlbWFpbCI6ImRidXNoQGJyb2FkaW5zdGl0dXRlLm9yZyIsInRva2VuIjoiNzJjZDQyZTgtMWE0ZS00Nzg5LWFmODQtZDIwMDgxY2JlNWJjIn0."
+# uncomment the below line to use a real Azure B2C token  (needed for populating anywhere other than localhost)
+# ACCESS_TOKEN=$(az account get-access-token | jq -r .accessToken)
+curl -X POST -H "Authorization: Bearer $ACCESS_TOKEN" "$SERVER_NAME/api/internal/v1/populate/enrollee/$1/env/$2/study/$3/synthetic?numEnrollees=$4&seed=$5"
+
+echo ""
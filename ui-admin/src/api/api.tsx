@@ -303,12 +303,35 @@ export type VersionedConfigChange = {
   documentChange: VersionedEntityChange
 }
 
+export type EnrolleeSearchSort = {
+  field: 'createdAt' | 'shortcode' | 'givenName' | 'familyName' | 'lastLogin',
+  direction: 'asc' | 'desc'
+}
+
+export type EnrolleeSearchPage = {
+  results: EnrolleeSearchResult[],
+  nextCursor?: string
+}
+
 export type ExportOptions = {
   fileFormat: string,
   splitOptionsIntoColumns?: boolean,
   stableIdsForOptions?: boolean,
   onlyIncludeMostRecent?: boolean,
-  limit?: number
+  limit?: number,
+  parallelism?: number,
+  chunkSize?: number
+}
+
+export type ExportJob = {
+  id: string,
+  createdAt: number,
+  status: 'PENDING' | 'RUNNING' | 'COMPLETE' | 'FAILED' | 'EXPIRED',
+  fileFormat: string,
+  fileSize?: number,
+  startedAt?: number,
+  completedAt?: number,
+  errorMessage?: string
 }
 
 export type ExportData = {
@@ -318,10 +341,12 @@ export type ExportData = {
   valueMaps: Record<string, string>[]
 }
 
-export type BasicMetricDatum = {
+/** the number of events of a metric (and subcategory) in the time bucket starting at 'time' */
+export type BucketedMetricDatum = {
   time: number,
   name: string,
-  subcategory?: string
+  subcategory?: string,
+  count: number
 }
 
 export type DatasetDetails = {
@@ -690,6 +715,33 @@ export default {
     return await this.processJsonResponse(response)
   },
 
+  async searchEnrolleePage(portalShortcode: string, studyShortcode: string, envName: string,
+    facetValues: FacetValue[], sort: EnrolleeSearchSort, cursor?: string, pageSize?: number):
+    Promise<EnrolleeSearchPage> {
+    const searchParams = new URLSearchParams({
+      facets: facetValuesToString(facetValues),
+      sortField: sort.field,
+      sortDir: sort.direction
+    })
+    if (cursor) {
+      searchParams.set('cursor', cursor)
+    }
+    if (pageSize) {
+      searchParams.set('pageSize', pageSize.toString())
+    }
+    const url =`${baseStudyEnvUrl(portalShortcode, studyShortcode, envName)}/enrolleePage?${searchParams.toString()}`
+    const response = await fetch(url, this.getGetInit())
+    return await this.processJsonResponse(response)
+  },
+
+  async countEnrollees(portalShortcode: string, studyShortcode: string, envName: string, facetValues: FacetValue[]):
+    Promise<number> {
+    const facetString = encodeURIComponent(facetValuesToString(facetValues))
+    const url =`${baseStudyEnvUrl(portalShortcode, studyShortcode, envName)}/enrolleeCount?facets=${facetString}`
+    const response = await fetch(url, this.getGetInit())
+    return await this.processJsonResponse(response)
+  },
+
   async getEnrollee(portalShortcode: string, studyShortcode: string, envName: string, enrolleeShortcode: string):
     Promise<Enrollee> {
     const url =`${baseStudyEnvUrl(portalShortcode, studyShortcode, envName)}/enrollees/${enrolleeShortcode}`
@@ -868,7 +920,7 @@ export default {
   },
 
   async fetchMetric(portalShortcode: string, studyShortcode: string, envName: string, metricName: string):
-    Promise<BasicMetricDatum[]> {
+    Promise<BucketedMetricDatum[]> {
     const url = `${baseStudyEnvUrl(portalShortcode, studyShortcode, envName)}/metrics/${metricName}`
     const response = await fetch(url,  this.getGetInit())
     return await this.processJsonResponse(response)
@@ -900,6 +952,30 @@ export default {
     return fetch(url,  this.getGetInit())
   },
 
+  async submitExportJob(portalShortcode: string, studyShortcode: string,
+    envName: string, exportOptions: ExportOptions): Promise<ExportJob> {
+    const url =`${baseStudyEnvUrl(portalShortcode, studyShortcode, envName)}/export/jobs`
+    const response = await fetch(url, {
+      method: 'POST',
+      headers: this.getInitHeaders(),
+      body: JSON.stringify(exportOptions)
+    })
+    return await this.processJsonResponse(response)
+  },
+
+  async getExportJob(portalShortcode: string, studyShortcode: string,
+    envName: string, jobId: string): Promise<ExportJob> {
+    const url =`${baseStudyEnvUrl(portalShortcode, studyShortcode, envName)}/export/jobs/${jobId}`
+    const response = await fetch(url, this.getGetInit())
+    return await this.processJsonResponse(response)
+  },
+
+  downloadExportJob(portalShortcode: string, studyShortcode: string,
+    envName: string, jobId: string): Promise<Response> {
+    const url =`${baseStudyEnvUrl(portalShortcode, studyShortcode, envName)}/export/jobs/${jobId}/download`
+    return fetch(url, this.getGetInit())
+  },
+
   async findNotificationConfig(portalShortcode: string, studyShortcode: string, envName: string, id: string):
 Promise<NotificationConfig> {
     const url =`${baseStudyEnvUrl(portalShortcode, studyShortcode, envName)}/notificationConfigs/${id}`
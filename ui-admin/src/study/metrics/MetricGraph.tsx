@@ -1,6 +1,6 @@
 import React, { useState } from 'react'
 import { StudyEnvContextT } from '../StudyEnvironmentRouter'
-import Api, { BasicMetricDatum } from 'api/api'
+import Api, { BucketedMetricDatum } from 'api/api'
 import LoadingSpinner from 'util/LoadingSpinner'
 import { cloneDeep } from 'lodash'
 import { MetricInfo } from './StudyEnvMetricsView'
@@ -11,12 +11,12 @@ import { useLoadingEffect } from 'api/api-utils'
 const EXPORT_DELIMITER = '\t'
 
 /**
- * Shows a plot for a specified metric.  Handles fetching the raw metrics from the server, transforming them to
- * plotly traces, and then rendering a graph
+ * Shows a plot for a specified metric.  Handles fetching the daily metric counts from the server, transforming them
+ * to plotly traces, and then rendering a graph
  */
 export default function MetricGraph({ studyEnvContext, metricInfo }: {studyEnvContext: StudyEnvContextT,
   metricInfo: MetricInfo}) {
-  const [metricData, setMetricData] = useState<BasicMetricDatum[] | null>(null)
+  const [metricData, setMetricData] = useState<BucketedMetricDatum[] | null>(null)
   const [plotlyTraces, setPlotlyTraces] = useState<PlotlyTimeTrace[] | null>(null)
 
   const { isLoading } = useLoadingEffect(async () => {
@@ -30,9 +30,10 @@ export default function MetricGraph({ studyEnvContext, metricInfo }: {studyEnvCo
     if (!metricData) {
       return
     }
-    let dataString = `${['name', 'subcategory', 'time'].join(EXPORT_DELIMITER)  }\n`
+    let dataString = `${['name', 'subcategory', 'time', 'count'].join(EXPORT_DELIMITER)  }\n`
     dataString += metricData.map(metricDatum =>
-      [metricInfo.name, metricDatum.subcategory, instantToDefaultString(metricDatum.time)].join(EXPORT_DELIMITER)
+      [metricInfo.name, metricDatum.subcategory, instantToDefaultString(metricDatum.time), metricDatum.count]
+        .join(EXPORT_DELIMITER)
     ).join('\n')
     navigator.clipboard.writeText(dataString)
   }
@@ -60,7 +61,6 @@ type PlotlyTimeTrace = {
   y: number[],
   type: string,
   name: string,
-  xbins: { size: number},
   yOffset: number
 }
 
@@ -68,17 +68,17 @@ const emptyTrace: PlotlyTimeTrace = {
   x: [],
   y: [],
   type: 'line',
-  xbins: { size: 86400000 }, // bin is one day -- eventually this should be changeable via dropdown
   name: 'trace',
   yOffset: 0
 }
 
 export const JITTER_AMOUNT = 0.05
 /**
- * transform the list of datapoints into plotly traces, one trace per subcategory.  Other than using a for-loop,
- * this is not performance optimized since we're assuming the size of the metrics[] in the near term will be <10000
+ * transform the list of bucket counts into plotly traces, one trace per subcategory.  The server returns one count
+ * per bucket, so the number of points depends on the time span of the study, not the number of enrollees
  * */
-export const makePlotlyTraces = (metrics: BasicMetricDatum[]): PlotlyTimeTrace[] => {
+export const makePlotlyTraces = (metrics: BucketedMetricDatum[]): PlotlyTimeTrace[] => {
+  const totalsByName: Record<string, number> = {}
   const tracesByName: Record<string, PlotlyTimeTrace> = {}
   for (let i = 0; i < metrics.length; i++) {
     const metric = metrics[i]
@@ -92,10 +92,12 @@ export const makePlotlyTraces = (metrics: BasicMetricDatum[]): PlotlyTimeTrace[]
         yOffset: Object.values(tracesByName).length * JITTER_AMOUNT
       }
       tracesByName[subcategory] = trace
+      totalsByName[subcategory] = 0
     }
+    totalsByName[subcategory] += metric.count
     trace.x.push(new Date(metric.time * 1000))
-    // since this is a cumulative graph, the y value is just the number of points so far, plus a jitter for visibility
-    trace.y.push(trace.x.length + trace.yOffset)
+    // since this is a cumulative graph, the y value is the total count so far, plus a jitter for visibility
+    trace.y.push(totalsByName[subcategory] + trace.yOffset)
   }
   return Object.values(tracesByName)
 }